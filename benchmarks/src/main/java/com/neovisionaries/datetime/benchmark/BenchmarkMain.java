@@ -0,0 +1,60 @@
+/*
+ * Copyright (C) 2012-2013 Neo Visionaries Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.neovisionaries.datetime.benchmark;
+
+
+import java.util.Arrays;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+
+/**
+ * Runs the benchmarks with the command line options of JMH.
+ *
+ * <p>
+ * The GC profiler ({@code -prof gc}) is added unless profilers are given,
+ * so that every result has the allocation rate in bytes per operation
+ * ({@code gc.alloc.rate.norm}) next to the throughput.
+ * </p>
+ *
+ * <pre>
+ * java -jar target/benchmarks.jar                      # all
+ * java -jar target/benchmarks.jar FormatBenchmark      # one class
+ * java -jar target/benchmarks.jar -rf json -rff result.json
+ * </pre>
+ *
+ * @author Takahiko Kawasaki
+ */
+public class BenchmarkMain
+{
+    public static void main(String[] args) throws RunnerException, CommandLineOptionException
+    {
+        CommandLineOptions options = new CommandLineOptions(args);
+        ChainedOptionsBuilder builder = new OptionsBuilder().parent(options);
+
+        if (options.getProfilers().isEmpty() && !Arrays.asList(args).contains("-lprof"))
+        {
+            builder.addProfiler(GCProfiler.class);
+        }
+
+        new Runner(builder.build()).run();
+    }
+}
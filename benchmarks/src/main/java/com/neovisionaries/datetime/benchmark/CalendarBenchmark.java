@@ -0,0 +1,193 @@
+/*
+ * Copyright (C) 2012-2013 Neo Visionaries Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.neovisionaries.datetime.benchmark;
+
+
+import java.time.Year;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Calendar;
+import java.util.Locale;
+import java.util.TimeZone;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import com.neovisionaries.datetime.GCalendar;
+
+
+/**
+ * {@code isLeap}, {@code changeTimeZoneOnly}, {@code setMidnight} and
+ * the {@code addXxx} and {@code rollXxx} families of {@link GCalendar},
+ * and their {@code java.time} equivalents.
+ *
+ * @author Takahiko Kawasaki
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class CalendarBenchmark
+{
+    @Param({ "YEAR", "MONTH", "DAY_OF_MONTH", "HOUR_OF_DAY", "MINUTE" })
+    public String field;
+
+
+    private TimeZone newYork;
+    private TimeZone tokyo;
+    private ZoneId tokyoId;
+    private GCalendar calendar;
+    private ZonedDateTime zonedDateTime;
+    private ChronoUnit unit;
+    private int year;
+
+
+    @Setup
+    public void setup()
+    {
+        newYork       = TimeZone.getTimeZone("America/New_York");
+        tokyo         = TimeZone.getTimeZone("Asia/Tokyo");
+        tokyoId       = ZoneId.of("Asia/Tokyo");
+        calendar      = new GCalendar(newYork, Locale.US, 2013, Calendar.MAY, 16, 12, 34, 56, 789);
+        zonedDateTime = ZonedDateTime.ofInstant(calendar.toInstant(), ZoneId.of("America/New_York"));
+        unit          = toUnit(field);
+    }
+
+
+    private static ChronoUnit toUnit(String field)
+    {
+        switch (field)
+        {
+            case "YEAR":         return ChronoUnit.YEARS;
+            case "MONTH":        return ChronoUnit.MONTHS;
+            case "DAY_OF_MONTH": return ChronoUnit.DAYS;
+            case "HOUR_OF_DAY":  return ChronoUnit.HOURS;
+            default:             return ChronoUnit.MINUTES;
+        }
+    }
+
+
+    @Benchmark
+    public boolean isLeap()
+    {
+        // Cycle through years so that the result is not a constant.
+        return GCalendar.isLeap(1900 + (year++ & 511));
+    }
+
+
+    @Benchmark
+    public boolean javaTimeIsLeap()
+    {
+        return Year.isLeap(1900 + (year++ & 511));
+    }
+
+
+    @Benchmark
+    public GCalendar changeTimeZoneOnly()
+    {
+        return calendar.changeTimeZoneOnly((calendar.getTimeZone() == tokyo) ? newYork : tokyo);
+    }
+
+
+    @Benchmark
+    public ZonedDateTime javaTimeWithZoneSameLocal()
+    {
+        return zonedDateTime.withZoneSameLocal(tokyoId);
+    }
+
+
+    @Benchmark
+    public GCalendar setMidnight()
+    {
+        calendar.addMillisecond(1);
+
+        return calendar.setMidnight();
+    }
+
+
+    @Benchmark
+    public long setMidnightTime()
+    {
+        // Include the recomputation of the time.
+        calendar.addMillisecond(1);
+
+        return calendar.setMidnight().getTimeInMillis();
+    }
+
+
+    @Benchmark
+    public ZonedDateTime javaTimeTruncatedToDays()
+    {
+        return zonedDateTime.truncatedTo(ChronoUnit.DAYS);
+    }
+
+
+    @Benchmark
+    public long add()
+    {
+        // Alternate the sign to stay in the same range of years.
+        int amount = ((year++ & 1) == 0) ? 1 : -1;
+
+        switch (field)
+        {
+            case "YEAR":         calendar.addYear(amount);       break;
+            case "MONTH":        calendar.addMonth(amount);      break;
+            case "DAY_OF_MONTH": calendar.addDayOfMonth(amount); break;
+            case "HOUR_OF_DAY":  calendar.addHourOfDay(amount);  break;
+            default:             calendar.addMinute(amount);     break;
+        }
+
+        return calendar.getTimeInMillis();
+    }
+
+
+    @Benchmark
+    public long roll()
+    {
+        int amount = ((year++ & 1) == 0) ? 1 : -1;
+
+        switch (field)
+        {
+            case "YEAR":         calendar.rollYear(amount);       break;
+            case "MONTH":        calendar.rollMonth(amount);      break;
+            case "DAY_OF_MONTH": calendar.rollDayOfMonth(amount); break;
+            case "HOUR_OF_DAY":  calendar.rollHourOfDay(amount);  break;
+            default:             calendar.rollMinute(amount);     break;
+        }
+
+        return calendar.getTimeInMillis();
+    }
+
+
+    @Benchmark
+    public ZonedDateTime javaTimePlus()
+    {
+        int amount = ((year++ & 1) == 0) ? 1 : -1;
+
+        return zonedDateTime = zonedDateTime.plus(amount, unit);
+    }
+}
@@ -0,0 +1,139 @@
+/*
+ * Copyright (C) 2012-2013 Neo Visionaries Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.neovisionaries.datetime.benchmark;
+
+
+import java.text.DateFormat;
+import java.text.SimpleDateFormat;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Locale;
+import java.util.TimeZone;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import com.neovisionaries.datetime.GCalendar;
+import com.neovisionaries.datetime.GFormat;
+import com.neovisionaries.datetime.ISO8601;
+
+
+/**
+ * Formatting of {@link GCalendar} and its {@code java.time} equivalents.
+ *
+ * @author Takahiko Kawasaki
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class FormatBenchmark
+{
+    private static final String PATTERN = "yyyy-MM-dd'T'HH:mm:ss.SSSZ";
+
+
+    private GCalendar calendar;
+    private DateFormat dateFormat;
+    private GFormat gformat;
+    private ZonedDateTime zonedDateTime;
+    private DateTimeFormatter formatter;
+
+
+    @Setup
+    public void setup()
+    {
+        TimeZone tz   = TimeZone.getTimeZone("America/New_York");
+        calendar      = new GCalendar(tz, Locale.US, 2013, 4, 16, 12, 34, 56, 789);
+        dateFormat    = new SimpleDateFormat(PATTERN, Locale.US);
+        dateFormat.setTimeZone(tz);
+        gformat       = GFormat.compile(PATTERN, Locale.US);
+        zonedDateTime = ZonedDateTime.ofInstant(calendar.toInstant(), ZoneId.of(tz.getID()));
+        formatter     = DateTimeFormatter.ofPattern(PATTERN, Locale.US);
+    }
+
+
+    @Benchmark
+    public String formatStringCalendar()
+    {
+        return GCalendar.format(PATTERN, calendar);
+    }
+
+
+    @Benchmark
+    public String formatString()
+    {
+        return calendar.format(PATTERN);
+    }
+
+
+    @Benchmark
+    public String formatDateFormatCalendar()
+    {
+        return GCalendar.format(dateFormat, calendar);
+    }
+
+
+    @Benchmark
+    public String formatDateFormat()
+    {
+        return calendar.format(dateFormat);
+    }
+
+
+    @Benchmark
+    public String formatGFormat()
+    {
+        return calendar.format(gformat);
+    }
+
+
+    @Benchmark
+    public String toISO8601()
+    {
+        return calendar.toISO8601();
+    }
+
+
+    @Benchmark
+    public String toISO8601Millis()
+    {
+        return calendar.toISO8601(ISO8601.MILLISECONDS);
+    }
+
+
+    @Benchmark
+    public String javaTimeFormatter()
+    {
+        return formatter.format(zonedDateTime);
+    }
+
+
+    @Benchmark
+    public String javaTimeOffsetDateTime()
+    {
+        return DateTimeFormatter.ISO_OFFSET_DATE_TIME.format(zonedDateTime);
+    }
+}
@@ -0,0 +1,166 @@
+/*
+ * Copyright (C) 2012-2013 Neo Visionaries Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.neovisionaries.datetime.benchmark;
+
+
+import java.text.DateFormat;
+import java.text.ParseException;
+import java.text.ParsePosition;
+import java.text.SimpleDateFormat;
+import java.time.OffsetDateTime;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import com.neovisionaries.datetime.GCalendar;
+import com.neovisionaries.datetime.GFormat;
+
+
+/**
+ * Every {@code parse} overload of {@link GCalendar} and its {@code
+ * java.time} equivalents.
+ *
+ * @author Takahiko Kawasaki
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class ParseBenchmark
+{
+    private static final String PATTERN = "yyyy-MM-dd'T'HH:mm:ss.SSSZ";
+    private static final String TEXT    = "2013-05-16T12:34:56.789-0400";
+    private static final String ISO     = "2013-05-16T12:34:56.789-04:00";
+
+
+    private DateFormat dateFormat;
+    private GFormat gformat;
+    private DateTimeFormatter formatter;
+    private GCalendar target;
+
+
+    @Setup
+    public void setup()
+    {
+        dateFormat = new SimpleDateFormat(PATTERN, Locale.US);
+        gformat    = GFormat.compile(PATTERN, Locale.US);
+        formatter  = DateTimeFormatter.ofPattern(PATTERN, Locale.US);
+        target     = new GCalendar();
+    }
+
+
+    @Benchmark
+    public GCalendar parseDateFormat() throws ParseException
+    {
+        return GCalendar.parse(dateFormat, TEXT);
+    }
+
+
+    @Benchmark
+    public GCalendar parseDateFormatPosition()
+    {
+        return GCalendar.parse(dateFormat, TEXT, new ParsePosition(0));
+    }
+
+
+    @Benchmark
+    public GCalendar parseString() throws ParseException
+    {
+        return GCalendar.parse(PATTERN, TEXT);
+    }
+
+
+    @Benchmark
+    public GCalendar parseStringPosition()
+    {
+        return GCalendar.parse(PATTERN, TEXT, new ParsePosition(0));
+    }
+
+
+    @Benchmark
+    public GCalendar parseGFormat() throws ParseException
+    {
+        return GCalendar.parse(gformat, TEXT);
+    }
+
+
+    @Benchmark
+    public GCalendar parseGFormatPosition()
+    {
+        return GCalendar.parse(gformat, TEXT, new ParsePosition(0));
+    }
+
+
+    @Benchmark
+    public boolean parseIntoDateFormat()
+    {
+        return GCalendar.parseInto(target, dateFormat, TEXT);
+    }
+
+
+    @Benchmark
+    public boolean parseIntoString()
+    {
+        return GCalendar.parseInto(target, PATTERN, TEXT);
+    }
+
+
+    @Benchmark
+    public boolean parseIntoGFormat()
+    {
+        return GCalendar.parseInto(target, gformat, TEXT);
+    }
+
+
+    @Benchmark
+    public GCalendar parseISO8601() throws ParseException
+    {
+        return GCalendar.parseISO8601(ISO);
+    }
+
+
+    @Benchmark
+    public GCalendar parseISO8601Position()
+    {
+        return GCalendar.parseISO8601(ISO, new ParsePosition(0));
+    }
+
+
+    @Benchmark
+    public ZonedDateTime javaTimeFormatter()
+    {
+        return ZonedDateTime.parse(TEXT, formatter);
+    }
+
+
+    @Benchmark
+    public OffsetDateTime javaTimeOffsetDateTime()
+    {
+        return OffsetDateTime.parse(ISO);
+    }
+}
@@ -0,0 +1,498 @@
+/*
+ * Copyright (C) 2012-2013 Neo Visionaries Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.neovisionaries.datetime.benchmark;
+
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadInfo;
+import java.lang.management.ThreadMXBean;
+import java.lang.reflect.Method;
+import java.text.FieldPosition;
+import java.text.ParsePosition;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TimeZone;
+import java.util.concurrent.CountDownLatch;
+import com.neovisionaries.datetime.GCalendar;
+import com.neovisionaries.datetime.GFormat;
+
+
+/**
+ * Measures how the throughput of the public {@link GCalendar} API scales
+ * with the number of threads that call it at the same time.
+ *
+ * <p>
+ * Single-thread speed is measured by the JMH benchmarks. This harness
+ * runs one workload on 1, 2, 4, ... threads, first on platform threads
+ * and then on virtual threads (when the JVM has them), and prints for
+ * each point the throughput, the scaling efficiency against one thread,
+ * the monitor contention, the GC activity and the allocation rate, and
+ * the monitor that threads were most often blocked on. Contention and
+ * allocation are only available for platform threads; use a JFR
+ * recording for virtual threads.
+ * </p>
+ *
+ * <pre>
+ * java -cp target/benchmarks.jar com.neovisionaries.datetime.benchmark.ScalingHarness \
+ *     [workload] [max threads] [seconds per point]
+ * </pre>
+ *
+ * <p>
+ * The default is every workload, up to 256 threads, 3 seconds per point.
+ * </p>
+ *
+ * @author Takahiko Kawasaki
+ */
+public class ScalingHarness
+{
+    private static final String PATTERN = "yyyy-MM-dd'T'HH:mm:ss.SSSZ";
+    private static final String TEXT    = "2013-05-16T12:34:56.789-0400";
+    private static final String ISO     = "2013-05-16T12:34:56.789-04:00";
+    private static final String[] ZONES = { "America/New_York", "Europe/London", "Asia/Tokyo", "Australia/Sydney" };
+
+
+    /**
+     * Operations called by the threads. Each thread has its own calendar,
+     * and shares everything else, like a request thread of a service.
+     */
+    enum Workload
+    {
+        FORMAT_STRING
+        {
+            @Override
+            Object run(GCalendar calendar, int i)
+            {
+                return GCalendar.format(PATTERN, calendar);
+            }
+        },
+
+        FORMAT_STRING_BUFFER
+        {
+            @Override
+            Object run(GCalendar calendar, int i)
+            {
+                return calendar.format(PATTERN, new StringBuffer(), new FieldPosition(0));
+            }
+        },
+
+        FORMAT_GFORMAT
+        {
+            @Override
+            Object run(GCalendar calendar, int i)
+            {
+                return calendar.format(GFORMAT);
+            }
+        },
+
+        TO_ISO8601
+        {
+            @Override
+            Object run(GCalendar calendar, int i)
+            {
+                return calendar.toISO8601();
+            }
+        },
+
+        PARSE_STRING
+        {
+            @Override
+            Object run(GCalendar calendar, int i)
+            {
+                return GCalendar.parse(PATTERN, TEXT, new ParsePosition(0));
+            }
+        },
+
+        PARSE_GFORMAT
+        {
+            @Override
+            Object run(GCalendar calendar, int i)
+            {
+                return GCalendar.parse(GFORMAT, TEXT, new ParsePosition(0));
+            }
+        },
+
+        PARSE_ISO8601
+        {
+            @Override
+            Object run(GCalendar calendar, int i)
+            {
+                return GCalendar.parseISO8601(ISO, new ParsePosition(0));
+            }
+        },
+
+        TIME_ZONE_LOOKUP
+        {
+            @Override
+            Object run(GCalendar calendar, int i)
+            {
+                // TimeZone.getTimeZone(String) and changeTimeZoneOnly.
+                return calendar.changeTimeZoneOnly(ZONES[i & 3]);
+            }
+        },
+
+        DEFAULT_CALENDAR
+        {
+            @Override
+            Object run(GCalendar calendar, int i)
+            {
+                // TimeZone.getDefault() and Locale.getDefault().
+                return new GCalendar();
+            }
+        };
+
+
+        abstract Object run(GCalendar calendar, int i);
+    }
+
+
+    private static final GFormat GFORMAT = GFormat.compile(PATTERN, Locale.US);
+
+
+    /**
+     * The result of one point of a curve.
+     */
+    private static final class Point
+    {
+        long operations;
+        long nanos;
+        long blockedCount;
+        long blockedMillis;
+        long gcCount;
+        long gcMillis;
+        long allocatedBytes;
+        String topLock;
+    }
+
+
+    /**
+     * A worker. The count is read after the worker stops.
+     */
+    private static final class Worker implements Runnable
+    {
+        private final Workload workload;
+        private final CountDownLatch start;
+        private volatile boolean running = true;
+        private volatile boolean measuring;
+        private long count;
+        private Object sink;
+
+
+        Worker(Workload workload, CountDownLatch start)
+        {
+            this.workload = workload;
+            this.start    = start;
+        }
+
+
+        @Override
+        public void run()
+        {
+            GCalendar calendar = new GCalendar(TimeZone.getTimeZone("America/New_York"), Locale.US,
+                    2013, Calendar.MAY, 16, 12, 34, 56, 789);
+
+            try
+            {
+                start.await();
+            }
+            catch (InterruptedException e)
+            {
+                return;
+            }
+
+            long n = 0;
+            int i = 0;
+
+            while (running)
+            {
+                sink = workload.run(calendar, i++);
+
+                if (measuring)
+                {
+                    ++n;
+                }
+            }
+
+            count = n;
+        }
+    }
+
+
+    public static void main(String[] args) throws Exception
+    {
+        List<Workload> workloads = new ArrayList<Workload>();
+        int maxThreads = 256;
+        int seconds    = 3;
+
+        if (args.length >= 1 && !args[0].equals("all"))
+        {
+            workloads.add(Workload.valueOf(args[0]));
+        }
+        else
+        {
+            for (Workload workload : Workload.values())
+            {
+                workloads.add(workload);
+            }
+        }
+
+        if (args.length >= 2)
+        {
+            maxThreads = Integer.parseInt(args[1]);
+        }
+
+        if (args.length >= 3)
+        {
+            seconds = Integer.parseInt(args[2]);
+        }
+
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+
+        if (threads.isThreadContentionMonitoringSupported())
+        {
+            threads.setThreadContentionMonitoringEnabled(true);
+        }
+
+        System.out.println("workload,threads,kind,ops/s,efficiency,blocked/s,blocked ms/s,gc/s,gc ms/s,alloc MB/s,top lock");
+
+        for (Workload workload : workloads)
+        {
+            for (boolean virtual : new boolean[] { false, true })
+            {
+                if (virtual && !hasVirtualThreads())
+                {
+                    System.out.println("# Virtual threads are not available on this JVM.");
+                    continue;
+                }
+
+                double single = 0;
+
+                for (int n = 1; n <= maxThreads; n *= 2)
+                {
+                    Point point = measure(workload, n, virtual, seconds, threads);
+                    double opsPerSecond = point.operations * 1e9 / point.nanos;
+
+                    if (n == 1)
+                    {
+                        single = opsPerSecond;
+                    }
+
+                    print(workload, n, virtual, point, opsPerSecond, opsPerSecond / (single * n));
+                }
+            }
+        }
+    }
+
+
+    private static Point measure(Workload workload, int n, boolean virtual, int seconds, ThreadMXBean mx) throws Exception
+    {
+        CountDownLatch start = new CountDownLatch(1);
+        Worker[] workers = new Worker[n];
+        Thread[] threads = new Thread[n];
+
+        for (int i = 0; i < n; ++i)
+        {
+            workers[i] = new Worker(workload, start);
+            threads[i] = newThread(workers[i], virtual);
+            threads[i].start();
+        }
+
+        start.countDown();
+
+        // Warm up for a second.
+        Thread.sleep(1000);
+
+        Point point = new Point();
+        long[] ids = virtual ? new long[0] : threadIds(threads);
+        ThreadInfo[] before = mx.getThreadInfo(ids);
+        long allocated = allocatedBytes(mx, ids);
+        long[] gc = gcTotals();
+        Map<String, Integer> locks = new HashMap<String, Integer>();
+
+        for (Worker worker : workers)
+        {
+            worker.measuring = true;
+        }
+
+        long begin = System.nanoTime();
+        long end = begin + seconds * 1000000000L;
+
+        // Sample the monitors that the threads are blocked on.
+        while (System.nanoTime() < end)
+        {
+            for (ThreadInfo info : mx.getThreadInfo(ids))
+            {
+                if (info != null && info.getThreadState() == Thread.State.BLOCKED && info.getLockName() != null)
+                {
+                    Integer count = locks.get(info.getLockName());
+                    locks.put(info.getLockName(), (count == null) ? 1 : count + 1);
+                }
+            }
+
+            Thread.sleep(10);
+        }
+
+        for (Worker worker : workers)
+        {
+            worker.measuring = false;
+        }
+
+        point.nanos = System.nanoTime() - begin;
+
+        ThreadInfo[] after = mx.getThreadInfo(ids);
+        point.allocatedBytes = allocatedBytes(mx, ids) - allocated;
+        long[] gcAfter = gcTotals();
+        point.gcCount  = gcAfter[0] - gc[0];
+        point.gcMillis = gcAfter[1] - gc[1];
+
+        for (int i = 0; i < ids.length; ++i)
+        {
+            if (before[i] != null && after[i] != null)
+            {
+                point.blockedCount  += after[i].getBlockedCount() - before[i].getBlockedCount();
+                point.blockedMillis += after[i].getBlockedTime() - before[i].getBlockedTime();
+            }
+        }
+
+        for (Worker worker : workers)
+        {
+            worker.running = false;
+        }
+
+        for (int i = 0; i < n; ++i)
+        {
+            threads[i].join();
+            point.operations += workers[i].count;
+        }
+
+        point.topLock = top(locks);
+
+        return point;
+    }
+
+
+    private static void print(Workload workload, int n, boolean virtual, Point point, double opsPerSecond, double efficiency)
+    {
+        double seconds = point.nanos / 1e9;
+
+        System.out.println(String.format(Locale.US, "%s,%d,%s,%.0f,%.2f,%s,%s,%.1f,%.1f,%s,%s",
+                workload, n, virtual ? "virtual" : "platform", opsPerSecond, efficiency,
+                virtual ? "n/a" : String.format(Locale.US, "%.0f", point.blockedCount / seconds),
+                virtual ? "n/a" : String.format(Locale.US, "%.0f", point.blockedMillis / seconds),
+                point.gcCount / seconds, point.gcMillis / seconds,
+                virtual ? "n/a" : String.format(Locale.US, "%.1f", point.allocatedBytes / seconds / 1048576),
+                (point.topLock != null) ? point.topLock : "-"));
+    }
+
+
+    private static long[] threadIds(Thread[] threads)
+    {
+        long[] ids = new long[threads.length];
+
+        for (int i = 0; i < threads.length; ++i)
+        {
+            ids[i] = threads[i].getId();
+        }
+
+        return ids;
+    }
+
+
+    private static long allocatedBytes(ThreadMXBean mx, long[] ids)
+    {
+        if (!(mx instanceof com.sun.management.ThreadMXBean) || ids.length == 0)
+        {
+            return 0;
+        }
+
+        long total = 0;
+
+        for (long bytes : ((com.sun.management.ThreadMXBean)mx).getThreadAllocatedBytes(ids))
+        {
+            total += Math.max(bytes, 0);
+        }
+
+        return total;
+    }
+
+
+    private static long[] gcTotals()
+    {
+        long count = 0;
+        long millis = 0;
+
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans())
+        {
+            count  += Math.max(gc.getCollectionCount(), 0);
+            millis += Math.max(gc.getCollectionTime(), 0);
+        }
+
+        return new long[] { count, millis };
+    }
+
+
+    private static String top(Map<String, Integer> locks)
+    {
+        String top = null;
+        int max = 0;
+
+        for (Map.Entry<String, Integer> entry : locks.entrySet())
+        {
+            if (max < entry.getValue())
+            {
+                top = entry.getKey();
+                max = entry.getValue();
+            }
+        }
+
+        return top;
+    }
+
+
+    private static boolean hasVirtualThreads()
+    {
+        try
+        {
+            Thread.class.getMethod("ofVirtual");
+            return true;
+        }
+        catch (NoSuchMethodException e)
+        {
+            return false;
+        }
+    }
+
+
+    private static Thread newThread(Runnable runnable, boolean virtual) throws Exception
+    {
+        if (!virtual)
+        {
+            Thread thread = new Thread(runnable);
+            thread.setDaemon(true);
+            return thread;
+        }
+
+        // Thread.ofVirtual().unstarted(runnable) without requiring Java 21 to build.
+        Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+        Method unstarted = Class.forName("java.lang.Thread$Builder").getMethod("unstarted", Runnable.class);
+
+        return (Thread)unstarted.invoke(builder, runnable);
+    }
+}
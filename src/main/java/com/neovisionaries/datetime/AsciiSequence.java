@@ -0,0 +1,83 @@
+/*
+ * Copyright (C) 2012-2013 Neo Visionaries Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.neovisionaries.datetime;
+
+
+import java.nio.ByteBuffer;
+
+
+/**
+ * A {@link CharSequence} view of the bytes of a {@link ByteBuffer},
+ * one byte per character (ISO-8859-1). Indexes are absolute indexes
+ * of the buffer. Nothing is copied.
+ *
+ * @since 1.4
+ *
+ * @author Takahiko Kawasaki
+ */
+final class AsciiSequence implements CharSequence
+{
+    private ByteBuffer buffer;
+
+
+    AsciiSequence wrap(ByteBuffer buffer)
+    {
+        this.buffer = buffer;
+
+        return this;
+    }
+
+
+    @Override
+    public int length()
+    {
+        return buffer.limit();
+    }
+
+
+    @Override
+    public char charAt(int index)
+    {
+        return (char)(buffer.get(index) & 0xFF);
+    }
+
+
+    @Override
+    public CharSequence subSequence(int start, int end)
+    {
+        return toString(start, end);
+    }
+
+
+    @Override
+    public String toString()
+    {
+        return toString(0, buffer.limit());
+    }
+
+
+    private String toString(int start, int end)
+    {
+        char[] chars = new char[end - start];
+
+        for (int i = start; i < end; ++i)
+        {
+            chars[i - start] = charAt(i);
+        }
+
+        return new String(chars);
+    }
+}
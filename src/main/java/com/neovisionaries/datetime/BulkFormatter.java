@@ -0,0 +1,632 @@
+/*
+ * Copyright (C) 2012-2013 Neo Visionaries Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.neovisionaries.datetime;
+
+
+import java.nio.Buffer;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.util.Calendar;
+import java.util.TimeZone;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+
+
+/**
+ * Formats many timestamps at a time into one buffer.
+ *
+ * <p>
+ * A {@code BulkFormatter} formats a range of a {@code long[]} of
+ * milliseconds since the epoch with either a {@link GFormat} or the
+ * {@link ISO8601} writer, writes all the results back to back into a
+ * {@link CharBuffer} (or a {@link ByteBuffer} as UTF-8), and sets the
+ * end offset of each result into an {@code int[]}. The result for
+ * {@code millis[from + k]} occupies {@code [ends[k - 1], ends[k])}
+ * relative to the buffer's position before the call, where {@code
+ * ends[-1]} is taken as 0.
+ * </p>
+ *
+ * <style type="text/css">
+ * span.keyword { color: purple; font-weight: bold; }
+ * span.comment { color: green; }
+ * span.string  { color: blue; }
+ * pre.code { background-color: #EEEEEE; margin-left: 2em; margin-right: 2em; border: 1px solid black; }
+ * </style>
+ *
+ * <pre class="code">
+ *
+ * BulkFormatter formatter = BulkFormatter.{@link #iso8601(TimeZone, int)
+ * iso8601}(TimeZone.getTimeZone(<span class="string">"UTC"</span>), ISO8601.{@link ISO8601#UTC_AS_Z UTC_AS_Z});
+ *
+ * CharBuffer out = CharBuffer.allocate(millis.length * ISO8601.{@link ISO8601#MAX_LENGTH MAX_LENGTH});
+ * <span class="keyword">int</span>[] ends = <span class="keyword">new int</span>[millis.length];
+ *
+ * formatter.{@link #format(long[], int, int, CharBuffer, int[]) format}(millis, 0, millis.length, out, ends);
+ * </pre>
+ *
+ * <p>
+ * Inputs of {@link #PARALLEL_THRESHOLD} or more timestamps are split into
+ * chunks that are formatted in parallel by the {@link ForkJoinPool#commonPool()
+ * common pool} unless {@link #withPool(ForkJoinPool) another pool} is given.
+ * ISO 8601 strings are ASCII, so they are written straight into the output
+ * buffer, each chunk into its own part. Instances are immutable and
+ * thread-safe.
+ * </p>
+ *
+ * @since 1.4
+ *
+ * @author Takahiko Kawasaki
+ */
+public final class BulkFormatter
+{
+    /**
+     * The minimum number of timestamps to format in parallel.
+     */
+    public static final int PARALLEL_THRESHOLD = 8192;
+
+
+    /**
+     * The number of timestamps in one parallel chunk.
+     */
+    private static final int CHUNK_SIZE = 4096;
+
+
+    /**
+     * The first and the last instants (exclusive) of the local time
+     * whose year is written with four digits by {@link ISO8601}.
+     */
+    private static final long FOUR_DIGIT_YEARS_FROM =
+        CalendarMath.toEpochDay(0, Calendar.JANUARY, 1) * CalendarMath.MILLIS_PER_DAY;
+    private static final long FOUR_DIGIT_YEARS_TO =
+        CalendarMath.toEpochDay(10000, Calendar.JANUARY, 1) * CalendarMath.MILLIS_PER_DAY;
+
+
+    private final GFormat format;
+    private final int isoOptions;
+    private final TimeZone timeZone;
+    private final ZoneOffsetIndex index;
+    private final ForkJoinPool pool;
+
+
+    private BulkFormatter(GFormat format, int isoOptions, TimeZone timeZone, ForkJoinPool pool)
+    {
+        this.format     = format;
+        this.isoOptions = isoOptions;
+        this.timeZone   = (TimeZone)timeZone.clone();
+        this.index      = (format == null) ? ZoneOffsetIndex.of(timeZone) : null;
+        this.pool       = pool;
+    }
+
+
+    /**
+     * Create a formatter that uses the given compiled format.
+     */
+    public static BulkFormatter of(GFormat format, TimeZone timeZone)
+    {
+        if (format == null)
+        {
+            throw new NullPointerException();
+        }
+
+        return new BulkFormatter(format, 0, timeZone, null);
+    }
+
+
+    /**
+     * Create a formatter that writes ISO 8601 strings.
+     *
+     * @param options
+     *         Options of {@link ISO8601#format(long, int, int, char[], int)}.
+     */
+    public static BulkFormatter iso8601(TimeZone timeZone, int options)
+    {
+        return new BulkFormatter(null, options, timeZone, null);
+    }
+
+
+    /**
+     * Get a formatter that is the same as this one except
+     * that it uses the given pool for parallel formatting.
+     */
+    public BulkFormatter withPool(ForkJoinPool pool)
+    {
+        return new BulkFormatter(format, isoOptions, timeZone, pool);
+    }
+
+
+    /**
+     * Format {@code millis[from]} to {@code millis[to - 1]} into the
+     * given buffer, starting at its position.
+     *
+     * @param millis
+     *         Milliseconds since the epoch.
+     *
+     * @param from
+     *         The first index in {@code millis} (inclusive).
+     *
+     * @param to
+     *         The last index in {@code millis} (exclusive).
+     *
+     * @param out
+     *         Output buffer. Its position is advanced.
+     *
+     * @param ends
+     *         Receives the end offset of each result, relative to the
+     *         position of {@code out} before the call. Its length must
+     *         be at least {@code to - from}.
+     *
+     * @return
+     *         The number of characters written.
+     *
+     * @throws BufferOverflowException
+     *         {@code out} does not have enough space. Nothing is written.
+     */
+    public int format(long[] millis, int from, int to, CharBuffer out, int[] ends)
+    {
+        if (format == null)
+        {
+            return formatISO8601(millis, from, to, out, ends);
+        }
+
+        Chunk[] chunks = render(millis, from, to, false);
+        int total = chunks[chunks.length - 1].base + chunks[chunks.length - 1].length;
+
+        if (out.remaining() < total)
+        {
+            throw new BufferOverflowException();
+        }
+
+        for (Chunk chunk : chunks)
+        {
+            chunk.copyEnds(ends);
+
+            if (out.hasArray())
+            {
+                chunk.text.getChars(0, chunk.length, out.array(), out.arrayOffset() + out.position());
+                out.position(out.position() + chunk.length);
+            }
+            else
+            {
+                for (int i = 0; i < chunk.length; ++i)
+                {
+                    out.put(chunk.text.charAt(i));
+                }
+            }
+        }
+
+        return total;
+    }
+
+
+    /**
+     * Format {@code millis[from]} to {@code millis[to - 1]} into the
+     * given buffer as UTF-8, starting at its position. The end offsets
+     * are in bytes.
+     *
+     * @return
+     *         The number of bytes written.
+     *
+     * @throws BufferOverflowException
+     *         {@code out} does not have enough space. Nothing is written.
+     *
+     * @see #format(long[], int, int, CharBuffer, int[])
+     */
+    public int format(long[] millis, int from, int to, ByteBuffer out, int[] ends)
+    {
+        if (format == null)
+        {
+            return formatISO8601(millis, from, to, out, ends);
+        }
+
+        Chunk[] chunks = render(millis, from, to, true);
+        int total = chunks[chunks.length - 1].base + chunks[chunks.length - 1].length;
+
+        if (out.remaining() < total)
+        {
+            throw new BufferOverflowException();
+        }
+
+        for (Chunk chunk : chunks)
+        {
+            chunk.copyEnds(ends);
+            out.put(chunk.bytes, 0, chunk.length);
+        }
+
+        return total;
+    }
+
+
+    private Chunk[] render(long[] millis, int from, int to, boolean utf8)
+    {
+        int nChunks = countChunks(millis, from, to);
+        Chunk[] chunks = new Chunk[nChunks];
+
+        for (int i = 0; i < nChunks; ++i)
+        {
+            int start = from + i * CHUNK_SIZE;
+            int end   = (i == nChunks - 1) ? to : start + CHUNK_SIZE;
+
+            chunks[i] = new Chunk(millis, start, end, from, utf8);
+        }
+
+        run(chunks);
+
+        // Offset of each chunk in the output.
+        for (int i = 1; i < nChunks; ++i)
+        {
+            chunks[i].base = chunks[i - 1].base + chunks[i - 1].length;
+        }
+
+        return chunks;
+    }
+
+
+    /**
+     * Format ISO 8601 strings straight into the output buffer. The
+     * lengths are measured first so that nothing is written when the
+     * buffer is too small, and then each chunk writes its own part.
+     */
+    private int formatISO8601(long[] millis, int from, int to, Buffer out, int[] ends)
+    {
+        int nChunks = countChunks(millis, from, to);
+        IsoChunk[] chunks = new IsoChunk[nChunks];
+
+        for (int i = 0; i < nChunks; ++i)
+        {
+            int start = from + i * CHUNK_SIZE;
+            int end   = (i == nChunks - 1) ? to : start + CHUNK_SIZE;
+
+            chunks[i] = new IsoChunk(millis, start, end, from);
+        }
+
+        // Measure.
+        run(chunks);
+
+        int total = 0;
+
+        for (IsoChunk chunk : chunks)
+        {
+            chunk.base = total;
+            total += chunk.length;
+        }
+
+        if (out.remaining() < total)
+        {
+            throw new BufferOverflowException();
+        }
+
+        // Write.
+        for (IsoChunk chunk : chunks)
+        {
+            chunk.out = out;
+            chunk.position = out.position() + chunk.base;
+            chunk.reinitialize();
+        }
+
+        run(chunks);
+
+        for (IsoChunk chunk : chunks)
+        {
+            chunk.copyEnds(ends);
+        }
+
+        out.position(out.position() + total);
+
+        return total;
+    }
+
+
+    private static int countChunks(long[] millis, int from, int to)
+    {
+        int count = to - from;
+
+        if (from < 0 || to > millis.length || count < 0)
+        {
+            throw new IndexOutOfBoundsException();
+        }
+
+        return (count < PARALLEL_THRESHOLD) ? 1 : (count + CHUNK_SIZE - 1) / CHUNK_SIZE;
+    }
+
+
+    private void run(final RecursiveAction[] chunks)
+    {
+        if (chunks.length == 1)
+        {
+            chunks[0].invoke();
+            return;
+        }
+
+        ForkJoinPool pool = (this.pool != null) ? this.pool : ForkJoinPool.commonPool();
+
+        pool.invoke(new RecursiveAction()
+        {
+            @Override
+            protected void compute()
+            {
+                ForkJoinTask.invokeAll(chunks);
+            }
+        });
+    }
+
+
+    /**
+     * Get the length of the ISO 8601 string of the given time.
+     */
+    private int lengthOf(long millis, int offset, char[] scratch)
+    {
+        long local = millis + offset;
+
+        if (local < FOUR_DIGIT_YEARS_FROM || FOUR_DIGIT_YEARS_TO <= local)
+        {
+            // A signed year.
+            return ISO8601.format(millis, offset, isoOptions, scratch, 0);
+        }
+
+        // "yyyy-MM-ddTHH:mm:ss"
+        int length = 19;
+
+        if ((isoOptions & ISO8601.MICROSECONDS) != 0)
+        {
+            length += 7;
+        }
+        else if ((isoOptions & ISO8601.MILLISECONDS) != 0)
+        {
+            length += 4;
+        }
+
+        // "Z" or "+hh:mm"
+        return length + ((offset / 60000 == 0 && (isoOptions & ISO8601.UTC_AS_Z) != 0) ? 1 : 6);
+    }
+
+
+    /**
+     * Formats a part of the input with the {@link GFormat} into its own
+     * buffer.
+     */
+    @SuppressWarnings("serial")
+    private final class Chunk extends RecursiveAction
+    {
+        private final long[] millis;
+        private final int start;
+        private final int end;
+        private final int from;
+        private final boolean utf8;
+        private final int[] lengths;
+        private StringBuilder text;
+        private byte[] bytes;
+        private int length;
+        private int base;
+
+
+        Chunk(long[] millis, int start, int end, int from, boolean utf8)
+        {
+            this.millis  = millis;
+            this.start   = start;
+            this.end     = end;
+            this.from    = from;
+            this.utf8    = utf8;
+            this.lengths = new int[end - start];
+        }
+
+
+        @Override
+        protected void compute()
+        {
+            text = new StringBuilder((end - start) * (format.getPattern().length() + 16));
+
+            for (int i = start; i < end; ++i)
+            {
+                format.format(millis[i], timeZone, text);
+                lengths[i - start] = text.length();
+            }
+
+            length = text.length();
+
+            if (utf8)
+            {
+                encode();
+            }
+        }
+
+
+        private void encode()
+        {
+            bytes = new byte[text.length() * 3];
+            int n = 0;
+            int k = 0;
+
+            for (int i = 0; i < text.length(); ++i)
+            {
+                char c = text.charAt(i);
+
+                if (c < 0x80)
+                {
+                    bytes[n++] = (byte)c;
+                }
+                else if (c < 0x800)
+                {
+                    bytes[n++] = (byte)(0xC0 | (c >> 6));
+                    bytes[n++] = (byte)(0x80 | (c & 0x3F));
+                }
+                else if (Character.isHighSurrogate(c) && i + 1 < text.length()
+                         && Character.isLowSurrogate(text.charAt(i + 1)))
+                {
+                    int cp = Character.toCodePoint(c, text.charAt(++i));
+                    bytes[n++] = (byte)(0xF0 | (cp >> 18));
+                    bytes[n++] = (byte)(0x80 | ((cp >> 12) & 0x3F));
+                    bytes[n++] = (byte)(0x80 | ((cp >> 6) & 0x3F));
+                    bytes[n++] = (byte)(0x80 | (cp & 0x3F));
+                }
+                else
+                {
+                    bytes[n++] = (byte)(0xE0 | (c >> 12));
+                    bytes[n++] = (byte)(0x80 | ((c >> 6) & 0x3F));
+                    bytes[n++] = (byte)(0x80 | (c & 0x3F));
+                }
+
+                // Convert the char offsets of the ends to byte offsets.
+                while (k < lengths.length && lengths[k] == i + 1)
+                {
+                    lengths[k++] = n;
+                }
+            }
+
+            length = n;
+        }
+
+
+        void copyEnds(int[] ends)
+        {
+            for (int i = 0; i < lengths.length; ++i)
+            {
+                ends[start - from + i] = base + lengths[i];
+            }
+        }
+    }
+
+
+    /**
+     * Measures the ISO 8601 strings of a part of the input when {@code out}
+     * is not set, and writes them into {@code out} from {@code position}
+     * when it is.
+     */
+    @SuppressWarnings("serial")
+    private final class IsoChunk extends RecursiveAction
+    {
+        private final long[] millis;
+        private final int start;
+        private final int end;
+        private final int from;
+        private final int[] lengths;
+        private int length;
+        private int base;
+        private Buffer out;
+        private int position;
+
+
+        IsoChunk(long[] millis, int start, int end, int from)
+        {
+            this.millis  = millis;
+            this.start   = start;
+            this.end     = end;
+            this.from    = from;
+            this.lengths = new int[end - start];
+        }
+
+
+        @Override
+        protected void compute()
+        {
+            char[] scratch = new char[ISO8601.MAX_LENGTH];
+
+            if (out == null)
+            {
+                measure(scratch);
+            }
+            else if (out instanceof CharBuffer)
+            {
+                write((CharBuffer)out, scratch);
+            }
+            else
+            {
+                write((ByteBuffer)out, scratch);
+            }
+        }
+
+
+        private void measure(char[] scratch)
+        {
+            for (int i = start; i < end; ++i)
+            {
+                length += lengthOf(millis[i], index.getOffset(millis[i]), scratch);
+                lengths[i - start] = length;
+            }
+        }
+
+
+        private void write(CharBuffer out, char[] scratch)
+        {
+            if (out.hasArray())
+            {
+                char[] array = out.array();
+                int p = out.arrayOffset() + position;
+
+                for (int i = start; i < end; ++i)
+                {
+                    p = ISO8601.format(millis[i], index.getOffset(millis[i]), isoOptions, array, p);
+                }
+
+                return;
+            }
+
+            CharBuffer part = out.duplicate();
+            part.position(position);
+
+            for (int i = start; i < end; ++i)
+            {
+                part.put(scratch, 0, ISO8601.format(millis[i], index.getOffset(millis[i]), isoOptions, scratch, 0));
+            }
+        }
+
+
+        private void write(ByteBuffer out, char[] scratch)
+        {
+            // ISO 8601 strings are ASCII.
+            if (out.hasArray())
+            {
+                byte[] array = out.array();
+                int p = out.arrayOffset() + position;
+
+                for (int i = start; i < end; ++i)
+                {
+                    int n = ISO8601.format(millis[i], index.getOffset(millis[i]), isoOptions, scratch, 0);
+
+                    for (int j = 0; j < n; ++j)
+                    {
+                        array[p++] = (byte)scratch[j];
+                    }
+                }
+
+                return;
+            }
+
+            ByteBuffer part = out.duplicate();
+            part.position(position);
+
+            for (int i = start; i < end; ++i)
+            {
+                int n = ISO8601.format(millis[i], index.getOffset(millis[i]), isoOptions, scratch, 0);
+
+                for (int j = 0; j < n; ++j)
+                {
+                    part.put((byte)scratch[j]);
+                }
+            }
+        }
+
+
+        void copyEnds(int[] ends)
+        {
+            for (int i = 0; i < lengths.length; ++i)
+            {
+                ends[start - from + i] = base + lengths[i];
+            }
+        }
+    }
+}
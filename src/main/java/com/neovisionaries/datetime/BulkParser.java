@@ -0,0 +1,234 @@
+/*
+ * Copyright (C) 2012-2013 Neo Visionaries Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.neovisionaries.datetime;
+
+
+import java.text.ParsePosition;
+import java.util.TimeZone;
+
+
+/**
+ * Parses many timestamp strings at a time into a {@code long[]}.
+ *
+ * <p>
+ * A {@code BulkParser} parses a column of timestamp strings with either a
+ * {@link GFormat} or the {@link ISO8601} parser and stores milliseconds
+ * since the epoch into a {@code long[]}. Instead of throwing an exception
+ * for a bad row, it clears the row's bit in a validity bitmap: the bit for
+ * {@code millis[k]} is {@code (valid[k >>> 6] >>> (k & 63)) & 1}. A row is
+ * valid only when its whole text is consumed. The value of an invalid row
+ * is 0.
+ * </p>
+ *
+ * <style type="text/css">
+ * span.keyword { color: purple; font-weight: bold; }
+ * span.comment { color: green; }
+ * span.string  { color: blue; }
+ * pre.code { background-color: #EEEEEE; margin-left: 2em; margin-right: 2em; border: 1px solid black; }
+ * </style>
+ *
+ * <pre class="code">
+ *
+ * BulkParser parser = BulkParser.{@link #iso8601(TimeZone)
+ * iso8601}(TimeZone.getTimeZone(<span class="string">"UTC"</span>));
+ *
+ * <span class="keyword">long</span>[] millis = <span class="keyword">new long</span>[texts.length];
+ * <span class="keyword">long</span>[] valid  = <span class="keyword">new long</span>[(texts.length + 63) / 64];
+ *
+ * <span class="keyword">int</span> count = parser.{@link #parse(CharSequence[], int, int, long[], long[])
+ * parse}(texts, 0, texts.length, millis, valid);
+ * </pre>
+ *
+ * <p>
+ * Local times are converted to UTC through a per-call cache of the zone
+ * offsets, so that rows in the same hour do not look up the time zone
+ * again. Instances are immutable and thread-safe.
+ * </p>
+ *
+ * @since 1.4
+ *
+ * @author Takahiko Kawasaki
+ */
+public final class BulkParser
+{
+    private final GFormat format;
+    private final TimeZone timeZone;
+
+
+    private BulkParser(GFormat format, TimeZone timeZone)
+    {
+        this.format   = format;
+        this.timeZone = (TimeZone)timeZone.clone();
+    }
+
+
+    /**
+     * Create a parser that uses the given compiled format.
+     *
+     * @param timeZone
+     *         The time zone for texts which do not contain an offset.
+     */
+    public static BulkParser of(GFormat format, TimeZone timeZone)
+    {
+        if (format == null)
+        {
+            throw new NullPointerException();
+        }
+
+        return new BulkParser(format, timeZone);
+    }
+
+
+    /**
+     * Create a parser that reads ISO 8601 strings.
+     *
+     * @param timeZone
+     *         The time zone for texts which do not contain an offset.
+     */
+    public static BulkParser iso8601(TimeZone timeZone)
+    {
+        return new BulkParser(null, timeZone);
+    }
+
+
+    /**
+     * Parse {@code texts[from]} to {@code texts[to - 1]}.
+     *
+     * @param texts
+     *         Timestamp strings. A null element is treated as invalid.
+     *
+     * @param from
+     *         The first index in {@code texts} (inclusive).
+     *
+     * @param to
+     *         The last index in {@code texts} (exclusive).
+     *
+     * @param millis
+     *         Receives the result for {@code texts[from + k]} at index
+     *         {@code k}. Its length must be at least {@code to - from}.
+     *
+     * @param valid
+     *         Validity bitmap. Its length must be at least {@code
+     *         (to - from + 63) / 64}. Bits beyond {@code to - from}
+     *         are left untouched.
+     *
+     * @return
+     *         The number of valid rows.
+     */
+    public int parse(CharSequence[] texts, int from, int to, long[] millis, long[] valid)
+    {
+        checkRange(texts.length, from, to);
+
+        ZoneOffsetCache cache = new ZoneOffsetCache(timeZone);
+        ParsePosition position = new ParsePosition(0);
+        int count = 0;
+
+        for (int i = from; i < to; ++i)
+        {
+            CharSequence text = texts[i];
+            boolean ok = (text != null) && parse(text, 0, text.length(), cache, position, millis, i - from);
+
+            count += setValid(valid, i - from, ok);
+        }
+
+        return count;
+    }
+
+
+    /**
+     * Parse timestamps stored back to back in one buffer, as written by
+     * {@link BulkFormatter}. Row {@code k} occupies {@code [ends[k - 1],
+     * ends[k])} of {@code buffer}, where {@code ends[-1]} is taken as 0.
+     * Rows {@code from} to {@code to - 1} are parsed and the result for
+     * row {@code from + k} is stored at index {@code k}.
+     *
+     * @return
+     *         The number of valid rows.
+     *
+     * @see #parse(CharSequence[], int, int, long[], long[])
+     */
+    public int parse(CharSequence buffer, int[] ends, int from, int to, long[] millis, long[] valid)
+    {
+        checkRange(ends.length, from, to);
+
+        ZoneOffsetCache cache = new ZoneOffsetCache(timeZone);
+        ParsePosition position = new ParsePosition(0);
+        int count = 0;
+
+        for (int i = from; i < to; ++i)
+        {
+            int start = (i == 0) ? 0 : ends[i - 1];
+            boolean ok = parse(buffer, start, ends[i], cache, position, millis, i - from);
+
+            count += setValid(valid, i - from, ok);
+        }
+
+        return count;
+    }
+
+
+    private boolean parse(
+            CharSequence text, int start, int end, ZoneOffsetCache cache,
+            ParsePosition position, long[] millis, int index)
+    {
+        position.setIndex(start);
+        position.setErrorIndex(-1);
+
+        long value;
+
+        if (format != null)
+        {
+            value = format.parse(text, start, end, cache, position);
+        }
+        else
+        {
+            value = ISO8601.parse(text, start, end, timeZone, cache, position);
+        }
+
+        // Trailing garbage makes the row invalid.
+        boolean ok = (position.getErrorIndex() < 0 && position.getIndex() == end && start < end);
+
+        millis[index] = ok ? value : 0;
+
+        return ok;
+    }
+
+
+    private static int setValid(long[] valid, int k, boolean ok)
+    {
+        long bit = 1L << (k & 63);
+
+        if (ok)
+        {
+            valid[k >>> 6] |= bit;
+            return 1;
+        }
+        else
+        {
+            valid[k >>> 6] &= ~bit;
+            return 0;
+        }
+    }
+
+
+    private static void checkRange(int length, int from, int to)
+    {
+        if (from < 0 || to > length || from > to)
+        {
+            throw new IndexOutOfBoundsException();
+        }
+    }
+}
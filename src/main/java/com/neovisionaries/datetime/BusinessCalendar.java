@@ -0,0 +1,455 @@
+/*
+ * Copyright (C) 2012-2013 Neo Visionaries Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.neovisionaries.datetime;
+
+
+import java.util.Arrays;
+import java.util.Calendar;
+
+
+/**
+ * Business days from a range of years, weekend days and holiday rules.
+ *
+ * <p>
+ * When a {@code BusinessCalendar} is created, its rules are compiled into
+ * a bitmap that has one bit per day of the years, and into the number of
+ * business days before each 64 days. Then {@link #isBusinessDay(long)}
+ * and {@link #countBusinessDaysBetween(long, long)} take constant time,
+ * and {@link #addBusinessDays(long, int)} takes logarithmic time, no
+ * matter how many days they span. A date out of the range of years is
+ * rejected with an {@link IllegalArgumentException}.
+ * </p>
+ *
+ * <style type="text/css">
+ * span.keyword { color: purple; font-weight: bold; }
+ * span.comment { color: green; }
+ * span.string  { color: blue; }
+ * pre.code { background-color: #EEEEEE; margin-left: 2em; margin-right: 2em; border: 1px solid black; }
+ * </style>
+ *
+ * <pre class="code">
+ *
+ * BusinessCalendar business = BusinessCalendar.{@link #of(int, int) of}(2000, 2050).{@link
+ * #withHolidays(HolidayRule...) withHolidays}(
+ *     HolidayRule.{@link HolidayRule#fixed(int, int) fixed}(Calendar.JANUARY, 1),
+ *     HolidayRule.{@link HolidayRule#dayOfWeekInMonth(int, int, int)
+ * dayOfWeekInMonth}(Calendar.MAY, -1, Calendar.MONDAY),
+ *     HolidayRule.{@link HolidayRule#fixed(int, int) fixed}(Calendar.DECEMBER, 25));
+ *
+ * <span class="comment">// T+2 settlement date, at the same time of day.</span>
+ * GCalendar settlement = business.{@link #addBusinessDays(Calendar, int)
+ * addBusinessDays}(<span class="keyword">new</span> GCalendar(tradeTime, tz, Locale.US), 2);
+ * </pre>
+ *
+ * <p>
+ * Dates are those of {@link CalendarMath}, that is, Julian before the
+ * Gregorian change on October 15, 1582 and Gregorian after it, like the
+ * default {@link java.util.GregorianCalendar}. The date of a {@link
+ * Calendar} is its wall-clock date in its time zone.
+ * Instances are immutable and thread-safe.
+ * </p>
+ *
+ * @since 1.4
+ *
+ * @author Takahiko Kawasaki
+ */
+public final class BusinessCalendar
+{
+    private static final HolidayRule[] NO_RULES = new HolidayRule[0];
+
+
+    private final int fromYear;
+    private final int toYear;
+    private final int weekend;
+    private final HolidayRule[] rules;
+
+    // The range of epoch days: [firstDay, endDay).
+    private final long firstDay;
+    private final long endDay;
+
+    // Bit k of bits[w] is set if firstDay + 64 * w + k is a business day.
+    private final long[] bits;
+
+    // ranks[w] is the number of business days before bits[w].
+    private final int[] ranks;
+
+
+    private BusinessCalendar(int fromYear, int toYear, int weekend, HolidayRule[] rules)
+    {
+        this.fromYear = fromYear;
+        this.toYear   = toYear;
+        this.weekend  = weekend;
+        this.rules    = rules;
+        this.firstDay = CalendarMath.toEpochDay(fromYear, Calendar.JANUARY, 1);
+        this.endDay   = CalendarMath.toEpochDay(toYear + 1, Calendar.JANUARY, 1);
+
+        int days   = (int)(endDay - firstDay);
+        this.bits  = new long[(days + 63) / 64];
+        this.ranks = new int[bits.length + 1];
+
+        compile();
+    }
+
+
+    /**
+     * Create a business calendar of the given years, whose weekend
+     * days are Saturday and Sunday, without holidays.
+     *
+     * @param fromYear
+     *         The first year (proleptic).
+     *
+     * @param toYear
+     *         The last year (inclusive).
+     *
+     * @throws IllegalArgumentException
+     *         {@code fromYear} is greater than {@code toYear}, or
+     *         the range is too long.
+     */
+    public static BusinessCalendar of(int fromYear, int toYear)
+    {
+        // About 5.8 million years at most.
+        if (toYear < fromYear || (long)toYear - fromYear >= Integer.MAX_VALUE / 366)
+        {
+            throw new IllegalArgumentException("Bad range of years: " + fromYear + " to " + toYear);
+        }
+
+        return new BusinessCalendar(fromYear, toYear, weekendMask(Calendar.SATURDAY, Calendar.SUNDAY), NO_RULES);
+    }
+
+
+    /**
+     * Get a business calendar that is the same as this one
+     * except that its weekend days are the given days.
+     *
+     * @param daysOfWeek
+     *         {@link Calendar#SUNDAY} to {@link Calendar#SATURDAY}.
+     *         No argument means no weekend days.
+     */
+    public BusinessCalendar withWeekend(int... daysOfWeek)
+    {
+        return new BusinessCalendar(fromYear, toYear, weekendMask(daysOfWeek), rules);
+    }
+
+
+    /**
+     * Get a business calendar that is the same as this one except
+     * that the given rules of holidays are added.
+     */
+    public BusinessCalendar withHolidays(HolidayRule... holidays)
+    {
+        HolidayRule[] added = Arrays.copyOf(rules, rules.length + holidays.length);
+
+        for (int i = 0; i < holidays.length; ++i)
+        {
+            if (holidays[i] == null)
+            {
+                throw new NullPointerException();
+            }
+
+            added[rules.length + i] = holidays[i];
+        }
+
+        return new BusinessCalendar(fromYear, toYear, weekend, added);
+    }
+
+
+    private static int weekendMask(int... daysOfWeek)
+    {
+        int mask = 0;
+
+        for (int dayOfWeek : daysOfWeek)
+        {
+            if (dayOfWeek < Calendar.SUNDAY || Calendar.SATURDAY < dayOfWeek)
+            {
+                throw new IllegalArgumentException("Bad day of week: " + dayOfWeek);
+            }
+
+            mask |= 1 << dayOfWeek;
+        }
+
+        return mask;
+    }
+
+
+    private void compile()
+    {
+        // Decode each day rather than count the days of each month,
+        // because October 1582 skips ten days at the Gregorian change.
+        for (long day = firstDay; day < endDay; ++day)
+        {
+            int date = CalendarMath.fromEpochDay(day);
+
+            if (isBusinessDay(CalendarMath.getYear(date), CalendarMath.getMonth(date),
+                    CalendarMath.getDayOfMonth(date), CalendarMath.dayOfWeek(day)))
+            {
+                int k = (int)(day - firstDay);
+                bits[k >>> 6] |= 1L << (k & 63);
+            }
+        }
+
+        for (int w = 0; w < bits.length; ++w)
+        {
+            ranks[w + 1] = ranks[w] + Long.bitCount(bits[w]);
+        }
+    }
+
+
+    private boolean isBusinessDay(int year, int month, int dayOfMonth, int dayOfWeek)
+    {
+        if ((weekend & (1 << dayOfWeek)) != 0)
+        {
+            return false;
+        }
+
+        for (HolidayRule rule : rules)
+        {
+            if (rule.isHoliday(year, month, dayOfMonth, dayOfWeek))
+            {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+
+    /**
+     * Get the first year of this business calendar.
+     */
+    public int getFromYear()
+    {
+        return fromYear;
+    }
+
+
+    /**
+     * Get the last year of this business calendar.
+     */
+    public int getToYear()
+    {
+        return toYear;
+    }
+
+
+    /**
+     * Check if the given day is a business day.
+     *
+     * @param epochDay
+     *         The number of days since January 1, 1970.
+     *
+     * @throws IllegalArgumentException
+     *         The day is out of the range of this business calendar.
+     */
+    public boolean isBusinessDay(long epochDay)
+    {
+        int k = indexOf(epochDay, false);
+
+        return (bits[k >>> 6] & (1L << (k & 63))) != 0;
+    }
+
+
+    /**
+     * Check if the given date is a business day.
+     *
+     * @param month
+     *         0-based month.
+     *
+     * @throws IllegalArgumentException
+     *         The date is out of the range of this business calendar.
+     */
+    public boolean isBusinessDay(int year, int month, int dayOfMonth)
+    {
+        return isBusinessDay(CalendarMath.toEpochDay(year, month, dayOfMonth));
+    }
+
+
+    /**
+     * Check if the wall-clock date of the given calendar is a business day.
+     *
+     * @throws IllegalArgumentException
+     *         The date is out of the range of this business calendar.
+     */
+    public boolean isBusinessDay(Calendar calendar)
+    {
+        return isBusinessDay(toEpochDay(calendar));
+    }
+
+
+    /**
+     * Count the business days from {@code startEpochDay} (inclusive) to
+     * {@code endEpochDay} (exclusive). The result is negative if {@code
+     * endEpochDay} is before {@code startEpochDay}.
+     *
+     * @throws IllegalArgumentException
+     *         A day is out of the range of this business calendar.
+     */
+    public int countBusinessDaysBetween(long startEpochDay, long endEpochDay)
+    {
+        return rank(endEpochDay) - rank(startEpochDay);
+    }
+
+
+    /**
+     * Count the business days from the wall-clock date of {@code start}
+     * (inclusive) to that of {@code end} (exclusive).
+     *
+     * @see #countBusinessDaysBetween(long, long)
+     */
+    public int countBusinessDaysBetween(Calendar start, Calendar end)
+    {
+        return countBusinessDaysBetween(toEpochDay(start), toEpochDay(end));
+    }
+
+
+    /**
+     * Get the business day that is {@code amount} business days after
+     * (or before, if negative) the given day. The given day itself
+     * does not have to be a business day, and is not counted. If
+     * {@code amount} is 0, the given day is returned.
+     *
+     * @param epochDay
+     *         The number of days since January 1, 1970.
+     *
+     * @return
+     *         The epoch day of the result.
+     *
+     * @throws IllegalArgumentException
+     *         The day or the result is out of the range
+     *         of this business calendar.
+     */
+    public long addBusinessDays(long epochDay, int amount)
+    {
+        if (amount == 0)
+        {
+            indexOf(epochDay, false);
+            return epochDay;
+        }
+
+        // The rank of the result among all the business days.
+        long target;
+
+        if (0 < amount)
+        {
+            target = (long)rank(epochDay) + (isBusinessDay(epochDay) ? 1 : 0) + amount - 1;
+        }
+        else
+        {
+            target = (long)rank(epochDay) + amount;
+        }
+
+        if (target < 0 || ranks[bits.length] <= target)
+        {
+            throw new IllegalArgumentException("The result is out of the range of the business calendar.");
+        }
+
+        return firstDay + select((int)target);
+    }
+
+
+    /**
+     * Move the wall-clock date of the given calendar by {@code amount}
+     * business days, keeping the wall-clock time.
+     *
+     * @return
+     *         The given calendar.
+     *
+     * @see #addBusinessDays(long, int)
+     */
+    public <T extends Calendar> T addBusinessDays(T calendar, int amount)
+    {
+        long epochDay = toEpochDay(calendar);
+        long result   = addBusinessDays(epochDay, amount);
+
+        calendar.add(Calendar.DAY_OF_MONTH, (int)(result - epochDay));
+
+        return calendar;
+    }
+
+
+    private static long toEpochDay(Calendar calendar)
+    {
+        long millis = calendar.getTimeInMillis();
+
+        return CalendarMath.toEpochDay(millis + calendar.getTimeZone().getOffset(millis));
+    }
+
+
+    /**
+     * Get the index of the day in the bitmap. {@code endDay} is allowed
+     * if {@code inclusiveEnd} is true.
+     */
+    private int indexOf(long epochDay, boolean inclusiveEnd)
+    {
+        if (epochDay < firstDay || endDay < epochDay || (epochDay == endDay && !inclusiveEnd))
+        {
+            throw new IllegalArgumentException("The day is out of the range of the business calendar.");
+        }
+
+        return (int)(epochDay - firstDay);
+    }
+
+
+    /**
+     * Get the number of business days before the given day.
+     */
+    private int rank(long epochDay)
+    {
+        int k = indexOf(epochDay, true);
+        int w = k >>> 6;
+
+        if (w == bits.length)
+        {
+            return ranks[w];
+        }
+
+        return ranks[w] + Long.bitCount(bits[w] & ((1L << (k & 63)) - 1));
+    }
+
+
+    /**
+     * Get the index of the business day whose rank is the given one.
+     */
+    private int select(int rank)
+    {
+        // The last word which starts at or before the rank.
+        int low  = 0;
+        int high = bits.length;
+
+        while (low + 1 < high)
+        {
+            int middle = (low + high) >>> 1;
+
+            if (ranks[middle] <= rank)
+            {
+                low = middle;
+            }
+            else
+            {
+                high = middle;
+            }
+        }
+
+        long word = bits[low];
+
+        for (int n = rank - ranks[low]; 0 < n; --n)
+        {
+            // Clear the lowest bit.
+            word &= word - 1;
+        }
+
+        return (low << 6) + Long.numberOfTrailingZeros(word);
+    }
+}
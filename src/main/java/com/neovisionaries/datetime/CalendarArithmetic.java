@@ -0,0 +1,185 @@
+/*
+ * Copyright (C) 2012-2013 Neo Visionaries Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.neovisionaries.datetime;
+
+
+import java.util.Calendar;
+
+
+/**
+ * Addition of calendar fields to milliseconds since the epoch, with the
+ * same results as those of {@link java.util.GregorianCalendar#add(int,
+ * int)} on a lenient calendar with the default Gregorian change date.
+ *
+ * <ul>
+ * <li>Time fields are added to the elapsed time.
+ * <li>Day fields ({@link Calendar#DAY_OF_MONTH DAY_OF_MONTH}, weeks and
+ *     {@link Calendar#AM_PM AM_PM}) keep the wall-clock time, with the
+ *     same adjustment for an offset change as that of {@code GregorianCalendar}.
+ * <li>{@link Calendar#MONTH MONTH} and {@link Calendar#YEAR YEAR} pin the
+ *     day of month to the end of a shorter month and resolve the wall-clock
+ *     time like {@code GregorianCalendar}.
+ * </ul>
+ *
+ * @since 1.4
+ *
+ * @author Takahiko Kawasaki
+ */
+final class CalendarArithmetic
+{
+    private static final long MILLIS_PER_HOUR = 3600000L;
+
+
+    private CalendarArithmetic()
+    {
+    }
+
+
+    /**
+     * Get the milliseconds of one unit of a time field, or 0 for
+     * a date field.
+     *
+     * @throws IllegalArgumentException
+     *         The field is not supported.
+     */
+    static long millisPerUnit(int field)
+    {
+        switch (field)
+        {
+            case Calendar.YEAR:
+            case Calendar.MONTH:
+            case Calendar.WEEK_OF_YEAR:
+            case Calendar.WEEK_OF_MONTH:
+            case Calendar.DAY_OF_WEEK_IN_MONTH:
+            case Calendar.DAY_OF_MONTH:
+            case Calendar.DAY_OF_YEAR:
+            case Calendar.DAY_OF_WEEK:
+            case Calendar.AM_PM:
+                return 0;
+
+            case Calendar.HOUR:
+            case Calendar.HOUR_OF_DAY:
+                return MILLIS_PER_HOUR;
+
+            case Calendar.MINUTE:
+                return 60000L;
+
+            case Calendar.SECOND:
+                return 1000L;
+
+            case Calendar.MILLISECOND:
+                return 1;
+
+            default:
+                throw new IllegalArgumentException("Unsupported field: " + field);
+        }
+    }
+
+
+    /**
+     * Add an amount of a calendar field to a time.
+     *
+     * @throws IllegalArgumentException
+     *         The field is not supported.
+     */
+    static long add(long millis, ZoneOffsetIndex index, int field, long amount)
+    {
+        long unit = millisPerUnit(field);
+
+        if (unit != 0)
+        {
+            return millis + amount * unit;
+        }
+
+        if (amount == 0)
+        {
+            return millis;
+        }
+
+        switch (field)
+        {
+            case Calendar.YEAR:
+                return addMonths(millis, index, 12 * amount);
+
+            case Calendar.MONTH:
+                return addMonths(millis, index, amount);
+
+            case Calendar.WEEK_OF_YEAR:
+            case Calendar.WEEK_OF_MONTH:
+            case Calendar.DAY_OF_WEEK_IN_MONTH:
+                return addDays(millis, index, 7 * amount, 0);
+
+            case Calendar.AM_PM:
+                return addDays(millis, index, amount / 2, 12 * MILLIS_PER_HOUR * (amount % 2));
+
+            default:
+                return addDays(millis, index, amount, 0);
+        }
+    }
+
+
+    private static long addMonths(long millis, ZoneOffsetIndex index, long amount)
+    {
+        long local     = index.toLocal(millis);
+        long epochDay  = CalendarMath.toEpochDay(local);
+        long timeOfDay = local - epochDay * CalendarMath.MILLIS_PER_DAY;
+        int  date      = CalendarMath.fromEpochDay(epochDay);
+
+        long months = CalendarMath.getYear(date) * 12L + CalendarMath.getMonth(date) + amount;
+        int  y      = (int)CalendarMath.floorDiv(months, 12);
+        int  m      = CalendarMath.floorMod(months, 12);
+        int  d      = Math.min(CalendarMath.getDayOfMonth(date), CalendarMath.daysInMonth(y, m));
+
+        return index.toUTC(CalendarMath.toEpochDay(y, m, d) * CalendarMath.MILLIS_PER_DAY + timeOfDay);
+    }
+
+
+    private static long addDays(long millis, ZoneOffsetIndex index, long days, long delta)
+    {
+        int  offset = index.getOffset(millis);
+        long local  = millis + offset;
+        long day    = CalendarMath.toEpochDay(local) + days;
+        long time   = local - CalendarMath.toEpochDay(local) * CalendarMath.MILLIS_PER_DAY + delta;
+
+        if (CalendarMath.MILLIS_PER_DAY <= time)
+        {
+            ++day;
+            time -= CalendarMath.MILLIS_PER_DAY;
+        }
+        else if (time < 0)
+        {
+            --day;
+            time += CalendarMath.MILLIS_PER_DAY;
+        }
+
+        // The same adjustment for an offset change as that of
+        // GregorianCalendar.add(int, int).
+        long utc  = day * CalendarMath.MILLIS_PER_DAY + time - offset;
+        int  diff = offset - index.getOffset(utc);
+
+        if (diff != 0)
+        {
+            long adjusted = utc + diff;
+
+            if (CalendarMath.toEpochDay(index.toLocal(adjusted)) == day)
+            {
+                return adjusted;
+            }
+        }
+
+        return utc;
+    }
+}
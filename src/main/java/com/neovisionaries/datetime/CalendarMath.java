@@ -0,0 +1,440 @@
+/*
+ * Copyright (C) 2012-2013 Neo Visionaries Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.neovisionaries.datetime;
+
+
+import java.util.Calendar;
+import java.util.GregorianCalendar;
+
+
+/**
+ * Static, allocation-free arithmetic on civil dates.
+ *
+ * <p>
+ * The methods of this class follow the rules of {@link GregorianCalendar}
+ * with its default cutover. That is, dates on and after October 15, 1582
+ * are in the Gregorian calendar, and dates on and before October 4, 1582
+ * are in the Julian calendar.
+ * </p>
+ *
+ * <p>
+ * Years are proleptic (astronomical) years, so {@code 0} means 1 BC,
+ * {@code -1} means 2 BC, and so on. Months are 0-based like {@link
+ * Calendar#MONTH}, and days of the week are {@link Calendar#SUNDAY}
+ * to {@link Calendar#SATURDAY}. An <i>epoch day</i> is the number of
+ * days since January 1, 1970 (Gregorian).
+ * </p>
+ *
+ * <p>
+ * A date is returned from {@link #fromEpochDay(long)} as a single
+ * {@code int} so that no object has to be allocated. Use {@link
+ * #getYear(int)}, {@link #getMonth(int)} and {@link #getDayOfMonth(int)}
+ * to extract its fields.
+ * </p>
+ *
+ * @since 1.4
+ *
+ * @author Takahiko Kawasaki
+ */
+public final class CalendarMath
+{
+    /**
+     * Milliseconds per day.
+     */
+    public static final long MILLIS_PER_DAY = 24L * 60 * 60 * 1000;
+
+
+    /**
+     * The epoch day of October 15, 1582 (Gregorian), the first day
+     * of the Gregorian calendar.
+     */
+    public static final long GREGORIAN_CUTOVER_EPOCH_DAY = -141427L;
+
+
+    /**
+     * The epoch day of March 1, 0 (Gregorian).
+     */
+    private static final long GREGORIAN_MARCH_1_0000 = -719468L;
+
+
+    /**
+     * The epoch day of March 1, 0 (Julian).
+     */
+    private static final long JULIAN_MARCH_1_0000 = -719470L;
+
+
+    private static final int[] DAYS_IN_MONTH = {
+        31, 28, 31, 30, 31, 30, 31, 31, 30, 31, 30, 31
+    };
+
+
+    private CalendarMath()
+    {
+    }
+
+
+    /**
+     * Check if the given year is a leap year.
+     *
+     * <p>
+     * The result is the same as that of {@link
+     * GregorianCalendar#isLeapYear(int)} of a {@code GregorianCalendar}
+     * instance with the default cutover. Note that 1582 is not a leap year.
+     * </p>
+     *
+     * @param year
+     *         Proleptic year.
+     *
+     * @return
+     *         True if the given year is a leap year.
+     */
+    public static boolean isLeap(int year)
+    {
+        if ((year & 3) != 0)
+        {
+            return false;
+        }
+
+        if (year <= 1582)
+        {
+            // Julian calendar. Note that 1582 is not a multiple of 4.
+            return true;
+        }
+
+        return (year % 100 != 0) || (year % 400 == 0);
+    }
+
+
+    /**
+     * Get the number of the last day of the given month.
+     *
+     * <p>
+     * The result is the same as that of <code>{@link
+     * Calendar#getActualMaximum(int) getActualMaximum}({@link
+     * Calendar#DAY_OF_MONTH DAY_OF_MONTH})</code>. Note that it is
+     * 31 for October 1582 although that month has only 21 days.
+     * </p>
+     *
+     * @param year
+     *         Proleptic year.
+     *
+     * @param month
+     *         0-based month ({@link Calendar#JANUARY} to {@link Calendar#DECEMBER}).
+     *
+     * @return
+     *         28, 29, 30 or 31.
+     */
+    public static int daysInMonth(int year, int month)
+    {
+        if (month == Calendar.FEBRUARY && isLeap(year))
+        {
+            return 29;
+        }
+
+        return DAYS_IN_MONTH[month];
+    }
+
+
+    /**
+     * Get the number of days in the given year. The result is
+     * 365 or 366 except for 1582 which has 355 days.
+     *
+     * @param year
+     *         Proleptic year.
+     *
+     * @return
+     *         The number of days in the year.
+     */
+    public static int daysInYear(int year)
+    {
+        return (int)(toEpochDay(year + 1, Calendar.JANUARY, 1) - toEpochDay(year, Calendar.JANUARY, 1));
+    }
+
+
+    /**
+     * Convert the given date to an epoch day.
+     *
+     * <p>
+     * The month and the day of month are interpreted leniently; for
+     * example, month 12 means January of the next year. A date in
+     * October 5, 1582 to October 14, 1582 does not exist and is
+     * interpreted as a date in the Julian calendar.
+     * </p>
+     *
+     * @param year
+     *         Proleptic year.
+     *
+     * @param month
+     *         0-based month.
+     *
+     * @param dayOfMonth
+     *         Day of month (1-based).
+     *
+     * @return
+     *         The number of days since January 1, 1970.
+     */
+    public static long toEpochDay(int year, int month, int dayOfMonth)
+    {
+        long y = year + floorDiv(month, 12);
+        int  m = floorMod(month, 12);
+
+        if (isGregorian(y, m, dayOfMonth))
+        {
+            return gregorianToEpochDay(y, m, dayOfMonth);
+        }
+        else
+        {
+            return julianToEpochDay(y, m, dayOfMonth);
+        }
+    }
+
+
+    private static boolean isGregorian(long year, int month, int dayOfMonth)
+    {
+        if (year != 1582)
+        {
+            return (1582 < year);
+        }
+
+        if (month != Calendar.OCTOBER)
+        {
+            return (Calendar.OCTOBER < month);
+        }
+
+        return (15 <= dayOfMonth);
+    }
+
+
+    private static long gregorianToEpochDay(long year, int month, int dayOfMonth)
+    {
+        // Count years from March so that February comes last.
+        long y   = (month < Calendar.MARCH) ? year - 1 : year;
+        long era = floorDiv(y, 400);
+        long yoe = y - era * 400;
+        long mp  = (month < Calendar.MARCH) ? month + 10 : month - 2;
+        long doy = (153 * mp + 2) / 5 + dayOfMonth - 1;
+        long doe = yoe * 365 + yoe / 4 - yoe / 100 + doy;
+
+        return era * 146097 + doe + GREGORIAN_MARCH_1_0000;
+    }
+
+
+    private static long julianToEpochDay(long year, int month, int dayOfMonth)
+    {
+        long y   = (month < Calendar.MARCH) ? year - 1 : year;
+        long era = floorDiv(y, 4);
+        long yoe = y - era * 4;
+        long mp  = (month < Calendar.MARCH) ? month + 10 : month - 2;
+        long doy = (153 * mp + 2) / 5 + dayOfMonth - 1;
+        long doe = yoe * 365 + doy;
+
+        return era * 1461 + doe + JULIAN_MARCH_1_0000;
+    }
+
+
+    /**
+     * Convert the given epoch day to a date packed into an {@code int}.
+     * Use {@link #getYear(int)}, {@link #getMonth(int)} and {@link
+     * #getDayOfMonth(int)} to extract the fields.
+     *
+     * @param epochDay
+     *         The number of days since January 1, 1970.
+     *
+     * @return
+     *         A packed date.
+     */
+    public static int fromEpochDay(long epochDay)
+    {
+        if (GREGORIAN_CUTOVER_EPOCH_DAY <= epochDay)
+        {
+            return gregorianFromEpochDay(epochDay);
+        }
+        else
+        {
+            return julianFromEpochDay(epochDay);
+        }
+    }
+
+
+    private static int gregorianFromEpochDay(long epochDay)
+    {
+        long z   = epochDay - GREGORIAN_MARCH_1_0000;
+        long era = floorDiv(z, 146097);
+        long doe = z - era * 146097;
+        long yoe = (doe - doe / 1460 + doe / 36524 - doe / 146096) / 365;
+        long doy = doe - (365 * yoe + yoe / 4 - yoe / 100);
+
+        return packMarchBased(era * 400 + yoe, doy);
+    }
+
+
+    private static int julianFromEpochDay(long epochDay)
+    {
+        long z   = epochDay - JULIAN_MARCH_1_0000;
+        long era = floorDiv(z, 1461);
+        long doe = z - era * 1461;
+        long yoe = (doe - doe / 1460) / 365;
+        long doy = doe - 365 * yoe;
+
+        return packMarchBased(era * 4 + yoe, doy);
+    }
+
+
+    private static int packMarchBased(long year, long dayOfYear)
+    {
+        int mp  = (int)((5 * dayOfYear + 2) / 153);
+        int day = (int)(dayOfYear - (153 * mp + 2) / 5 + 1);
+        int m   = (mp < 10) ? mp + 2 : mp - 10;
+        int y   = (int)((m < Calendar.MARCH) ? year + 1 : year);
+
+        return pack(y, m, day);
+    }
+
+
+    /**
+     * Pack the given date into an {@code int} in the same
+     * format as {@link #fromEpochDay(long)} does.
+     *
+     * @param year
+     *         Proleptic year.
+     *
+     * @param month
+     *         0-based month.
+     *
+     * @param dayOfMonth
+     *         Day of month (1-based).
+     *
+     * @return
+     *         A packed date.
+     */
+    public static int pack(int year, int month, int dayOfMonth)
+    {
+        return (year << 9) | (month << 5) | dayOfMonth;
+    }
+
+
+    /**
+     * Get the proleptic year of the given packed date.
+     */
+    public static int getYear(int date)
+    {
+        return date >> 9;
+    }
+
+
+    /**
+     * Get the 0-based month of the given packed date.
+     */
+    public static int getMonth(int date)
+    {
+        return (date >> 5) & 0xF;
+    }
+
+
+    /**
+     * Get the day of month of the given packed date.
+     */
+    public static int getDayOfMonth(int date)
+    {
+        return date & 0x1F;
+    }
+
+
+    /**
+     * Get the day of the week of the given epoch day.
+     *
+     * @param epochDay
+     *         The number of days since January 1, 1970.
+     *
+     * @return
+     *         {@link Calendar#SUNDAY} to {@link Calendar#SATURDAY}.
+     */
+    public static int dayOfWeek(long epochDay)
+    {
+        // January 1, 1970 was Thursday.
+        return floorMod(epochDay + 4, 7) + Calendar.SUNDAY;
+    }
+
+
+    /**
+     * Get the day of the year of the given date. The result is the
+     * same as that of <code>{@link Calendar#get(int) get}({@link
+     * Calendar#DAY_OF_YEAR DAY_OF_YEAR})</code>.
+     *
+     * @param year
+     *         Proleptic year.
+     *
+     * @param month
+     *         0-based month.
+     *
+     * @param dayOfMonth
+     *         Day of month (1-based).
+     *
+     * @return
+     *         Day of the year (1-based).
+     */
+    public static int dayOfYear(int year, int month, int dayOfMonth)
+    {
+        return (int)(toEpochDay(year, month, dayOfMonth) - toEpochDay(year, Calendar.JANUARY, 1)) + 1;
+    }
+
+
+    /**
+     * Get the epoch day that contains the given epoch millisecond.
+     */
+    public static long toEpochDay(long epochMillis)
+    {
+        return floorDiv(epochMillis, MILLIS_PER_DAY);
+    }
+
+
+    static long floorDiv(long x, long y)
+    {
+        long q = x / y;
+
+        if ((x % y != 0) && ((x ^ y) < 0))
+        {
+            --q;
+        }
+
+        return q;
+    }
+
+
+    static int floorDiv(int x, int y)
+    {
+        int q = x / y;
+
+        if ((x % y != 0) && ((x ^ y) < 0))
+        {
+            --q;
+        }
+
+        return q;
+    }
+
+
+    static int floorMod(long x, int y)
+    {
+        return (int)(x - floorDiv(x, (long)y) * y);
+    }
+
+
+    static int floorMod(int x, int y)
+    {
+        return x - floorDiv(x, y) * y;
+    }
+}
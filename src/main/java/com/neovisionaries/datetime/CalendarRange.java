@@ -0,0 +1,207 @@
+/*
+ * Copyright (C) 2012-2013 Neo Visionaries Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.neovisionaries.datetime;
+
+
+import java.util.Spliterator;
+import java.util.TimeZone;
+import java.util.function.LongConsumer;
+
+
+/**
+ * A spliterator over the times {@code start}, {@code start + step},
+ * {@code start + 2 * step}, ... before {@code end}, where the addition is
+ * that of {@link java.util.GregorianCalendar#add(int, int)} on the field.
+ *
+ * <p>
+ * The k-th element is computed directly from the start as if by {@code
+ * add(field, k * step)}, without accumulating, so the day of month that
+ * is pinned to the end of a short month recovers in later months. Because
+ * any element can be computed directly, the range splits evenly.
+ * </p>
+ *
+ * @since 1.4
+ *
+ * @author Takahiko Kawasaki
+ */
+final class CalendarRange implements Spliterator.OfLong
+{
+    /**
+     * Computes elements. Shared by the spliterators split from one.
+     */
+    private static final class Stepper
+    {
+        private final ZoneOffsetIndex index;
+        private final long start;
+        private final int field;
+        private final int step;
+
+        // Not zero for a time field.
+        private final long millisPerStep;
+
+
+        Stepper(long start, TimeZone timeZone, int field, int step)
+        {
+            this.millisPerStep = CalendarArithmetic.millisPerUnit(field) * step;
+            this.index         = ZoneOffsetIndex.of(timeZone);
+            this.start         = start;
+            this.field         = field;
+            this.step          = step;
+        }
+
+
+        long valueAt(long k)
+        {
+            return CalendarArithmetic.add(start, index, field, k * step);
+        }
+    }
+
+
+    private final Stepper stepper;
+    private long index;
+    private final long fence;
+
+
+    private CalendarRange(Stepper stepper, long index, long fence)
+    {
+        this.stepper = stepper;
+        this.index   = index;
+        this.fence   = fence;
+    }
+
+
+    /**
+     * Create a spliterator.
+     *
+     * @param start
+     *         The first element, in milliseconds since the epoch (inclusive).
+     *
+     * @param end
+     *         The end in milliseconds since the epoch (exclusive).
+     *
+     * @param step
+     *         A positive amount to add to the field for each element.
+     */
+    static CalendarRange create(long start, long end, TimeZone timeZone, int field, int step)
+    {
+        if (step <= 0)
+        {
+            throw new IllegalArgumentException("step must be positive: " + step);
+        }
+
+        Stepper stepper = new Stepper(start, timeZone, field, step);
+
+        return new CalendarRange(stepper, 0, count(stepper, start, end));
+    }
+
+
+    /**
+     * Count the elements before the end, assuming that the elements
+     * increase.
+     */
+    private static long count(Stepper stepper, long start, long end)
+    {
+        if (end <= start)
+        {
+            return 0;
+        }
+
+        if (stepper.millisPerStep != 0)
+        {
+            return (end - start - 1) / stepper.millisPerStep + 1;
+        }
+
+        // Find an element at or after the end, and then the first one.
+        long low  = 0;
+        long high = 1;
+
+        while (stepper.valueAt(high) < end)
+        {
+            low  = high;
+            high = high * 2;
+        }
+
+        while (low + 1 < high)
+        {
+            long middle = low + (high - low) / 2;
+
+            if (stepper.valueAt(middle) < end)
+            {
+                low = middle;
+            }
+            else
+            {
+                high = middle;
+            }
+        }
+
+        return high;
+    }
+
+
+    @Override
+    public boolean tryAdvance(LongConsumer action)
+    {
+        if (index < fence)
+        {
+            action.accept(stepper.valueAt(index++));
+            return true;
+        }
+
+        return false;
+    }
+
+
+    @Override
+    public void forEachRemaining(LongConsumer action)
+    {
+        for (; index < fence; ++index)
+        {
+            action.accept(stepper.valueAt(index));
+        }
+    }
+
+
+    @Override
+    public CalendarRange trySplit()
+    {
+        long middle = index + (fence - index) / 2;
+
+        if (middle == index)
+        {
+            return null;
+        }
+
+        CalendarRange prefix = new CalendarRange(stepper, index, middle);
+        index = middle;
+
+        return prefix;
+    }
+
+
+    @Override
+    public long estimateSize()
+    {
+        return fence - index;
+    }
+
+
+    @Override
+    public int characteristics()
+    {
+        return ORDERED | SIZED | SUBSIZED | IMMUTABLE | NONNULL;
+    }
+}
@@ -0,0 +1,193 @@
+/*
+ * Copyright (C) 2012-2013 Neo Visionaries Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.neovisionaries.datetime;
+
+
+import java.text.DateFormat;
+import java.text.SimpleDateFormat;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TimeZone;
+
+
+/**
+ * Cache of {@link SimpleDateFormat} instances keyed by
+ * (pattern, {@link TimeZone}, {@link Locale}).
+ *
+ * <p>
+ * {@code SimpleDateFormat} is not thread-safe, so each thread has its
+ * own cache. A {@code DateFormat} returned from {@link #get(String,
+ * TimeZone, Locale)} must be used only by the calling thread and must
+ * not be reconfigured or kept beyond the current operation. Each
+ * per-thread cache holds at most {@link #MAX_SIZE} instances and the
+ * least recently used one is evicted first.
+ * </p>
+ *
+ * @since 1.4
+ *
+ * @author Takahiko Kawasaki
+ */
+final class DateFormatCache
+{
+    /**
+     * The maximum number of {@code DateFormat} instances per thread.
+     */
+    static final int MAX_SIZE = 64;
+
+
+    private static final ThreadLocal<DateFormatCache> CACHE = new ThreadLocal<DateFormatCache>()
+    {
+        @Override
+        protected DateFormatCache initialValue()
+        {
+            return new DateFormatCache();
+        }
+    };
+
+
+    private static final class Key
+    {
+        private String pattern;
+        private TimeZone timeZone;
+        private Locale locale;
+        private int hash;
+
+
+        Key set(String pattern, TimeZone timeZone, Locale locale)
+        {
+            this.pattern  = pattern;
+            this.timeZone = timeZone;
+            this.locale   = locale;
+            this.hash     = (pattern.hashCode() * 31 + timeZone.getID().hashCode()) * 31 + locale.hashCode();
+
+            return this;
+        }
+
+
+        @Override
+        public int hashCode()
+        {
+            return hash;
+        }
+
+
+        @Override
+        public boolean equals(Object object)
+        {
+            if (this == object)
+            {
+                return true;
+            }
+
+            if (!(object instanceof Key))
+            {
+                return false;
+            }
+
+            Key key = (Key)object;
+
+            return hash == key.hash
+                && pattern.equals(key.pattern)
+                && locale.equals(key.locale)
+                && timeZone.equals(key.timeZone);
+        }
+    }
+
+
+    @SuppressWarnings("serial")
+    private final Map<Key, DateFormat> map = new LinkedHashMap<Key, DateFormat>(16, 0.75f, true)
+    {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Key, DateFormat> eldest)
+        {
+            return MAX_SIZE < size();
+        }
+    };
+
+
+    /**
+     * Reused for lookups so that a cache hit does not allocate.
+     */
+    private final Key lookupKey = new Key();
+
+
+    private DateFormatCache()
+    {
+    }
+
+
+    /**
+     * Get a {@code DateFormat} for the given pattern, time zone and
+     * locale. The returned instance is confined to the current thread.
+     */
+    static DateFormat get(String pattern, TimeZone timeZone, Locale locale)
+    {
+        return CACHE.get().lookup(pattern, timeZone, locale);
+    }
+
+
+    /**
+     * Get a {@code DateFormat} for the given pattern and time zone
+     * with the default locale for formatting, as {@link SimpleDateFormat}
+     * uses.
+     */
+    static DateFormat get(String pattern, TimeZone timeZone)
+    {
+        return get(pattern, timeZone, Locale.getDefault(Locale.Category.FORMAT));
+    }
+
+
+    /**
+     * Get a {@code DateFormat} for the given pattern with the
+     * default time zone and the default locale for formatting.
+     */
+    static DateFormat get(String pattern)
+    {
+        return get(pattern, TimeZone.getDefault(), Locale.getDefault(Locale.Category.FORMAT));
+    }
+
+
+    private DateFormat lookup(String pattern, TimeZone timeZone, Locale locale)
+    {
+        DateFormat df = map.get(lookupKey.set(pattern, timeZone, locale));
+
+        GCalendarMetrics.lookup(GCalendarMetrics.Cache.DATE_FORMAT, df != null);
+
+        if (df == null)
+        {
+            df = new SimpleDateFormat(pattern, locale);
+
+            map.put(new Key().set(pattern, timeZone, locale), df);
+        }
+
+        // Parsing a time zone name may replace the time zone of the
+        // DateFormat, so set it every time.
+        df.setTimeZone(timeZone);
+
+        return df;
+    }
+
+
+    /**
+     * Get the number of {@code DateFormat} instances cached
+     * for the current thread.
+     */
+    static int size()
+    {
+        return CACHE.get().map.size();
+    }
+}
@@ -0,0 +1,60 @@
+/*
+ * Copyright (C) 2012-2013 Neo Visionaries Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.neovisionaries.datetime;
+
+
+/**
+ * How to convert a wall-clock time that does not exist (in a gap) or
+ * exists twice (in an overlap) in a time zone, for example because of
+ * a daylight saving time transition.
+ *
+ * @since 1.4
+ *
+ * @see GCalendar#setDstPolicy(DstPolicy)
+ * @see ZoneOffsetIndex#toUTC(long, DstPolicy)
+ *
+ * @author Takahiko Kawasaki
+ */
+public enum DstPolicy
+{
+    /**
+     * The same as {@link java.util.GregorianCalendar}. For the time zones
+     * of the JDK, both a time in a gap and a time in an overlap are
+     * interpreted as standard time.
+     */
+    COMPATIBLE,
+
+
+    /**
+     * The earlier of the two instants in an overlap. A time in a gap is
+     * moved forward by the length of the gap.
+     */
+    EARLIER,
+
+
+    /**
+     * The later of the two instants in an overlap. A time in a gap is
+     * moved forward by the length of the gap.
+     */
+    LATER,
+
+
+    /**
+     * Throw an {@link IllegalArgumentException} for a time in a gap or
+     * an overlap.
+     */
+    STRICT
+}
@@ -0,0 +1,528 @@
+/*
+ * Copyright (C) 2012-2013 Neo Visionaries Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.neovisionaries.datetime;
+
+
+import java.io.Serializable;
+import java.text.DateFormat;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.GregorianCalendar;
+import java.util.TimeZone;
+
+
+/**
+ * An immutable snapshot of a {@link GCalendar}.
+ *
+ * <p>
+ * {@link GCalendar#freeze()} creates an instance. All the calendar fields
+ * are computed when the snapshot is created and are held in final fields,
+ * so the getters do not compute anything, and the same instance can be
+ * shared by multiple threads without copying. Use {@link #toGCalendar()}
+ * to get a mutable calendar again.
+ * </p>
+ *
+ * <style type="text/css">
+ * span.keyword { color: purple; font-weight: bold; }
+ * span.comment { color: green; }
+ * span.string  { color: blue; }
+ * pre.code { background-color: #EEEEEE; margin-left: 2em; margin-right: 2em; border: 1px solid black; }
+ * </style>
+ *
+ * <pre class="code">
+ *
+ * FrozenGCalendar snapshot = GCalendar.{@link GCalendar#parseISO8601(String)
+ * parseISO8601}(<span class="string">"1974-05-06T12:34:56+09:00"</span>).{@link GCalendar#freeze() freeze}();
+ *
+ * <span class="comment">// Safe to share.</span>
+ * cache.put(key, snapshot);
+ * </pre>
+ *
+ * @since 1.4
+ *
+ * @author Takahiko Kawasaki
+ */
+public final class FrozenGCalendar implements Comparable<FrozenGCalendar>, Serializable
+{
+    private static final long serialVersionUID = 1L;
+
+
+    private final long timeInMillis;
+    private final TimeZone timeZone;
+    private final int firstDayOfWeek;
+    private final int minimalDaysInFirstWeek;
+    private final boolean leapYear;
+    private final int era;
+    private final int year;
+    private final int month;
+    private final int weekOfYear;
+    private final int weekOfMonth;
+    private final int dayOfMonth;
+    private final int dayOfYear;
+    private final int dayOfWeek;
+    private final int dayOfWeekInMonth;
+    private final int ampm;
+    private final int hour;
+    private final int hourOfDay;
+    private final int minute;
+    private final int second;
+    private final int millisecond;
+    private final int zoneOffset;
+    private final int dstOffset;
+
+
+    FrozenGCalendar(GCalendar calendar)
+    {
+        timeInMillis           = calendar.getTimeInMillis();
+        timeZone               = (TimeZone)calendar.getTimeZone().clone();
+        firstDayOfWeek         = calendar.getFirstDayOfWeek();
+        minimalDaysInFirstWeek = calendar.getMinimalDaysInFirstWeek();
+        leapYear               = calendar.isLeapYear();
+        era                    = calendar.get(Calendar.ERA);
+        year                   = calendar.get(Calendar.YEAR);
+        month                  = calendar.get(Calendar.MONTH);
+        weekOfYear             = calendar.get(Calendar.WEEK_OF_YEAR);
+        weekOfMonth            = calendar.get(Calendar.WEEK_OF_MONTH);
+        dayOfMonth             = calendar.get(Calendar.DAY_OF_MONTH);
+        dayOfYear              = calendar.get(Calendar.DAY_OF_YEAR);
+        dayOfWeek              = calendar.get(Calendar.DAY_OF_WEEK);
+        dayOfWeekInMonth       = calendar.get(Calendar.DAY_OF_WEEK_IN_MONTH);
+        ampm                   = calendar.get(Calendar.AM_PM);
+        hour                   = calendar.get(Calendar.HOUR);
+        hourOfDay              = calendar.get(Calendar.HOUR_OF_DAY);
+        minute                 = calendar.get(Calendar.MINUTE);
+        second                 = calendar.get(Calendar.SECOND);
+        millisecond            = calendar.get(Calendar.MILLISECOND);
+        zoneOffset             = calendar.get(Calendar.ZONE_OFFSET);
+        dstOffset              = calendar.get(Calendar.DST_OFFSET);
+    }
+
+
+    /**
+     * Get the value of the given calendar field, like {@link Calendar#get(int)}.
+     *
+     * @throws ArrayIndexOutOfBoundsException
+     *         The field is not a valid calendar field.
+     */
+    public int get(int field)
+    {
+        switch (field)
+        {
+            case Calendar.ERA:                  return era;
+            case Calendar.YEAR:                 return year;
+            case Calendar.MONTH:                return month;
+            case Calendar.WEEK_OF_YEAR:         return weekOfYear;
+            case Calendar.WEEK_OF_MONTH:        return weekOfMonth;
+            case Calendar.DAY_OF_MONTH:         return dayOfMonth;
+            case Calendar.DAY_OF_YEAR:          return dayOfYear;
+            case Calendar.DAY_OF_WEEK:          return dayOfWeek;
+            case Calendar.DAY_OF_WEEK_IN_MONTH: return dayOfWeekInMonth;
+            case Calendar.AM_PM:                return ampm;
+            case Calendar.HOUR:                 return hour;
+            case Calendar.HOUR_OF_DAY:          return hourOfDay;
+            case Calendar.MINUTE:               return minute;
+            case Calendar.SECOND:               return second;
+            case Calendar.MILLISECOND:          return millisecond;
+            case Calendar.ZONE_OFFSET:          return zoneOffset;
+            case Calendar.DST_OFFSET:           return dstOffset;
+            default:
+                throw new ArrayIndexOutOfBoundsException(field);
+        }
+    }
+
+
+    /**
+     * Get the time in milliseconds since the epoch.
+     */
+    public long getTimeInMillis()
+    {
+        return timeInMillis;
+    }
+
+
+    /**
+     * Get the time as a new {@link Date}.
+     */
+    public Date getTime()
+    {
+        return new Date(timeInMillis);
+    }
+
+
+    /**
+     * Get a copy of the time zone.
+     */
+    public TimeZone getTimeZone()
+    {
+        return (TimeZone)timeZone.clone();
+    }
+
+
+    /**
+     * Get the first day of the week, like {@link Calendar#getFirstDayOfWeek()}.
+     */
+    public int getFirstDayOfWeek()
+    {
+        return firstDayOfWeek;
+    }
+
+
+    /**
+     * Get the minimal days in the first week of the year, like
+     * {@link Calendar#getMinimalDaysInFirstWeek()}.
+     */
+    public int getMinimalDaysInFirstWeek()
+    {
+        return minimalDaysInFirstWeek;
+    }
+
+
+    /**
+     * Equivalent to {@link GCalendar#getAMPM()}.
+     */
+    public int getAMPM()
+    {
+        return ampm;
+    }
+
+
+    /**
+     * Equivalent to {@link GCalendar#isAM()}.
+     */
+    public boolean isAM()
+    {
+        return (ampm == Calendar.AM);
+    }
+
+
+    /**
+     * Equivalent to {@link GCalendar#isPM()}.
+     */
+    public boolean isPM()
+    {
+        return (ampm == Calendar.PM);
+    }
+
+
+    /**
+     * Equivalent to {@link GCalendar#getDate()}.
+     */
+    public int getDate()
+    {
+        return dayOfMonth;
+    }
+
+
+    /**
+     * Equivalent to {@link GCalendar#getDayOfMonth()}.
+     */
+    public int getDayOfMonth()
+    {
+        return dayOfMonth;
+    }
+
+
+    /**
+     * Equivalent to {@link GCalendar#getDayOfWeek()}.
+     */
+    public int getDayOfWeek()
+    {
+        return dayOfWeek;
+    }
+
+
+    /**
+     * Equivalent to {@link GCalendar#getDayOfWeekInMonth()}.
+     */
+    public int getDayOfWeekInMonth()
+    {
+        return dayOfWeekInMonth;
+    }
+
+
+    /**
+     * Equivalent to {@link GCalendar#getDayOfYear()}.
+     */
+    public int getDayOfYear()
+    {
+        return dayOfYear;
+    }
+
+
+    /**
+     * Equivalent to {@link GCalendar#getDstOffset()}.
+     */
+    public int getDstOffset()
+    {
+        return dstOffset;
+    }
+
+
+    /**
+     * Equivalent to {@link GCalendar#getEra()}.
+     */
+    public int getEra()
+    {
+        return era;
+    }
+
+
+    /**
+     * Equivalent to {@link GCalendar#isAD()}.
+     */
+    public boolean isAD()
+    {
+        return (era == GregorianCalendar.AD);
+    }
+
+
+    /**
+     * Equivalent to {@link GCalendar#isBC()}.
+     */
+    public boolean isBC()
+    {
+        return (era == GregorianCalendar.BC);
+    }
+
+
+    /**
+     * Equivalent to {@link GCalendar#getHour()}.
+     */
+    public int getHour()
+    {
+        return hour;
+    }
+
+
+    /**
+     * Equivalent to {@link GCalendar#getHourOfDay()}.
+     */
+    public int getHourOfDay()
+    {
+        return hourOfDay;
+    }
+
+
+    /**
+     * Equivalent to {@link GCalendar#getMillisecond()}.
+     */
+    public int getMillisecond()
+    {
+        return millisecond;
+    }
+
+
+    /**
+     * Equivalent to {@link GCalendar#getMinute()}.
+     */
+    public int getMinute()
+    {
+        return minute;
+    }
+
+
+    /**
+     * Equivalent to {@link GCalendar#getMonth()}.
+     */
+    public int getMonth()
+    {
+        return month;
+    }
+
+
+    /**
+     * Equivalent to {@link GCalendar#getSecond()}.
+     */
+    public int getSecond()
+    {
+        return second;
+    }
+
+
+    /**
+     * Equivalent to {@link GCalendar#getWeekOfMonth()}.
+     */
+    public int getWeekOfMonth()
+    {
+        return weekOfMonth;
+    }
+
+
+    /**
+     * Equivalent to {@link GCalendar#getWeekOfYear()}.
+     */
+    public int getWeekOfYear()
+    {
+        return weekOfYear;
+    }
+
+
+    /**
+     * Equivalent to {@link GCalendar#getYear()}.
+     */
+    public int getYear()
+    {
+        return year;
+    }
+
+
+    /**
+     * Equivalent to {@link GCalendar#getZoneOffset()}.
+     */
+    public int getZoneOffset()
+    {
+        return zoneOffset;
+    }
+
+
+    /**
+     * Equivalent to {@link GCalendar#isLeapYear()}.
+     */
+    public boolean isLeapYear()
+    {
+        return leapYear;
+    }
+
+
+    /**
+     * Format this snapshot using the given format. This method is an
+     * alias of <code>format.{@link DateFormat#format(Date)
+     * format}({@link #getTime()})</code>, like {@link
+     * GCalendar#format(DateFormat)}.
+     */
+    public String format(DateFormat format)
+    {
+        return format.format(getTime());
+    }
+
+
+    /**
+     * Format this snapshot using the given pattern of {@link
+     * java.text.SimpleDateFormat} in the time zone of this snapshot,
+     * like {@link GCalendar#format(String)}.
+     */
+    public String format(String format)
+    {
+        return DateFormatCache.get(format, timeZone).format(getTime());
+    }
+
+
+    /**
+     * Format this snapshot using the given compiled format.
+     */
+    public String format(GFormat format)
+    {
+        return format.format(timeInMillis, timeZone);
+    }
+
+
+    /**
+     * Equivalent to {@link GCalendar#toISO8601()}.
+     */
+    public String toISO8601()
+    {
+        return toISO8601(ISO8601.YEAR_OF_ERA);
+    }
+
+
+    /**
+     * Equivalent to {@link GCalendar#toISO8601(int)}.
+     */
+    public String toISO8601(int options)
+    {
+        char[] buffer = new char[ISO8601.MAX_LENGTH];
+        int length = ISO8601.format(timeInMillis, zoneOffset + dstOffset, options, buffer, 0);
+
+        return new String(buffer, 0, length);
+    }
+
+
+    /**
+     * Equivalent to {@link GCalendar#toPackedDateTime()}.
+     */
+    public long toPackedDateTime()
+    {
+        return PackedDateTime.fromLocalMillis(timeInMillis + zoneOffset + dstOffset);
+    }
+
+
+    /**
+     * Create a mutable calendar which has the same time, time zone
+     * and week settings as this snapshot.
+     */
+    public GCalendar toGCalendar()
+    {
+        GCalendar calendar = new GCalendar(getTimeZone());
+        calendar.setFirstDayOfWeek(firstDayOfWeek);
+        calendar.setMinimalDaysInFirstWeek(minimalDaysInFirstWeek);
+        calendar.setTimeInMillis(timeInMillis);
+
+        return calendar;
+    }
+
+
+    /**
+     * Compare the times of two snapshots.
+     */
+    @Override
+    public int compareTo(FrozenGCalendar other)
+    {
+        return (timeInMillis < other.timeInMillis) ? -1 : ((timeInMillis == other.timeInMillis) ? 0 : 1);
+    }
+
+
+    /**
+     * Two snapshots are equal if they have the same time, time zone and
+     * week settings.
+     */
+    @Override
+    public boolean equals(Object object)
+    {
+        if (object == this)
+        {
+            return true;
+        }
+
+        if (!(object instanceof FrozenGCalendar))
+        {
+            return false;
+        }
+
+        FrozenGCalendar other = (FrozenGCalendar)object;
+
+        return timeInMillis           == other.timeInMillis
+            && firstDayOfWeek         == other.firstDayOfWeek
+            && minimalDaysInFirstWeek == other.minimalDaysInFirstWeek
+            && timeZone.equals(other.timeZone);
+    }
+
+
+    @Override
+    public int hashCode()
+    {
+        return (int)(timeInMillis ^ (timeInMillis >>> 32)) ^ timeZone.hashCode();
+    }
+
+
+    /**
+     * Get the ISO 8601 string with milliseconds.
+     */
+    @Override
+    public String toString()
+    {
+        return toISO8601(ISO8601.MILLISECONDS);
+    }
+}
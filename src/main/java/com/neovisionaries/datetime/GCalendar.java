@@ -21,11 +21,21 @@ import java.text.FieldPosition;
 import java.text.ParseException;
 import java.text.ParsePosition;
 import java.text.SimpleDateFormat;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
 import java.util.Calendar;
 import java.util.Date;
 import java.util.GregorianCalendar;
 import java.util.Locale;
+import java.util.Spliterator;
 import java.util.TimeZone;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.stream.LongStream;
+import java.util.stream.StreamSupport;
 
 
 /**
@@ -53,6 +63,22 @@ import java.util.TimeZone;
 @SuppressWarnings("serial")
 public class GCalendar extends GregorianCalendar
 {
+    /**
+     * The default Gregorian change date (October 15, 1582) in
+     * milliseconds since the epoch.
+     */
+    private static final long DEFAULT_GREGORIAN_CHANGE = -12219292800000L;
+
+
+    /**
+     * First day of week and minimal days in first week per locale.
+     */
+    private static final ConcurrentMap<Locale, int[]> WEEK_DATA = new ConcurrentHashMap<Locale, int[]>();
+
+
+    private DstPolicy dstPolicy = DstPolicy.COMPATIBLE;
+
+
     public GCalendar()
     {
         super();
@@ -126,6 +152,56 @@ public class GCalendar extends GregorianCalendar
     }
 
 
+    /**
+     * A constructor that computes the fields only once, for the given
+     * time. Unlike {@link #GCalendar(long)}, this constructor does not
+     * compute the fields for the current time first.
+     *
+     * @param millis
+     *         Milliseconds since the epoch.
+     *
+     * @param timeZone
+     *         Time zone.
+     *
+     * @param locale
+     *         Locale which determines the first day of week and the
+     *         minimal days in the first week.
+     *
+     * @since 1.4
+     */
+    public GCalendar(long millis, TimeZone timeZone, Locale locale)
+    {
+        // This constructor of GregorianCalendar only sets the fields.
+        super(1970, JANUARY, 1);
+
+        int[] weekData = getWeekData(locale);
+
+        setTimeZone(timeZone);
+        setFirstDayOfWeek(weekData[0]);
+        setMinimalDaysInFirstWeek(weekData[1]);
+        setTimeInMillis(millis);
+    }
+
+
+    /**
+     * Get the first day of week and the minimal days in the first week
+     * of the given locale.
+     */
+    static int[] getWeekData(Locale locale)
+    {
+        int[] weekData = WEEK_DATA.get(locale);
+
+        if (weekData == null)
+        {
+            Calendar calendar = Calendar.getInstance(locale);
+            weekData = new int[] { calendar.getFirstDayOfWeek(), calendar.getMinimalDaysInFirstWeek() };
+            WEEK_DATA.put(locale, weekData);
+        }
+
+        return weekData;
+    }
+
+
     /**
      * A constructor that calls <code>super()</code> and
      * <code>super.{@link GregorianCalendar#setTime(Date)
@@ -1140,20 +1216,13 @@ public class GCalendar extends GregorianCalendar
 
     /**
      * Check if the given year is a leap year.
-     * The implementation does the following.
-     *
-     * <style type="text/css">
-     * span.keyword { color: purple; font-weight: bold; }
-     * span.comment { color: green; }
-     * span.string  { color: blue; }
-     * pre.code { background-color: #EEEEEE; margin-left: 2em; margin-right: 2em; border: 1px solid black; }
-     * </style>
-     *
-     * <pre class="code">
      *
-     * <span class="keyword">return new</span> {@link GCalendar#GCalendar() GCalendar()}.{@link #setYear(int)
-     * setYear}(year).{@link #isLeapYear()};
-     * </pre>
+     * <p>
+     * Since version 1.4, this method does not create any object. It
+     * is an alias of {@link CalendarMath#isLeap(int)}, so the result
+     * is the same as that of {@link GregorianCalendar#isLeapYear(int)}
+     * with the default Gregorian cutover.
+     * </p>
      *
      * @param year
      *
@@ -1162,7 +1231,7 @@ public class GCalendar extends GregorianCalendar
      */
     public static boolean isLeap(int year)
     {
-        return new GCalendar().setYear(year).isLeapYear();
+        return CalendarMath.isLeap(year);
     }
 
 
@@ -1185,7 +1254,13 @@ public class GCalendar extends GregorianCalendar
      */
     public static String format(DateFormat format, Calendar calendar)
     {
-        return format.format(calendar.getTime());
+        long start = GCalendarMetrics.start();
+        Object event = GCalendarEvents.beginFormat();
+        String result = format.format(calendar.getTime());
+        GCalendarMetrics.end(GCalendarMetrics.Operation.FORMAT, start, true);
+        GCalendarEvents.formatted(event, format, calendar.getTimeZone(), result.length());
+
+        return result;
     }
 
 
@@ -1211,6 +1286,12 @@ public class GCalendar extends GregorianCalendar
      * <span class="keyword">return</span> {@link #format(DateFormat, Calendar)
      * format}(df, calendar);
      * </pre>
+     *
+     * <p>
+     * Since version 1.4, {@code SimpleDateFormat} instances are cached
+     * per thread by (pattern, time zone, default locale), so a new
+     * instance is not created on every call.
+     * </p>
      */
     public static String format(String format, Calendar calendar)
     {
@@ -1220,11 +1301,7 @@ public class GCalendar extends GregorianCalendar
 
     private static DateFormat createDateFormat(String format, Calendar calendar)
     {
-        DateFormat df = new SimpleDateFormat(format);
-
-        df.setTimeZone(calendar.getTimeZone());
-
-        return df;
+        return DateFormatCache.get(format, calendar.getTimeZone());
     }
 
 
@@ -1291,7 +1368,14 @@ public class GCalendar extends GregorianCalendar
      */
     public static StringBuffer format(DateFormat format, Calendar calendar, StringBuffer toAppendTo, FieldPosition position)
     {
-        return format.format(calendar.getTime(), toAppendTo, position);
+        long start = GCalendarMetrics.start();
+        Object event = GCalendarEvents.beginFormat();
+        int length = toAppendTo.length();
+        StringBuffer result = format.format(calendar.getTime(), toAppendTo, position);
+        GCalendarMetrics.end(GCalendarMetrics.Operation.FORMAT, start, true);
+        GCalendarEvents.formatted(event, format, calendar.getTimeZone(), result.length() - length);
+
+        return result;
     }
 
 
@@ -1370,6 +1454,73 @@ public class GCalendar extends GregorianCalendar
     }
 
 
+    /**
+     * Format the given calendar object using the given compiled format.
+     * This method is an alias of <code>format.{@link GFormat#format(Calendar)
+     * format}(calendar)</code>. Unlike {@link #format(DateFormat, Calendar)},
+     * the same {@code GFormat} instance can be used by multiple threads.
+     *
+     * @since 1.4
+     */
+    public static String format(GFormat format, Calendar calendar)
+    {
+        long start = GCalendarMetrics.start();
+        Object event = GCalendarEvents.beginFormat();
+        String result = format.format(calendar);
+        GCalendarMetrics.end(GCalendarMetrics.Operation.FORMAT, start, true);
+        GCalendarEvents.formatted(event, format, calendar.getTimeZone(), result.length());
+
+        return result;
+    }
+
+
+    /**
+     * Format <code>this</code> calendar object using the given compiled format.
+     * This method is an alias of {@link #format(GFormat, Calendar)
+     * format}{@code (format, this)}.
+     *
+     * @since 1.4
+     */
+    public String format(GFormat format)
+    {
+        return format(format, this);
+    }
+
+
+    /**
+     * Format the given calendar object using the given compiled format.
+     * This method is an alias of <code>format.{@link GFormat#format(long,
+     * TimeZone, StringBuffer, FieldPosition) format}(calendar.getTimeInMillis(),
+     * calendar.getTimeZone(), toAppendTo, position)</code>.
+     *
+     * @since 1.4
+     */
+    public static StringBuffer format(GFormat format, Calendar calendar, StringBuffer toAppendTo, FieldPosition position)
+    {
+        long start = GCalendarMetrics.start();
+        Object event = GCalendarEvents.beginFormat();
+        int length = toAppendTo.length();
+        StringBuffer result = format.format(calendar.getTimeInMillis(), calendar.getTimeZone(), toAppendTo, position);
+        GCalendarMetrics.end(GCalendarMetrics.Operation.FORMAT, start, true);
+        GCalendarEvents.formatted(event, format, calendar.getTimeZone(), result.length() - length);
+
+        return result;
+    }
+
+
+    /**
+     * Format <code>this</code> calendar object using the given compiled format.
+     * This method is an alias of {@link #format(GFormat, Calendar, StringBuffer,
+     * FieldPosition) format}{@code (format, this, toAppendTo, position)}.
+     *
+     * @since 1.4
+     */
+    public StringBuffer format(GFormat format, StringBuffer toAppendTo, FieldPosition position)
+    {
+        return format(format, this, toAppendTo, position);
+    }
+
+
     /**
      * Parse the given string using the given format.
      * The implementation does the following.
@@ -1389,7 +1540,27 @@ public class GCalendar extends GregorianCalendar
      */
     public static GCalendar parse(DateFormat format, String source) throws ParseException
     {
-        return new GCalendar(format.parse(source));
+        long start = GCalendarMetrics.start();
+        Object event = GCalendarEvents.beginParse();
+        Date date = null;
+        int errorIndex = -1;
+
+        try
+        {
+            date = format.parse(source);
+        }
+        catch (ParseException e)
+        {
+            errorIndex = e.getErrorOffset();
+            throw e;
+        }
+        finally
+        {
+            GCalendarMetrics.end(GCalendarMetrics.Operation.PARSE, start, date != null);
+            GCalendarEvents.parsed(event, format, format.getTimeZone(), source, null, errorIndex, date != null);
+        }
+
+        return new GCalendar(date);
     }
 
 
@@ -1409,10 +1580,16 @@ public class GCalendar extends GregorianCalendar
      * <span class="keyword">return</span> {@link #parse(DateFormat, String) parse}(<span class="keyword">new</span> {@link
      * SimpleDateFormat#SimpleDateFormat(String) SimpleDateFormat}(format), source);
      * </pre>
+     *
+     * <p>
+     * Since version 1.4, {@code SimpleDateFormat} instances are cached
+     * per thread by (pattern, default time zone, default locale), so a
+     * new instance is not created on every call.
+     * </p>
      */
     public static GCalendar parse(String format, String source) throws ParseException
     {
-        return parse(new SimpleDateFormat(format), source);
+        return parse(DateFormatCache.get(format), source);
     }
 
 
@@ -1427,7 +1604,11 @@ public class GCalendar extends GregorianCalendar
      */
     public static GCalendar parse(DateFormat format, String source, ParsePosition position)
     {
+        long start = GCalendarMetrics.start();
+        Object event = GCalendarEvents.beginParse();
         Date date = format.parse(source, position);
+        GCalendarMetrics.end(GCalendarMetrics.Operation.PARSE, start, date != null);
+        GCalendarEvents.parsed(event, format, format.getTimeZone(), source, position, -1, date != null);
 
         if (date == null)
         {
@@ -1455,218 +1636,985 @@ public class GCalendar extends GregorianCalendar
      * parse}(<span class="keyword">new</span> {@link SimpleDateFormat#SimpleDateFormat(String)
      * SimpleDateFormat}(format), source, position);
      * </pre>
+     *
+     * <p>
+     * Since version 1.4, {@code SimpleDateFormat} instances are cached
+     * per thread by (pattern, default time zone, default locale), so a
+     * new instance is not created on every call.
+     * </p>
      */
     public static GCalendar parse(String format, String source, ParsePosition position)
     {
-        return parse(new SimpleDateFormat(format), source, position);
+        return parse(DateFormatCache.get(format), source, position);
     }
 
 
     /**
-     * Set timezone, year, month, ..., millisecond at a time.
+     * Parse the given string using the given compiled format.
+     * Text without a zone field is interpreted in the default time zone.
+     *
+     * <p>
+     * Unlike {@link #parse(DateFormat, String)}, the same {@code GFormat}
+     * instance can be used by multiple threads, and no {@link Date} is
+     * created.
+     * </p>
      *
      * @return
-      *         {@code this} object.
+     *         A new calendar object in the default time zone.
+     *
+     * @throws ParseException
+     *         The beginning of the string cannot be parsed.
+     *
+     * @since 1.4
      */
-    public GCalendar set(TimeZone timeZone, int year, int month, int dayOfMonth, int hourOfDay, int minute, int second, int millisecond)
+    public static GCalendar parse(GFormat format, String source) throws ParseException
     {
-        setTimeZone(timeZone);
-        setInternal(year, month, dayOfMonth, hourOfDay, minute, second, millisecond);
+        ParsePosition position = new ParsePosition(0);
+        GCalendar calendar = parse(format, source, position);
 
-        return this;
+        if (calendar == null)
+        {
+            throw new ParseException("Unparseable date: \"" + source + "\"", position.getErrorIndex());
+        }
+
+        return calendar;
     }
 
 
     /**
-     * Set year, month, ..., millisecond at a time.
+     * Parse the given string using the given compiled format, starting
+     * at the index of {@code position}. Text without a zone field is
+     * interpreted in the default time zone.
      *
      * @return
-     *         {@code this} object.
+     *         A new calendar object in the default time zone, or null
+     *         if parsing failed. In the latter case, the error index of
+     *         {@code position} is set.
+     *
+     * @since 1.4
      */
-    public GCalendar set(int year, int month, int dayOfMonth, int hourOfDay, int minute, int second, int millisecond)
+    public static GCalendar parse(GFormat format, String source, ParsePosition position)
     {
-        return setInternal(year, month, dayOfMonth, hourOfDay, minute, second, millisecond);
-    }
-
+        long start = GCalendarMetrics.start();
+        Object event = GCalendarEvents.beginParse();
+        GCalendar calendar = new GCalendar();
+        boolean parsed = format.parse(source, position, calendar);
+        GCalendarMetrics.end(GCalendarMetrics.Operation.PARSE, start, parsed);
+        GCalendarEvents.parsed(event, format, calendar.getTimeZone(), source, position, -1, parsed);
 
-    private GCalendar setInternal(int year, int month, int dayOfMonth, int hourOfDay, int minute, int second, int millisecond)
-    {
-        setYear(year);
-        setMonth(month);
-        setDayOfMonth(dayOfMonth);
-        setHourOfDay(hourOfDay);
-        setMinute(minute);
-        setSecond(second);
-        setMillisecond(millisecond);
+        if (parsed == false)
+        {
+            return null;
+        }
 
-        return this;
+        return calendar;
     }
 
 
     /**
-     * Set 0 to hourOfDay field, minute, second and millisecond fields.
+     * Parse the given string using the given format and set the result
+     * to {@code target}, starting at the index of {@code position}.
+     * Unlike {@link #parse(DateFormat, String, ParsePosition)}, no new
+     * calendar object is created, so one calendar can be reused for
+     * many strings.
+     *
+     * @param target
+     *         Calendar to set the result to. It is not changed on failure.
      *
      * @return
-     *         {@code this} object.
+     *         True on success. On failure, the error index of
+     *         {@code position} is set.
+     *
+     * @since 1.4
      */
-    public GCalendar setMidnight()
+    public static boolean parseInto(GCalendar target, DateFormat format, String source, ParsePosition position)
     {
-        setHourOfDay(0);
-        setMinute(0);
-        setSecond(0);
-        setMillisecond(0);
+        long start = GCalendarMetrics.start();
+        Object event = GCalendarEvents.beginParse();
+        Date date = format.parse(source, position);
+        GCalendarMetrics.end(GCalendarMetrics.Operation.PARSE, start, date != null);
+        GCalendarEvents.parsed(event, format, format.getTimeZone(), source, position, -1, date != null);
 
-        return this;
+        if (date == null)
+        {
+            return false;
+        }
+
+        target.setTimeInMillis(date.getTime());
+
+        return true;
     }
 
 
     /**
-     * Set 12 to hourOfDay field, and set 0 to minute, second and millisecond fields.
+     * Parse the given string using the given format and set the result
+     * to {@code target}. This method is an alias of {@link
+     * #parseInto(GCalendar, DateFormat, String, ParsePosition)
+     * parseInto}{@code (target, format, source, new ParsePosition(0))}.
      *
-     * @return
-     *         {@code this} object.
+     * @since 1.4
      */
-    public GCalendar setNoon()
+    public static boolean parseInto(GCalendar target, DateFormat format, String source)
     {
-        setHourOfDay(12);
-        setMinute(0);
-        setSecond(0);
-        setMillisecond(0);
-
-        return this;
+        return parseInto(target, format, source, new ParsePosition(0));
     }
 
 
     /**
-     * Change the time zone, but preserve the values of year, month
-     * dayOfMonth, hourOfDay, minute, second and millisecond.
-     *
-     * <p>
-     * The code snippet below:
-     * </p>
-     *
-     * <style type="text/css">
-     * span.keyword { color: purple; font-weight: bold; }
-     * span.comment { color: green; }
-     * span.string  { color: blue; }
-     * pre.code { background-color: #EEEEEE; margin-left: 2em; margin-right: 2em; border: 1px solid black; }
-     * </style>
-     *
-     * <pre class="code">
-     *
-     * <span class="keyword">import</span> java.util.TimeZone;
-     * <span class="keyword">import</span> com.neovisionaries.datetime.GCalendar;
-     *
-     * <span class="keyword">public class</span> GCalTest
-     * {
-     *     <span class="keyword">public static void</span> main(String[] args)
-     *     {
-     *         TimeZone GMT = TimeZone.getTimeZone(<span class="string">"GMT"</span>);
-     *         TimeZone JST = TimeZone.getTimeZone(<span class="string">"JST"</span>);
-     *         GCalendar cal;
-     *
-     *         <span class="comment">// Create an instance with a different time zone than GMT.</span>
-     *         cal = <span class="keyword">new</span> GCalendar(JST);
-     *         print(cal);
-     *
-     *         <span class="comment">// Change the time zone to GMT, but preserve other fields.
-     *         //
-     *         // Year, month, ..., millisecond won't change, but
-     *         // timeInMillis will change.</span>
-     *         cal.changeTimeZoneOnly(GMT);
-     *         print(cal);
-     *
-     *         <span class="comment">// Create an instance with a different time zone than GMT.</span>
-     *         cal = <span class="keyword">new</span> GCalendar(JST);
-     *         print(cal);
-     *
-     *         <span class="comment">// Change the time zone to GMT.
-     *         //
-     *         // timeInMillis won't change, but the hourOfDay field
-     *         // (and possibly others) will change.</span>
-     *         cal.setTimeZone(GMT);
-     *         print(cal);
-     *     }
-     *
-     *
-     *     <span class="keyword">private static void</span> print(GCalendar cal)
-     *     {
-     *         System.out.format(<span class="string">"%04d/%02d/%02d %02d:%02d:%02d "</span> +
-     *                           <span class="string">"(offset = %8d, timeInMillis = %d)\n"</span>,
-     *             cal.getYear(), cal.getMonth() + 1, cal.getDayOfMonth(),
-     *             cal.getHourOfDay(), cal.getMinute(), cal.getSecond(),
-     *             cal.getZoneOffset(), cal.getTimeInMillis());
-     *     }
-     * }
-     * </pre>
+     * Parse the given string using the given pattern and set the result
+     * to {@code target}, starting at the index of {@code position}. Unlike
+     * {@link #parse(String, String, ParsePosition)}, text without a zone
+     * is interpreted in the time zone of {@code target}.
      *
      * <p>
-     * will generate output like the following.
+     * {@code SimpleDateFormat} instances are cached per thread by
+     * (pattern, time zone, default locale).
      * </p>
      *
-     * <pre>
-     * 2012/11/15 17:45:47 (offset = 32400000, timeInMillis = 1352969147188)
-     * 2012/11/15 17:45:47 (offset =        0, timeInMillis = 1353001547188)
-     * 2012/11/15 17:45:47 (offset = 32400000, timeInMillis = 1352969147206)
-     * 2012/11/15 08:45:47 (offset =        0, timeInMillis = 1352969147206)
-     * </pre>
-     *
-     * @param timeZone
+     * @param target
+     *         Calendar to set the result to. It is not changed on failure.
      *
      * @return
-     *         {@code this} object.
+     *         True on success. On failure, the error index of
+     *         {@code position} is set.
+     *
+     * @since 1.4
      */
-    public GCalendar changeTimeZoneOnly(TimeZone timeZone)
+    public static boolean parseInto(GCalendar target, String format, String source, ParsePosition position)
     {
-        // @formatter:off
-        int year        = getYear();
-        int month       = getMonth();
-        int dayOfMonth  = getDayOfMonth();
-        int hourOfDay   = getHourOfDay();
-        int minute      = getMinute();
-        int second      = getSecond();
-        int millisecond = getMillisecond();
-        // @formatter:on
+        return parseInto(target, DateFormatCache.get(format, target.getTimeZone()), source, position);
+    }
 
-        setTimeZone(timeZone);
-        setInternal(year, month, dayOfMonth, hourOfDay, minute, second, millisecond);
 
-        return this;
+    /**
+     * Parse the given string using the given pattern and set the result
+     * to {@code target}. This method is an alias of {@link
+     * #parseInto(GCalendar, String, String, ParsePosition)
+     * parseInto}{@code (target, format, source, new ParsePosition(0))}.
+     *
+     * @since 1.4
+     */
+    public static boolean parseInto(GCalendar target, String format, String source)
+    {
+        return parseInto(target, format, source, new ParsePosition(0));
     }
 
 
     /**
-     * Change the time zone, but preserve the values of year, month
-     * dayOfMonth, hourOfDay, minute, second and millisecond.
-     *
-     * <p>
-     * This method is an alias of {@link #changeTimeZoneOnly(TimeZone)
-     * changeTimeZoneOnly}{@code (TimeZone.getTimeZone(timeZone))}.
-     * </p>
+     * Parse the given text using the given compiled format and set the
+     * result to {@code target}, starting at the index of {@code position}.
+     * Text without a zone field is interpreted in the time zone of {@code
+     * target}. Neither {@link Date} nor a calendar object is created.
      *
-     * @param timeZone
-     *         String expression of a time zone.
+     * @param target
+     *         Calendar to set the result to. It is not changed on failure.
      *
      * @return
-     *         {@code this} object.
+     *         True on success. On failure, the error index of
+     *         {@code position} is set.
      *
-     * @since 1.1
+     * @since 1.4
      */
-    public GCalendar changeTimeZoneOnly(String timeZone)
+    public static boolean parseInto(GCalendar target, GFormat format, CharSequence source, ParsePosition position)
     {
-        TimeZone tz = TimeZone.getTimeZone(timeZone);
+        long start = GCalendarMetrics.start();
+        Object event = GCalendarEvents.beginParse();
+        boolean parsed = format.parse(source, position, target);
+        GCalendarMetrics.end(GCalendarMetrics.Operation.PARSE, start, parsed);
+        GCalendarEvents.parsed(event, format, target.getTimeZone(), source, position, -1, parsed);
 
-        return changeTimeZoneOnly(tz);
+        return parsed;
+    }
+
+
+    /**
+     * Parse the given text using the given compiled format and set the
+     * result to {@code target}. This method is an alias of {@link
+     * #parseInto(GCalendar, GFormat, CharSequence, ParsePosition)
+     * parseInto}{@code (target, format, source, new ParsePosition(0))}.
+     *
+     * @since 1.4
+     */
+    public static boolean parseInto(GCalendar target, GFormat format, CharSequence source)
+    {
+        return parseInto(target, format, source, new ParsePosition(0));
+    }
+
+
+    /**
+     * Parse the given string as an <a href="http://en.wikipedia.org/wiki/ISO_8601"
+     * >ISO 8601</a> date or date-time. The accepted forms are described in
+     * {@link ISO8601#parse(CharSequence, int, int, TimeZone, ParsePosition)}.
+     * A date-time without an offset is interpreted in the default time zone.
+     *
+     * <p>
+     * Unlike {@link #parse(String, String)}, this method does not use
+     * {@link SimpleDateFormat}, and the whole string must be consumed.
+     * </p>
+     *
+     * @param source
+     *         ISO 8601 string.
+     *
+     * @return
+     *         A new calendar object in the default time zone.
+     *
+     * @throws ParseException
+     *         The given string is not a valid ISO 8601 date or date-time.
+     *
+     * @since 1.4
+     */
+    public static GCalendar parseISO8601(String source) throws ParseException
+    {
+        ParsePosition position = new ParsePosition(0);
+        GCalendar calendar = parseISO8601(source, position);
+
+        if (calendar == null)
+        {
+            throw new ParseException("Unparseable date: \"" + source + "\"", position.getErrorIndex());
+        }
+
+        if (position.getIndex() != source.length())
+        {
+            throw new ParseException("Unparseable date: \"" + source + "\"", position.getIndex());
+        }
+
+        return calendar;
+    }
+
+
+    /**
+     * Parse the given text as an <a href="http://en.wikipedia.org/wiki/ISO_8601"
+     * >ISO 8601</a> date or date-time, starting at the index of {@code
+     * position}. A date-time without an offset is interpreted in the
+     * default time zone.
+     *
+     * @return
+     *         A new calendar object in the default time zone, or null
+     *         if parsing failed. In the latter case, the error index of
+     *         {@code position} is set.
+     *
+     * @since 1.4
+     */
+    public static GCalendar parseISO8601(CharSequence source, ParsePosition position)
+    {
+        long time = GCalendarMetrics.start();
+        Object event = GCalendarEvents.beginParse();
+        int start = position.getIndex();
+        GCalendar calendar = new GCalendar();
+        long millis = ISO8601.parse(source, calendar.getTimeZone(), position);
+        GCalendarMetrics.end(GCalendarMetrics.Operation.PARSE, time, position.getIndex() != start);
+        GCalendarEvents.parsed(event, "ISO 8601", calendar.getTimeZone(), source, position, -1, position.getIndex() != start);
+
+        // The index is not changed on failure.
+        if (position.getIndex() == start)
+        {
+            return null;
+        }
+
+        calendar.setTimeInMillis(millis);
+
+        return calendar;
+    }
+
+
+    /**
+     * Get the policy to resolve a wall-clock time in a gap or an overlap
+     * of the time zone. The default value is {@link DstPolicy#COMPATIBLE}.
+     *
+     * @return
+     *         The DST policy.
+     *
+     * @since 1.4
+     */
+    public DstPolicy getDstPolicy()
+    {
+        // null after deserializing an object of an older version.
+        return (dstPolicy != null) ? dstPolicy : DstPolicy.COMPATIBLE;
+    }
+
+
+    /**
+     * Set the policy to resolve a wall-clock time in a gap or an overlap
+     * of the time zone. The policy is used by {@link
+     * #set(int, int, int, int, int, int, int)}, {@link #set(TimeZone, int,
+     * int, int, int, int, int, int)} and {@link #changeTimeZoneOnly(TimeZone)}.
+     *
+     * @param policy
+     *         The DST policy.
+     *
+     * @return
+     *         {@code this} object.
+     *
+     * @since 1.4
+     */
+    public GCalendar setDstPolicy(DstPolicy policy)
+    {
+        if (policy == null)
+        {
+            throw new NullPointerException();
+        }
+
+        this.dstPolicy = policy;
+
+        return this;
+    }
+
+
+    /**
+     * Set timezone, year, month, ..., millisecond at a time.
+     *
+     * <p>
+     * Since version 1.4, if this calendar is lenient and uses the default
+     * Gregorian change date, the time is computed directly from the given
+     * values, and a wall-clock time in a gap or an overlap is resolved by
+     * the {@link #getDstPolicy() DST policy} of this calendar.
+     * </p>
+     *
+     * @return
+      *         {@code this} object.
+     */
+    public GCalendar set(TimeZone timeZone, int year, int month, int dayOfMonth, int hourOfDay, int minute, int second, int millisecond)
+    {
+        return setInternal(timeZone, year, month, dayOfMonth, hourOfDay, minute, second, millisecond);
+    }
+
+
+    /**
+     * Set year, month, ..., millisecond at a time.
+     *
+     * @return
+     *         {@code this} object.
+     */
+    public GCalendar set(int year, int month, int dayOfMonth, int hourOfDay, int minute, int second, int millisecond)
+    {
+        return setInternal(year, month, dayOfMonth, hourOfDay, minute, second, millisecond);
+    }
+
+
+    private GCalendar setInternal(int year, int month, int dayOfMonth, int hourOfDay, int minute, int second, int millisecond)
+    {
+        return setInternal(null, year, month, dayOfMonth, hourOfDay, minute, second, millisecond);
+    }
+
+
+    /**
+     * Set the time zone (if not null) and the fields. If the time cannot
+     * be computed, this calendar is left unchanged.
+     */
+    private GCalendar setInternal(TimeZone timeZone, int year, int month, int dayOfMonth, int hourOfDay, int minute, int second, int millisecond)
+    {
+        // Like set(YEAR, year), the year is of the current era.
+        int  y        = (isSet(ERA) && internalGet(ERA) == BC) ? 1 - year : year;
+        long first    = CalendarMath.toEpochDay(y, month, 1);
+        long epochDay = first + (dayOfMonth - 1);
+
+        // Days counted across the Gregorian change (for example October 15,
+        // 1582, counted from the Julian October 1) are left to the slow path.
+        boolean acrossChange =
+            (first < CalendarMath.GREGORIAN_CUTOVER_EPOCH_DAY) != (epochDay < CalendarMath.GREGORIAN_CUTOVER_EPOCH_DAY);
+
+        if (isLenient() && getGregorianChange().getTime() == DEFAULT_GREGORIAN_CHANGE && !acrossChange)
+        {
+            // Compute the time directly from the wall-clock time.
+            long local = epochDay * CalendarMath.MILLIS_PER_DAY
+                       + hourOfDay * 3600000L + minute * 60000L + second * 1000L + millisecond;
+
+            // Compute the time before changing the time zone, because
+            // the STRICT DST policy may reject the wall-clock time.
+            TimeZone tz = (timeZone != null) ? timeZone : getTimeZone();
+            long millis = ZoneOffsetIndex.of(tz).toUTC(local, getDstPolicy());
+
+            if (timeZone != null)
+            {
+                setTimeZone(timeZone);
+            }
+
+            setTimeInMillis(millis);
+
+            return this;
+        }
+
+        if (timeZone != null)
+        {
+            setTimeZone(timeZone);
+        }
+
+        setYear(year);
+        setMonth(month);
+        setDayOfMonth(dayOfMonth);
+        setHourOfDay(hourOfDay);
+        setMinute(minute);
+        setSecond(second);
+        setMillisecond(millisecond);
+
+        return this;
+    }
+
+
+    /**
+     * Set 0 to hourOfDay field, minute, second and millisecond fields.
+     *
+     * @return
+     *         {@code this} object.
+     */
+    public GCalendar setMidnight()
+    {
+        setHourOfDay(0);
+        setMinute(0);
+        setSecond(0);
+        setMillisecond(0);
+
+        return this;
+    }
+
+
+    /**
+     * Set 12 to hourOfDay field, and set 0 to minute, second and millisecond fields.
+     *
+     * @return
+     *         {@code this} object.
+     */
+    public GCalendar setNoon()
+    {
+        setHourOfDay(12);
+        setMinute(0);
+        setSecond(0);
+        setMillisecond(0);
+
+        return this;
+    }
+
+
+    /**
+     * Truncate the time to the start of the period given by the field.
+     * The fields smaller than it become their minimum values.
+     *
+     * <p>
+     * {@link #YEAR}, {@link #MONTH}, {@link #WEEK_OF_YEAR} (the start of
+     * the week from the {@link #getFirstDayOfWeek() first day of week}),
+     * {@link #DAY_OF_MONTH} (midnight), {@link #AM_PM} (midnight or noon),
+     * {@link #HOUR_OF_DAY}, {@link #MINUTE}, {@link #SECOND} and {@link
+     * #MILLISECOND} are supported. See {@link TimestampTruncator} for
+     * details. If this calendar is not lenient or does not use the default
+     * Gregorian change date, the fields are set one by one.
+     * </p>
+     *
+     * @return
+     *         {@code this} object.
+     *
+     * @throws IllegalArgumentException
+     *         The field is not supported.
+     *
+     * @since 1.4
+     */
+    public GCalendar truncateTo(int field)
+    {
+        if (isLenient() && getGregorianChange().getTime() == DEFAULT_GREGORIAN_CHANGE)
+        {
+            setTimeInMillis(TimestampTruncator.of(ZoneOffsetIndex.of(getTimeZone()), field,
+                    getFirstDayOfWeek(), getDstPolicy()).truncate(getTimeInMillis()));
+
+            return this;
+        }
+
+        switch (field)
+        {
+            case YEAR:
+                setMonth(JANUARY);
+                setDayOfMonth(1);
+                setMidnight();
+                break;
+
+            case MONTH:
+                setDayOfMonth(1);
+                setMidnight();
+                break;
+
+            case WEEK_OF_YEAR:
+            case WEEK_OF_MONTH:
+                add(DAY_OF_MONTH, -((getDayOfWeek() - getFirstDayOfWeek() + 7) % 7));
+                setMidnight();
+                break;
+
+            case DAY_OF_MONTH:
+            case DAY_OF_YEAR:
+            case DAY_OF_WEEK:
+            case DAY_OF_WEEK_IN_MONTH:
+                setMidnight();
+                break;
+
+            case AM_PM:
+                setHourOfDay(getHourOfDay() < 12 ? 0 : 12);
+                setMinute(0);
+                setSecond(0);
+                setMillisecond(0);
+                break;
+
+            case HOUR:
+            case HOUR_OF_DAY:
+                setMinute(0);
+                setSecond(0);
+                setMillisecond(0);
+                break;
+
+            case MINUTE:
+                setSecond(0);
+                setMillisecond(0);
+                break;
+
+            case SECOND:
+                setMillisecond(0);
+                break;
+
+            case MILLISECOND:
+                break;
+
+            default:
+                throw new IllegalArgumentException("Unsupported field: " + field);
+        }
+
+        return this;
+    }
+
+
+    /**
+     * Change the time zone, but preserve the values of year, month
+     * dayOfMonth, hourOfDay, minute, second and millisecond.
+     *
+     * <p>
+     * The code snippet below:
+     * </p>
+     *
+     * <style type="text/css">
+     * span.keyword { color: purple; font-weight: bold; }
+     * span.comment { color: green; }
+     * span.string  { color: blue; }
+     * pre.code { background-color: #EEEEEE; margin-left: 2em; margin-right: 2em; border: 1px solid black; }
+     * </style>
+     *
+     * <pre class="code">
+     *
+     * <span class="keyword">import</span> java.util.TimeZone;
+     * <span class="keyword">import</span> com.neovisionaries.datetime.GCalendar;
+     *
+     * <span class="keyword">public class</span> GCalTest
+     * {
+     *     <span class="keyword">public static void</span> main(String[] args)
+     *     {
+     *         TimeZone GMT = TimeZone.getTimeZone(<span class="string">"GMT"</span>);
+     *         TimeZone JST = TimeZone.getTimeZone(<span class="string">"JST"</span>);
+     *         GCalendar cal;
+     *
+     *         <span class="comment">// Create an instance with a different time zone than GMT.</span>
+     *         cal = <span class="keyword">new</span> GCalendar(JST);
+     *         print(cal);
+     *
+     *         <span class="comment">// Change the time zone to GMT, but preserve other fields.
+     *         //
+     *         // Year, month, ..., millisecond won't change, but
+     *         // timeInMillis will change.</span>
+     *         cal.changeTimeZoneOnly(GMT);
+     *         print(cal);
+     *
+     *         <span class="comment">// Create an instance with a different time zone than GMT.</span>
+     *         cal = <span class="keyword">new</span> GCalendar(JST);
+     *         print(cal);
+     *
+     *         <span class="comment">// Change the time zone to GMT.
+     *         //
+     *         // timeInMillis won't change, but the hourOfDay field
+     *         // (and possibly others) will change.</span>
+     *         cal.setTimeZone(GMT);
+     *         print(cal);
+     *     }
+     *
+     *
+     *     <span class="keyword">private static void</span> print(GCalendar cal)
+     *     {
+     *         System.out.format(<span class="string">"%04d/%02d/%02d %02d:%02d:%02d "</span> +
+     *                           <span class="string">"(offset = %8d, timeInMillis = %d)\n"</span>,
+     *             cal.getYear(), cal.getMonth() + 1, cal.getDayOfMonth(),
+     *             cal.getHourOfDay(), cal.getMinute(), cal.getSecond(),
+     *             cal.getZoneOffset(), cal.getTimeInMillis());
+     *     }
+     * }
+     * </pre>
+     *
+     * <p>
+     * will generate output like the following.
+     * </p>
+     *
+     * <pre>
+     * 2012/11/15 17:45:47 (offset = 32400000, timeInMillis = 1352969147188)
+     * 2012/11/15 17:45:47 (offset =        0, timeInMillis = 1353001547188)
+     * 2012/11/15 17:45:47 (offset = 32400000, timeInMillis = 1352969147206)
+     * 2012/11/15 08:45:47 (offset =        0, timeInMillis = 1352969147206)
+     * </pre>
+     *
+     * <p>
+     * Since version 1.4, the new time is computed directly from the
+     * wall-clock time and the offset of the new time zone, and a wall-clock
+     * time in a gap or an overlap of the new time zone is resolved by the
+     * {@link #getDstPolicy() DST policy} of this calendar.
+     * </p>
+     *
+     * @param timeZone
+     *
+     * @return
+     *         {@code this} object.
+     */
+    public GCalendar changeTimeZoneOnly(TimeZone timeZone)
+    {
+        long start = GCalendarMetrics.start();
+        Object event = GCalendarEvents.beginZoneChange();
+        TimeZone from = (event != null) ? getTimeZone() : null;
+        boolean changed = false;
+
+        try
+        {
+            long local  = ZoneOffsetIndex.of(getTimeZone()).toLocal(getTimeInMillis());
+
+            // Nothing is changed if the STRICT DST policy rejects the time.
+            long millis = ZoneOffsetIndex.of(timeZone).toUTC(local, getDstPolicy());
+
+            setTimeZone(timeZone);
+            setTimeInMillis(millis);
+            changed = true;
+        }
+        finally
+        {
+            GCalendarMetrics.end(GCalendarMetrics.Operation.CHANGE_TIME_ZONE_ONLY, start, changed);
+            GCalendarEvents.zoneChanged(event, from, timeZone, changed);
+        }
+
+        return this;
+    }
+
+
+    /**
+     * Change the time zone, but preserve the values of year, month
+     * dayOfMonth, hourOfDay, minute, second and millisecond.
+     *
+     * <p>
+     * This method is an alias of {@link #changeTimeZoneOnly(TimeZone)
+     * changeTimeZoneOnly}{@code (TimeZone.getTimeZone(timeZone))}.
+     * </p>
+     *
+     * @param timeZone
+     *         String expression of a time zone.
+     *
+     * @return
+     *         {@code this} object.
+     *
+     * @since 1.1
+     */
+    public GCalendar changeTimeZoneOnly(String timeZone)
+    {
+        TimeZone tz = TimeZone.getTimeZone(timeZone);
+
+        return changeTimeZoneOnly(tz);
+    }
+
+
+    /**
+     * Format <code>this</code> calendar object using
+     * <a href="http://en.wikipedia.org/wiki/ISO_8601">ISO 8601</a> extended format
+     * (<code><i>yyyy</i>-<i>MM</i>-<i>dd</i>T<i>HH</i>:<i>mm</i>:<i>ssZ</i>,
+     * where <code><i>Z</i></code> is <code>[+-]<i>HH</i>:<i>mm</i></code>).
+     * This format complies with <a href="http://www.w3.org/TR/xmlschema-2/#dateTime"
+     * >XMLSchema dateTime format</a>, too.
+     *
+     * <style type="text/css">
+     * span.keyword { color: purple; font-weight: bold; }
+     * span.comment { color: green; }
+     * span.string  { color: blue; }
+     * pre.code { background-color: #EEEEEE; margin-left: 2em; margin-right: 2em; border: 1px solid black; }
+     * </style>
+     *
+     * <pre class="code">
+     *
+     * {@link TimeZone} tz = TimeZone.{@link TimeZone#getTimeZone(String) getTimeZone}(<span class="string">"JST"</span>);
+     * GCalendar cal = new GCalendar(tz, 1974, {@link Calendar}.{@link Calendar#MAY MAY}, 6, 12, 34, 56, 0);
+     *
+     * <span class="comment">// This prints "1974-05-06T12:34:56+09:00".</span>
+     * System.out.println( cal.toISO8601() );
+     * </pre>
+     *
+     * <p>
+     * Since version 1.4, this method writes digits directly by {@link
+     * ISO8601#format(long, TimeZone, int)} instead of using {@link
+     * SimpleDateFormat}. The output is the same as before: the year is
+     * the year of the era without a sign, as {@code yyyy} of {@code
+     * SimpleDateFormat} writes it, so 1 BC is {@code 0001}. Use {@link
+     * #toISO8601(int)} to get the astronomical year of ISO 8601 ({@code
+     * 0000} for 1 BC, {@code -0001} for 2 BC).
+     * </p>
+     *
+     * @since 1.2
+     * @see <a href="http://en.wikipedia.org/wiki/ISO_8601">ISO 8601</a>
+     * @see <a href="http://www.w3.org/TR/xmlschema-2/#dateTime">XMLSchema dateTime format</a>
+     */
+    public String toISO8601()
+    {
+        return toISO8601(ISO8601.YEAR_OF_ERA);
     }
 
 
     /**
      * Format <code>this</code> calendar object using
      * <a href="http://en.wikipedia.org/wiki/ISO_8601">ISO 8601</a> extended format
-     * (<code><i>yyyy</i>-<i>MM</i>-<i>dd</i>T<i>HH</i>:<i>mm</i>:<i>ssZ</i>,
-     * where <code><i>Z</i></code> is <code>[+-]<i>HH</i>:<i>mm</i></code>).
-     * This format complies with <a href="http://www.w3.org/TR/xmlschema-2/#dateTime"
-     * >XMLSchema dateTime format</a>, too.
+     * with the given options.
+     *
+     * <p>
+     * This method is an alias of <code>{@link ISO8601}.{@link
+     * ISO8601#format(long, TimeZone, int) format}({@link #getTimeInMillis()},
+     * {@link #getTimeZone()}, options)</code>.
+     * </p>
+     *
+     * @param options
+     *         Bitwise OR of {@link ISO8601#MILLISECONDS}, {@link
+     *         ISO8601#MICROSECONDS}, {@link ISO8601#UTC_AS_Z} and {@link
+     *         ISO8601#YEAR_OF_ERA}, or 0.
+     *
+     * @return
+     *         ISO 8601 string.
+     *
+     * @since 1.4
+     */
+    public String toISO8601(int options)
+    {
+        long start = GCalendarMetrics.start();
+        String result = ISO8601.format(getTimeInMillis(), getTimeZone(), options);
+        GCalendarMetrics.end(GCalendarMetrics.Operation.TO_ISO8601, start, true);
+
+        return result;
+    }
+
+
+    /**
+     * Set the time and the time zone of this calendar, reusing this
+     * instance. The fields are computed only once.
+     *
+     * @param millis
+     *         Milliseconds since the epoch.
+     *
+     * @param timeZone
+     *         Time zone.
+     *
+     * @return
+     *         {@code this} object.
+     *
+     * @since 1.4
+     */
+    public GCalendar reset(long millis, TimeZone timeZone)
+    {
+        if (getTimeZone() != timeZone)
+        {
+            setTimeZone(timeZone);
+        }
+
+        setTimeInMillis(millis);
+
+        return this;
+    }
+
+
+    /**
+     * Make this calendar the same as the given one, reusing this instance
+     * instead of cloning the given one. The time, the time zone, the week
+     * settings, the leniency, the Gregorian change date and the DST policy
+     * are copied. The time zone is cloned only if it is not equal to that
+     * of this calendar.
+     *
+     * @param other
+     *         The calendar to copy.
+     *
+     * @return
+     *         {@code this} object.
+     *
+     * @since 1.4
+     */
+    public GCalendar copyFrom(GCalendar other)
+    {
+        TimeZone timeZone = other.getTimeZone();
+
+        if (timeZone.equals(getTimeZone()) == false)
+        {
+            setTimeZone((TimeZone)timeZone.clone());
+        }
+
+        setFirstDayOfWeek(other.getFirstDayOfWeek());
+        setMinimalDaysInFirstWeek(other.getMinimalDaysInFirstWeek());
+        setLenient(other.isLenient());
+
+        Date change = other.getGregorianChange();
+
+        if (change.equals(getGregorianChange()) == false)
+        {
+            setGregorianChange(change);
+        }
+
+        setDstPolicy(other.getDstPolicy());
+        setTimeInMillis(other.getTimeInMillis());
+
+        return this;
+    }
+
+
+    /**
+     * Convert this calendar to an {@link OffsetDateTime} of the same
+     * instant with the offset of the time zone at the instant. An offset
+     * with a fraction of a second, used by some time zones before 1900,
+     * is truncated to seconds.
+     *
+     * @return
+     *         An {@code OffsetDateTime}.
+     *
+     * @since 1.4
+     */
+    public OffsetDateTime toOffsetDateTime()
+    {
+        long millis = getTimeInMillis();
+        int offset  = ZoneOffsetIndex.of(getTimeZone()).getOffset(millis);
+
+        return OffsetDateTime.ofInstant(Instant.ofEpochMilli(millis), ZoneOffset.ofTotalSeconds(offset / 1000));
+    }
+
+
+    /**
+     * Convert this calendar to a {@link LocalDateTime} of the wall-clock
+     * time in the time zone of this calendar, in the ISO calendar system.
+     *
+     * @return
+     *         A {@code LocalDateTime}.
+     *
+     * @since 1.4
+     */
+    public LocalDateTime toLocalDateTime()
+    {
+        long local = ZoneOffsetIndex.of(getTimeZone()).toLocal(getTimeInMillis());
+
+        return LocalDateTime.ofEpochSecond(
+                CalendarMath.floorDiv(local, 1000L), CalendarMath.floorMod(local, 1000) * 1000000, ZoneOffset.UTC);
+    }
+
+
+    /**
+     * Create a calendar of the same instant and the same time zone as the
+     * given {@code ZonedDateTime}. The fields are computed only once.
+     *
+     * <p>
+     * Unlike {@link GregorianCalendar#from(ZonedDateTime)}, the calendar
+     * has the default Gregorian change date and the week rules of the
+     * default locale, like other constructors of {@code GCalendar}.
+     * Nanoseconds are truncated to milliseconds.
+     * </p>
+     *
+     * @param zonedDateTime
+     *         A {@code ZonedDateTime}.
+     *
+     * @return
+     *         A new calendar.
+     *
+     * @throws IllegalArgumentException
+     *         The instant is out of the range of milliseconds since the epoch.
+     *
+     * @since 1.4
+     */
+    public static GCalendar from(ZonedDateTime zonedDateTime)
+    {
+        return from(zonedDateTime.toInstant(), TimeZone.getTimeZone(zonedDateTime.getZone()));
+    }
+
+
+    /**
+     * Create a calendar of the same instant as the given {@code
+     * OffsetDateTime}, in a time zone of its fixed offset.
+     *
+     * @see #from(ZonedDateTime)
+     *
+     * @since 1.4
+     */
+    public static GCalendar from(OffsetDateTime offsetDateTime)
+    {
+        return from(offsetDateTime.toInstant(), TimeZone.getTimeZone(offsetDateTime.getOffset()));
+    }
+
+
+    /**
+     * Create a calendar of the given wall-clock time in the given time zone.
+     * A wall-clock time in a gap or an overlap is resolved like {@link
+     * GregorianCalendar} does ({@link DstPolicy#COMPATIBLE}).
+     *
+     * <p>
+     * The date of a {@code LocalDateTime} is in the ISO calendar system,
+     * so a date before the Gregorian change becomes a different Julian date
+     * in the calendar.
+     * </p>
+     *
+     * @throws IllegalArgumentException
+     *         The time is out of the range of milliseconds since the epoch.
+     *
+     * @see #from(ZonedDateTime)
+     *
+     * @since 1.4
+     */
+    public static GCalendar from(LocalDateTime localDateTime, TimeZone timeZone)
+    {
+        long local;
+
+        try
+        {
+            local = Math.addExact(
+                    Math.multiplyExact(localDateTime.toLocalDate().toEpochDay(), CalendarMath.MILLIS_PER_DAY),
+                    localDateTime.toLocalTime().toNanoOfDay() / 1000000);
+        }
+        catch (ArithmeticException e)
+        {
+            throw new IllegalArgumentException(e);
+        }
+
+        return new GCalendar(ZoneOffsetIndex.of(timeZone).toUTC(local), timeZone, Locale.getDefault(Locale.Category.FORMAT));
+    }
+
+
+    /**
+     * Create a calendar of the given instant in the given time zone.
+     *
+     * @see #from(ZonedDateTime)
+     *
+     * @since 1.4
+     */
+    public static GCalendar from(Instant instant, TimeZone timeZone)
+    {
+        long millis;
+
+        try
+        {
+            millis = instant.toEpochMilli();
+        }
+        catch (ArithmeticException e)
+        {
+            throw new IllegalArgumentException(e);
+        }
+
+        return new GCalendar(millis, timeZone, Locale.getDefault(Locale.Category.FORMAT));
+    }
+
+
+    /**
+     * Add an amount of a calendar field to a time without creating a
+     * calendar.
+     *
+     * <p>
+     * The result is the same as that of {@link #add(int, int)} on a
+     * lenient calendar of the time zone with the default Gregorian change
+     * date, for example {@link #addMonth(int)} pins the day of month to
+     * the end of a shorter month, and {@link #addHourOfDay(int)} adds
+     * elapsed time across a daylight saving time transition. No object
+     * is allocated once the {@link ZoneOffsetIndex} of the time zone
+     * has been built.
+     * </p>
      *
      * <style type="text/css">
      * span.keyword { color: purple; font-weight: bold; }
@@ -1677,25 +2625,213 @@ public class GCalendar extends GregorianCalendar
      *
      * <pre class="code">
      *
-     * {@link TimeZone} tz = TimeZone.{@link TimeZone#getTimeZone(String) getTimeZone}(<span class="string">"JST"</span>);
-     * GCalendar cal = new GCalendar(tz, 1974, {@link Calendar}.{@link Calendar#MAY MAY}, 6, 12, 34, 56, 0);
+     * <span class="comment">// The expiry date, a month after the purchase.</span>
+     * <span class="keyword">long</span> expiry = GCalendar.add(purchase, tz, Calendar.MONTH, 1);
+     * </pre>
      *
-     * <span class="comment">// This prints "1974-05-06T12:34:56+09:00".</span>
-     * System.out.println( cal.toISO8601() );
+     * @param epochMillis
+     *         Milliseconds since the epoch.
+     *
+     * @param timeZone
+     *         The time zone in which date fields are added.
+     *
+     * @param field
+     *         A calendar field other than {@link Calendar#ERA ERA}, {@link
+     *         Calendar#ZONE_OFFSET ZONE_OFFSET} and {@link Calendar#DST_OFFSET
+     *         DST_OFFSET}.
+     *
+     * @param amount
+     *         The amount to add.
+     *
+     * @return
+     *         The result in milliseconds since the epoch.
+     *
+     * @throws IllegalArgumentException
+     *         The field is not supported.
+     *
+     * @since 1.4
+     */
+    public static long add(long epochMillis, TimeZone timeZone, int field, int amount)
+    {
+        return CalendarArithmetic.add(epochMillis, ZoneOffsetIndex.of(timeZone), field, amount);
+    }
+
+
+    /**
+     * Get the times from {@code start} to {@code end} (exclusive) at the
+     * given intervals of a calendar field, in milliseconds since the epoch.
+     *
+     * <p>
+     * The k-th element is the time that <code>{@link #add(int, int)
+     * add}(field, k * step)</code> on a calendar of {@code start} would
+     * give, so time fields such as {@link Calendar#HOUR_OF_DAY HOUR_OF_DAY}
+     * step by elapsed time across daylight saving time transitions, and date
+     * fields such as {@link Calendar#DAY_OF_MONTH DAY_OF_MONTH} keep the
+     * wall-clock time. The elements are computed lazily without creating
+     * a {@code Calendar}, and the spliterator splits evenly.
+     * </p>
+     *
+     * <style type="text/css">
+     * span.keyword { color: purple; font-weight: bold; }
+     * span.comment { color: green; }
+     * span.string  { color: blue; }
+     * pre.code { background-color: #EEEEEE; margin-left: 2em; margin-right: 2em; border: 1px solid black; }
+     * </style>
+     *
+     * <pre class="code">
+     *
+     * <span class="comment">// Every hour of 2013 in New York, in parallel.</span>
+     * TimeZone tz = TimeZone.getTimeZone(<span class="string">"America/New_York"</span>);
+     * GCalendar start = <span class="keyword">new</span> GCalendar(tz, 2013, Calendar.JANUARY, 1, 0, 0, 0, 0);
+     * GCalendar end   = <span class="keyword">new</span> GCalendar(tz, 2014, Calendar.JANUARY, 1, 0, 0, 0, 0);
+     *
+     * GCalendar.{@link #range(Calendar, Calendar, int, int) range}(start, end, Calendar.HOUR_OF_DAY, 1).parallel().forEach(...);
      * </pre>
      *
-     * @since 1.2
-     * @see <a href="http://en.wikipedia.org/wiki/ISO_8601">ISO 8601</a>
-     * @see <a href="http://www.w3.org/TR/xmlschema-2/#dateTime">XMLSchema dateTime format</a>
+     * <p>
+     * The default Gregorian change date is assumed.
+     * </p>
+     *
+     * @param start
+     *         The first time in milliseconds since the epoch.
+     *
+     * @param end
+     *         The end in milliseconds since the epoch (exclusive).
+     *
+     * @param timeZone
+     *         The time zone in which date fields are added.
+     *
+     * @param field
+     *         A calendar field other than {@link Calendar#ERA ERA}, {@link
+     *         Calendar#ZONE_OFFSET ZONE_OFFSET} and {@link Calendar#DST_OFFSET
+     *         DST_OFFSET}.
+     *
+     * @param step
+     *         A positive amount of the field.
+     *
+     * @return
+     *         A spliterator of milliseconds since the epoch.
+     *
+     * @throws IllegalArgumentException
+     *         The field is not supported or the step is not positive.
+     *
+     * @since 1.4
      */
-    public String toISO8601()
+    public static Spliterator.OfLong rangeSpliterator(long start, long end, TimeZone timeZone, int field, int step)
+    {
+        return CalendarRange.create(start, end, timeZone, field, step);
+    }
+
+
+    /**
+     * Get a sequential stream of the times from {@code start} to {@code
+     * end} (exclusive) at the given intervals of a calendar field. Call
+     * {@link LongStream#parallel() parallel()} to process it in parallel.
+     *
+     * @see #rangeSpliterator(long, long, TimeZone, int, int)
+     *
+     * @since 1.4
+     */
+    public static LongStream range(long start, long end, TimeZone timeZone, int field, int step)
+    {
+        return StreamSupport.longStream(rangeSpliterator(start, end, timeZone, field, step), false);
+    }
+
+
+    /**
+     * Get a sequential stream of the times from {@code start} to {@code
+     * end} (exclusive) at the given intervals of a calendar field, in the
+     * time zone of {@code start}.
+     *
+     * @see #rangeSpliterator(long, long, TimeZone, int, int)
+     *
+     * @since 1.4
+     */
+    public static LongStream range(Calendar start, Calendar end, int field, int step)
+    {
+        return range(start.getTimeInMillis(), end.getTimeInMillis(), start.getTimeZone(), field, step);
+    }
+
+
+    /**
+     * Create an immutable snapshot of this calendar.
+     *
+     * <p>
+     * All the calendar fields are computed once, so the snapshot can be
+     * shared by multiple threads and read without any computation or
+     * defensive copy.
+     * </p>
+     *
+     * @return
+     *         An immutable snapshot.
+     *
+     * @since 1.4
+     */
+    public FrozenGCalendar freeze()
+    {
+        return new FrozenGCalendar(this);
+    }
+
+
+    /**
+     * Get the local date-time of this calendar in its time zone as a
+     * packed value.
+     *
+     * <p>
+     * This method is an alias of <code>{@link PackedDateTime}.{@link
+     * PackedDateTime#fromEpochMillis(long, TimeZone) fromEpochMillis}({@link
+     * #getTimeInMillis()}, {@link #getTimeZone()})</code>. The result is
+     * correct only when the Gregorian change date of this calendar has not
+     * been changed.
+     * </p>
+     *
+     * @return
+     *         Packed local date-time.
+     *
+     * @since 1.4
+     */
+    public long toPackedDateTime()
+    {
+        return PackedDateTime.fromEpochMillis(getTimeInMillis(), getTimeZone());
+    }
+
+
+    /**
+     * Set the packed local date-time to this calendar. The local date-time
+     * is interpreted in the time zone of this calendar.
+     *
+     * @param packed
+     *         Packed local date-time.
+     *
+     * @return
+     *         {@code this} object.
+     *
+     * @since 1.4
+     */
+    public GCalendar setPackedDateTime(long packed)
     {
-        StringBuilder sb = new StringBuilder(format("yyyy-MM-dd'T'HH:mm:ssZ", this));
+        setTimeInMillis(PackedDateTime.toEpochMillis(packed, getTimeZone()));
 
-        // Convert the time zone part from "HHMM" to "HH:MM".
-        // 22 = "1974-05-06T12:34:56+09".length()
-        sb.insert(22, ":");
+        return this;
+    }
 
-        return sb.toString();
+
+    /**
+     * Create a calendar from the packed local date-time.
+     *
+     * @param packed
+     *         Packed local date-time.
+     *
+     * @param timeZone
+     *         The time zone in which the local date-time is interpreted.
+     *
+     * @return
+     *         A new calendar of the time zone.
+     *
+     * @since 1.4
+     */
+    public static GCalendar fromPackedDateTime(long packed, TimeZone timeZone)
+    {
+        return new GCalendar(timeZone).setPackedDateTime(packed);
     }
 }
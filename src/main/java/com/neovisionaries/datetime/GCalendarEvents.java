@@ -0,0 +1,240 @@
+/*
+ * Copyright (C) 2012-2013 Neo Visionaries Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.neovisionaries.datetime;
+
+
+import java.text.DateFormat;
+import java.text.ParsePosition;
+import java.text.SimpleDateFormat;
+import java.util.TimeZone;
+
+
+/**
+ * Emits JDK Flight Recorder events from the hot paths of {@link GCalendar}.
+ *
+ * <p>
+ * This class does not refer to {@code jdk.jfr} itself. The event classes
+ * are in {@code JfrEvents}, which is compiled for Java 11 from {@code
+ * src/main/java11} and is loaded by name as a {@link Recorder}. The rest
+ * of the library is compiled for Java 8, and still runs on a JVM without
+ * Flight Recorder or older than Java 11; {@link #ENABLED} is false there. When
+ * Flight Recorder is not recording the events, a call costs a check of
+ * the event type, which the JIT compiler makes cheap, and no event object
+ * escapes.
+ * </p>
+ *
+ * <p>
+ * The events are:
+ * </p>
+ *
+ * <ul>
+ * <li>{@code com.neovisionaries.datetime.Parse} &mdash; a parse call that
+ *     took longer than its threshold (1 ms by default).
+ * <li>{@code com.neovisionaries.datetime.ParseFailure} &mdash; every failed
+ *     parse call, with the failure offset.
+ * <li>{@code com.neovisionaries.datetime.Format} &mdash; a format call that
+ *     took longer than its threshold (1 ms by default).
+ * <li>{@code com.neovisionaries.datetime.ZoneChange} &mdash; a {@code
+ *     changeTimeZoneOnly} call that took longer than its threshold (1 ms by
+ *     default).
+ * </ul>
+ *
+ * <p>
+ * The thresholds are the standard {@code threshold} settings of the events,
+ * for example {@code jfr configure com.neovisionaries.datetime.Parse#threshold=100 us}
+ * or a {@code .jfc} file. Setting the system property {@value #DISABLE_PROPERTY}
+ * to {@code true} turns the events off entirely.
+ * </p>
+ *
+ * @since 1.4
+ *
+ * @author Takahiko Kawasaki
+ */
+final class GCalendarEvents
+{
+    /**
+     * The system property that disables the events.
+     */
+    static final String DISABLE_PROPERTY = "com.neovisionaries.datetime.jfr.disabled";
+
+
+    /**
+     * The class that emits the events.
+     */
+    private static final String RECORDER_CLASS = "com.neovisionaries.datetime.JfrEvents";
+
+
+    /**
+     * Emits the events, or null if they are not available or disabled.
+     */
+    private static final Recorder RECORDER = Boolean.getBoolean(DISABLE_PROPERTY) ? null : loadRecorder();
+
+
+    /**
+     * True if Flight Recorder is available and the events are not disabled.
+     */
+    static final boolean ENABLED = (RECORDER != null);
+
+
+    /**
+     * Emits the events. Implemented by {@code JfrEvents}.
+     */
+    interface Recorder
+    {
+        Object beginParse();
+
+        void endParse(Object event, Object format, TimeZone timeZone, CharSequence source, int errorIndex, boolean success);
+
+        Object beginFormat();
+
+        void endFormat(Object event, Object format, TimeZone timeZone, int outputLength);
+
+        Object beginZoneChange();
+
+        void endZoneChange(Object event, TimeZone from, TimeZone to, boolean success);
+    }
+
+
+    private GCalendarEvents()
+    {
+    }
+
+
+    private static Recorder loadRecorder()
+    {
+        try
+        {
+            // Fails without jdk.jfr or on a JVM older than Java 11.
+            return (Recorder)Class.forName(RECORDER_CLASS, true, GCalendarEvents.class.getClassLoader())
+                    .getDeclaredConstructor().newInstance();
+        }
+        catch (Throwable t)
+        {
+            return null;
+        }
+    }
+
+
+    /**
+     * Start timing a parse call.
+     *
+     * @return
+     *         An event to pass to {@link #parsed(Object, Object, TimeZone,
+     *         CharSequence, ParsePosition, int, boolean) parsed}, or null.
+     */
+    static Object beginParse()
+    {
+        return ENABLED ? RECORDER.beginParse() : null;
+    }
+
+
+    /**
+     * Finish timing a parse call.
+     *
+     * @param format
+     *         A {@code DateFormat}, a {@link GFormat} or a pattern string.
+     *
+     * @param errorIndex
+     *         The failure offset when the call failed, or -1 if unknown.
+     */
+    static void parsed(Object event, Object format, TimeZone timeZone, CharSequence source, ParsePosition position, int errorIndex, boolean success)
+    {
+        if (event != null)
+        {
+            if (errorIndex < 0 && position != null)
+            {
+                errorIndex = position.getErrorIndex();
+            }
+
+            RECORDER.endParse(event, format, timeZone, source, errorIndex, success);
+        }
+    }
+
+
+    /**
+     * Start timing a format call.
+     */
+    static Object beginFormat()
+    {
+        return ENABLED ? RECORDER.beginFormat() : null;
+    }
+
+
+    /**
+     * Finish timing a format call.
+     *
+     * @param format
+     *         A {@code DateFormat}, a {@link GFormat} or a pattern string.
+     */
+    static void formatted(Object event, Object format, TimeZone timeZone, int outputLength)
+    {
+        if (event != null)
+        {
+            RECORDER.endFormat(event, format, timeZone, outputLength);
+        }
+    }
+
+
+    /**
+     * Start timing a change of the time zone.
+     */
+    static Object beginZoneChange()
+    {
+        return ENABLED ? RECORDER.beginZoneChange() : null;
+    }
+
+
+    /**
+     * Finish timing a change of the time zone.
+     */
+    static void zoneChanged(Object event, TimeZone from, TimeZone to, boolean success)
+    {
+        if (event != null)
+        {
+            RECORDER.endZoneChange(event, from, to, success);
+        }
+    }
+
+
+    /**
+     * Get the pattern of a format for an event.
+     */
+    static String patternOf(Object format)
+    {
+        if (format instanceof SimpleDateFormat)
+        {
+            return ((SimpleDateFormat)format).toPattern();
+        }
+
+        if (format instanceof GFormat)
+        {
+            return ((GFormat)format).getPattern();
+        }
+
+        if (format instanceof DateFormat)
+        {
+            return format.getClass().getName();
+        }
+
+        return (format != null) ? format.toString() : null;
+    }
+
+
+    static String idOf(TimeZone timeZone)
+    {
+        return (timeZone != null) ? timeZone.getID() : null;
+    }
+}
@@ -0,0 +1,504 @@
+/*
+ * Copyright (C) 2012-2013 Neo Visionaries Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.neovisionaries.datetime;
+
+
+import java.lang.management.ManagementFactory;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+
+/**
+ * Optional metrics of the hot paths of {@link GCalendar}.
+ *
+ * <p>
+ * When the system property {@value #PROPERTY} is {@code true} at startup,
+ * the calls of {@code format}, {@code parse} (including {@code parseInto}
+ * and {@code parseISO8601}), {@code toISO8601} and {@code
+ * changeTimeZoneOnly} are counted and timed, and the hits and misses of
+ * the internal caches are counted. Counters are {@link LongAdder}s and
+ * latencies go to log-linear histograms, so threads do not contend for
+ * them. When the property is not set, each entry point only checks a
+ * {@code static final} flag, which the JIT compiler removes.
+ * </p>
+ *
+ * <style type="text/css">
+ * span.keyword { color: purple; font-weight: bold; }
+ * span.comment { color: green; }
+ * span.string  { color: blue; }
+ * pre.code { background-color: #EEEEEE; margin-left: 2em; margin-right: 2em; border: 1px solid black; }
+ * </style>
+ *
+ * <pre class="code">
+ *
+ * <span class="comment">// java -Dcom.neovisionaries.datetime.metrics=true ...</span>
+ * GCalendarMetrics.{@link #registerMBean() registerMBean}();
+ *
+ * <span class="keyword">long</span> p99 = GCalendarMetrics.{@link #getPercentileNanos(Operation, double)
+ * getPercentileNanos}(GCalendarMetrics.Operation.PARSE, 99);
+ * </pre>
+ *
+ * @since 1.4
+ *
+ * @author Takahiko Kawasaki
+ */
+public final class GCalendarMetrics
+{
+    /**
+     * The system property that enables the metrics.
+     */
+    public static final String PROPERTY = "com.neovisionaries.datetime.metrics";
+
+
+    /**
+     * The name of the MBean registered by {@link #registerMBean()}.
+     */
+    public static final String OBJECT_NAME = "com.neovisionaries.datetime:type=GCalendarMetrics";
+
+
+    /**
+     * True if the metrics are collected. Checked by the entry points.
+     */
+    static final boolean ENABLED = Boolean.getBoolean(PROPERTY);
+
+
+    /**
+     * Timed operations.
+     */
+    public enum Operation
+    {
+        /**
+         * {@code format} methods.
+         */
+        FORMAT,
+
+
+        /**
+         * {@code parse}, {@code parseInto} and {@code parseISO8601} methods.
+         */
+        PARSE,
+
+
+        /**
+         * {@code toISO8601} methods.
+         */
+        TO_ISO8601,
+
+
+        /**
+         * {@code changeTimeZoneOnly} methods.
+         */
+        CHANGE_TIME_ZONE_ONLY
+    }
+
+
+    /**
+     * Internal caches.
+     */
+    public enum Cache
+    {
+        /**
+         * The per-thread cache of {@code SimpleDateFormat} used by
+         * the methods that take a pattern string.
+         */
+        DATE_FORMAT,
+
+
+        /**
+         * The cache of {@link ZoneOffsetIndex} per time zone.
+         */
+        ZONE_OFFSET_INDEX
+    }
+
+
+    private static final class Stats
+    {
+        final LongAdder count = new LongAdder();
+        final LongAdder failures = new LongAdder();
+        final LongAdder totalNanos = new LongAdder();
+        final LatencyHistogram histogram = new LatencyHistogram();
+    }
+
+
+    /**
+     * Created only when the metrics are enabled.
+     */
+    private static final class Holder
+    {
+        static final Stats[] STATS = new Stats[Operation.values().length];
+        static final LongAdder[] HITS = new LongAdder[Cache.values().length];
+        static final LongAdder[] MISSES = new LongAdder[Cache.values().length];
+
+        static
+        {
+            for (int i = 0; i < STATS.length; ++i)
+            {
+                STATS[i] = new Stats();
+            }
+
+            for (int i = 0; i < HITS.length; ++i)
+            {
+                HITS[i]   = new LongAdder();
+                MISSES[i] = new LongAdder();
+            }
+        }
+    }
+
+
+    private GCalendarMetrics()
+    {
+    }
+
+
+    /**
+     * Get the start time of an operation, or 0 if disabled.
+     */
+    static long start()
+    {
+        return ENABLED ? System.nanoTime() : 0;
+    }
+
+
+    /**
+     * Record the end of an operation started at the given time.
+     */
+    static void end(Operation operation, long start, boolean success)
+    {
+        if (ENABLED)
+        {
+            long nanos  = System.nanoTime() - start;
+            Stats stats = Holder.STATS[operation.ordinal()];
+
+            stats.count.increment();
+            stats.totalNanos.add(nanos);
+            stats.histogram.record(nanos);
+
+            if (!success)
+            {
+                stats.failures.increment();
+            }
+        }
+    }
+
+
+    /**
+     * Record a lookup of a cache.
+     */
+    static void lookup(Cache cache, boolean hit)
+    {
+        if (ENABLED)
+        {
+            (hit ? Holder.HITS : Holder.MISSES)[cache.ordinal()].increment();
+        }
+    }
+
+
+    /**
+     * Check if the metrics are collected, that is, if the system
+     * property {@value #PROPERTY} was {@code true} at startup.
+     */
+    public static boolean isEnabled()
+    {
+        return ENABLED;
+    }
+
+
+    /**
+     * Get the number of calls of the operation.
+     */
+    public static long getCount(Operation operation)
+    {
+        return ENABLED ? Holder.STATS[operation.ordinal()].count.sum() : 0;
+    }
+
+
+    /**
+     * Get the number of failed calls of the operation, for example parse
+     * calls that returned {@code null} or threw an exception.
+     */
+    public static long getFailureCount(Operation operation)
+    {
+        return ENABLED ? Holder.STATS[operation.ordinal()].failures.sum() : 0;
+    }
+
+
+    /**
+     * Get the total time spent in the operation in nanoseconds.
+     */
+    public static long getTotalNanos(Operation operation)
+    {
+        return ENABLED ? Holder.STATS[operation.ordinal()].totalNanos.sum() : 0;
+    }
+
+
+    /**
+     * Get the mean latency of the operation in nanoseconds.
+     */
+    public static long getMeanNanos(Operation operation)
+    {
+        long count = getCount(operation);
+
+        return (count == 0) ? 0 : getTotalNanos(operation) / count;
+    }
+
+
+    /**
+     * Get the latency of the operation at the given percentile in
+     * nanoseconds. The result is within 25% above the real value.
+     *
+     * @param percentile
+     *         0 to 100, for example 99 for the 99th percentile.
+     */
+    public static long getPercentileNanos(Operation operation, double percentile)
+    {
+        return ENABLED ? Holder.STATS[operation.ordinal()].histogram.getPercentile(percentile) : 0;
+    }
+
+
+    /**
+     * Get the maximum latency of the operation in nanoseconds.
+     */
+    public static long getMaxNanos(Operation operation)
+    {
+        return ENABLED ? Holder.STATS[operation.ordinal()].histogram.getMax() : 0;
+    }
+
+
+    /**
+     * Get the number of hits of the cache.
+     */
+    public static long getHitCount(Cache cache)
+    {
+        return ENABLED ? Holder.HITS[cache.ordinal()].sum() : 0;
+    }
+
+
+    /**
+     * Get the number of misses of the cache.
+     */
+    public static long getMissCount(Cache cache)
+    {
+        return ENABLED ? Holder.MISSES[cache.ordinal()].sum() : 0;
+    }
+
+
+    /**
+     * Get the hit ratio of the cache, from 0 to 1, or 0 if the
+     * cache has not been used.
+     */
+    public static double getHitRatio(Cache cache)
+    {
+        long hits  = getHitCount(cache);
+        long total = hits + getMissCount(cache);
+
+        return (total == 0) ? 0 : (double)hits / total;
+    }
+
+
+    /**
+     * Clear all the metrics.
+     */
+    public static void reset()
+    {
+        if (!ENABLED)
+        {
+            return;
+        }
+
+        for (Stats stats : Holder.STATS)
+        {
+            stats.count.reset();
+            stats.failures.reset();
+            stats.totalNanos.reset();
+            stats.histogram.reset();
+        }
+
+        for (int i = 0; i < Holder.HITS.length; ++i)
+        {
+            Holder.HITS[i].reset();
+            Holder.MISSES[i].reset();
+        }
+    }
+
+
+    /**
+     * Register the {@link GCalendarMetricsMXBean} to the platform MBean
+     * server as {@value #OBJECT_NAME}, unless it is already registered.
+     *
+     * @return
+     *         The name of the MBean.
+     *
+     * @throws IllegalStateException
+     *         The MBean could not be registered.
+     */
+    public static synchronized ObjectName registerMBean()
+    {
+        try
+        {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName(OBJECT_NAME);
+
+            if (!server.isRegistered(name))
+            {
+                server.registerMBean(new MXBeanImpl(), name);
+            }
+
+            return name;
+        }
+        catch (JMException e)
+        {
+            throw new IllegalStateException(e);
+        }
+    }
+
+
+    private static final class MXBeanImpl implements GCalendarMetricsMXBean
+    {
+        private interface Getter
+        {
+            long get(Operation operation);
+        }
+
+
+        private static Map<String, Long> collect(Getter getter)
+        {
+            Map<String, Long> map = new LinkedHashMap<String, Long>();
+
+            for (Operation operation : Operation.values())
+            {
+                map.put(operation.name(), getter.get(operation));
+            }
+
+            return map;
+        }
+
+
+        @Override
+        public boolean isEnabled()
+        {
+            return GCalendarMetrics.isEnabled();
+        }
+
+
+        @Override
+        public Map<String, Long> getCounts()
+        {
+            return collect(new Getter()
+            {
+                @Override
+                public long get(Operation operation)
+                {
+                    return getCount(operation);
+                }
+            });
+        }
+
+
+        @Override
+        public Map<String, Long> getFailureCounts()
+        {
+            return collect(new Getter()
+            {
+                @Override
+                public long get(Operation operation)
+                {
+                    return getFailureCount(operation);
+                }
+            });
+        }
+
+
+        @Override
+        public Map<String, Long> getMeanNanos()
+        {
+            return collect(new Getter()
+            {
+                @Override
+                public long get(Operation operation)
+                {
+                    return GCalendarMetrics.getMeanNanos(operation);
+                }
+            });
+        }
+
+
+        @Override
+        public Map<String, Long> getP50Nanos()
+        {
+            return collect(new Getter()
+            {
+                @Override
+                public long get(Operation operation)
+                {
+                    return getPercentileNanos(operation, 50);
+                }
+            });
+        }
+
+
+        @Override
+        public Map<String, Long> getP99Nanos()
+        {
+            return collect(new Getter()
+            {
+                @Override
+                public long get(Operation operation)
+                {
+                    return getPercentileNanos(operation, 99);
+                }
+            });
+        }
+
+
+        @Override
+        public Map<String, Long> getMaxNanos()
+        {
+            return collect(new Getter()
+            {
+                @Override
+                public long get(Operation operation)
+                {
+                    return GCalendarMetrics.getMaxNanos(operation);
+                }
+            });
+        }
+
+
+        @Override
+        public Map<String, Double> getCacheHitRatios()
+        {
+            Map<String, Double> map = new LinkedHashMap<String, Double>();
+
+            for (Cache cache : Cache.values())
+            {
+                map.put(cache.name(), getHitRatio(cache));
+            }
+
+            return map;
+        }
+
+
+        @Override
+        public void reset()
+        {
+            GCalendarMetrics.reset();
+        }
+    }
+}
@@ -0,0 +1,87 @@
+/*
+ * Copyright (C) 2012-2013 Neo Visionaries Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.neovisionaries.datetime;
+
+
+import java.util.Map;
+
+
+/**
+ * JMX interface of {@link GCalendarMetrics}. The maps are keyed by the
+ * names of {@link GCalendarMetrics.Operation} or {@link
+ * GCalendarMetrics.Cache}.
+ *
+ * @since 1.4
+ *
+ * @see GCalendarMetrics#registerMBean()
+ *
+ * @author Takahiko Kawasaki
+ */
+public interface GCalendarMetricsMXBean
+{
+    /**
+     * Check if the metrics are collected.
+     */
+    boolean isEnabled();
+
+
+    /**
+     * Get the number of calls of each operation.
+     */
+    Map<String, Long> getCounts();
+
+
+    /**
+     * Get the number of failed calls of each operation.
+     */
+    Map<String, Long> getFailureCounts();
+
+
+    /**
+     * Get the mean latency of each operation in nanoseconds.
+     */
+    Map<String, Long> getMeanNanos();
+
+
+    /**
+     * Get the median latency of each operation in nanoseconds.
+     */
+    Map<String, Long> getP50Nanos();
+
+
+    /**
+     * Get the 99th percentile latency of each operation in nanoseconds.
+     */
+    Map<String, Long> getP99Nanos();
+
+
+    /**
+     * Get the maximum latency of each operation in nanoseconds.
+     */
+    Map<String, Long> getMaxNanos();
+
+
+    /**
+     * Get the hit ratio (0 to 1) of each cache.
+     */
+    Map<String, Double> getCacheHitRatios();
+
+
+    /**
+     * Clear all the metrics.
+     */
+    void reset();
+}
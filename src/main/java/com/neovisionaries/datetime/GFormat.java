@@ -0,0 +1,897 @@
+/*
+ * Copyright (C) 2012-2013 Neo Visionaries Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.neovisionaries.datetime;
+
+
+import java.text.DateFormat;
+import java.text.DateFormatSymbols;
+import java.text.DecimalFormatSymbols;
+import java.text.FieldPosition;
+import java.text.ParseException;
+import java.text.ParsePosition;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.GregorianCalendar;
+import java.util.List;
+import java.util.Locale;
+import java.util.TimeZone;
+
+
+/**
+ * A compiled, immutable and thread-safe date-time format.
+ *
+ * <p>
+ * A {@code GFormat} is compiled from a pattern in the syntax of {@link
+ * SimpleDateFormat}. Unlike {@code SimpleDateFormat}, an instance can
+ * be shared by any number of threads without synchronization, and
+ * formatting and parsing do not create {@link Date} or {@link Calendar}
+ * objects.
+ * Fields are computed arithmetically by {@link CalendarMath} from
+ * milliseconds since the epoch and the offset of a {@link TimeZone}.
+ * </p>
+ *
+ * <style type="text/css">
+ * span.keyword { color: purple; font-weight: bold; }
+ * span.comment { color: green; }
+ * span.string  { color: blue; }
+ * pre.code { background-color: #EEEEEE; margin-left: 2em; margin-right: 2em; border: 1px solid black; }
+ * </style>
+ *
+ * <pre class="code">
+ *
+ * <span class="comment">// Compile once and share.</span>
+ * <span class="keyword">static final</span> GFormat FORMAT = GFormat.{@link #compile(String)
+ * compile}(<span class="string">"yyyy/MM/dd HH:mm:ss.SSS"</span>);
+ *
+ * String text = FORMAT.{@link #format(Calendar) format}(calendar);
+ *
+ * <span class="comment">// Parse text into milliseconds since the epoch.</span>
+ * <span class="keyword">long</span> millis = FORMAT.{@link #parse(CharSequence, TimeZone)
+ * parse}(text, timeZone);
+ * </pre>
+ *
+ * <p>
+ * All the pattern letters of {@code SimpleDateFormat} are supported.
+ * Text fields use the {@link DateFormatSymbols} of the locale given to
+ * {@link #compile(String, Locale)}, and week fields use the first day of
+ * the week and the minimal days in the first week of that locale. Two
+ * differences are that {@code L} (stand-alone month) is formatted in the
+ * same way as {@code M}, and that a zone name ({@code z}) creates a
+ * {@link Date} to ask the time zone whether daylight saving time is in
+ * effect.
+ * </p>
+ *
+ * <p>
+ * Parsing behaves like a lenient {@code SimpleDateFormat}: numeric fields
+ * that are immediately followed by another numeric field (for example,
+ * {@code yyyyMMdd}) must have exactly as many digits as the pattern
+ * letters, text fields are matched ignoring case, and out-of-range values
+ * roll over. A 2-digit year is put in the 100 years that start 80 years
+ * before the time of compilation. {@code F} is accepted but ignored.
+ * </p>
+ *
+ * @since 1.4
+ *
+ * @author Takahiko Kawasaki
+ */
+public final class GFormat
+{
+    /**
+     * Pattern letters. The position of a letter is its field code.
+     */
+    static final String LETTERS = "GyMdkHmsSEDFwWahKzZYuXL";
+
+
+    // @formatter:off
+    static final int ERA                  =  0; // G
+    static final int YEAR                 =  1; // y
+    static final int MONTH                =  2; // M
+    static final int DAY_OF_MONTH         =  3; // d
+    static final int HOUR_OF_DAY1         =  4; // k
+    static final int HOUR_OF_DAY0         =  5; // H
+    static final int MINUTE               =  6; // m
+    static final int SECOND               =  7; // s
+    static final int MILLISECOND          =  8; // S
+    static final int DAY_OF_WEEK          =  9; // E
+    static final int DAY_OF_YEAR          = 10; // D
+    static final int DAY_OF_WEEK_IN_MONTH = 11; // F
+    static final int WEEK_OF_YEAR         = 12; // w
+    static final int WEEK_OF_MONTH        = 13; // W
+    static final int AM_PM                = 14; // a
+    static final int HOUR1                = 15; // h
+    static final int HOUR0                = 16; // K
+    static final int TIMEZONE             = 17; // z
+    static final int RFC822_TIMEZONE      = 18; // Z
+    static final int WEEK_YEAR            = 19; // Y
+    static final int DAY_NUMBER_OF_WEEK   = 20; // u
+    static final int ISO8601_TIMEZONE     = 21; // X
+    static final int MONTH_STANDALONE     = 22; // L
+    static final int LITERAL              = 31;
+    // @formatter:on
+
+
+    /**
+     * {@link DateFormat} field IDs indexed by field code.
+     */
+    private static final int[] DATE_FORMAT_FIELDS = {
+        DateFormat.ERA_FIELD, DateFormat.YEAR_FIELD, DateFormat.MONTH_FIELD,
+        DateFormat.DATE_FIELD, DateFormat.HOUR_OF_DAY1_FIELD, DateFormat.HOUR_OF_DAY0_FIELD,
+        DateFormat.MINUTE_FIELD, DateFormat.SECOND_FIELD, DateFormat.MILLISECOND_FIELD,
+        DateFormat.DAY_OF_WEEK_FIELD, DateFormat.DAY_OF_YEAR_FIELD, DateFormat.DAY_OF_WEEK_IN_MONTH_FIELD,
+        DateFormat.WEEK_OF_YEAR_FIELD, DateFormat.WEEK_OF_MONTH_FIELD, DateFormat.AM_PM_FIELD,
+        DateFormat.HOUR1_FIELD, DateFormat.HOUR0_FIELD, DateFormat.TIMEZONE_FIELD,
+        DateFormat.TIMEZONE_FIELD, DateFormat.YEAR_FIELD, DateFormat.DAY_OF_WEEK_FIELD,
+        DateFormat.TIMEZONE_FIELD, DateFormat.MONTH_FIELD
+    };
+
+
+    /**
+     * {@link DateFormat.Field} attributes indexed by field code.
+     */
+    private static final DateFormat.Field[] DATE_FORMAT_ATTRIBUTES = {
+        DateFormat.Field.ERA, DateFormat.Field.YEAR, DateFormat.Field.MONTH,
+        DateFormat.Field.DAY_OF_MONTH, DateFormat.Field.HOUR_OF_DAY1, DateFormat.Field.HOUR_OF_DAY0,
+        DateFormat.Field.MINUTE, DateFormat.Field.SECOND, DateFormat.Field.MILLISECOND,
+        DateFormat.Field.DAY_OF_WEEK, DateFormat.Field.DAY_OF_YEAR, DateFormat.Field.DAY_OF_WEEK_IN_MONTH,
+        DateFormat.Field.WEEK_OF_YEAR, DateFormat.Field.WEEK_OF_MONTH, DateFormat.Field.AM_PM,
+        DateFormat.Field.HOUR1, DateFormat.Field.HOUR0, DateFormat.Field.TIME_ZONE,
+        DateFormat.Field.TIME_ZONE, DateFormat.Field.YEAR, DateFormat.Field.DAY_OF_WEEK,
+        DateFormat.Field.TIME_ZONE, DateFormat.Field.MONTH
+    };
+
+
+    private final String pattern;
+    private final Locale locale;
+
+
+    /**
+     * Compiled steps. Each step is {@code (code << 24) | count} where
+     * {@code count} is the number of pattern letters, or the index in
+     * {@link #literals} when {@code code} is {@link #LITERAL}.
+     */
+    final int[] steps;
+    final String[] literals;
+
+
+    // Precomputed locale data. Never modified after construction.
+    final String[] eras;
+    final String[] months;
+    final String[] shortMonths;
+    final String[] weekdays;
+    final String[] shortWeekdays;
+    final String[] ampm;
+    final char zeroDigit;
+    final int firstDayOfWeek;
+    final int minimalDaysInFirstWeek;
+
+
+    /**
+     * True if any week-based field is used.
+     */
+    private final boolean usesWeeks;
+
+
+    private final GFormatParser parser;
+
+
+    private GFormat(String pattern, Locale locale)
+    {
+        this.pattern = pattern;
+        this.locale  = locale;
+
+        List<Integer> stepList = new ArrayList<Integer>();
+        List<String> literalList = new ArrayList<String>();
+
+        compile(pattern, stepList, literalList);
+
+        boolean weeks = false;
+        steps = new int[stepList.size()];
+
+        for (int i = 0; i < steps.length; ++i)
+        {
+            steps[i] = stepList.get(i).intValue();
+
+            switch (steps[i] >>> 24)
+            {
+                case WEEK_OF_YEAR:
+                case WEEK_OF_MONTH:
+                case WEEK_YEAR:
+                    weeks = true;
+                    break;
+            }
+        }
+
+        literals  = literalList.toArray(new String[literalList.size()]);
+        usesWeeks = weeks;
+
+        DateFormatSymbols symbols = DateFormatSymbols.getInstance(locale);
+
+        eras          = symbols.getEras();
+        months        = symbols.getMonths();
+        shortMonths   = symbols.getShortMonths();
+        weekdays      = symbols.getWeekdays();
+        shortWeekdays = symbols.getShortWeekdays();
+        ampm          = symbols.getAmPmStrings();
+        zeroDigit     = DecimalFormatSymbols.getInstance(locale).getZeroDigit();
+
+        Calendar calendar = new GregorianCalendar(locale);
+
+        firstDayOfWeek         = calendar.getFirstDayOfWeek();
+        minimalDaysInFirstWeek = calendar.getMinimalDaysInFirstWeek();
+
+        // Must be the last because the parser reads the fields above.
+        parser = new GFormatParser(this, symbols);
+    }
+
+
+    /**
+     * Compile the given pattern with the default locale for formatting,
+     * as {@link SimpleDateFormat#SimpleDateFormat(String)} uses.
+     *
+     * @param pattern
+     *         A pattern in the syntax of {@link SimpleDateFormat}.
+     *
+     * @return
+     *         A compiled format.
+     *
+     * @throws IllegalArgumentException
+     *         The pattern is invalid.
+     */
+    public static GFormat compile(String pattern)
+    {
+        return compile(pattern, Locale.getDefault(Locale.Category.FORMAT));
+    }
+
+
+    /**
+     * Compile the given pattern with the given locale.
+     *
+     * @param pattern
+     *         A pattern in the syntax of {@link SimpleDateFormat}.
+     *
+     * @param locale
+     *         Locale for text fields, digits and week rules.
+     *
+     * @return
+     *         A compiled format.
+     *
+     * @throws IllegalArgumentException
+     *         The pattern is invalid.
+     */
+    public static GFormat compile(String pattern, Locale locale)
+    {
+        if (pattern == null || locale == null)
+        {
+            throw new NullPointerException();
+        }
+
+        return new GFormat(pattern, locale);
+    }
+
+
+    private static void compile(String pattern, List<Integer> steps, List<String> literals)
+    {
+        StringBuilder literal = new StringBuilder();
+        int length = pattern.length();
+
+        for (int i = 0; i < length; )
+        {
+            char c = pattern.charAt(i);
+
+            if (c == '\'')
+            {
+                // '' is a single quote.
+                if (i + 1 < length && pattern.charAt(i + 1) == '\'')
+                {
+                    literal.append('\'');
+                    i += 2;
+                    continue;
+                }
+
+                int close = i + 1;
+
+                for (; close < length; ++close)
+                {
+                    if (pattern.charAt(close) != '\'')
+                    {
+                        literal.append(pattern.charAt(close));
+                    }
+                    else if (close + 1 < length && pattern.charAt(close + 1) == '\'')
+                    {
+                        literal.append('\'');
+                        ++close;
+                    }
+                    else
+                    {
+                        break;
+                    }
+                }
+
+                if (length <= close)
+                {
+                    throw new IllegalArgumentException("Unterminated quote");
+                }
+
+                i = close + 1;
+                continue;
+            }
+
+            if (!(('a' <= c && c <= 'z') || ('A' <= c && c <= 'Z')))
+            {
+                literal.append(c);
+                ++i;
+                continue;
+            }
+
+            int code = LETTERS.indexOf(c);
+
+            if (code < 0)
+            {
+                throw new IllegalArgumentException("Illegal pattern character '" + c + "'");
+            }
+
+            int count = 1;
+
+            while (i + count < length && pattern.charAt(i + count) == c)
+            {
+                ++count;
+            }
+
+            if (code == ISO8601_TIMEZONE && 3 < count)
+            {
+                throw new IllegalArgumentException("invalid ISO 8601 format: length=" + count);
+            }
+
+            flushLiteral(literal, steps, literals);
+            steps.add(Integer.valueOf((code << 24) | count));
+            i += count;
+        }
+
+        flushLiteral(literal, steps, literals);
+    }
+
+
+    private static void flushLiteral(StringBuilder literal, List<Integer> steps, List<String> literals)
+    {
+        if (literal.length() == 0)
+        {
+            return;
+        }
+
+        steps.add(Integer.valueOf((LITERAL << 24) | literals.size()));
+        literals.add(literal.toString());
+        literal.setLength(0);
+    }
+
+
+    /**
+     * Get the pattern this format was compiled from.
+     */
+    public String getPattern()
+    {
+        return pattern;
+    }
+
+
+    /**
+     * Get the locale this format was compiled with.
+     */
+    public Locale getLocale()
+    {
+        return locale;
+    }
+
+
+    @Override
+    public String toString()
+    {
+        return pattern;
+    }
+
+
+    /**
+     * Format the time of the given calendar in the time zone of the calendar.
+     */
+    public String format(Calendar calendar)
+    {
+        return format(calendar.getTimeInMillis(), calendar.getTimeZone());
+    }
+
+
+    /**
+     * Format the given time in the given time zone.
+     *
+     * @param millis
+     *         Milliseconds since the epoch.
+     *
+     * @param timeZone
+     *         Time zone.
+     *
+     * @return
+     *         A new string.
+     */
+    public String format(long millis, TimeZone timeZone)
+    {
+        return format(millis, timeZone, new StringBuilder(pattern.length() + 16), null, 0).toString();
+    }
+
+
+    /**
+     * Format the given time in the given time zone and append
+     * the result to the given {@code StringBuilder}.
+     *
+     * @return
+     *         {@code builder}.
+     */
+    public StringBuilder format(long millis, TimeZone timeZone, StringBuilder builder)
+    {
+        return format(millis, timeZone, builder, null, 0);
+    }
+
+
+    /**
+     * Format the given time in the given time zone and append the result
+     * to the given {@code StringBuffer}. Like {@link DateFormat#format(Date,
+     * StringBuffer, FieldPosition)}, the begin and end indexes of the first
+     * field that matches {@code position} are set to {@code position}.
+     *
+     * @return
+     *         {@code buffer}.
+     */
+    public StringBuffer format(long millis, TimeZone timeZone, StringBuffer buffer, FieldPosition position)
+    {
+        StringBuilder builder = new StringBuilder(pattern.length() + 16);
+
+        format(millis, timeZone, builder, position, buffer.length());
+
+        return buffer.append(builder);
+    }
+
+
+    /**
+     * Format the given time in the given time zone and append the result
+     * to the given {@code StringBuilder}. If {@code position} is not null,
+     * the begin and end indexes of the first field that matches it are set.
+     *
+     * @return
+     *         {@code builder}.
+     */
+    public StringBuilder format(long millis, TimeZone timeZone, StringBuilder builder, FieldPosition position)
+    {
+        return format(millis, timeZone, builder, position, 0);
+    }
+
+
+    /**
+     * @param base
+     *         Added to the indexes set to {@code position}.
+     */
+    private StringBuilder format(long millis, TimeZone timeZone, StringBuilder builder, FieldPosition position, int base)
+    {
+        // Offset from UTC at the instant.
+        int offset = timeZone.getOffset(millis);
+
+        long local    = millis + offset;
+        long epochDay = CalendarMath.floorDiv(local, CalendarMath.MILLIS_PER_DAY);
+        int  msOfDay  = (int)(local - epochDay * CalendarMath.MILLIS_PER_DAY);
+        int  date     = CalendarMath.fromEpochDay(epochDay);
+        int  year     = CalendarMath.getYear(date);
+        int  month    = CalendarMath.getMonth(date);
+        int  day      = CalendarMath.getDayOfMonth(date);
+        int  dow      = CalendarMath.dayOfWeek(epochDay);
+        int  hour     = msOfDay / 3600000;
+
+        int weekOfYear = 0;
+        int weekYear   = year;
+
+        if (usesWeeks)
+        {
+            weekOfYear = weekOfYear(epochDay, year);
+
+            if (month == Calendar.JANUARY && 52 <= weekOfYear)
+            {
+                --weekYear;
+            }
+            else if (month != Calendar.JANUARY && weekOfYear == 1)
+            {
+                ++weekYear;
+            }
+        }
+
+        boolean ad = (1 <= year);
+        boolean found = (position == null);
+
+        for (int i = 0; i < steps.length; ++i)
+        {
+            int code  = steps[i] >>> 24;
+            int count = steps[i] & 0xFFFFFF;
+            int begin = builder.length();
+
+            switch (code)
+            {
+                case LITERAL:
+                    builder.append(literals[count]);
+                    continue;
+
+                case ERA:
+                    builder.append(eras[ad ? GregorianCalendar.AD : GregorianCalendar.BC]);
+                    break;
+
+                case YEAR:
+                case WEEK_YEAR:
+                    int y = (code == YEAR) ? year : weekYear;
+                    y = (1 <= y) ? y : 1 - y;
+
+                    if (count == 2)
+                    {
+                        appendNumber(builder, y % 100, 2);
+                    }
+                    else
+                    {
+                        appendNumber(builder, y, count);
+                    }
+                    break;
+
+                case MONTH:
+                case MONTH_STANDALONE:
+                    if (4 <= count)
+                    {
+                        builder.append(months[month]);
+                    }
+                    else if (count == 3)
+                    {
+                        builder.append(shortMonths[month]);
+                    }
+                    else
+                    {
+                        appendNumber(builder, month + 1, count);
+                    }
+                    break;
+
+                case DAY_OF_MONTH:
+                    appendNumber(builder, day, count);
+                    break;
+
+                case HOUR_OF_DAY1:
+                    appendNumber(builder, (hour == 0) ? 24 : hour, count);
+                    break;
+
+                case HOUR_OF_DAY0:
+                    appendNumber(builder, hour, count);
+                    break;
+
+                case MINUTE:
+                    appendNumber(builder, (msOfDay / 60000) % 60, count);
+                    break;
+
+                case SECOND:
+                    appendNumber(builder, (msOfDay / 1000) % 60, count);
+                    break;
+
+                case MILLISECOND:
+                    appendNumber(builder, msOfDay % 1000, count);
+                    break;
+
+                case DAY_OF_WEEK:
+                    builder.append((4 <= count) ? weekdays[dow] : shortWeekdays[dow]);
+                    break;
+
+                case DAY_OF_YEAR:
+                    appendNumber(builder, (int)(epochDay - CalendarMath.toEpochDay(year, Calendar.JANUARY, 1)) + 1, count);
+                    break;
+
+                case DAY_OF_WEEK_IN_MONTH:
+                    appendNumber(builder, (day - 1) / 7 + 1, count);
+                    break;
+
+                case WEEK_OF_YEAR:
+                    appendNumber(builder, weekOfYear, count);
+                    break;
+
+                case WEEK_OF_MONTH:
+                    appendNumber(builder, weekNumber(CalendarMath.toEpochDay(year, month, 1), epochDay), count);
+                    break;
+
+                case AM_PM:
+                    builder.append(ampm[(hour < 12) ? Calendar.AM : Calendar.PM]);
+                    break;
+
+                case HOUR1:
+                    appendNumber(builder, (hour % 12 == 0) ? 12 : hour % 12, count);
+                    break;
+
+                case HOUR0:
+                    appendNumber(builder, hour % 12, count);
+                    break;
+
+                case TIMEZONE:
+                    boolean daylight = timeZone.inDaylightTime(new Date(millis));
+                    builder.append(timeZone.getDisplayName(daylight, (count < 4) ? TimeZone.SHORT : TimeZone.LONG, locale));
+                    break;
+
+                case RFC822_TIMEZONE:
+                    appendOffset(builder, offset / 60000, false, false);
+                    break;
+
+                case ISO8601_TIMEZONE:
+                    appendOffset(builder, offset / 60000, true, count == 3);
+
+                    if (count == 1 && offset / 60000 != 0)
+                    {
+                        // Remove the minutes.
+                        builder.setLength(builder.length() - 2);
+                    }
+                    break;
+
+                case DAY_NUMBER_OF_WEEK:
+                    appendNumber(builder, (dow == Calendar.SUNDAY) ? 7 : dow - 1, count);
+                    break;
+            }
+
+            if (!found && matches(position, code))
+            {
+                position.setBeginIndex(base + begin);
+                position.setEndIndex(base + builder.length());
+                found = true;
+            }
+        }
+
+        return builder;
+    }
+
+
+    /**
+     * Parse a date-time.
+     *
+     * <p>
+     * Like {@link DateFormat#parse(String, ParsePosition)}, parsing stops
+     * after the last field of the pattern. On success, the index of {@code
+     * position} is set to the position after the parsed text. On failure,
+     * the error index of {@code position} is set, the index is not changed,
+     * and 0 is returned.
+     * </p>
+     *
+     * @param text
+     *         Input text.
+     *
+     * @param start
+     *         Position in {@code text} to start parsing at.
+     *
+     * @param end
+     *         Position in {@code text} to stop parsing at (exclusive).
+     *
+     * @param timeZone
+     *         Time zone used when the text has no zone field.
+     *
+     * @param position
+     *         Receives the result position or the error position.
+     *
+     * @return
+     *         Milliseconds since the epoch.
+     */
+    public long parse(CharSequence text, int start, int end, TimeZone timeZone, ParsePosition position)
+    {
+        return parser.parse(text, start, end, timeZone, null, position);
+    }
+
+
+    /**
+     * The same as {@link #parse(CharSequence, int, int, TimeZone,
+     * ParsePosition)} except that {@code cache} is used to convert
+     * local times.
+     */
+    long parse(CharSequence text, int start, int end, ZoneOffsetCache cache, ParsePosition position)
+    {
+        return parser.parse(text, start, end, cache.getTimeZone(), cache, position);
+    }
+
+
+    /**
+     * Parse a date-time. This method is an alias of <code>{@link
+     * #parse(CharSequence, int, int, TimeZone, ParsePosition)
+     * parse}(text, position.getIndex(), text.length(), timeZone, position)</code>.
+     */
+    public long parse(CharSequence text, TimeZone timeZone, ParsePosition position)
+    {
+        return parse(text, position.getIndex(), text.length(), timeZone, position);
+    }
+
+
+    /**
+     * Parse a date-time from the beginning of the given text.
+     *
+     * @return
+     *         Milliseconds since the epoch.
+     *
+     * @throws ParseException
+     *         The text does not match the pattern.
+     */
+    public long parse(CharSequence text, TimeZone timeZone) throws ParseException
+    {
+        ParsePosition position = new ParsePosition(0);
+        long millis = parse(text, 0, text.length(), timeZone, position);
+
+        if (position.getIndex() == 0)
+        {
+            throw new ParseException("Unparseable date: \"" + text + "\"", position.getErrorIndex());
+        }
+
+        return millis;
+    }
+
+
+    /**
+     * Parse a date-time and set the result to the given calendar.
+     * Text without a zone field is interpreted in the time zone of
+     * the calendar. The calendar is not changed on failure.
+     *
+     * @return
+     *         True on success. On failure, the error index of
+     *         {@code position} is set.
+     */
+    public boolean parse(CharSequence text, ParsePosition position, Calendar calendar)
+    {
+        int start = position.getIndex();
+        long millis = parse(text, start, text.length(), calendar.getTimeZone(), position);
+
+        // The index is not changed on failure.
+        if (position.getIndex() == start)
+        {
+            return false;
+        }
+
+        calendar.setTimeInMillis(millis);
+
+        return true;
+    }
+
+
+    private static boolean matches(FieldPosition position, int code)
+    {
+        if (position.getFieldAttribute() != null)
+        {
+            return position.getFieldAttribute() == DATE_FORMAT_ATTRIBUTES[code];
+        }
+
+        return position.getField() == DATE_FORMAT_FIELDS[code];
+    }
+
+
+    /**
+     * The week of the year in the same way as {@link GregorianCalendar}
+     * computes {@link Calendar#WEEK_OF_YEAR}.
+     */
+    int weekOfYear(long epochDay, int year)
+    {
+        long jan1 = CalendarMath.toEpochDay(year, Calendar.JANUARY, 1);
+        int week = weekNumber(jan1, epochDay);
+
+        if (week == 0)
+        {
+            // The last week of the previous year.
+            return weekNumber(CalendarMath.toEpochDay(year - 1, Calendar.JANUARY, 1), jan1 - 1);
+        }
+
+        if (52 <= week)
+        {
+            long nextJan1 = CalendarMath.toEpochDay(year + 1, Calendar.JANUARY, 1);
+            long nextJan1st = dayOfWeekOnOrBefore(nextJan1 + 6, firstDayOfWeek);
+
+            if (minimalDaysInFirstWeek <= nextJan1st - nextJan1 && nextJan1st - 7 <= epochDay)
+            {
+                return 1;
+            }
+        }
+
+        return week;
+    }
+
+
+    /**
+     * The week number of {@code epochDay} in the period that starts
+     * on {@code periodStart}, like {@code Calendar.getWeekNumber}.
+     */
+    int weekNumber(long periodStart, long epochDay)
+    {
+        return (int)CalendarMath.floorDiv(epochDay - firstWeekStart(periodStart), 7) + 1;
+    }
+
+
+    /**
+     * The first day of the first week of the period that
+     * starts on {@code periodStart}.
+     */
+    long firstWeekStart(long periodStart)
+    {
+        long start = dayOfWeekOnOrBefore(periodStart + 6, firstDayOfWeek);
+
+        if (minimalDaysInFirstWeek <= start - periodStart)
+        {
+            start -= 7;
+        }
+
+        return start;
+    }
+
+
+    private static long dayOfWeekOnOrBefore(long epochDay, int dayOfWeek)
+    {
+        return epochDay - CalendarMath.floorMod(CalendarMath.dayOfWeek(epochDay) - dayOfWeek, 7);
+    }
+
+
+    private void appendNumber(StringBuilder builder, int value, int minDigits)
+    {
+        int digits = 1;
+
+        for (int v = value / 10; v != 0; v /= 10)
+        {
+            ++digits;
+        }
+
+        for (int i = digits; i < minDigits; ++i)
+        {
+            builder.append(zeroDigit);
+        }
+
+        // Append digits from the most significant one.
+        int divisor = 1;
+
+        for (int i = 1; i < digits; ++i)
+        {
+            divisor *= 10;
+        }
+
+        for (; divisor != 0; divisor /= 10)
+        {
+            builder.append((char)(zeroDigit + (value / divisor) % 10));
+        }
+    }
+
+
+    private static void appendOffset(StringBuilder builder, int minutes, boolean z, boolean colon)
+    {
+        if (z && minutes == 0)
+        {
+            builder.append('Z');
+            return;
+        }
+
+        if (minutes < 0)
+        {
+            builder.append('-');
+            minutes = -minutes;
+        }
+        else
+        {
+            builder.append('+');
+        }
+
+        int hours = minutes / 60;
+        minutes %= 60;
+
+        builder.append((char)('0' + hours / 10)).append((char)('0' + hours % 10));
+
+        if (colon)
+        {
+            builder.append(':');
+        }
+
+        builder.append((char)('0' + minutes / 10)).append((char)('0' + minutes % 10));
+    }
+}
@@ -0,0 +1,706 @@
+/*
+ * Copyright (C) 2012-2013 Neo Visionaries Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.neovisionaries.datetime;
+
+
+import static com.neovisionaries.datetime.GFormat.*;
+import java.text.DateFormatSymbols;
+import java.text.ParsePosition;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.Comparator;
+import java.util.GregorianCalendar;
+import java.util.List;
+import java.util.TimeZone;
+
+
+/**
+ * The parsing half of {@link GFormat}. Immutable and thread-safe.
+ *
+ * <p>
+ * Numeric fields are read by scanning digits directly, and text fields
+ * are matched against lookup tables built when the pattern is compiled.
+ * Like a lenient {@link java.text.SimpleDateFormat}, out-of-range values
+ * roll over (for example, February 30 means March 2 or 1).
+ * </p>
+ *
+ * @since 1.4
+ *
+ * @author Takahiko Kawasaki
+ */
+final class GFormatParser
+{
+    /**
+     * Text-to-value lookup table. Names are sorted longest first so
+     * that the first match is the longest one.
+     */
+    static final class Table
+    {
+        final String[] names;
+        final int[] values;
+
+
+        Table(List<String> nameList, List<Integer> valueList)
+        {
+            final int n = nameList.size();
+            Integer[] order = new Integer[n];
+
+            for (int i = 0; i < n; ++i)
+            {
+                order[i] = Integer.valueOf(i);
+            }
+
+            final List<String> list = nameList;
+
+            Arrays.sort(order, new Comparator<Integer>()
+            {
+                public int compare(Integer a, Integer b)
+                {
+                    return list.get(b.intValue()).length() - list.get(a.intValue()).length();
+                }
+            });
+
+            names  = new String[n];
+            values = new int[n];
+
+            for (int i = 0; i < n; ++i)
+            {
+                names[i]  = nameList.get(order[i].intValue());
+                values[i] = valueList.get(order[i].intValue()).intValue();
+            }
+        }
+
+
+        /**
+         * Find the longest name that matches the text at {@code index}
+         * ignoring case. Returns the index in the table or -1.
+         */
+        int match(CharSequence text, int index, int end)
+        {
+            for (int i = 0; i < names.length; ++i)
+            {
+                if (regionMatches(text, index, end, names[i]))
+                {
+                    return i;
+                }
+            }
+
+            return -1;
+        }
+
+
+        private static boolean regionMatches(CharSequence text, int index, int end, String name)
+        {
+            int length = name.length();
+
+            if (end - index < length)
+            {
+                return false;
+            }
+
+            for (int i = 0; i < length; ++i)
+            {
+                char c1 = text.charAt(index + i);
+                char c2 = name.charAt(i);
+
+                if (c1 != c2 && Character.toUpperCase(c1) != Character.toUpperCase(c2)
+                    && Character.toLowerCase(c1) != Character.toLowerCase(c2))
+                {
+                    return false;
+                }
+            }
+
+            return true;
+        }
+    }
+
+
+    private static final String[] GMT_PREFIXES = { "GMT", "UTC" };
+
+
+    private final GFormat format;
+
+
+    /**
+     * True if the numeric field at the same index in {@code format.steps}
+     * is followed by another numeric field and must be read with the
+     * exact number of digits given in the pattern.
+     */
+    private final boolean[] abutting;
+
+
+    private final Table eraTable;
+    private final Table monthTable;
+    private final Table weekdayTable;
+    private final Table ampmTable;
+
+
+    /**
+     * Zone names. The values are offsets from UTC in milliseconds.
+     * Built only when the pattern contains {@code z}.
+     */
+    private final Table zoneTable;
+
+
+    /**
+     * The first year of the 100-year window used for 2-digit years.
+     * Like {@code SimpleDateFormat}, it starts 80 years before now.
+     */
+    private final int centuryStartYear;
+
+
+    GFormatParser(GFormat format, DateFormatSymbols symbols)
+    {
+        this.format = format;
+
+        int[] steps = format.steps;
+        abutting = new boolean[steps.length];
+        boolean zone = false;
+
+        for (int i = 0; i < steps.length; ++i)
+        {
+            int code = steps[i] >>> 24;
+
+            abutting[i] = isNumeric(steps[i]) && i + 1 < steps.length && isNumeric(steps[i + 1]);
+            zone |= (code == TIMEZONE);
+        }
+
+        eraTable     = table(format.eras, null);
+        monthTable   = table(format.months, format.shortMonths);
+        weekdayTable = table(format.weekdays, format.shortWeekdays);
+        ampmTable    = table(format.ampm, null);
+        zoneTable    = zone ? zoneTable(symbols) : null;
+
+        long today = CalendarMath.toEpochDay(System.currentTimeMillis());
+        centuryStartYear = CalendarMath.getYear(CalendarMath.fromEpochDay(today)) - 80;
+    }
+
+
+    private static boolean isNumeric(int step)
+    {
+        int code  = step >>> 24;
+        int count = step & 0xFFFFFF;
+
+        switch (code)
+        {
+            case LITERAL:
+            case ERA:
+            case DAY_OF_WEEK:
+            case AM_PM:
+            case TIMEZONE:
+            case RFC822_TIMEZONE:
+            case ISO8601_TIMEZONE:
+                return false;
+
+            case MONTH:
+            case MONTH_STANDALONE:
+                return (count <= 2);
+
+            default:
+                return true;
+        }
+    }
+
+
+    private static Table table(String[] names1, String[] names2)
+    {
+        List<String> names = new ArrayList<String>();
+        List<Integer> values = new ArrayList<Integer>();
+
+        for (String[] array : new String[][] { names1, names2 })
+        {
+            if (array == null)
+            {
+                continue;
+            }
+
+            for (int i = 0; i < array.length; ++i)
+            {
+                if (array[i] != null && array[i].length() != 0)
+                {
+                    names.add(array[i]);
+                    values.add(Integer.valueOf(i));
+                }
+            }
+        }
+
+        return new Table(names, values);
+    }
+
+
+    private static Table zoneTable(DateFormatSymbols symbols)
+    {
+        List<String> names = new ArrayList<String>();
+        List<Integer> values = new ArrayList<Integer>();
+
+        for (String[] row : symbols.getZoneStrings())
+        {
+            TimeZone tz = TimeZone.getTimeZone(row[0]);
+            int raw = tz.getRawOffset();
+
+            // {ID, long standard, short standard, long DST, short DST}
+            for (int i = 1; i < row.length && i < 5; ++i)
+            {
+                if (row[i] != null && row[i].length() != 0)
+                {
+                    names.add(row[i]);
+                    values.add(Integer.valueOf((i < 3) ? raw : raw + tz.getDSTSavings()));
+                }
+            }
+        }
+
+        return new Table(names, values);
+    }
+
+
+    /**
+     * Parsed fields. Created per call and never shared.
+     */
+    private static final class Fields
+    {
+        int year = 1970, month, day = 1, dayOfYear, dayOfWeek, weekOfYear, weekOfMonth, weekYear;
+        int hourOfDay, hour, ampm = -1, minute, second, millisecond;
+        int offset;
+        boolean bc, hasMonthOrDay, hasDayOfYear, hasDayOfWeek, hasWeekOfYear, hasWeekOfMonth;
+        boolean hasWeekYear, hasHourOfDay, hasHour, hasOffset;
+    }
+
+
+    /**
+     * See {@link GFormat#parse(CharSequence, int, int, TimeZone, ParsePosition)}.
+     */
+    long parse(CharSequence text, int start, int end, TimeZone timeZone, ZoneOffsetCache cache, ParsePosition position)
+    {
+        int[] steps = format.steps;
+        Fields f = new Fields();
+        int i = start;
+
+        for (int s = 0; s < steps.length; ++s)
+        {
+            int code  = steps[s] >>> 24;
+            int count = steps[s] & 0xFFFFFF;
+
+            if (code == LITERAL)
+            {
+                String literal = format.literals[count];
+                int length = literal.length();
+
+                if (end - i < length)
+                {
+                    return error(position, i);
+                }
+
+                for (int k = 0; k < length; ++k, ++i)
+                {
+                    if (text.charAt(i) != literal.charAt(k))
+                    {
+                        return error(position, i);
+                    }
+                }
+
+                continue;
+            }
+
+            // Like SimpleDateFormat, skip spaces and tabs before a field.
+            while (i < end && (text.charAt(i) == ' ' || text.charAt(i) == '\t'))
+            {
+                ++i;
+            }
+
+            if (isNumeric(steps[s]))
+            {
+                int maxDigits = abutting[s] ? count : 9;
+                int value = 0;
+                int digits = 0;
+
+                for (; digits < maxDigits && i + digits < end; ++digits)
+                {
+                    int d = Character.digit(text.charAt(i + digits), 10);
+
+                    if (d < 0)
+                    {
+                        break;
+                    }
+
+                    value = value * 10 + d;
+                }
+
+                if (digits == 0 || (abutting[s] && digits != count))
+                {
+                    return error(position, i);
+                }
+
+                i += digits;
+
+                setNumber(f, code, count, digits, value);
+                continue;
+            }
+
+            int index;
+
+            switch (code)
+            {
+                case ERA:
+                    if ((index = eraTable.match(text, i, end)) < 0)
+                    {
+                        return error(position, i);
+                    }
+                    f.bc = (eraTable.values[index] == GregorianCalendar.BC);
+                    i += eraTable.names[index].length();
+                    break;
+
+                case MONTH:
+                case MONTH_STANDALONE:
+                    if ((index = monthTable.match(text, i, end)) < 0)
+                    {
+                        return error(position, i);
+                    }
+                    f.month = monthTable.values[index];
+                    f.hasMonthOrDay = true;
+                    i += monthTable.names[index].length();
+                    break;
+
+                case DAY_OF_WEEK:
+                    if ((index = weekdayTable.match(text, i, end)) < 0)
+                    {
+                        return error(position, i);
+                    }
+                    f.dayOfWeek = weekdayTable.values[index];
+                    f.hasDayOfWeek = true;
+                    i += weekdayTable.names[index].length();
+                    break;
+
+                case AM_PM:
+                    if ((index = ampmTable.match(text, i, end)) < 0)
+                    {
+                        return error(position, i);
+                    }
+                    f.ampm = ampmTable.values[index];
+                    i += ampmTable.names[index].length();
+                    break;
+
+                case TIMEZONE:
+                    int next = parseZoneName(text, i, end, f);
+
+                    if (next < 0)
+                    {
+                        return error(position, i);
+                    }
+                    i = next;
+                    break;
+
+                case RFC822_TIMEZONE:
+                case ISO8601_TIMEZONE:
+                    next = parseOffset(text, i, end, f, code == ISO8601_TIMEZONE);
+
+                    if (next < 0)
+                    {
+                        return error(position, i);
+                    }
+                    i = next;
+                    break;
+            }
+        }
+
+        position.setIndex(i);
+
+        long local = toLocalMillis(f);
+
+        if (f.hasOffset)
+        {
+            return local - f.offset;
+        }
+
+        return ZoneOffsetCache.toUTC(local, timeZone, cache);
+    }
+
+
+    private void setNumber(Fields f, int code, int count, int digits, int value)
+    {
+        switch (code)
+        {
+            case YEAR:
+            case WEEK_YEAR:
+                if (count <= 2 && digits == 2)
+                {
+                    // Two-digit year in the 100-year window.
+                    value += (centuryStartYear / 100) * 100;
+
+                    if (value < centuryStartYear)
+                    {
+                        value += 100;
+                    }
+                }
+
+                if (code == YEAR)
+                {
+                    f.year = value;
+                }
+                else
+                {
+                    f.weekYear = value;
+                    f.hasWeekYear = true;
+                }
+                break;
+
+            case MONTH:
+            case MONTH_STANDALONE:
+                f.month = value - 1;
+                f.hasMonthOrDay = true;
+                break;
+
+            case DAY_OF_MONTH:
+                f.day = value;
+                f.hasMonthOrDay = true;
+                break;
+
+            case HOUR_OF_DAY1:
+                f.hourOfDay = (value == 24) ? 0 : value;
+                f.hasHourOfDay = true;
+                break;
+
+            case HOUR_OF_DAY0:
+                f.hourOfDay = value;
+                f.hasHourOfDay = true;
+                break;
+
+            case HOUR1:
+                f.hour = (value == 12) ? 0 : value;
+                f.hasHour = true;
+                break;
+
+            case HOUR0:
+                f.hour = value;
+                f.hasHour = true;
+                break;
+
+            case MINUTE:
+                f.minute = value;
+                break;
+
+            case SECOND:
+                f.second = value;
+                break;
+
+            case MILLISECOND:
+                f.millisecond = value;
+                break;
+
+            case DAY_OF_YEAR:
+                f.dayOfYear = value;
+                f.hasDayOfYear = true;
+                break;
+
+            case WEEK_OF_YEAR:
+                f.weekOfYear = value;
+                f.hasWeekOfYear = true;
+                break;
+
+            case WEEK_OF_MONTH:
+                f.weekOfMonth = value;
+                f.hasWeekOfMonth = true;
+                break;
+
+            case DAY_NUMBER_OF_WEEK:
+                f.dayOfWeek = (value == 7) ? Calendar.SUNDAY : value + 1;
+                f.hasDayOfWeek = true;
+                break;
+
+            default:
+                // DAY_OF_WEEK_IN_MONTH is parsed but not used.
+                break;
+        }
+    }
+
+
+    /**
+     * Compute the local milliseconds from the parsed fields. Like
+     * {@link Calendar}, a day of month wins over a day of year, and
+     * a day of year wins over a week.
+     */
+    private long toLocalMillis(Fields f)
+    {
+        int year = f.bc ? 1 - f.year : f.year;
+        long epochDay;
+
+        if (f.hasMonthOrDay || !(f.hasDayOfYear || f.hasWeekOfYear || f.hasWeekOfMonth))
+        {
+            epochDay = CalendarMath.toEpochDay(year, f.month, f.day);
+        }
+        else if (f.hasDayOfYear)
+        {
+            epochDay = CalendarMath.toEpochDay(year, Calendar.JANUARY, 1) + f.dayOfYear - 1;
+        }
+        else
+        {
+            int dow = f.hasDayOfWeek ? f.dayOfWeek : format.firstDayOfWeek;
+            int weekYear = f.hasWeekYear ? f.weekYear : year;
+            long periodStart;
+            int week;
+
+            if (f.hasWeekOfYear)
+            {
+                periodStart = CalendarMath.toEpochDay(weekYear, Calendar.JANUARY, 1);
+                week = f.weekOfYear;
+            }
+            else
+            {
+                periodStart = CalendarMath.toEpochDay(year, f.month, 1);
+                week = f.weekOfMonth;
+            }
+
+            epochDay = format.firstWeekStart(periodStart) + (week - 1) * 7L
+                     + CalendarMath.floorMod(dow - format.firstDayOfWeek, 7);
+        }
+
+        int hour = f.hourOfDay;
+
+        if (!f.hasHourOfDay && f.hasHour)
+        {
+            hour = f.hour + ((f.ampm == Calendar.PM) ? 12 : 0);
+        }
+
+        return epochDay * CalendarMath.MILLIS_PER_DAY
+             + hour * 3600000L + f.minute * 60000L + f.second * 1000L + f.millisecond;
+    }
+
+
+    /**
+     * Parse a zone name, "GMT", "UTC" or an offset like "GMT+09:00"
+     * or "+0900". Returns the next index or -1.
+     */
+    private int parseZoneName(CharSequence text, int i, int end, Fields f)
+    {
+        if (i < end && (text.charAt(i) == '+' || text.charAt(i) == '-'))
+        {
+            return parseOffset(text, i, end, f, false);
+        }
+
+        for (String prefix : GMT_PREFIXES)
+        {
+            if (Table.regionMatches(text, i, end, prefix))
+            {
+                int next = i + 3;
+
+                if (next < end && (text.charAt(next) == '+' || text.charAt(next) == '-'))
+                {
+                    return parseOffset(text, next, end, f, false);
+                }
+
+                f.offset = 0;
+                f.hasOffset = true;
+
+                return next;
+            }
+        }
+
+        int index = zoneTable.match(text, i, end);
+
+        if (index < 0)
+        {
+            return -1;
+        }
+
+        f.offset = zoneTable.values[index];
+        f.hasOffset = true;
+
+        return i + zoneTable.names[index].length();
+    }
+
+
+    /**
+     * Parse {@code [+-]HH[[:]mm]}, or {@code Z} if {@code z} is true.
+     * Returns the next index or -1.
+     */
+    private static int parseOffset(CharSequence text, int i, int end, Fields f, boolean z)
+    {
+        if (end <= i)
+        {
+            return -1;
+        }
+
+        char c = text.charAt(i);
+
+        if (z && (c == 'Z' || c == 'z'))
+        {
+            f.offset = 0;
+            f.hasOffset = true;
+
+            return i + 1;
+        }
+
+        if (c != '+' && c != '-')
+        {
+            return -1;
+        }
+
+        int hours = twoDigits(text, i + 1, end);
+
+        if (hours < 0)
+        {
+            return -1;
+        }
+
+        int next = i + 3;
+        int minutes = 0;
+
+        if (next < end && text.charAt(next) == ':' && 0 <= twoDigits(text, next + 1, end))
+        {
+            minutes = twoDigits(text, next + 1, end);
+            next += 3;
+        }
+        else if (0 <= twoDigits(text, next, end))
+        {
+            minutes = twoDigits(text, next, end);
+            next += 2;
+        }
+
+        if (23 < hours || 59 < minutes)
+        {
+            return -1;
+        }
+
+        int offset = (hours * 60 + minutes) * 60000;
+
+        f.offset = (c == '-') ? -offset : offset;
+        f.hasOffset = true;
+
+        return next;
+    }
+
+
+    private static int twoDigits(CharSequence text, int i, int end)
+    {
+        if (end < i + 2)
+        {
+            return -1;
+        }
+
+        int d1 = Character.digit(text.charAt(i), 10);
+        int d2 = Character.digit(text.charAt(i + 1), 10);
+
+        return (d1 < 0 || d2 < 0) ? -1 : d1 * 10 + d2;
+    }
+
+
+    private static long error(ParsePosition position, int index)
+    {
+        position.setErrorIndex(index);
+
+        return 0;
+    }
+}
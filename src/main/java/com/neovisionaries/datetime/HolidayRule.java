@@ -0,0 +1,149 @@
+/*
+ * Copyright (C) 2012-2013 Neo Visionaries Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.neovisionaries.datetime;
+
+
+import java.util.Calendar;
+
+
+/**
+ * A rule that tells whether a date is a holiday.
+ *
+ * <p>
+ * Rules are evaluated only when a {@link BusinessCalendar} is created, so
+ * a rule does not have to be fast, but it must always give the same
+ * answer for the same date.
+ * </p>
+ *
+ * @since 1.4
+ *
+ * @see BusinessCalendar#withHolidays(HolidayRule...)
+ *
+ * @author Takahiko Kawasaki
+ */
+public interface HolidayRule
+{
+    /**
+     * Check if the given date is a holiday.
+     *
+     * @param year
+     *         Proleptic year.
+     *
+     * @param month
+     *         0-based month.
+     *
+     * @param dayOfMonth
+     *         Day of month (1-based).
+     *
+     * @param dayOfWeek
+     *         {@link Calendar#SUNDAY} to {@link Calendar#SATURDAY}.
+     *
+     * @return
+     *         {@code true} if the date is a holiday.
+     */
+    boolean isHoliday(int year, int month, int dayOfMonth, int dayOfWeek);
+
+
+    /**
+     * Get a rule of a holiday on the same date every year,
+     * for example January 1.
+     *
+     * @param month
+     *         0-based month.
+     *
+     * @param dayOfMonth
+     *         Day of month (1-based).
+     */
+    static HolidayRule fixed(final int month, final int dayOfMonth)
+    {
+        return new HolidayRule()
+        {
+            @Override
+            public boolean isHoliday(int y, int m, int d, int w)
+            {
+                return m == month && d == dayOfMonth;
+            }
+        };
+    }
+
+
+    /**
+     * Get a rule of a holiday on one date.
+     *
+     * @param year
+     *         Proleptic year.
+     *
+     * @param month
+     *         0-based month.
+     *
+     * @param dayOfMonth
+     *         Day of month (1-based).
+     */
+    static HolidayRule date(final int year, final int month, final int dayOfMonth)
+    {
+        return new HolidayRule()
+        {
+            @Override
+            public boolean isHoliday(int y, int m, int d, int w)
+            {
+                return y == year && m == month && d == dayOfMonth;
+            }
+        };
+    }
+
+
+    /**
+     * Get a rule of a holiday on the n-th day of week of a month every
+     * year, for example the third Monday of January. The meaning of
+     * {@code n} is the same as that of {@link Calendar#DAY_OF_WEEK_IN_MONTH
+     * DAY_OF_WEEK_IN_MONTH}: 1 is the first and -1 is the last.
+     *
+     * @param month
+     *         0-based month.
+     *
+     * @param n
+     *         1 to 5, or -1 to -5.
+     *
+     * @param dayOfWeek
+     *         {@link Calendar#SUNDAY} to {@link Calendar#SATURDAY}.
+     */
+    static HolidayRule dayOfWeekInMonth(final int month, final int n, final int dayOfWeek)
+    {
+        if (n == 0 || n < -5 || 5 < n)
+        {
+            throw new IllegalArgumentException("Bad day of week in month: " + n);
+        }
+
+        return new HolidayRule()
+        {
+            @Override
+            public boolean isHoliday(int y, int m, int d, int w)
+            {
+                if (m != month || w != dayOfWeek)
+                {
+                    return false;
+                }
+
+                if (0 < n)
+                {
+                    return (d - 1) / 7 + 1 == n;
+                }
+
+                return (CalendarMath.daysInMonth(y, m) - d) / 7 + 1 == -n;
+            }
+        };
+    }
+}
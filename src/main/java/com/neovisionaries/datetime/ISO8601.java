@@ -0,0 +1,748 @@
+/*
+ * Copyright (C) 2012-2013 Neo Visionaries Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.neovisionaries.datetime;
+
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.text.ParsePosition;
+import java.util.TimeZone;
+
+
+/**
+ * <a href="http://en.wikipedia.org/wiki/ISO_8601">ISO 8601</a> utilities.
+ *
+ * <p>
+ * The {@code format} methods write a date-time in the extended format,
+ * <code><i>yyyy</i>-<i>MM</i>-<i>dd</i>T<i>HH</i>:<i>mm</i>:<i>ss</i>[.<i>SSS</i>[000]]<i>Z</i></code>,
+ * where <code><i>Z</i></code> is <code>[+-]<i>HH</i>:<i>mm</i></code>
+ * or {@code Z}, directly into the given buffer. Except {@link
+ * #format(long, TimeZone, int)}, they do not create any object.
+ * </p>
+ *
+ * <p>
+ * Years are the astronomical years of ISO 8601: years from 0 (1 BC)
+ * to 9999 are written with 4 digits, and other years are written with
+ * a sign, for example, {@code -0001} (2 BC) and {@code +10000}. With
+ * {@link #YEAR_OF_ERA}, the year of the era is written without a sign
+ * instead, like {@code yyyy} of {@link java.text.SimpleDateFormat
+ * SimpleDateFormat} does, for example, {@code 0001} (1 BC).
+ * </p>
+ *
+ * <p>
+ * The {@code parse} methods read both the extended format and the basic
+ * format (<code><i>yyyyMMdd</i>T<i>HHmmss</i></code>), with or without
+ * fractional seconds and an offset. Date-only strings are accepted, too.
+ * </p>
+ *
+ * @since 1.4
+ *
+ * @see <a href="http://en.wikipedia.org/wiki/ISO_8601">ISO 8601</a>
+ * @see <a href="http://www.w3.org/TR/xmlschema-2/#dateTime">XMLSchema dateTime format</a>
+ *
+ * @author Takahiko Kawasaki
+ */
+public final class ISO8601
+{
+    /**
+     * Option to write milliseconds ({@code .SSS}).
+     */
+    public static final int MILLISECONDS = 0x1;
+
+
+    /**
+     * Option to write milliseconds padded to microseconds ({@code .SSS000}).
+     */
+    public static final int MICROSECONDS = 0x2;
+
+
+    /**
+     * Option to write {@code Z} instead of {@code +00:00}
+     * when the offset from UTC is zero.
+     */
+    public static final int UTC_AS_Z = 0x4;
+
+
+    /**
+     * Option to write the year of the era without a sign ({@code 0001}
+     * for 1 BC) instead of the astronomical year ({@code 0000} for 1 BC).
+     * {@link GCalendar#toISO8601()} uses this option.
+     */
+    public static final int YEAR_OF_ERA = 0x8;
+
+
+    /**
+     * The maximum number of characters written by the {@code format} methods.
+     */
+    public static final int MAX_LENGTH = 38;
+
+
+    private static final ThreadLocal<char[]> SCRATCH = new ThreadLocal<char[]>()
+    {
+        @Override
+        protected char[] initialValue()
+        {
+            return new char[MAX_LENGTH];
+        }
+    };
+
+
+    private ISO8601()
+    {
+    }
+
+
+    /**
+     * Format the given time as an ISO 8601 string.
+     *
+     * @param millis
+     *         Milliseconds since the epoch.
+     *
+     * @param timeZone
+     *         Time zone used to compute the local date-time and the offset.
+     *
+     * @param options
+     *         Bitwise OR of {@link #MILLISECONDS}, {@link #MICROSECONDS},
+     *         {@link #UTC_AS_Z} and {@link #YEAR_OF_ERA}, or 0.
+     *
+     * @return
+     *         A new string.
+     */
+    public static String format(long millis, TimeZone timeZone, int options)
+    {
+        char[] buf = SCRATCH.get();
+        int end = format(millis, timeZone.getOffset(millis), options, buf, 0);
+
+        return new String(buf, 0, end);
+    }
+
+
+    /**
+     * Format the given time and append the result to the given
+     * {@code StringBuilder}.
+     *
+     * @return
+     *         {@code builder}.
+     */
+    public static StringBuilder format(long millis, TimeZone timeZone, int options, StringBuilder builder)
+    {
+        char[] buf = SCRATCH.get();
+        int end = format(millis, timeZone.getOffset(millis), options, buf, 0);
+
+        return builder.append(buf, 0, end);
+    }
+
+
+    /**
+     * Format the given time and append the result to the given
+     * {@code Appendable}.
+     *
+     * @return
+     *         {@code appendable}.
+     *
+     * @throws IOException
+     *         {@code appendable} threw it.
+     */
+    public static <T extends Appendable> T format(long millis, TimeZone timeZone, int options, T appendable) throws IOException
+    {
+        char[] buf = SCRATCH.get();
+        int end = format(millis, timeZone.getOffset(millis), options, buf, 0);
+
+        for (int i = 0; i < end; ++i)
+        {
+            appendable.append(buf[i]);
+        }
+
+        return appendable;
+    }
+
+
+    /**
+     * Format the given time into the given {@code char} array.
+     *
+     * @param index
+     *         Position in {@code buffer} to start writing at. At least
+     *         {@link #MAX_LENGTH} characters should be available.
+     *
+     * @return
+     *         Position in {@code buffer} after the last written character.
+     */
+    public static int format(long millis, TimeZone timeZone, int options, char[] buffer, int index)
+    {
+        return format(millis, timeZone.getOffset(millis), options, buffer, index);
+    }
+
+
+    /**
+     * Format the given time into the given {@code byte} array as ASCII.
+     *
+     * @param index
+     *         Position in {@code buffer} to start writing at. At least
+     *         {@link #MAX_LENGTH} bytes should be available.
+     *
+     * @return
+     *         Position in {@code buffer} after the last written byte.
+     */
+    public static int format(long millis, TimeZone timeZone, int options, byte[] buffer, int index)
+    {
+        char[] buf = SCRATCH.get();
+        int end = format(millis, timeZone.getOffset(millis), options, buf, 0);
+
+        for (int i = 0; i < end; ++i)
+        {
+            buffer[index++] = (byte)buf[i];
+        }
+
+        return index;
+    }
+
+
+    /**
+     * Format the given time into the given {@code ByteBuffer} as ASCII,
+     * starting at the buffer's current position.
+     *
+     * @return
+     *         {@code buffer}.
+     */
+    public static ByteBuffer format(long millis, TimeZone timeZone, int options, ByteBuffer buffer)
+    {
+        char[] buf = SCRATCH.get();
+        int end = format(millis, timeZone.getOffset(millis), options, buf, 0);
+
+        for (int i = 0; i < end; ++i)
+        {
+            buffer.put((byte)buf[i]);
+        }
+
+        return buffer;
+    }
+
+
+    /**
+     * Format the given time with the given offset from UTC into the
+     * given {@code char} array. All the other {@code format} methods
+     * are built on top of this method.
+     *
+     * @param millis
+     *         Milliseconds since the epoch.
+     *
+     * @param offset
+     *         Offset from UTC in milliseconds. The offset part of the output
+     *         is truncated to minutes like {@code SimpleDateFormat} does.
+     *
+     * @param options
+     *         Bitwise OR of {@link #MILLISECONDS}, {@link #MICROSECONDS},
+     *         {@link #UTC_AS_Z} and {@link #YEAR_OF_ERA}, or 0.
+     *
+     * @param buffer
+     *         Output buffer.
+     *
+     * @param index
+     *         Position in {@code buffer} to start writing at.
+     *
+     * @return
+     *         Position in {@code buffer} after the last written character.
+     */
+    public static int format(long millis, int offset, int options, char[] buffer, int index)
+    {
+        long local    = millis + offset;
+        long epochDay = CalendarMath.floorDiv(local, CalendarMath.MILLIS_PER_DAY);
+        int  msOfDay  = (int)(local - epochDay * CalendarMath.MILLIS_PER_DAY);
+        int  date     = CalendarMath.fromEpochDay(epochDay);
+
+        int year = CalendarMath.getYear(date);
+
+        if ((options & YEAR_OF_ERA) != 0)
+        {
+            index = writeYearOfEra(buffer, index, (year <= 0) ? 1 - year : year);
+        }
+        else
+        {
+            index = writeYear(buffer, index, year);
+        }
+
+        buffer[index++] = '-';
+        index = write2(buffer, index, CalendarMath.getMonth(date) + 1);
+        buffer[index++] = '-';
+        index = write2(buffer, index, CalendarMath.getDayOfMonth(date));
+        buffer[index++] = 'T';
+        index = write2(buffer, index, msOfDay / 3600000);
+        buffer[index++] = ':';
+        index = write2(buffer, index, (msOfDay / 60000) % 60);
+        buffer[index++] = ':';
+        index = write2(buffer, index, (msOfDay / 1000) % 60);
+
+        if ((options & (MILLISECONDS | MICROSECONDS)) != 0)
+        {
+            buffer[index++] = '.';
+            index = write3(buffer, index, msOfDay % 1000);
+
+            if ((options & MICROSECONDS) != 0)
+            {
+                buffer[index++] = '0';
+                buffer[index++] = '0';
+                buffer[index++] = '0';
+            }
+        }
+
+        return writeOffset(buffer, index, offset / 60000, (options & UTC_AS_Z) != 0);
+    }
+
+
+    private static int writeOffset(char[] buffer, int index, int minutes, boolean z)
+    {
+        if (minutes == 0 && z)
+        {
+            buffer[index++] = 'Z';
+
+            return index;
+        }
+
+        if (minutes < 0)
+        {
+            buffer[index++] = '-';
+            minutes = -minutes;
+        }
+        else
+        {
+            buffer[index++] = '+';
+        }
+
+        index = write2(buffer, index, minutes / 60);
+        buffer[index++] = ':';
+
+        return write2(buffer, index, minutes % 60);
+    }
+
+
+    private static int writeYear(char[] buffer, int index, int year)
+    {
+        if (0 <= year && year <= 9999)
+        {
+            index = write2(buffer, index, year / 100);
+
+            return write2(buffer, index, year % 100);
+        }
+
+        buffer[index++] = (year < 0) ? '-' : '+';
+
+        // Use a negative value to handle Integer.MIN_VALUE.
+        int value = (year < 0) ? year : -year;
+        int digits = 4;
+
+        for (int v = value / 10000; v != 0; v /= 10)
+        {
+            ++digits;
+        }
+
+        for (int i = index + digits - 1; index <= i; --i)
+        {
+            buffer[i] = (char)('0' - (value % 10));
+            value /= 10;
+        }
+
+        return index + digits;
+    }
+
+
+    private static int writeYearOfEra(char[] buffer, int index, int yearOfEra)
+    {
+        if (yearOfEra <= 9999)
+        {
+            index = write2(buffer, index, yearOfEra / 100);
+
+            return write2(buffer, index, yearOfEra % 100);
+        }
+
+        // Years after AD 9999 or before 9999 BC, without a sign.
+        int digits = 4;
+
+        for (int v = yearOfEra / 10000; v != 0; v /= 10)
+        {
+            ++digits;
+        }
+
+        for (int i = index + digits - 1; index <= i; --i)
+        {
+            buffer[i] = (char)('0' + (yearOfEra % 10));
+            yearOfEra /= 10;
+        }
+
+        return index + digits;
+    }
+
+
+    private static int write2(char[] buffer, int index, int value)
+    {
+        buffer[index++] = (char)('0' + value / 10);
+        buffer[index++] = (char)('0' + value % 10);
+
+        return index;
+    }
+
+
+    private static int write3(char[] buffer, int index, int value)
+    {
+        buffer[index++] = (char)('0' + value / 100);
+
+        return write2(buffer, index, value % 100);
+    }
+
+
+    /**
+     * Parse an ISO 8601 date or date-time.
+     *
+     * <p>
+     * The following forms are accepted. The date part is either
+     * <code><i>yyyy</i>-<i>MM</i>-<i>dd</i></code> or
+     * <code><i>yyyyMMdd</i></code>, where a year other than 4 digits
+     * must have a sign. The time part, if any, follows {@code T} and is
+     * either <code><i>HH</i>[:<i>mm</i>[:<i>ss</i>]]</code> or
+     * <code><i>HH</i>[<i>mm</i>[<i>ss</i>]]</code>, optionally followed
+     * by a fraction of a second (after {@code .} or {@code ,}) and an
+     * offset ({@code Z}, <code>[+-]<i>HH</i></code>,
+     * <code>[+-]<i>HH</i>:<i>mm</i></code> or <code>[+-]<i>HHmm</i></code>).
+     * Digits of the fraction beyond milliseconds are ignored.
+     * </p>
+     *
+     * <p>
+     * When the input has no offset, the date-time is interpreted as a
+     * local date-time in {@code timeZone}. A date-only input means the
+     * start of the day.
+     * </p>
+     *
+     * <p>
+     * Like {@link java.text.DateFormat#parse(String, ParsePosition)
+     * DateFormat.parse}, parsing stops after the last recognized
+     * character. On success, the index of {@code position} is set to
+     * the position after it. On failure, the error index of {@code
+     * position} is set to the position where the error was found, the
+     * index is not changed, and 0 is returned.
+     * </p>
+     *
+     * @param text
+     *         Input text.
+     *
+     * @param start
+     *         Position in {@code text} to start parsing at.
+     *
+     * @param end
+     *         Position in {@code text} to stop parsing at (exclusive).
+     *
+     * @param timeZone
+     *         Time zone for input without an offset.
+     *
+     * @param position
+     *         Receives the result position or the error position.
+     *
+     * @return
+     *         Milliseconds since the epoch.
+     */
+    public static long parse(CharSequence text, int start, int end, TimeZone timeZone, ParsePosition position)
+    {
+        return parse(text, start, end, timeZone, null, position);
+    }
+
+
+    /**
+     * The same as {@link #parse(CharSequence, int, int, TimeZone,
+     * ParsePosition)} except that {@code cache} is used to convert
+     * local times if it is not null.
+     */
+    static long parse(CharSequence text, int start, int end, TimeZone timeZone, ZoneOffsetCache cache, ParsePosition position)
+    {
+        int i = start;
+        int sign = 0;
+
+        if (i < end && (text.charAt(i) == '+' || text.charAt(i) == '-'))
+        {
+            sign = (text.charAt(i) == '-') ? -1 : 1;
+            ++i;
+        }
+
+        // The date part.
+        int n = countDigits(text, i, end);
+        boolean extended = (i + n < end && text.charAt(i + n) == '-');
+        int yearDigits = extended ? n : n - 4;
+
+        if (yearDigits < 4 || (sign == 0 && yearDigits != 4) || 9 < yearDigits || (!extended && n != yearDigits + 4))
+        {
+            return error(position, i);
+        }
+
+        int year = digits(text, i, end, yearDigits);
+
+        if (sign < 0)
+        {
+            year = -year;
+        }
+
+        i += yearDigits;
+
+        if (extended)
+        {
+            ++i;
+        }
+
+        int month = digits(text, i, end, 2) - 1;
+
+        if (month < 0 || 11 < month)
+        {
+            return error(position, i);
+        }
+
+        i += 2;
+
+        if (extended)
+        {
+            if (end <= i || text.charAt(i) != '-')
+            {
+                return error(position, i);
+            }
+
+            ++i;
+        }
+
+        int day = digits(text, i, end, 2);
+
+        if (day < 1 || CalendarMath.daysInMonth(year, month) < day)
+        {
+            return error(position, i);
+        }
+
+        i += 2;
+
+        long local = CalendarMath.toEpochDay(year, month, day) * CalendarMath.MILLIS_PER_DAY;
+
+        if (end <= i || (text.charAt(i) != 'T' && text.charAt(i) != 't'))
+        {
+            // Date only.
+            position.setIndex(i);
+
+            return ZoneOffsetCache.toUTC(local, timeZone, cache);
+        }
+
+        ++i;
+
+        // The time part.
+        int hour = digits(text, i, end, 2);
+
+        if (hour < 0 || 23 < hour)
+        {
+            return error(position, i);
+        }
+
+        i += 2;
+
+        // The time part may use a different format than the date part.
+        extended = (i < end && text.charAt(i) == ':');
+
+        int minute = 0;
+        int second = 0;
+        int millis = 0;
+
+        if (hasField(text, i, end, extended))
+        {
+            i += extended ? 1 : 0;
+            minute = digits(text, i, end, 2);
+
+            if (minute < 0 || 59 < minute)
+            {
+                return error(position, i);
+            }
+
+            i += 2;
+
+            if (hasField(text, i, end, extended))
+            {
+                i += extended ? 1 : 0;
+                second = digits(text, i, end, 2);
+
+                if (second < 0 || 59 < second)
+                {
+                    return error(position, i);
+                }
+
+                i += 2;
+
+                if (i < end && (text.charAt(i) == '.' || text.charAt(i) == ','))
+                {
+                    ++i;
+                    n = countDigits(text, i, end);
+
+                    if (n == 0)
+                    {
+                        return error(position, i);
+                    }
+
+                    millis = digits(text, i, end, Math.min(n, 3));
+
+                    for (int k = n; k < 3; ++k)
+                    {
+                        millis *= 10;
+                    }
+
+                    i += n;
+                }
+            }
+        }
+
+        local += hour * 3600000L + minute * 60000L + second * 1000L + millis;
+
+        // The offset part.
+        if (end <= i)
+        {
+            position.setIndex(i);
+
+            return ZoneOffsetCache.toUTC(local, timeZone, cache);
+        }
+
+        char c = text.charAt(i);
+
+        if (c == 'Z' || c == 'z')
+        {
+            position.setIndex(i + 1);
+
+            return local;
+        }
+
+        if (c != '+' && c != '-')
+        {
+            position.setIndex(i);
+
+            return ZoneOffsetCache.toUTC(local, timeZone, cache);
+        }
+
+        int offsetStart = i++;
+        int offsetHour = digits(text, i, end, 2);
+
+        if (offsetHour < 0 || 23 < offsetHour)
+        {
+            return error(position, i);
+        }
+
+        i += 2;
+
+        int offsetMinute = 0;
+
+        if (i < end && text.charAt(i) == ':')
+        {
+            ++i;
+            offsetMinute = digits(text, i, end, 2);
+
+            if (offsetMinute < 0)
+            {
+                return error(position, i);
+            }
+
+            i += 2;
+        }
+        else if (2 <= countDigits(text, i, end))
+        {
+            offsetMinute = digits(text, i, end, 2);
+            i += 2;
+        }
+
+        if (59 < offsetMinute)
+        {
+            return error(position, i - 2);
+        }
+
+        int offset = (offsetHour * 60 + offsetMinute) * 60000;
+
+        position.setIndex(i);
+
+        return (text.charAt(offsetStart) == '-') ? local + offset : local - offset;
+    }
+
+
+    /**
+     * Parse an ISO 8601 date or date-time. This method is an alias of
+     * <code>{@link #parse(CharSequence, int, int, TimeZone, ParsePosition)
+     * parse}(text, position.getIndex(), text.length(), timeZone, position)</code>.
+     */
+    public static long parse(CharSequence text, TimeZone timeZone, ParsePosition position)
+    {
+        return parse(text, position.getIndex(), text.length(), timeZone, position);
+    }
+
+
+    private static boolean hasField(CharSequence text, int i, int end, boolean extended)
+    {
+        if (extended)
+        {
+            return (i < end && text.charAt(i) == ':');
+        }
+
+        return (2 <= countDigits(text, i, end));
+    }
+
+
+    private static long error(ParsePosition position, int index)
+    {
+        position.setErrorIndex(index);
+
+        return 0;
+    }
+
+
+    private static int countDigits(CharSequence text, int i, int end)
+    {
+        int n = 0;
+
+        for (; i < end; ++i, ++n)
+        {
+            char c = text.charAt(i);
+
+            if (c < '0' || '9' < c)
+            {
+                break;
+            }
+        }
+
+        return n;
+    }
+
+
+    /**
+     * Read {@code count} decimal digits. -1 is returned when
+     * there are not enough digits.
+     */
+    private static int digits(CharSequence text, int i, int end, int count)
+    {
+        int value = 0;
+
+        if (end < i + count)
+        {
+            return -1;
+        }
+
+        for (end = i + count; i < end; ++i)
+        {
+            char c = text.charAt(i);
+
+            if (c < '0' || '9' < c)
+            {
+                return -1;
+            }
+
+            value = value * 10 + (c - '0');
+        }
+
+        return value;
+    }
+
+}
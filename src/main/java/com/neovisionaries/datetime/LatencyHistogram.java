@@ -0,0 +1,156 @@
+/*
+ * Copyright (C) 2012-2013 Neo Visionaries Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.neovisionaries.datetime;
+
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongBinaryOperator;
+
+
+/**
+ * A concurrent histogram of latencies in nanoseconds.
+ *
+ * <p>
+ * Like an HDR histogram, the buckets are log-linear: each power of two is
+ * split into 4 buckets, so a recorded value is reported within 25% of the
+ * real one from nanoseconds up to centuries. Each bucket is a {@link
+ * LongAdder}, so threads that record at the same time do not contend.
+ * </p>
+ *
+ * @since 1.4
+ *
+ * @author Takahiko Kawasaki
+ */
+final class LatencyHistogram
+{
+    private static final int SUB_BUCKETS = 4;
+    private static final int SIZE = 64 * SUB_BUCKETS;
+
+
+    private final LongAdder[] buckets = new LongAdder[SIZE];
+    private final LongAccumulator max = new LongAccumulator(new LongBinaryOperator()
+    {
+        @Override
+        public long applyAsLong(long left, long right)
+        {
+            return Math.max(left, right);
+        }
+    }, 0);
+
+
+    LatencyHistogram()
+    {
+        for (int i = 0; i < SIZE; ++i)
+        {
+            buckets[i] = new LongAdder();
+        }
+    }
+
+
+    void record(long nanos)
+    {
+        if (nanos < 0)
+        {
+            nanos = 0;
+        }
+
+        buckets[indexOf(nanos)].increment();
+        max.accumulate(nanos);
+    }
+
+
+    long getMax()
+    {
+        return max.get();
+    }
+
+
+    /**
+     * Get the value at the given percentile (0 to 100), as the upper
+     * bound of its bucket, or 0 if nothing has been recorded.
+     */
+    long getPercentile(double percentile)
+    {
+        long[] counts = new long[SIZE];
+        long total = 0;
+
+        for (int i = 0; i < SIZE; ++i)
+        {
+            counts[i] = buckets[i].sum();
+            total += counts[i];
+        }
+
+        if (total == 0)
+        {
+            return 0;
+        }
+
+        long rank = (long)Math.ceil(total * Math.min(Math.max(percentile, 0), 100) / 100);
+        long seen = 0;
+
+        for (int i = 0; i < SIZE; ++i)
+        {
+            seen += counts[i];
+
+            if (rank <= seen && 0 < counts[i])
+            {
+                return Math.min(upperBound(i), getMax());
+            }
+        }
+
+        return getMax();
+    }
+
+
+    void reset()
+    {
+        for (LongAdder bucket : buckets)
+        {
+            bucket.reset();
+        }
+
+        max.reset();
+    }
+
+
+    static int indexOf(long value)
+    {
+        if (value < SUB_BUCKETS)
+        {
+            return (int)value;
+        }
+
+        // The highest bit and the next 2 bits.
+        int bits = 63 - Long.numberOfLeadingZeros(value);
+
+        return (bits - 1) * SUB_BUCKETS + (int)((value >>> (bits - 2)) & (SUB_BUCKETS - 1));
+    }
+
+
+    static long upperBound(int index)
+    {
+        if (index < SUB_BUCKETS)
+        {
+            return index;
+        }
+
+        int  bits  = index / SUB_BUCKETS + 1;
+        long lower = (long)(SUB_BUCKETS + index % SUB_BUCKETS) << (bits - 2);
+
+        return lower + (1L << (bits - 2)) - 1;
+    }
+}
@@ -0,0 +1,348 @@
+/*
+ * Copyright (C) 2012-2013 Neo Visionaries Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.neovisionaries.datetime;
+
+
+import java.util.Calendar;
+import java.util.TimeZone;
+
+
+/**
+ * Local date-time packed into a primitive {@code long}.
+ *
+ * <p>
+ * This class provides static methods to pack year, month, day of month,
+ * hour of day, minute, second and millisecond into one {@code long} and
+ * to extract them, so that a large number of date-times can be held in a
+ * {@code long[]} instead of as {@link GCalendar} objects. Packed values
+ * of the same time zone compare in chronological order as plain {@code
+ * long} values.
+ * </p>
+ *
+ * <style type="text/css">
+ * span.keyword { color: purple; font-weight: bold; }
+ * span.comment { color: green; }
+ * span.string  { color: blue; }
+ * pre.code { background-color: #EEEEEE; margin-left: 2em; margin-right: 2em; border: 1px solid black; }
+ * </style>
+ *
+ * <pre class="code">
+ *
+ * <span class="keyword">long</span> packed = cal.{@link GCalendar#toPackedDateTime() toPackedDateTime}();
+ *
+ * <span class="keyword">int</span> year  = PackedDateTime.{@link #getYear(long) getYear}(packed);
+ * <span class="keyword">int</span> month = PackedDateTime.{@link #getMonth(long) getMonth}(packed);
+ *
+ * GCalendar copy = GCalendar.{@link GCalendar#fromPackedDateTime(long, TimeZone)
+ * fromPackedDateTime}(packed, cal.getTimeZone());
+ * </pre>
+ *
+ * <p>
+ * Years are proleptic (0 is 1 BC, -1 is 2 BC, and so on), months are
+ * 0-based like {@link Calendar#MONTH}, and dates before October 15, 1582
+ * are in the Julian calendar, like {@link CalendarMath}. Packed values do
+ * not have a time zone; a time zone is given when a packed value is
+ * converted from or to a point in time.
+ * </p>
+ *
+ * @since 1.4
+ *
+ * @author Takahiko Kawasaki
+ */
+public final class PackedDateTime
+{
+    /**
+     * The minimum year that can be packed.
+     */
+    public static final int MIN_YEAR = -(1 << 22);
+
+
+    /**
+     * The maximum year that can be packed.
+     */
+    public static final int MAX_YEAR = (1 << 22) - 1;
+
+
+    // From the least significant bit: millisecond (10 bits), second (6),
+    // minute (6), hour (5), day (5), month (4) and year (signed, the rest).
+    private static final int SECOND_SHIFT = 10;
+    private static final int MINUTE_SHIFT = 16;
+    private static final int HOUR_SHIFT   = 22;
+    private static final int DAY_SHIFT    = 27;
+    private static final int MONTH_SHIFT  = 32;
+    private static final int YEAR_SHIFT   = 36;
+
+
+    private PackedDateTime()
+    {
+    }
+
+
+    /**
+     * Pack the given fields.
+     *
+     * @param year
+     *         Proleptic year.
+     *
+     * @param month
+     *         0-based month.
+     *
+     * @throws IllegalArgumentException
+     *         A field is out of range.
+     */
+    public static long pack(int year, int month, int dayOfMonth, int hourOfDay, int minute, int second, int millisecond)
+    {
+        if (year < MIN_YEAR || MAX_YEAR < year)
+        {
+            throw new IllegalArgumentException("year is out of range: " + year);
+        }
+
+        if (month < Calendar.JANUARY || Calendar.DECEMBER < month)
+        {
+            throw new IllegalArgumentException("month is out of range: " + month);
+        }
+
+        if (dayOfMonth < 1 || CalendarMath.daysInMonth(year, month) < dayOfMonth)
+        {
+            throw new IllegalArgumentException("dayOfMonth is out of range: " + dayOfMonth);
+        }
+
+        if (hourOfDay < 0 || 23 < hourOfDay || minute < 0 || 59 < minute
+                || second < 0 || 59 < second || millisecond < 0 || 999 < millisecond)
+        {
+            throw new IllegalArgumentException("Time is out of range.");
+        }
+
+        return packUnchecked(year, month, dayOfMonth, hourOfDay, minute, second, millisecond);
+    }
+
+
+    private static long packUnchecked(int year, int month, int dayOfMonth, int hourOfDay, int minute, int second, int millisecond)
+    {
+        return ((long)year       << YEAR_SHIFT)
+             | ((long)month      << MONTH_SHIFT)
+             | ((long)dayOfMonth << DAY_SHIFT)
+             | ((long)hourOfDay  << HOUR_SHIFT)
+             | ((long)minute     << MINUTE_SHIFT)
+             | ((long)second     << SECOND_SHIFT)
+             | millisecond;
+    }
+
+
+    /**
+     * Get the proleptic year.
+     */
+    public static int getYear(long packed)
+    {
+        return (int)(packed >> YEAR_SHIFT);
+    }
+
+
+    /**
+     * Get the 0-based month.
+     */
+    public static int getMonth(long packed)
+    {
+        return (int)(packed >>> MONTH_SHIFT) & 0xF;
+    }
+
+
+    /**
+     * Get the day of month.
+     */
+    public static int getDayOfMonth(long packed)
+    {
+        return (int)(packed >>> DAY_SHIFT) & 0x1F;
+    }
+
+
+    /**
+     * Get the hour of day (0-23).
+     */
+    public static int getHourOfDay(long packed)
+    {
+        return (int)(packed >>> HOUR_SHIFT) & 0x1F;
+    }
+
+
+    /**
+     * Get the minute.
+     */
+    public static int getMinute(long packed)
+    {
+        return (int)(packed >>> MINUTE_SHIFT) & 0x3F;
+    }
+
+
+    /**
+     * Get the second.
+     */
+    public static int getSecond(long packed)
+    {
+        return (int)(packed >>> SECOND_SHIFT) & 0x3F;
+    }
+
+
+    /**
+     * Get the millisecond.
+     */
+    public static int getMillisecond(long packed)
+    {
+        return (int)packed & 0x3FF;
+    }
+
+
+    /**
+     * Get the day of the week.
+     *
+     * @return
+     *         {@link Calendar#SUNDAY} to {@link Calendar#SATURDAY}.
+     */
+    public static int getDayOfWeek(long packed)
+    {
+        return CalendarMath.dayOfWeek(toEpochDay(packed));
+    }
+
+
+    /**
+     * Get the number of days since January 1, 1970 of the date part.
+     */
+    public static long toEpochDay(long packed)
+    {
+        return CalendarMath.toEpochDay(getYear(packed), getMonth(packed), getDayOfMonth(packed));
+    }
+
+
+    /**
+     * Compare two packed values. Packed values can also be compared
+     * directly as {@code long} values; this method exists for clarity.
+     *
+     * @return
+     *         A negative value, 0 or a positive value when {@code x} is
+     *         before, equal to or after {@code y}.
+     */
+    public static int compare(long x, long y)
+    {
+        return (x < y) ? -1 : ((x == y) ? 0 : 1);
+    }
+
+
+    /**
+     * Get the local date-time of the given point in time in the given
+     * time zone.
+     *
+     * @param epochMillis
+     *         Milliseconds since the epoch.
+     */
+    public static long fromEpochMillis(long epochMillis, TimeZone timeZone)
+    {
+        return fromLocalMillis(ZoneOffsetIndex.of(timeZone).toLocal(epochMillis));
+    }
+
+
+    /**
+     * Get the point in time of the given local date-time in the given time
+     * zone. A local time in a gap or an overlap of the time zone is resolved
+     * in the same way as {@link java.util.GregorianCalendar} does.
+     *
+     * @return
+     *         Milliseconds since the epoch.
+     */
+    public static long toEpochMillis(long packed, TimeZone timeZone)
+    {
+        return ZoneOffsetCache.toUTC(toLocalMillis(packed), timeZone, null);
+    }
+
+
+    /**
+     * Pack the local date-time represented by the given number of
+     * milliseconds since January 1, 1970, 00:00:00 local time.
+     */
+    static long fromLocalMillis(long localMillis)
+    {
+        long epochDay = CalendarMath.floorDiv(localMillis, CalendarMath.MILLIS_PER_DAY);
+        int  date     = CalendarMath.fromEpochDay(epochDay);
+        int  time     = (int)(localMillis - epochDay * CalendarMath.MILLIS_PER_DAY);
+
+        return packUnchecked(
+                CalendarMath.getYear(date), CalendarMath.getMonth(date), CalendarMath.getDayOfMonth(date),
+                time / 3600000, time / 60000 % 60, time / 1000 % 60, time % 1000);
+    }
+
+
+    /**
+     * Get the number of milliseconds since January 1, 1970, 00:00:00
+     * local time of the given packed value.
+     */
+    static long toLocalMillis(long packed)
+    {
+        return toEpochDay(packed) * CalendarMath.MILLIS_PER_DAY
+             + getHourOfDay(packed) * 3600000L
+             + getMinute(packed)    *   60000L
+             + getSecond(packed)    *    1000L
+             + getMillisecond(packed);
+    }
+
+
+    /**
+     * Add the given number of milliseconds on the local time line.
+     */
+    public static long addMillis(long packed, long amount)
+    {
+        return fromLocalMillis(toLocalMillis(packed) + amount);
+    }
+
+
+    /**
+     * Add the given number of days. The time part does not change.
+     */
+    public static long addDays(long packed, long amount)
+    {
+        return addMillis(packed, amount * CalendarMath.MILLIS_PER_DAY);
+    }
+
+
+    /**
+     * Add the given number of months. Like {@link Calendar#add(int, int)},
+     * the day of month is adjusted to the last day of the resultant month
+     * if it does not exist.
+     */
+    public static long addMonths(long packed, int amount)
+    {
+        long months = getYear(packed) * 12L + getMonth(packed) + amount;
+        int  year   = (int)CalendarMath.floorDiv(months, 12);
+        int  month  = CalendarMath.floorMod(months, 12);
+        int  day    = Math.min(getDayOfMonth(packed), CalendarMath.daysInMonth(year, month));
+
+        if (year < MIN_YEAR || MAX_YEAR < year)
+        {
+            throw new IllegalArgumentException("year is out of range: " + year);
+        }
+
+        return (packed & ((1L << DAY_SHIFT) - 1))
+             | packUnchecked(year, month, day, 0, 0, 0, 0);
+    }
+
+
+    /**
+     * Add the given number of years. February 29 becomes February 28
+     * if the resultant year is not a leap year.
+     */
+    public static long addYears(long packed, int amount)
+    {
+        return addMonths(packed, amount * 12);
+    }
+}
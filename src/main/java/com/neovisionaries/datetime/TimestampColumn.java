@@ -0,0 +1,414 @@
+/*
+ * Copyright (C) 2012-2013 Neo Visionaries Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.neovisionaries.datetime;
+
+
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Calendar;
+import java.util.GregorianCalendar;
+import java.util.TimeZone;
+
+
+/**
+ * A column of timestamps stored outside the Java heap.
+ *
+ * <p>
+ * A {@code TimestampColumn} keeps milliseconds since the epoch as 8-byte
+ * values in a {@link ByteBuffer}, usually a direct buffer or a {@link
+ * java.nio.MappedByteBuffer MappedByteBuffer}, and interprets all of them
+ * in the time zone of the column. Indexed accessors such as {@link
+ * #getYear(int)} and {@link #getHourOfDay(int)} return the same values as
+ * the getters of {@link GCalendar}, but compute them arithmetically
+ * without creating a {@link Calendar}.
+ * </p>
+ *
+ * <style type="text/css">
+ * span.keyword { color: purple; font-weight: bold; }
+ * span.comment { color: green; }
+ * span.string  { color: blue; }
+ * pre.code { background-color: #EEEEEE; margin-left: 2em; margin-right: 2em; border: 1px solid black; }
+ * </style>
+ *
+ * <pre class="code">
+ *
+ * TimestampColumn column = TimestampColumn.{@link #allocate(int, TimeZone)
+ * allocate}(1000000, TimeZone.getTimeZone(<span class="string">"JST"</span>));
+ *
+ * column.{@link #append(long) append}(System.currentTimeMillis());
+ *
+ * <span class="keyword">int</span> year = column.{@link #getYear(int) getYear}(0);
+ * </pre>
+ *
+ * <p>
+ * A buffer holds at most {@link Integer#MAX_VALUE} bytes, so a column has
+ * at most 268,435,455 rows. Larger data sets should be split into several
+ * columns. Reading is thread-safe, but writing must be synchronized
+ * externally.
+ * </p>
+ *
+ * @since 1.4
+ *
+ * @author Takahiko Kawasaki
+ */
+public final class TimestampColumn
+{
+    /**
+     * The number of bytes of one row.
+     */
+    public static final int ROW_SIZE = 8;
+
+
+    private final ByteBuffer buffer;
+    private final TimeZone timeZone;
+    private final ZoneOffsetIndex index;
+    private final int capacity;
+    private int size;
+
+
+    private TimestampColumn(ByteBuffer buffer, int size, TimeZone timeZone)
+    {
+        this.buffer   = buffer;
+        this.timeZone = (TimeZone)timeZone.clone();
+        this.index    = ZoneOffsetIndex.of(timeZone);
+        this.capacity = buffer.capacity() / ROW_SIZE;
+        this.size     = size;
+    }
+
+
+    /**
+     * Create an empty column backed by a new direct buffer.
+     *
+     * @param capacity
+     *         The maximum number of rows.
+     */
+    public static TimestampColumn allocate(int capacity, TimeZone timeZone)
+    {
+        if (capacity < 0 || Integer.MAX_VALUE / ROW_SIZE < capacity)
+        {
+            throw new IllegalArgumentException("Bad capacity: " + capacity);
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocateDirect(capacity * ROW_SIZE).order(ByteOrder.nativeOrder());
+
+        return new TimestampColumn(buffer, 0, timeZone);
+    }
+
+
+    /**
+     * Create a column backed by the given buffer. The buffer's byte order
+     * is used as is, so a memory-mapped file should always be wrapped with
+     * the same byte order. The position and the limit of the buffer are
+     * ignored.
+     *
+     * @param size
+     *         The number of rows already stored in the buffer.
+     */
+    public static TimestampColumn wrap(ByteBuffer buffer, int size, TimeZone timeZone)
+    {
+        ByteBuffer duplicate = buffer.duplicate().order(buffer.order());
+
+        if (size < 0 || duplicate.capacity() / ROW_SIZE < size)
+        {
+            throw new IllegalArgumentException("Bad size: " + size);
+        }
+
+        return new TimestampColumn(duplicate, size, timeZone);
+    }
+
+
+    /**
+     * Get the time zone in which the timestamps are interpreted.
+     */
+    public TimeZone getTimeZone()
+    {
+        return (TimeZone)timeZone.clone();
+    }
+
+
+    /**
+     * Get the number of rows.
+     */
+    public int size()
+    {
+        return size;
+    }
+
+
+    /**
+     * Get the maximum number of rows.
+     */
+    public int capacity()
+    {
+        return capacity;
+    }
+
+
+    /**
+     * Append a timestamp.
+     *
+     * @param millis
+     *         Milliseconds since the epoch.
+     *
+     * @return
+     *         {@code this} object.
+     *
+     * @throws BufferOverflowException
+     *         The column is full.
+     */
+    public TimestampColumn append(long millis)
+    {
+        if (size == capacity)
+        {
+            throw new BufferOverflowException();
+        }
+
+        buffer.putLong(size * ROW_SIZE, millis);
+        ++size;
+
+        return this;
+    }
+
+
+    /**
+     * Append timestamps.
+     *
+     * @throws BufferOverflowException
+     *         The column does not have enough space. Nothing is appended.
+     */
+    public TimestampColumn append(long[] millis, int from, int to)
+    {
+        if (from < 0 || to > millis.length || from > to)
+        {
+            throw new IndexOutOfBoundsException();
+        }
+
+        if (capacity - size < to - from)
+        {
+            throw new BufferOverflowException();
+        }
+
+        for (int i = from; i < to; ++i)
+        {
+            buffer.putLong(size * ROW_SIZE, millis[i]);
+            ++size;
+        }
+
+        return this;
+    }
+
+
+    /**
+     * Replace the timestamp at the given index.
+     */
+    public TimestampColumn set(int index, long millis)
+    {
+        buffer.putLong(offsetOf(index), millis);
+
+        return this;
+    }
+
+
+    /**
+     * Get the timestamp at the given index in milliseconds since the epoch.
+     */
+    public long getTimeInMillis(int index)
+    {
+        return buffer.getLong(offsetOf(index));
+    }
+
+
+    /**
+     * Get the local date-time at the given index as a {@link PackedDateTime}.
+     */
+    public long getPackedDateTime(int index)
+    {
+        return PackedDateTime.fromLocalMillis(getLocalMillis(index));
+    }
+
+
+    /**
+     * Create a {@link GCalendar} of the timestamp at the given index
+     * in the time zone of this column.
+     */
+    public GCalendar getCalendar(int index)
+    {
+        GCalendar calendar = new GCalendar(timeZone);
+        calendar.setTimeInMillis(getTimeInMillis(index));
+
+        return calendar;
+    }
+
+
+    /**
+     * Get the era, {@link GregorianCalendar#AD} or {@link GregorianCalendar#BC}.
+     */
+    public int getEra(int index)
+    {
+        return (CalendarMath.getYear(getDate(index)) <= 0) ? GregorianCalendar.BC : GregorianCalendar.AD;
+    }
+
+
+    /**
+     * Get the year of the era, like {@link GCalendar#getYear()}.
+     */
+    public int getYear(int index)
+    {
+        int year = CalendarMath.getYear(getDate(index));
+
+        return (year <= 0) ? 1 - year : year;
+    }
+
+
+    /**
+     * Get the 0-based month, like {@link GCalendar#getMonth()}.
+     */
+    public int getMonth(int index)
+    {
+        return CalendarMath.getMonth(getDate(index));
+    }
+
+
+    /**
+     * Get the day of month, like {@link GCalendar#getDayOfMonth()}.
+     */
+    public int getDayOfMonth(int index)
+    {
+        return CalendarMath.getDayOfMonth(getDate(index));
+    }
+
+
+    /**
+     * Get the day of the week, like {@link GCalendar#getDayOfWeek()}.
+     */
+    public int getDayOfWeek(int index)
+    {
+        return CalendarMath.dayOfWeek(getEpochDay(index));
+    }
+
+
+    /**
+     * Get the day of the year, like {@link GCalendar#getDayOfYear()}.
+     */
+    public int getDayOfYear(int index)
+    {
+        long epochDay = getEpochDay(index);
+        int  year     = CalendarMath.getYear(CalendarMath.fromEpochDay(epochDay));
+
+        return (int)(epochDay - CalendarMath.toEpochDay(year, Calendar.JANUARY, 1)) + 1;
+    }
+
+
+    /**
+     * Get the hour of day (0-23), like {@link GCalendar#getHourOfDay()}.
+     */
+    public int getHourOfDay(int index)
+    {
+        return getTimeOfDay(index) / 3600000;
+    }
+
+
+    /**
+     * Get the hour (0-11), like {@link GCalendar#getHour()}.
+     */
+    public int getHour(int index)
+    {
+        return getHourOfDay(index) % 12;
+    }
+
+
+    /**
+     * Get {@link Calendar#AM} or {@link Calendar#PM}, like {@link GCalendar#getAMPM()}.
+     */
+    public int getAMPM(int index)
+    {
+        return (getHourOfDay(index) < 12) ? Calendar.AM : Calendar.PM;
+    }
+
+
+    /**
+     * Get the minute, like {@link GCalendar#getMinute()}.
+     */
+    public int getMinute(int index)
+    {
+        return getTimeOfDay(index) / 60000 % 60;
+    }
+
+
+    /**
+     * Get the second, like {@link GCalendar#getSecond()}.
+     */
+    public int getSecond(int index)
+    {
+        return getTimeOfDay(index) / 1000 % 60;
+    }
+
+
+    /**
+     * Get the millisecond, like {@link GCalendar#getMillisecond()}.
+     */
+    public int getMillisecond(int index)
+    {
+        return getTimeOfDay(index) % 1000;
+    }
+
+
+    /**
+     * Get the offset from UTC in milliseconds including daylight saving
+     * time, that is, the sum of {@link GCalendar#getZoneOffset()} and
+     * {@link GCalendar#getDstOffset()}.
+     */
+    public int getOffset(int index)
+    {
+        return this.index.getOffset(getTimeInMillis(index));
+    }
+
+
+    private int offsetOf(int index)
+    {
+        if (index < 0 || size <= index)
+        {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+
+        return index * ROW_SIZE;
+    }
+
+
+    private long getLocalMillis(int index)
+    {
+        return this.index.toLocal(getTimeInMillis(index));
+    }
+
+
+    private long getEpochDay(int index)
+    {
+        return CalendarMath.toEpochDay(getLocalMillis(index));
+    }
+
+
+    private int getDate(int index)
+    {
+        return CalendarMath.fromEpochDay(getEpochDay(index));
+    }
+
+
+    private int getTimeOfDay(int index)
+    {
+        return CalendarMath.floorMod(getLocalMillis(index), (int)CalendarMath.MILLIS_PER_DAY);
+    }
+}
@@ -0,0 +1,361 @@
+/*
+ * Copyright (C) 2012-2013 Neo Visionaries Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.neovisionaries.datetime;
+
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.text.ParsePosition;
+import java.util.TimeZone;
+
+
+/**
+ * Scans the lines of ASCII text for timestamps without decoding them
+ * into strings.
+ *
+ * <p>
+ * A {@code TimestampScanner} reads lines from a {@link ReadableByteChannel}
+ * or a {@link ByteBuffer} (for example, a {@link java.nio.MappedByteBuffer
+ * MappedByteBuffer}), parses a timestamp of each line directly from the
+ * bytes with either a {@link GFormat} or the {@link ISO8601} parser, and
+ * passes the result and the byte offset of the line to a {@link Handler}.
+ * Lines are terminated by {@code LF} or {@code CR LF}. Lines that do not
+ * have a valid timestamp are skipped.
+ * </p>
+ *
+ * <p>
+ * By default, a timestamp is read from the beginning of each line and ends
+ * where the parser stops. With {@link #withColumn(int, char)}, a timestamp
+ * is read from a column of delimited lines and must fill the column.
+ * </p>
+ *
+ * <style type="text/css">
+ * span.keyword { color: purple; font-weight: bold; }
+ * span.comment { color: green; }
+ * span.string  { color: blue; }
+ * pre.code { background-color: #EEEEEE; margin-left: 2em; margin-right: 2em; border: 1px solid black; }
+ * </style>
+ *
+ * <pre class="code">
+ *
+ * <span class="comment">// The third column of tab-separated lines.</span>
+ * TimestampScanner scanner = TimestampScanner.{@link #iso8601(TimeZone)
+ * iso8601}(TimeZone.getTimeZone(<span class="string">"UTC"</span>)).{@link #withColumn(int, char)
+ * withColumn}(2, <span class="string">'\t'</span>);
+ *
+ * FileChannel channel = FileChannel.open(path);
+ *
+ * scanner.{@link #scan(ReadableByteChannel, Handler) scan}(channel, <span class="keyword">new</span> TimestampScanner.Handler() {
+ *     <span class="keyword">public void</span> handle(<span class="keyword">long</span> millis, <span class="keyword">long</span> lineOffset) {
+ *         ......
+ *     }
+ * });
+ * </pre>
+ *
+ * <p>
+ * Instances are immutable and thread-safe.
+ * </p>
+ *
+ * @since 1.4
+ *
+ * @author Takahiko Kawasaki
+ */
+public final class TimestampScanner
+{
+    /**
+     * Receives the timestamps found by a {@link TimestampScanner}.
+     */
+    public interface Handler
+    {
+        /**
+         * Called for each line that has a valid timestamp.
+         *
+         * @param millis
+         *         Milliseconds since the epoch.
+         *
+         * @param lineOffset
+         *         The byte offset of the line from the start of the input.
+         */
+        void handle(long millis, long lineOffset);
+    }
+
+
+    /**
+     * The initial size of the buffer to read a channel. The buffer
+     * grows when a line does not fit in it.
+     */
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+
+    private final GFormat format;
+    private final TimeZone timeZone;
+    private final int column;
+    private final char delimiter;
+
+
+    private TimestampScanner(GFormat format, TimeZone timeZone, int column, char delimiter)
+    {
+        this.format    = format;
+        this.timeZone  = (TimeZone)timeZone.clone();
+        this.column    = column;
+        this.delimiter = delimiter;
+    }
+
+
+    /**
+     * Create a scanner that uses the given compiled format.
+     *
+     * @param timeZone
+     *         The time zone for timestamps which do not contain an offset.
+     */
+    public static TimestampScanner of(GFormat format, TimeZone timeZone)
+    {
+        if (format == null)
+        {
+            throw new NullPointerException();
+        }
+
+        return new TimestampScanner(format, timeZone, -1, '\0');
+    }
+
+
+    /**
+     * Create a scanner that reads ISO 8601 timestamps.
+     *
+     * @param timeZone
+     *         The time zone for timestamps which do not contain an offset.
+     */
+    public static TimestampScanner iso8601(TimeZone timeZone)
+    {
+        return new TimestampScanner(null, timeZone, -1, '\0');
+    }
+
+
+    /**
+     * Get a scanner that is the same as this one except that it reads
+     * a timestamp from the given column of delimited lines.
+     *
+     * @param column
+     *         0-based column index.
+     *
+     * @param delimiter
+     *         An ASCII character that separates columns.
+     *
+     * @throws IllegalArgumentException
+     *         {@code column} is negative or {@code delimiter} is not ASCII.
+     */
+    public TimestampScanner withColumn(int column, char delimiter)
+    {
+        if (column < 0)
+        {
+            throw new IllegalArgumentException("column < 0");
+        }
+
+        if (delimiter > 0x7F || delimiter == '\n' || delimiter == '\r')
+        {
+            throw new IllegalArgumentException("Bad delimiter");
+        }
+
+        return new TimestampScanner(format, timeZone, column, delimiter);
+    }
+
+
+    /**
+     * Scan the lines between the position and the limit of the given
+     * buffer. The position is advanced to the limit. Line offsets are
+     * relative to the position before the call. The last line does not
+     * need a terminator.
+     *
+     * @return
+     *         The number of timestamps passed to the handler.
+     */
+    public long scan(ByteBuffer buffer, Handler handler)
+    {
+        State state = new State();
+        int start = buffer.position();
+
+        scanLines(buffer, start, buffer.limit(), true, -start, state, handler);
+        buffer.position(buffer.limit());
+
+        return state.count;
+    }
+
+
+    /**
+     * Scan the lines read from the given channel until the end of stream.
+     * Line offsets are relative to the channel's position before the call.
+     * The last line does not need a terminator. The channel should be in
+     * blocking mode.
+     *
+     * @return
+     *         The number of timestamps passed to the handler.
+     *
+     * @throws IOException
+     *         Reading the channel failed.
+     */
+    public long scan(ReadableByteChannel channel, Handler handler) throws IOException
+    {
+        State state = new State();
+        ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+        long base = 0;
+        boolean eof = false;
+
+        while (!eof)
+        {
+            eof = (channel.read(buffer) < 0);
+
+            int limit = buffer.position();
+            buffer.limit(limit);
+
+            int done = scanLines(buffer, 0, limit, eof, base, state, handler);
+            base += done;
+            buffer.position(done);
+
+            if (done == 0 && limit == buffer.capacity())
+            {
+                // The line does not fit in the buffer.
+                ByteBuffer larger = ByteBuffer.allocate(buffer.capacity() * 2);
+                buffer.position(0);
+                larger.put(buffer);
+                buffer = larger;
+            }
+            else
+            {
+                buffer.compact();
+            }
+        }
+
+        return state.count;
+    }
+
+
+    /**
+     * Scan the complete lines in {@code [start, limit)} of the buffer,
+     * and also the incomplete last line if {@code eof} is true.
+     *
+     * @return
+     *         The index of the first byte which has not been scanned.
+     */
+    private int scanLines(
+            ByteBuffer buffer, int start, int limit, boolean eof,
+            long base, State state, Handler handler)
+    {
+        state.text.wrap(buffer);
+
+        int lineStart = start;
+
+        for (int i = start; i < limit; ++i)
+        {
+            if (buffer.get(i) == '\n')
+            {
+                scanLine(buffer, lineStart, i, base, state, handler);
+                lineStart = i + 1;
+            }
+        }
+
+        if (eof && lineStart < limit)
+        {
+            scanLine(buffer, lineStart, limit, base, state, handler);
+            lineStart = limit;
+        }
+
+        return lineStart;
+    }
+
+
+    private void scanLine(
+            ByteBuffer buffer, int start, int end,
+            long base, State state, Handler handler)
+    {
+        if (start < end && buffer.get(end - 1) == '\r')
+        {
+            --end;
+        }
+
+        int fieldStart = start;
+        int fieldEnd = end;
+
+        if (0 <= column)
+        {
+            for (int c = 0; c < column; ++c)
+            {
+                fieldStart = indexOfDelimiter(buffer, fieldStart, end);
+
+                if (fieldStart == end)
+                {
+                    // The line does not have the column.
+                    return;
+                }
+
+                ++fieldStart;
+            }
+
+            fieldEnd = indexOfDelimiter(buffer, fieldStart, end);
+        }
+
+        ParsePosition position = state.position;
+        position.setIndex(fieldStart);
+        position.setErrorIndex(-1);
+
+        long millis;
+
+        if (format != null)
+        {
+            millis = format.parse(state.text, fieldStart, fieldEnd, state.cache, position);
+        }
+        else
+        {
+            millis = ISO8601.parse(state.text, fieldStart, fieldEnd, timeZone, state.cache, position);
+        }
+
+        int index = position.getIndex();
+
+        if (position.getErrorIndex() >= 0 || index == fieldStart || (0 <= column && index != fieldEnd))
+        {
+            return;
+        }
+
+        ++state.count;
+        handler.handle(millis, base + start);
+    }
+
+
+    private int indexOfDelimiter(ByteBuffer buffer, int start, int end)
+    {
+        for (int i = start; i < end; ++i)
+        {
+            if (buffer.get(i) == delimiter)
+            {
+                return i;
+            }
+        }
+
+        return end;
+    }
+
+
+    /**
+     * Objects reused during one scan.
+     */
+    private final class State
+    {
+        final AsciiSequence text = new AsciiSequence();
+        final ParsePosition position = new ParsePosition(0);
+        final ZoneOffsetCache cache = new ZoneOffsetCache(timeZone);
+        long count;
+    }
+}
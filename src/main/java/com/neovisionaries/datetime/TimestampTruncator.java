@@ -0,0 +1,483 @@
+/*
+ * Copyright (C) 2012-2013 Neo Visionaries Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.neovisionaries.datetime;
+
+
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.Locale;
+import java.util.TimeZone;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+
+/**
+ * Truncates timestamps to the start of a minute, an hour, a day, a week,
+ * a month or a year in a time zone.
+ *
+ * <p>
+ * A {@code TimestampTruncator} works on milliseconds since the epoch
+ * directly, without a {@link Calendar}. Time fields ({@link
+ * Calendar#HOUR_OF_DAY HOUR_OF_DAY}, {@link Calendar#MINUTE MINUTE} and
+ * {@link Calendar#SECOND SECOND}) are truncated on the wall clock while
+ * the offset from UTC is kept, so the result is never later than the
+ * input. Date fields are truncated to the start of the period on the wall
+ * clock, and the start is converted to UTC like {@link
+ * java.util.GregorianCalendar} does. A week starts on the first day of
+ * week of the {@link #of(TimeZone, int, Locale) locale} unless {@link
+ * #withFirstDayOfWeek(int) specified}.
+ * </p>
+ *
+ * <style type="text/css">
+ * span.keyword { color: purple; font-weight: bold; }
+ * span.comment { color: green; }
+ * span.string  { color: blue; }
+ * pre.code { background-color: #EEEEEE; margin-left: 2em; margin-right: 2em; border: 1px solid black; }
+ * </style>
+ *
+ * <pre class="code">
+ *
+ * <span class="comment">// Start of the week (Monday in France) in Paris.</span>
+ * TimestampTruncator truncator = TimestampTruncator.{@link #of(TimeZone, int, Locale)
+ * of}(TimeZone.getTimeZone(<span class="string">"Europe/Paris"</span>), Calendar.WEEK_OF_YEAR, Locale.FRANCE);
+ *
+ * truncator.{@link #truncate(long[], int, int, long[], int) truncate}(millis, 0, millis.length, millis, 0);
+ * </pre>
+ *
+ * <p>
+ * Inputs of {@link #PARALLEL_THRESHOLD} or more timestamps are truncated
+ * in parallel by the {@link ForkJoinPool#commonPool() common pool} unless
+ * {@link #withPool(ForkJoinPool) another pool} is given. Sorted inputs are fastest because
+ * the last period is remembered. Instances are immutable and thread-safe.
+ * </p>
+ *
+ * @since 1.4
+ *
+ * @author Takahiko Kawasaki
+ */
+public final class TimestampTruncator
+{
+    /**
+     * The minimum number of timestamps to truncate in parallel.
+     */
+    public static final int PARALLEL_THRESHOLD = 8192;
+
+
+    /**
+     * The maximum number of timestamps in one parallel task.
+     */
+    private static final int CHUNK_SIZE = 4096;
+
+
+    private static final long MILLIS_PER_HOUR = 3600000L;
+
+
+    // Units of truncation.
+    private static final int SECOND   = 0;
+    private static final int MINUTE   = 1;
+    private static final int HOUR     = 2;
+    private static final int HALF_DAY = 3;
+    private static final int DAY      = 4;
+    private static final int WEEK     = 5;
+    private static final int MONTH    = 6;
+    private static final int YEAR     = 7;
+    private static final int NONE     = 8;
+
+
+    private final ZoneOffsetIndex index;
+    private final int unit;
+    private final int firstDayOfWeek;
+    private final DstPolicy policy;
+    private final ForkJoinPool pool;
+
+
+    private TimestampTruncator(ZoneOffsetIndex index, int unit, int firstDayOfWeek, DstPolicy policy, ForkJoinPool pool)
+    {
+        this.index          = index;
+        this.unit           = unit;
+        this.firstDayOfWeek = firstDayOfWeek;
+        this.policy         = policy;
+        this.pool           = pool;
+    }
+
+
+    /**
+     * Create a truncator whose week starts on the first day of week of
+     * the default locale for formatting.
+     *
+     * @param timeZone
+     *         The time zone whose wall clock is used.
+     *
+     * @param field
+     *         The calendar field to truncate to. The fields smaller than it
+     *         become their minimum values. {@link Calendar#WEEK_OF_YEAR
+     *         WEEK_OF_YEAR} and {@link Calendar#WEEK_OF_MONTH WEEK_OF_MONTH}
+     *         mean the start of the week, {@link Calendar#DAY_OF_MONTH
+     *         DAY_OF_MONTH}, {@link Calendar#DAY_OF_YEAR DAY_OF_YEAR} and
+     *         {@link Calendar#DAY_OF_WEEK DAY_OF_WEEK} mean midnight, and
+     *         {@link Calendar#AM_PM AM_PM} means midnight or noon.
+     *
+     * @throws IllegalArgumentException
+     *         The field is not supported.
+     */
+    public static TimestampTruncator of(TimeZone timeZone, int field)
+    {
+        return of(timeZone, field, Locale.getDefault(Locale.Category.FORMAT));
+    }
+
+
+    /**
+     * Create a truncator whose week starts on the first day of week of
+     * the given locale, like that of {@link Calendar#getInstance(Locale)}.
+     *
+     * @param timeZone
+     *         The time zone whose wall clock is used.
+     *
+     * @param field
+     *         The calendar field to truncate to. The fields smaller than it
+     *         become their minimum values. {@link Calendar#WEEK_OF_YEAR
+     *         WEEK_OF_YEAR} and {@link Calendar#WEEK_OF_MONTH WEEK_OF_MONTH}
+     *         mean the start of the week, {@link Calendar#DAY_OF_MONTH
+     *         DAY_OF_MONTH}, {@link Calendar#DAY_OF_YEAR DAY_OF_YEAR} and
+     *         {@link Calendar#DAY_OF_WEEK DAY_OF_WEEK} mean midnight, and
+     *         {@link Calendar#AM_PM AM_PM} means midnight or noon.
+     *
+     * @param locale
+     *         The locale which determines the first day of week.
+     *
+     * @throws IllegalArgumentException
+     *         The field is not supported.
+     */
+    public static TimestampTruncator of(TimeZone timeZone, int field, Locale locale)
+    {
+        return new TimestampTruncator(ZoneOffsetIndex.of(timeZone), toUnit(field),
+                GCalendar.getWeekData(locale)[0], DstPolicy.COMPATIBLE, null);
+    }
+
+
+    /**
+     * Create a truncator in one step, for {@link GCalendar#truncateTo(int)}.
+     */
+    static TimestampTruncator of(ZoneOffsetIndex index, int field, int firstDayOfWeek, DstPolicy policy)
+    {
+        return new TimestampTruncator(index, toUnit(field), firstDayOfWeek, policy, null);
+    }
+
+
+    /**
+     * Get a truncator that is the same as this one except that a week
+     * starts on the given day.
+     *
+     * @param firstDayOfWeek
+     *         {@link Calendar#SUNDAY} to {@link Calendar#SATURDAY}.
+     */
+    public TimestampTruncator withFirstDayOfWeek(int firstDayOfWeek)
+    {
+        if (firstDayOfWeek < Calendar.SUNDAY || Calendar.SATURDAY < firstDayOfWeek)
+        {
+            throw new IllegalArgumentException("Bad first day of week: " + firstDayOfWeek);
+        }
+
+        return new TimestampTruncator(index, unit, firstDayOfWeek, policy, pool);
+    }
+
+
+    /**
+     * Get a truncator that is the same as this one except that the start of
+     * a period in a gap or an overlap is resolved by the given policy.
+     */
+    public TimestampTruncator withDstPolicy(DstPolicy policy)
+    {
+        if (policy == null)
+        {
+            throw new NullPointerException();
+        }
+
+        return new TimestampTruncator(index, unit, firstDayOfWeek, policy, pool);
+    }
+
+
+    /**
+     * Get a truncator that is the same as this one except
+     * that it uses the given pool for parallel truncation.
+     */
+    public TimestampTruncator withPool(ForkJoinPool pool)
+    {
+        return new TimestampTruncator(index, unit, firstDayOfWeek, policy, pool);
+    }
+
+
+    private static int toUnit(int field)
+    {
+        switch (field)
+        {
+            case Calendar.YEAR:
+                return YEAR;
+
+            case Calendar.MONTH:
+                return MONTH;
+
+            case Calendar.WEEK_OF_YEAR:
+            case Calendar.WEEK_OF_MONTH:
+                return WEEK;
+
+            case Calendar.DAY_OF_MONTH:
+            case Calendar.DAY_OF_YEAR:
+            case Calendar.DAY_OF_WEEK:
+            case Calendar.DAY_OF_WEEK_IN_MONTH:
+                return DAY;
+
+            case Calendar.AM_PM:
+                return HALF_DAY;
+
+            case Calendar.HOUR:
+            case Calendar.HOUR_OF_DAY:
+                return HOUR;
+
+            case Calendar.MINUTE:
+                return MINUTE;
+
+            case Calendar.SECOND:
+                return SECOND;
+
+            case Calendar.MILLISECOND:
+                return NONE;
+
+            default:
+                throw new IllegalArgumentException("Unsupported field: " + field);
+        }
+    }
+
+
+    /**
+     * Truncate a timestamp.
+     *
+     * @param millis
+     *         Milliseconds since the epoch.
+     *
+     * @return
+     *         The truncated time in milliseconds since the epoch.
+     */
+    public long truncate(long millis)
+    {
+        switch (unit)
+        {
+            case SECOND:
+                return truncateTime(millis, 1000L);
+
+            case MINUTE:
+                return truncateTime(millis, 60000L);
+
+            case HOUR:
+                return truncateTime(millis, MILLIS_PER_HOUR);
+
+            case NONE:
+                return millis;
+
+            default:
+                return index.toUTC(periodStart(index.toLocal(millis)), policy);
+        }
+    }
+
+
+    /**
+     * Truncate {@code src[from]} to {@code src[to - 1]} and store the
+     * results into {@code dst} from {@code dstIndex}. Like {@link
+     * System#arraycopy(Object, int, Object, int, int)}, {@code src} and
+     * {@code dst} may be the same array with overlapping ranges; the
+     * results are as if the input were copied first.
+     */
+    public void truncate(long[] src, int from, int to, long[] dst, int dstIndex)
+    {
+        if (from < 0 || to > src.length || from > to || dstIndex < 0 || dst.length - dstIndex < to - from)
+        {
+            throw new IndexOutOfBoundsException();
+        }
+
+        if (src == dst && dstIndex != from && dstIndex < to && from < dstIndex + (to - from))
+        {
+            // Shifted overlapping ranges. Each write would clobber an input
+            // which is not read yet, so read from a copy of the input.
+            src  = Arrays.copyOfRange(src, from, to);
+            to   = to - from;
+            from = 0;
+        }
+
+        Task task = new Task(src, from, to, dst, dstIndex - from);
+
+        if (to - from < PARALLEL_THRESHOLD)
+        {
+            task.compute();
+        }
+        else
+        {
+            ((pool != null) ? pool : ForkJoinPool.commonPool()).invoke(task);
+        }
+    }
+
+
+    private long truncateTime(long millis, long unitMillis)
+    {
+        long local = index.toLocal(millis);
+
+        return millis - CalendarMath.floorMod(local, (int)unitMillis);
+    }
+
+
+    /**
+     * Get the wall-clock start of the period that contains the given
+     * wall-clock time.
+     */
+    private long periodStart(long local)
+    {
+        long epochDay = CalendarMath.toEpochDay(local);
+
+        switch (unit)
+        {
+            case HALF_DAY:
+                long half = CalendarMath.MILLIS_PER_DAY / 2;
+                return CalendarMath.floorDiv(local, half) * half;
+
+            case DAY:
+                break;
+
+            case WEEK:
+                epochDay -= CalendarMath.floorMod(CalendarMath.dayOfWeek(epochDay) - firstDayOfWeek, 7);
+                break;
+
+            case MONTH:
+            {
+                int date = CalendarMath.fromEpochDay(epochDay);
+                epochDay = CalendarMath.toEpochDay(CalendarMath.getYear(date), CalendarMath.getMonth(date), 1);
+                break;
+            }
+
+            default:
+            {
+                int date = CalendarMath.fromEpochDay(epochDay);
+                epochDay = CalendarMath.toEpochDay(CalendarMath.getYear(date), Calendar.JANUARY, 1);
+                break;
+            }
+        }
+
+        return epochDay * CalendarMath.MILLIS_PER_DAY;
+    }
+
+
+    /**
+     * Get the wall-clock start of the period after the one that starts
+     * at the given wall-clock time.
+     */
+    private long nextPeriodStart(long start)
+    {
+        switch (unit)
+        {
+            case HALF_DAY:
+                return start + CalendarMath.MILLIS_PER_DAY / 2;
+
+            case DAY:
+                return start + CalendarMath.MILLIS_PER_DAY;
+
+            case WEEK:
+                return start + 7 * CalendarMath.MILLIS_PER_DAY;
+
+            case MONTH:
+            {
+                int date = CalendarMath.fromEpochDay(CalendarMath.toEpochDay(start));
+                return CalendarMath.toEpochDay(CalendarMath.getYear(date), CalendarMath.getMonth(date) + 1, 1) * CalendarMath.MILLIS_PER_DAY;
+            }
+
+            default:
+            {
+                int date = CalendarMath.fromEpochDay(CalendarMath.toEpochDay(start));
+                return CalendarMath.toEpochDay(CalendarMath.getYear(date) + 1, Calendar.JANUARY, 1) * CalendarMath.MILLIS_PER_DAY;
+            }
+        }
+    }
+
+
+    /**
+     * Truncates a part of the input. The last period is remembered.
+     */
+    @SuppressWarnings("serial")
+    private final class Task extends RecursiveAction
+    {
+        private final long[] src;
+        private final int from;
+        private final int to;
+        private final long[] dst;
+        private final int shift;
+
+
+        Task(long[] src, int from, int to, long[] dst, int shift)
+        {
+            this.src   = src;
+            this.from  = from;
+            this.to    = to;
+            this.dst   = dst;
+            this.shift = shift;
+        }
+
+
+        @Override
+        protected void compute()
+        {
+            if (CHUNK_SIZE < to - from && getPool() != null)
+            {
+                int middle = (from + to) >>> 1;
+
+                invokeAll(new Task(src, from, middle, dst, shift), new Task(src, middle, to, dst, shift));
+                return;
+            }
+
+            if (unit < HALF_DAY || unit == NONE)
+            {
+                for (int i = from; i < to; ++i)
+                {
+                    dst[i + shift] = truncate(src[i]);
+                }
+
+                return;
+            }
+
+            // The UTC range of the last period: [start, end).
+            long start = 0;
+            long end   = 0;
+
+            for (int i = from; i < to; ++i)
+            {
+                long millis = src[i];
+
+                if (millis < start || end <= millis)
+                {
+                    long local = periodStart(index.toLocal(millis));
+                    start = index.toUTC(local, policy);
+                    end   = index.toUTC(nextPeriodStart(local), policy);
+
+                    if (millis < start || end <= millis)
+                    {
+                        // Do not remember an unusual period.
+                        dst[i + shift] = start;
+                        start = end = 0;
+                        continue;
+                    }
+                }
+
+                dst[i + shift] = start;
+            }
+        }
+    }
+}
@@ -0,0 +1,107 @@
+/*
+ * Copyright (C) 2012-2013 Neo Visionaries Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.neovisionaries.datetime;
+
+
+import java.util.Arrays;
+import java.util.TimeZone;
+
+
+/**
+ * Cache of the offsets of a time zone for local (wall-clock) times.
+ *
+ * <p>
+ * An offset is cached per local hour, and only when the offset is the
+ * same at the start and at the end of the hour, so the cache never
+ * changes a result. Cache misses are resolved by the shared {@link
+ * ZoneOffsetIndex} of the time zone. This class is not thread-safe;
+ * create one per batch.
+ * </p>
+ *
+ * @since 1.4
+ *
+ * @author Takahiko Kawasaki
+ */
+final class ZoneOffsetCache
+{
+    private static final long MILLIS_PER_HOUR = 3600000L;
+    private static final int SIZE = 256;
+
+
+    private final TimeZone timeZone;
+    private final ZoneOffsetIndex index;
+    private final long[] hours = new long[SIZE];
+    private final int[] offsets = new int[SIZE];
+
+
+    ZoneOffsetCache(TimeZone timeZone)
+    {
+        this.timeZone = timeZone;
+        this.index    = ZoneOffsetIndex.of(timeZone);
+
+        // No hour maps to Long.MIN_VALUE.
+        Arrays.fill(hours, Long.MIN_VALUE);
+    }
+
+
+    TimeZone getTimeZone()
+    {
+        return timeZone;
+    }
+
+
+    /**
+     * Convert a local time to milliseconds since the epoch.
+     */
+    long toUTC(long local)
+    {
+        long hour = CalendarMath.floorDiv(local, MILLIS_PER_HOUR);
+        int slot = (int)hour & (SIZE - 1);
+
+        if (hours[slot] == hour)
+        {
+            return local - offsets[slot];
+        }
+
+        long start = hour * MILLIS_PER_HOUR;
+        int offset = index.getOffsetAtLocal(start);
+
+        if (offset == index.getOffsetAtLocal(start + MILLIS_PER_HOUR - 1))
+        {
+            hours[slot]   = hour;
+            offsets[slot] = offset;
+        }
+
+        return local - index.getOffsetAtLocal(local);
+    }
+
+
+    /**
+     * Convert a local time in the given time zone to milliseconds since
+     * the epoch, resolving the offset at the wall-clock time in the same
+     * way as {@link java.util.GregorianCalendar} does. If {@code cache}
+     * is not null, it is used.
+     */
+    static long toUTC(long local, TimeZone timeZone, ZoneOffsetCache cache)
+    {
+        if (cache != null)
+        {
+            return cache.toUTC(local);
+        }
+
+        return ZoneOffsetIndex.of(timeZone).toUTC(local);
+    }
+}
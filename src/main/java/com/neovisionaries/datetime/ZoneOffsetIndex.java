@@ -0,0 +1,645 @@
+/*
+ * Copyright (C) 2012-2013 Neo Visionaries Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.neovisionaries.datetime;
+
+
+import java.time.Instant;
+import java.time.zone.ZoneOffsetTransition;
+import java.time.zone.ZoneRules;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.GregorianCalendar;
+import java.util.TimeZone;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+
+/**
+ * Precomputed table of the offset transitions of a time zone.
+ *
+ * <p>
+ * A {@code ZoneOffsetIndex} is built once from a {@link TimeZone} and
+ * records the periods between the transitions of the zone from 1800 to
+ * 2037. Offset lookups in that range take a bucket lookup and usually no
+ * more than one comparison. Lookups outside the range are delegated to
+ * the time zone. The results are the same as those of the time zone and
+ * of {@link GregorianCalendar}.
+ * </p>
+ *
+ * <style type="text/css">
+ * span.keyword { color: purple; font-weight: bold; }
+ * span.comment { color: green; }
+ * span.string  { color: blue; }
+ * pre.code { background-color: #EEEEEE; margin-left: 2em; margin-right: 2em; border: 1px solid black; }
+ * </style>
+ *
+ * <pre class="code">
+ *
+ * ZoneOffsetIndex index = ZoneOffsetIndex.{@link #of(TimeZone)
+ * of}(TimeZone.getTimeZone(<span class="string">"America/New_York"</span>));
+ *
+ * <span class="comment">// Offset from UTC at an instant.</span>
+ * <span class="keyword">int</span> offset = index.{@link #getOffset(long) getOffset}(millis);
+ *
+ * <span class="comment">// Instant of a wall-clock time.</span>
+ * <span class="keyword">long</span> utc = index.{@link #toUTC(long) toUTC}(localMillis);
+ * </pre>
+ *
+ * <p>
+ * Instances are immutable and thread-safe. {@link #of(TimeZone)} shares
+ * one instance per time zone ID and rules among all threads.
+ * </p>
+ *
+ * @since 1.4
+ *
+ * @author Takahiko Kawasaki
+ */
+public final class ZoneOffsetIndex
+{
+    /**
+     * January 1, 1800, 00:00:00 UTC.
+     */
+    private static final long FROM = -5364662400000L;
+
+
+    /**
+     * January 1, 2038, 00:00:00 UTC. The JDK computes later offsets by
+     * rules instead of by a table.
+     */
+    private static final long TO = 2145916800000L;
+
+
+    /**
+     * The interval of probing a time zone which is not of the JDK for
+     * transitions. No time zone changes its offset twice within this
+     * interval.
+     */
+    private static final long STEP = 24L * 60 * 60 * 1000;
+
+
+    /**
+     * The interval of probing a time zone of the JDK for transitions other
+     * than those listed by its {@link ZoneRules}, which are probed at their
+     * instants. No time zone of the JDK changes its offset twice within
+     * this interval.
+     */
+    private static final long COARSE_STEP = 6 * STEP;
+
+
+    /**
+     * log2 of the length of a bucket in milliseconds (about 50 days).
+     */
+    private static final int BUCKET_SHIFT = 32;
+
+
+    private static final long FIRST_BUCKET = FROM >> BUCKET_SHIFT;
+
+
+    private static final ConcurrentMap<String, ZoneOffsetIndex[]> INDEXES
+        = new ConcurrentHashMap<String, ZoneOffsetIndex[]>();
+
+
+    /**
+     * Maximum number of indexes with different rules cached for one ID.
+     */
+    private static final int MAX_RULES_PER_ID = 4;
+
+
+    private final TimeZone timeZone;
+    private final int rawOffset;
+    private final boolean wallTime;
+    private final long[] starts;
+    private final int[] offsets;
+    private final int[] zoneOffsets;
+    private final int[] dstOffsets;
+    private final int[] buckets;
+
+
+    private ZoneOffsetIndex(TimeZone timeZone)
+    {
+        this.timeZone  = timeZone;
+        this.rawOffset = timeZone.getRawOffset();
+
+        // GregorianCalendar resolves a wall-clock time in a time zone of
+        // the JDK by the wall-clock times of its transitions, and in any
+        // other time zone by the offset at the wall-clock time minus the
+        // raw offset.
+        this.wallTime  = "sun.util.calendar.ZoneInfo".equals(timeZone.getClass().getName());
+
+        // Find the transitions. The transitions of a time zone of the JDK
+        // are known from its ZoneRules, so only the instants just before
+        // them and a coarse grid are probed. Other time zones are probed
+        // daily.
+        long[] hints = wallTime ? transitionsOf(timeZone) : null;
+        long step    = (hints != null) ? COARSE_STEP : STEP;
+
+        LongList list = new LongList();
+        Date date = new Date(FROM);
+        list.add(FROM);
+
+        long previous = key(timeZone, date, FROM);
+        int h = 0;
+
+        for (long t = FROM; t < TO - 1; )
+        {
+            long next = Math.min(t + step, TO - 1);
+
+            if (hints != null && h < hints.length && hints[h] <= next)
+            {
+                next = hints[h++];
+            }
+
+            long key = key(timeZone, date, next);
+
+            if (key != previous)
+            {
+                list.add(findTransition(timeZone, date, t, next, previous));
+                previous = key;
+            }
+
+            t = next;
+        }
+
+        int n = list.size;
+        starts      = list.toArray();
+        offsets     = new int[n];
+        zoneOffsets = new int[n];
+        dstOffsets  = new int[n];
+
+        GregorianCalendar calendar = new GregorianCalendar(timeZone);
+
+        for (int i = 0; i < n; ++i)
+        {
+            calendar.setTimeInMillis(starts[i]);
+            offsets[i]     = timeZone.getOffset(starts[i]);
+            zoneOffsets[i] = calendar.get(Calendar.ZONE_OFFSET);
+            dstOffsets[i]  = calendar.get(Calendar.DST_OFFSET);
+        }
+
+        // The first period of each bucket.
+        buckets = new int[(int)(((TO - 1) >> BUCKET_SHIFT) - FIRST_BUCKET) + 1];
+
+        for (int b = 0, i = 0; b < buckets.length; ++b)
+        {
+            long start = Math.max(FROM, (b + FIRST_BUCKET) << BUCKET_SHIFT);
+
+            while (i + 1 < n && starts[i + 1] <= start)
+            {
+                ++i;
+            }
+
+            buckets[b] = i;
+        }
+    }
+
+
+    /**
+     * Get the index of the given time zone. Indexes are cached by time
+     * zone ID and rules, so a custom zone which reuses the ID of another
+     * zone (for example, a {@link java.util.SimpleTimeZone} named
+     * "America/New_York") is indexed only once, too. A few indexes with
+     * different rules are kept for each ID; the oldest one is dropped
+     * when there are more.
+     *
+     * <p>
+     * The first call for a time zone builds its index, which costs about
+     * a millisecond for a time zone of the JDK once the JIT compiler has
+     * warmed up (its transitions are taken from {@link ZoneRules}), and a
+     * few milliseconds for other time zones, which are probed daily. The
+     * first calls in a JVM cost more. {@link GCalendar} calls this method
+     * lazily, so call it at startup for the time zones of a latency
+     * sensitive path to keep the cost out of that path.
+     * </p>
+     */
+    public static ZoneOffsetIndex of(TimeZone timeZone)
+    {
+        String id = timeZone.getID();
+        ZoneOffsetIndex[] indexes = INDEXES.get(id);
+        ZoneOffsetIndex index = findSameRules(indexes, timeZone);
+
+        if (index != null)
+        {
+            GCalendarMetrics.lookup(GCalendarMetrics.Cache.ZONE_OFFSET_INDEX, true);
+            return index;
+        }
+
+        GCalendarMetrics.lookup(GCalendarMetrics.Cache.ZONE_OFFSET_INDEX, false);
+
+        ZoneOffsetIndex created = new ZoneOffsetIndex((TimeZone)timeZone.clone());
+
+        while (true)
+        {
+            // Another thread may have added the same rules meanwhile.
+            index = findSameRules(indexes, timeZone);
+
+            if (index != null)
+            {
+                return index;
+            }
+
+            if (indexes == null)
+            {
+                indexes = INDEXES.putIfAbsent(id, new ZoneOffsetIndex[] { created });
+
+                if (indexes == null)
+                {
+                    return created;
+                }
+
+                continue;
+            }
+
+            // Copy on write; the newest index comes first.
+            int length = Math.min(indexes.length + 1, MAX_RULES_PER_ID);
+            ZoneOffsetIndex[] replacement = new ZoneOffsetIndex[length];
+            replacement[0] = created;
+            System.arraycopy(indexes, 0, replacement, 1, length - 1);
+
+            if (INDEXES.replace(id, indexes, replacement))
+            {
+                return created;
+            }
+
+            indexes = INDEXES.get(id);
+        }
+    }
+
+
+    private static ZoneOffsetIndex findSameRules(ZoneOffsetIndex[] indexes, TimeZone timeZone)
+    {
+        if (indexes == null)
+        {
+            return null;
+        }
+
+        for (ZoneOffsetIndex index : indexes)
+        {
+            if (index.timeZone.hasSameRules(timeZone))
+            {
+                return index;
+            }
+        }
+
+        return null;
+    }
+
+
+    /**
+     * Get the time zone of this index.
+     */
+    public TimeZone getTimeZone()
+    {
+        return (TimeZone)timeZone.clone();
+    }
+
+
+    /**
+     * Get the offset from UTC at the given instant. The result is the same
+     * as that of {@link TimeZone#getOffset(long)}.
+     *
+     * @param millis
+     *         Milliseconds since the epoch.
+     */
+    public int getOffset(long millis)
+    {
+        int i = find(millis);
+
+        return (0 <= i) ? offsets[i] : timeZone.getOffset(millis);
+    }
+
+
+    /**
+     * Get the raw offset from UTC at the given instant, which {@link
+     * Calendar#get(int) get}({@link Calendar#ZONE_OFFSET ZONE_OFFSET})
+     * returns.
+     *
+     * @param millis
+     *         Milliseconds since the epoch.
+     */
+    public int getZoneOffset(long millis)
+    {
+        int i = find(millis);
+
+        return (0 <= i) ? zoneOffsets[i] : calendarAt(millis).get(Calendar.ZONE_OFFSET);
+    }
+
+
+    /**
+     * Get the daylight saving offset at the given instant, which {@link
+     * Calendar#get(int) get}({@link Calendar#DST_OFFSET DST_OFFSET})
+     * returns.
+     *
+     * @param millis
+     *         Milliseconds since the epoch.
+     */
+    public int getDstOffset(long millis)
+    {
+        int i = find(millis);
+
+        return (0 <= i) ? dstOffsets[i] : calendarAt(millis).get(Calendar.DST_OFFSET);
+    }
+
+
+    /**
+     * Get the offset from UTC at the given wall-clock time. A wall-clock
+     * time in a gap or an overlap is resolved in the same way as {@link
+     * GregorianCalendar} does.
+     *
+     * @param localMillis
+     *         Milliseconds since January 1, 1970, 00:00:00 local time.
+     */
+    public int getOffsetAtLocal(long localMillis)
+    {
+        int i = find(localMillis - rawOffset);
+
+        if (i < 0)
+        {
+            return calendarOffsetAtLocal(localMillis);
+        }
+
+        if (wallTime == false)
+        {
+            return getOffset(localMillis - rawOffset);
+        }
+
+        // The last period that starts at or before the wall-clock time.
+        // Times in a gap or an overlap belong to the earlier period and
+        // the later period respectively, that is, to standard time.
+        while (i + 1 < starts.length && starts[i + 1] + offsets[i + 1] <= localMillis)
+        {
+            ++i;
+        }
+
+        while (0 < i && localMillis < starts[i] + offsets[i])
+        {
+            --i;
+        }
+
+        return offsets[i];
+    }
+
+
+    /**
+     * Convert a wall-clock time to an instant.
+     *
+     * @param localMillis
+     *         Milliseconds since January 1, 1970, 00:00:00 local time.
+     *
+     * @return
+     *         Milliseconds since the epoch.
+     *
+     * @see #getOffsetAtLocal(long)
+     */
+    public long toUTC(long localMillis)
+    {
+        return localMillis - getOffsetAtLocal(localMillis);
+    }
+
+
+    /**
+     * Convert a wall-clock time to an instant, resolving a time in a gap
+     * or an overlap by the given policy.
+     *
+     * @param localMillis
+     *         Milliseconds since January 1, 1970, 00:00:00 local time.
+     *
+     * @return
+     *         Milliseconds since the epoch.
+     *
+     * @throws IllegalArgumentException
+     *         The policy is {@link DstPolicy#STRICT} and the time is in
+     *         a gap or an overlap.
+     */
+    public long toUTC(long localMillis, DstPolicy policy)
+    {
+        if (policy == DstPolicy.COMPATIBLE)
+        {
+            return toUTC(localMillis);
+        }
+
+        // Offsets are less than a day and transitions are more than
+        // two days apart, so there is at most one transition in between.
+        int  before  = getOffset(localMillis - CalendarMath.MILLIS_PER_DAY);
+        int  after   = getOffset(localMillis + CalendarMath.MILLIS_PER_DAY);
+        long earlier = localMillis - before;
+        long later   = localMillis - after;
+
+        boolean earlierValid = (getOffset(earlier) == before);
+        boolean laterValid   = (getOffset(later) == after);
+
+        if (before == after || (earlierValid && laterValid == false))
+        {
+            return earlier;
+        }
+
+        if (laterValid && earlierValid == false)
+        {
+            return later;
+        }
+
+        if (policy == DstPolicy.STRICT)
+        {
+            throw new IllegalArgumentException(
+                (earlierValid ? "The local time is in an overlap: " : "The local time is in a gap: ") + localMillis);
+        }
+
+        if (earlierValid == false)
+        {
+            // In a gap. Use the offset before the gap.
+            return earlier;
+        }
+
+        return (policy == DstPolicy.EARLIER) ? Math.min(earlier, later) : Math.max(earlier, later);
+    }
+
+
+    /**
+     * Convert an instant to a wall-clock time.
+     *
+     * @param millis
+     *         Milliseconds since the epoch.
+     *
+     * @return
+     *         Milliseconds since January 1, 1970, 00:00:00 local time.
+     */
+    public long toLocal(long millis)
+    {
+        return millis + getOffset(millis);
+    }
+
+
+    /**
+     * Get the number of periods between the transitions in the indexed range.
+     */
+    int size()
+    {
+        return starts.length;
+    }
+
+
+    /**
+     * Find the period that contains the given instant.
+     *
+     * @return
+     *         The index of the period, or -1 if the instant is out of range.
+     */
+    private int find(long millis)
+    {
+        if (millis < FROM || TO <= millis)
+        {
+            return -1;
+        }
+
+        int i = buckets[(int)((millis >> BUCKET_SHIFT) - FIRST_BUCKET)];
+
+        while (i + 1 < starts.length && starts[i + 1] <= millis)
+        {
+            ++i;
+        }
+
+        return i;
+    }
+
+
+    private int calendarOffsetAtLocal(long localMillis)
+    {
+        long epochDay = CalendarMath.toEpochDay(localMillis);
+        int  date     = CalendarMath.fromEpochDay(epochDay);
+        int  year     = CalendarMath.getYear(date);
+
+        GregorianCalendar calendar = new GregorianCalendar(timeZone);
+        calendar.clear();
+        calendar.set(Calendar.ERA, (year <= 0) ? GregorianCalendar.BC : GregorianCalendar.AD);
+        calendar.set((year <= 0) ? 1 - year : year, CalendarMath.getMonth(date), CalendarMath.getDayOfMonth(date));
+        calendar.set(Calendar.MILLISECOND, (int)(localMillis - epochDay * CalendarMath.MILLIS_PER_DAY));
+
+        return (int)(localMillis - calendar.getTimeInMillis());
+    }
+
+
+    private GregorianCalendar calendarAt(long millis)
+    {
+        GregorianCalendar calendar = new GregorianCalendar(timeZone);
+        calendar.setTimeInMillis(millis);
+
+        return calendar;
+    }
+
+
+    /**
+     * The state of the time zone at the given instant: the offset and
+     * whether daylight saving time is in effect.
+     */
+    private static long key(TimeZone timeZone, Date date, long millis)
+    {
+        date.setTime(millis);
+
+        return ((long)timeZone.getOffset(millis) << 1) | (timeZone.inDaylightTime(date) ? 1 : 0);
+    }
+
+
+    /**
+     * Get the transitions of the given time zone of the JDK in {@code
+     * (FROM, TO)} from its {@link ZoneRules}, or null if they are not
+     * available.
+     */
+    private static long[] transitionsOf(TimeZone timeZone)
+    {
+        ZoneRules rules;
+
+        try
+        {
+            rules = timeZone.toZoneId().getRules();
+        }
+        catch (RuntimeException e)
+        {
+            return null;
+        }
+
+        LongList list = new LongList();
+
+        for (ZoneOffsetTransition transition = rules.nextTransition(Instant.ofEpochMilli(FROM));
+             transition != null && transition.toEpochSecond() * 1000 < TO;
+             transition = rules.nextTransition(transition.getInstant()))
+        {
+            list.add(transition.toEpochSecond() * 1000);
+        }
+
+        return list.toArray();
+    }
+
+
+    /**
+     * Find the first instant in {@code (low, high]} whose key is not
+     * {@code key} by binary search.
+     */
+    private static long findTransition(TimeZone timeZone, Date date, long low, long high, long key)
+    {
+        // Usually true when high is a transition of the ZoneRules.
+        if (low + 1 < high && key(timeZone, date, high - 1) == key)
+        {
+            return high;
+        }
+
+        while (low + 1 < high)
+        {
+            long middle = low + (high - low) / 2;
+
+            if (key(timeZone, date, middle) == key)
+            {
+                low = middle;
+            }
+            else
+            {
+                high = middle;
+            }
+        }
+
+        return high;
+    }
+
+
+    /**
+     * A growable list of longs.
+     */
+    private static final class LongList
+    {
+        long[] values = new long[16];
+        int size;
+
+
+        void add(long value)
+        {
+            if (size == values.length)
+            {
+                long[] larger = new long[size * 2];
+                System.arraycopy(values, 0, larger, 0, size);
+                values = larger;
+            }
+
+            values[size++] = value;
+        }
+
+
+        long[] toArray()
+        {
+            long[] array = new long[size];
+            System.arraycopy(values, 0, array, 0, size);
+
+            return array;
+        }
+    }
+}
@@ -0,0 +1,268 @@
+/*
+ * Copyright (C) 2012-2013 Neo Visionaries Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.neovisionaries.datetime;
+
+
+import java.util.TimeZone;
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+import jdk.jfr.Timespan;
+
+
+/**
+ * Flight Recorder events of {@link GCalendar}. This class needs {@code
+ * jdk.jfr}, so it is compiled separately for Java 11 from {@code
+ * src/main/java11}, and {@link GCalendarEvents} loads it by name only
+ * when it can be loaded.
+ *
+ * @since 1.4
+ *
+ * @author Takahiko Kawasaki
+ */
+final class JfrEvents implements GCalendarEvents.Recorder
+{
+    private static final String CATEGORY = "nv-datetime";
+
+
+    @Name("com.neovisionaries.datetime.Parse")
+    @Label("Slow Parse")
+    @Description("A parse call of GCalendar that took longer than the threshold")
+    @Category(CATEGORY)
+    @Threshold("1 ms")
+    @StackTrace(true)
+    static final class ParseEvent extends Event
+    {
+        @Label("Pattern")
+        String pattern;
+
+        @Label("Time Zone")
+        String timeZone;
+
+        @Label("Input Length")
+        @DataAmount(DataAmount.BYTES)
+        int inputLength;
+
+        @Label("Success")
+        boolean success;
+    }
+
+
+    @Name("com.neovisionaries.datetime.ParseFailure")
+    @Label("Parse Failure")
+    @Description("A parse call of GCalendar that failed")
+    @Category(CATEGORY)
+    @StackTrace(true)
+    static final class ParseFailureEvent extends Event
+    {
+        @Label("Pattern")
+        String pattern;
+
+        @Label("Time Zone")
+        String timeZone;
+
+        @Label("Input Length")
+        @DataAmount(DataAmount.BYTES)
+        int inputLength;
+
+        @Label("Failure Offset")
+        @Description("The error index of the ParsePosition, or -1 if unknown")
+        int failureOffset;
+
+        @Label("Parse Duration")
+        @Timespan(Timespan.NANOSECONDS)
+        long parseDuration;
+    }
+
+
+    @Name("com.neovisionaries.datetime.Format")
+    @Label("Slow Format")
+    @Description("A format call of GCalendar that took longer than the threshold")
+    @Category(CATEGORY)
+    @Threshold("1 ms")
+    @StackTrace(true)
+    static final class FormatEvent extends Event
+    {
+        @Label("Pattern")
+        String pattern;
+
+        @Label("Time Zone")
+        String timeZone;
+
+        @Label("Output Length")
+        @DataAmount(DataAmount.BYTES)
+        int outputLength;
+    }
+
+
+    @Name("com.neovisionaries.datetime.ZoneChange")
+    @Label("Slow Time Zone Change")
+    @Description("A changeTimeZoneOnly call of GCalendar that took longer than the threshold")
+    @Category(CATEGORY)
+    @Threshold("1 ms")
+    @StackTrace(true)
+    static final class ZoneChangeEvent extends Event
+    {
+        @Label("From")
+        String from;
+
+        @Label("To")
+        String to;
+
+        @Label("Success")
+        boolean success;
+    }
+
+
+    /**
+     * A parse event and the start time for its failure event.
+     */
+    static final class ParseTiming
+    {
+        final ParseEvent event = new ParseEvent();
+        final long start = System.nanoTime();
+    }
+
+
+    // Used only to check if the event types are enabled.
+    private static final ParseEvent PARSE = new ParseEvent();
+    private static final ParseFailureEvent PARSE_FAILURE = new ParseFailureEvent();
+    private static final FormatEvent FORMAT = new FormatEvent();
+    private static final ZoneChangeEvent ZONE_CHANGE = new ZoneChangeEvent();
+
+
+    JfrEvents()
+    {
+    }
+
+
+    @Override
+    public Object beginParse()
+    {
+        // Nothing is allocated while the events are not recorded.
+        if (!PARSE.isEnabled() && !PARSE_FAILURE.isEnabled())
+        {
+            return null;
+        }
+
+        ParseTiming timing = new ParseTiming();
+        timing.event.begin();
+
+        return timing;
+    }
+
+
+    @Override
+    public void endParse(Object object, Object format, TimeZone timeZone, CharSequence source, int errorIndex, boolean success)
+    {
+        ParseTiming timing = (ParseTiming)object;
+        ParseEvent event = timing.event;
+        event.end();
+
+        if (event.shouldCommit())
+        {
+            event.pattern     = GCalendarEvents.patternOf(format);
+            event.timeZone    = GCalendarEvents.idOf(timeZone);
+            event.inputLength = (source != null) ? source.length() : -1;
+            event.success     = success;
+            event.commit();
+        }
+
+        if (success)
+        {
+            return;
+        }
+
+        ParseFailureEvent failure = new ParseFailureEvent();
+
+        if (failure.isEnabled())
+        {
+            failure.pattern       = GCalendarEvents.patternOf(format);
+            failure.timeZone      = GCalendarEvents.idOf(timeZone);
+            failure.inputLength   = (source != null) ? source.length() : -1;
+            failure.failureOffset = errorIndex;
+            failure.parseDuration = System.nanoTime() - timing.start;
+            failure.commit();
+        }
+    }
+
+
+    @Override
+    public Object beginFormat()
+    {
+        if (!FORMAT.isEnabled())
+        {
+            return null;
+        }
+
+        FormatEvent event = new FormatEvent();
+        event.begin();
+
+        return event;
+    }
+
+
+    @Override
+    public void endFormat(Object object, Object format, TimeZone timeZone, int outputLength)
+    {
+        FormatEvent event = (FormatEvent)object;
+        event.end();
+
+        if (event.shouldCommit())
+        {
+            event.pattern      = GCalendarEvents.patternOf(format);
+            event.timeZone     = GCalendarEvents.idOf(timeZone);
+            event.outputLength = outputLength;
+            event.commit();
+        }
+    }
+
+
+    @Override
+    public Object beginZoneChange()
+    {
+        if (!ZONE_CHANGE.isEnabled())
+        {
+            return null;
+        }
+
+        ZoneChangeEvent event = new ZoneChangeEvent();
+        event.begin();
+
+        return event;
+    }
+
+
+    @Override
+    public void endZoneChange(Object object, TimeZone from, TimeZone to, boolean success)
+    {
+        ZoneChangeEvent event = (ZoneChangeEvent)object;
+        event.end();
+
+        if (event.shouldCommit())
+        {
+            event.from    = GCalendarEvents.idOf(from);
+            event.to      = GCalendarEvents.idOf(to);
+            event.success = success;
+            event.commit();
+        }
+    }
+}
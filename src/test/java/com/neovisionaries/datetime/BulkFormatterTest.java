@@ -0,0 +1,174 @@
+/*
+ * Copyright (C) 2012-2013 Neo Visionaries Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.neovisionaries.datetime;
+
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.util.Locale;
+import java.util.Random;
+import java.util.TimeZone;
+import org.junit.Test;
+
+
+public class BulkFormatterTest
+{
+    private long[] randomMillis(int count)
+    {
+        Random random = new Random(1974);
+        long[] millis = new long[count];
+
+        for (int i = 0; i < count; ++i)
+        {
+            millis[i] = (long)(random.nextDouble() * 4000000000000L);
+        }
+
+        return millis;
+    }
+
+
+    @Test
+    public void test1()
+    {
+        // Large enough to be formatted in parallel.
+        long[] millis = randomMillis(BulkFormatter.PARALLEL_THRESHOLD * 3 + 7);
+        TimeZone tz = TimeZone.getTimeZone("America/New_York");
+        GFormat format = GFormat.compile("yyyy-MM-dd HH:mm:ss.SSS", Locale.US);
+
+        CharBuffer out = CharBuffer.allocate(millis.length * 32);
+        int[] ends = new int[millis.length];
+        int total = BulkFormatter.of(format, tz).format(millis, 0, millis.length, out, ends);
+
+        assertEquals(total, out.position());
+        out.flip();
+
+        for (int i = 0, begin = 0; i < millis.length; begin = ends[i++])
+        {
+            assertEquals(format.format(millis[i], tz), out.subSequence(begin, ends[i]).toString());
+        }
+    }
+
+
+    @Test
+    public void test2()
+    {
+        long[] millis = randomMillis(1000);
+        TimeZone tz = TimeZone.getTimeZone("JST");
+        GFormat format = GFormat.compile("yyyy MMMM d", Locale.FRANCE);
+
+        ByteBuffer out = ByteBuffer.allocate(millis.length * 64);
+        int[] ends = new int[millis.length - 10];
+        BulkFormatter.of(format, tz).format(millis, 10, millis.length, out, ends);
+
+        for (int i = 0, begin = 0; i < ends.length; begin = ends[i++])
+        {
+            String actual = new String(out.array(), begin, ends[i] - begin, Charset.forName("UTF-8"));
+
+            assertEquals(format.format(millis[i + 10], tz), actual);
+        }
+    }
+
+
+    @Test
+    public void test3()
+    {
+        long[] millis = randomMillis(100);
+        TimeZone tz = TimeZone.getTimeZone("UTC");
+        BulkFormatter formatter = BulkFormatter.iso8601(tz, ISO8601.UTC_AS_Z);
+
+        // Each result has 20 characters.
+        CharBuffer out = CharBuffer.allocate(100 * 20 - 1);
+        int[] ends = new int[100];
+
+        try
+        {
+            formatter.format(millis, 0, 100, out, ends);
+            fail();
+        }
+        catch (BufferOverflowException e)
+        {
+            // Nothing must be written.
+            assertEquals(0, out.position());
+        }
+
+        out = CharBuffer.allocate(100 * ISO8601.MAX_LENGTH);
+        formatter.format(millis, 0, 100, out, ends);
+        out.flip();
+
+        assertEquals(ISO8601.format(millis[0], tz, ISO8601.UTC_AS_Z), out.subSequence(0, ends[0]).toString());
+        assertEquals(ISO8601.format(millis[99], tz, ISO8601.UTC_AS_Z), out.subSequence(ends[98], ends[99]).toString());
+    }
+
+
+    @Test
+    public void test4()
+    {
+        // ISO 8601 strings go straight into heap and direct buffers, in parallel.
+        long[] millis = randomMillis(BulkFormatter.PARALLEL_THRESHOLD * 2 + 3);
+        millis[0] = Long.MIN_VALUE / 1000;
+        millis[1] = -62167219200001L; // -0001-12-31T23:59:59.999Z
+        millis[2] = 253402300800000L; // +10000-01-01T00:00:00Z
+        millis[3] = -12219292800000L; // 1582-10-15T00:00:00Z
+
+        TimeZone tz = TimeZone.getTimeZone("Asia/Kolkata");
+        int[] options = { 0, ISO8601.MILLISECONDS | ISO8601.UTC_AS_Z, ISO8601.MICROSECONDS };
+
+        for (int option : options)
+        {
+            BulkFormatter formatter = BulkFormatter.iso8601(tz, option);
+            int size = millis.length * ISO8601.MAX_LENGTH + 3;
+            int[] ends = new int[millis.length];
+
+            // A slice of a heap buffer, so that its array offset is not 0.
+            CharBuffer chars = CharBuffer.allocate(size + 5);
+            chars.position(5);
+            chars = chars.slice();
+            chars.position(3);
+            int total = formatter.format(millis, 0, millis.length, chars, ends);
+            assertEquals(3 + total, chars.position());
+            assertISO8601(millis, tz, option, chars.array(), chars.arrayOffset() + 3, ends);
+
+            CharBuffer directChars = ByteBuffer.allocateDirect(size * 2).asCharBuffer();
+            directChars.position(3);
+            assertEquals(total, formatter.format(millis, 0, millis.length, directChars, ends));
+            directChars.flip();
+            directChars.position(3);
+            assertISO8601(millis, tz, option, directChars.toString().toCharArray(), 0, ends);
+
+            ByteBuffer directBytes = ByteBuffer.allocateDirect(size);
+            directBytes.position(3);
+            assertEquals(total, formatter.format(millis, 0, millis.length, directBytes, ends));
+            directBytes.flip();
+            directBytes.position(3);
+            byte[] bytes = new byte[directBytes.remaining()];
+            directBytes.get(bytes);
+            assertISO8601(millis, tz, option, new String(bytes, Charset.forName("US-ASCII")).toCharArray(), 0, ends);
+        }
+    }
+
+
+    private static void assertISO8601(long[] millis, TimeZone tz, int options, char[] text, int offset, int[] ends)
+    {
+        for (int i = 0, begin = 0; i < millis.length; begin = ends[i++])
+        {
+            assertEquals(ISO8601.format(millis[i], tz, options), new String(text, offset + begin, ends[i] - begin));
+        }
+    }
+}
@@ -0,0 +1,116 @@
+/*
+ * Copyright (C) 2012-2013 Neo Visionaries Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.neovisionaries.datetime;
+
+
+import static org.junit.Assert.assertEquals;
+import java.nio.CharBuffer;
+import java.text.ParsePosition;
+import java.util.Locale;
+import java.util.Random;
+import java.util.TimeZone;
+import org.junit.Test;
+
+
+public class BulkParserTest
+{
+    private long[] randomMillis(int count)
+    {
+        Random random = new Random(1974);
+        long[] millis = new long[count];
+
+        for (int i = 0; i < count; ++i)
+        {
+            millis[i] = (long)(random.nextDouble() * 4000000000000L);
+        }
+
+        return millis;
+    }
+
+
+    @Test
+    public void test1()
+    {
+        // Local times without an offset, across DST transitions.
+        long[] millis = randomMillis(5000);
+        TimeZone tz = TimeZone.getTimeZone("America/New_York");
+        GFormat format = GFormat.compile("yyyy-MM-dd HH:mm:ss.SSS", Locale.US);
+        String[] texts = new String[millis.length];
+
+        for (int i = 0; i < millis.length; ++i)
+        {
+            texts[i] = format.format(millis[i], tz);
+        }
+
+        long[] actual = new long[millis.length];
+        long[] valid = new long[(millis.length + 63) / 64];
+
+        assertEquals(millis.length, BulkParser.of(format, tz).parse(texts, 0, texts.length, actual, valid));
+
+        for (int i = 0; i < millis.length; ++i)
+        {
+            // The same as what the single-value parser returns.
+            assertEquals(texts[i], format.parse(texts[i], tz, new ParsePosition(0)), actual[i]);
+        }
+    }
+
+
+    @Test
+    public void test2()
+    {
+        String[] texts = {
+            "2013-01-02T03:04:05Z",
+            "2013-01-02T03:04:05+09:00x",
+            null,
+            "",
+            "2013-13-02",
+            "2013-01-02T03:04",
+        };
+        TimeZone tz = TimeZone.getTimeZone("JST");
+        long[] millis = new long[texts.length];
+        long[] valid = { -1L };
+
+        assertEquals(2, BulkParser.iso8601(tz).parse(texts, 0, texts.length, millis, valid));
+        assertEquals(0x21L | (-1L << texts.length), valid[0]);
+        assertEquals(1357095845000L, millis[0]);
+        assertEquals(0L, millis[1]);
+        assertEquals(1357063440000L, millis[5]);
+    }
+
+
+    @Test
+    public void test3()
+    {
+        // Round trip through BulkFormatter.
+        long[] millis = randomMillis(300);
+        TimeZone tz = TimeZone.getTimeZone("Europe/Paris");
+        CharBuffer buffer = CharBuffer.allocate(millis.length * ISO8601.MAX_LENGTH);
+        int[] ends = new int[millis.length];
+
+        BulkFormatter.iso8601(tz, ISO8601.MILLISECONDS).format(millis, 0, millis.length, buffer, ends);
+        buffer.flip();
+
+        long[] actual = new long[millis.length - 100];
+        long[] valid = new long[(actual.length + 63) / 64];
+
+        assertEquals(actual.length, BulkParser.iso8601(tz).parse(buffer, ends, 100, millis.length, actual, valid));
+
+        for (int i = 0; i < actual.length; ++i)
+        {
+            assertEquals(millis[i + 100], actual[i]);
+        }
+    }
+}
@@ -0,0 +1,161 @@
+/*
+ * Copyright (C) 2012-2013 Neo Visionaries Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.neovisionaries.datetime;
+
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import java.util.Calendar;
+import java.util.Locale;
+import java.util.Random;
+import java.util.TimeZone;
+import org.junit.Test;
+
+
+public class BusinessCalendarTest
+{
+    private BusinessCalendar usLike()
+    {
+        return BusinessCalendar.of(2000, 2030).withHolidays(
+                HolidayRule.fixed(Calendar.JANUARY, 1),
+                HolidayRule.dayOfWeekInMonth(Calendar.JANUARY, 3, Calendar.MONDAY),
+                HolidayRule.dayOfWeekInMonth(Calendar.MAY, -1, Calendar.MONDAY),
+                HolidayRule.fixed(Calendar.JULY, 4),
+                HolidayRule.dayOfWeekInMonth(Calendar.NOVEMBER, 4, Calendar.THURSDAY),
+                HolidayRule.fixed(Calendar.DECEMBER, 25),
+                HolidayRule.date(2013, Calendar.MAY, 16));
+    }
+
+
+    @Test
+    public void test1()
+    {
+        BusinessCalendar business = usLike();
+
+        assertFalse(business.isBusinessDay(2013, Calendar.JANUARY, 1));
+        assertFalse(business.isBusinessDay(2013, Calendar.JANUARY, 21));
+        assertFalse(business.isBusinessDay(2013, Calendar.MAY, 27));
+        assertFalse(business.isBusinessDay(2013, Calendar.MAY, 16));
+        assertFalse(business.isBusinessDay(2013, Calendar.NOVEMBER, 28));
+        assertFalse(business.isBusinessDay(2013, Calendar.MAY, 18));
+        assertTrue(business.isBusinessDay(2013, Calendar.MAY, 17));
+        assertTrue(business.isBusinessDay(2014, Calendar.MAY, 16));
+
+        // Fri, May 24, 2013 + 1 skips the weekend and Memorial Day.
+        long day = CalendarMath.toEpochDay(2013, Calendar.MAY, 24);
+        assertEquals(CalendarMath.toEpochDay(2013, Calendar.MAY, 28), business.addBusinessDays(day, 1));
+        assertEquals(CalendarMath.toEpochDay(2013, Calendar.MAY, 23), business.addBusinessDays(day, -1));
+
+        // From Sunday.
+        day = CalendarMath.toEpochDay(2013, Calendar.MAY, 26);
+        assertEquals(CalendarMath.toEpochDay(2013, Calendar.MAY, 28), business.addBusinessDays(day, 1));
+        assertEquals(CalendarMath.toEpochDay(2013, Calendar.MAY, 24), business.addBusinessDays(day, -1));
+
+        // Friday-Saturday weekend.
+        BusinessCalendar gulf = BusinessCalendar.of(2013, 2013).withWeekend(Calendar.FRIDAY, Calendar.SATURDAY);
+        assertTrue(gulf.isBusinessDay(2013, Calendar.MAY, 19));
+        assertFalse(gulf.isBusinessDay(2013, Calendar.MAY, 17));
+
+        try
+        {
+            gulf.isBusinessDay(2014, Calendar.JANUARY, 1);
+            fail();
+        }
+        catch (IllegalArgumentException e)
+        {
+        }
+    }
+
+
+    @Test
+    public void test2()
+    {
+        // Compare with loops over days.
+        BusinessCalendar business = usLike();
+        long first = CalendarMath.toEpochDay(2000, Calendar.JANUARY, 1);
+        long end   = CalendarMath.toEpochDay(2031, Calendar.JANUARY, 1);
+        Random random = new Random(1974);
+
+        for (int i = 0; i < 2000; ++i)
+        {
+            long a = first + 400 + random.nextInt((int)(end - first - 800));
+            long b = a + random.nextInt(300);
+
+            int count = 0;
+
+            for (long day = a; day < b; ++day)
+            {
+                count += business.isBusinessDay(day) ? 1 : 0;
+            }
+
+            assertEquals(count, business.countBusinessDaysBetween(a, b));
+            assertEquals(-count, business.countBusinessDaysBetween(b, a));
+
+            int amount = random.nextInt(201) - 100;
+            long expected = a;
+
+            for (int n = Math.abs(amount); 0 < n; --n)
+            {
+                do
+                {
+                    expected += Integer.signum(amount);
+                }
+                while (!business.isBusinessDay(expected));
+            }
+
+            assertEquals(expected, business.addBusinessDays(a, amount));
+        }
+    }
+
+
+    @Test
+    public void test3()
+    {
+        BusinessCalendar business = usLike();
+        TimeZone tz = TimeZone.getTimeZone("America/New_York");
+
+        // T+2 from Thursday evening, keeping the time of day.
+        GCalendar trade = new GCalendar(tz, Locale.US, 2013, Calendar.MAY, 23, 20, 0, 0, 0);
+        GCalendar end = (GCalendar)trade.clone();
+        business.addBusinessDays(end, 2);
+
+        assertEquals("2013-05-28T20:00:00-04:00", end.toISO8601());
+        assertEquals(2, business.countBusinessDaysBetween(trade, end));
+        assertFalse(business.isBusinessDay(new GCalendar(tz, 2013, Calendar.MAY, 27, 9, 0, 0, 0)));
+    }
+
+
+    @Test
+    public void test4()
+    {
+        // October 1582 has 21 days; later dates keep their own labels.
+        BusinessCalendar business = BusinessCalendar.of(1582, 1583).withHolidays(
+                HolidayRule.fixed(Calendar.DECEMBER, 25));
+
+        assertFalse(business.isBusinessDay(1582, Calendar.DECEMBER, 25));
+        assertFalse(business.isBusinessDay(1583, Calendar.DECEMBER, 25));
+
+        // Thu, Oct 4, 1582 is followed by Fri, Oct 15, 1582.
+        assertTrue(business.isBusinessDay(1582, Calendar.OCTOBER, 4));
+        assertTrue(business.isBusinessDay(1582, Calendar.OCTOBER, 15));
+        assertFalse(business.isBusinessDay(1582, Calendar.OCTOBER, 16));
+
+        long day = CalendarMath.toEpochDay(1582, Calendar.OCTOBER, 4);
+        assertEquals(CalendarMath.toEpochDay(1582, Calendar.OCTOBER, 15), business.addBusinessDays(day, 1));
+    }
+}
@@ -0,0 +1,97 @@
+/*
+ * Copyright (C) 2012-2013 Neo Visionaries Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.neovisionaries.datetime;
+
+
+import static org.junit.Assert.assertEquals;
+import java.util.Calendar;
+import java.util.GregorianCalendar;
+import java.util.TimeZone;
+import org.junit.Test;
+
+
+public class CalendarMathTest
+{
+    private GregorianCalendar UTC()
+    {
+        return new GregorianCalendar(TimeZone.getTimeZone("UTC"));
+    }
+
+
+    private int prolepticYear(Calendar cal)
+    {
+        int year = cal.get(Calendar.YEAR);
+
+        return (cal.get(Calendar.ERA) == GregorianCalendar.AD) ? year : 1 - year;
+    }
+
+
+    @Test
+    public void test1()
+    {
+        // Compare with GregorianCalendar from 1000 BC to AD 3000.
+        GregorianCalendar cal = UTC();
+
+        for (long day = -1085000; day < 376000; ++day)
+        {
+            cal.setTimeInMillis(day * CalendarMath.MILLIS_PER_DAY);
+
+            int year  = prolepticYear(cal);
+            int month = cal.get(Calendar.MONTH);
+            int dom   = cal.get(Calendar.DAY_OF_MONTH);
+            int date  = CalendarMath.fromEpochDay(day);
+
+            assertEquals(year, CalendarMath.getYear(date));
+            assertEquals(month, CalendarMath.getMonth(date));
+            assertEquals(dom, CalendarMath.getDayOfMonth(date));
+            assertEquals(day, CalendarMath.toEpochDay(year, month, dom));
+            assertEquals(cal.get(Calendar.DAY_OF_WEEK), CalendarMath.dayOfWeek(day));
+            assertEquals(cal.get(Calendar.DAY_OF_YEAR), CalendarMath.dayOfYear(year, month, dom));
+            assertEquals(cal.getActualMaximum(Calendar.DAY_OF_MONTH), CalendarMath.daysInMonth(year, month));
+        }
+    }
+
+
+    @Test
+    public void test2()
+    {
+        GregorianCalendar cal = UTC();
+
+        for (int year = -1000; year <= 3000; ++year)
+        {
+            assertEquals(cal.isLeapYear(year), CalendarMath.isLeap(year));
+        }
+
+        for (int year = 1; year <= 3000; ++year)
+        {
+            assertEquals(cal.isLeapYear(year), GCalendar.isLeap(year));
+        }
+    }
+
+
+    @Test
+    public void test3()
+    {
+        // October 4, 1582 (Julian) is followed by October 15, 1582 (Gregorian).
+        long oct4 = CalendarMath.toEpochDay(1582, Calendar.OCTOBER, 4);
+        long oct15 = CalendarMath.toEpochDay(1582, Calendar.OCTOBER, 15);
+
+        assertEquals(CalendarMath.GREGORIAN_CUTOVER_EPOCH_DAY, oct15);
+        assertEquals(oct4 + 1, oct15);
+        assertEquals(355, CalendarMath.daysInYear(1582));
+        assertEquals(0, CalendarMath.toEpochDay(1969, Calendar.DECEMBER + 1, 1));
+    }
+}
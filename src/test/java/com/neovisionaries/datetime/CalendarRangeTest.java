@@ -0,0 +1,106 @@
+/*
+ * Copyright (C) 2012-2013 Neo Visionaries Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.neovisionaries.datetime;
+
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import java.util.Calendar;
+import java.util.GregorianCalendar;
+import java.util.Random;
+import java.util.Spliterator;
+import java.util.TimeZone;
+import org.junit.Test;
+
+
+public class CalendarRangeTest
+{
+    private static final int[] FIELDS = {
+        Calendar.YEAR, Calendar.MONTH, Calendar.WEEK_OF_YEAR, Calendar.DAY_OF_MONTH,
+        Calendar.AM_PM, Calendar.HOUR_OF_DAY, Calendar.MINUTE,
+    };
+
+
+    @Test
+    public void test1()
+    {
+        // Compare with GregorianCalendar.add.
+        String[] zones = { "UTC", "America/New_York", "Australia/Lord_Howe", "Europe/Moscow" };
+        Random random = new Random(1974);
+
+        for (int i = 0; i < 400; ++i)
+        {
+            TimeZone tz = TimeZone.getTimeZone(zones[i % zones.length]);
+            int field = FIELDS[i % FIELDS.length];
+            int step = 1 + random.nextInt(3);
+            long start = (long)(random.nextDouble() * 2000000000000L);
+            long end = start + (long)(random.nextDouble() * 40000000000L);
+
+            long[] actual = GCalendar.range(start, end, tz, field, step).toArray();
+
+            GregorianCalendar cal = new GregorianCalendar(tz);
+
+            for (int k = 0; k < actual.length; ++k)
+            {
+                cal.setTimeInMillis(start);
+                cal.add(field, k * step);
+
+                assertEquals(cal.getTimeInMillis(), actual[k]);
+            }
+
+            cal.setTimeInMillis(start);
+            cal.add(field, actual.length * step);
+            assertEquals(true, end <= cal.getTimeInMillis());
+        }
+    }
+
+
+    @Test
+    public void test2()
+    {
+        // Every hour of a day with a DST transition is 23 elements.
+        TimeZone tz = TimeZone.getTimeZone("America/New_York");
+        GCalendar start = new GCalendar(tz, 2013, Calendar.MARCH, 10, 0, 0, 0, 0);
+        GCalendar end = new GCalendar(tz, 2013, Calendar.MARCH, 11, 0, 0, 0, 0);
+
+        assertEquals(23, GCalendar.range(start, end, Calendar.HOUR_OF_DAY, 1).count());
+        assertEquals(1, GCalendar.range(start, end, Calendar.DAY_OF_MONTH, 1).count());
+        assertEquals(0, GCalendar.range(end, start, Calendar.HOUR_OF_DAY, 1).count());
+    }
+
+
+    @Test
+    public void test3()
+    {
+        // Parallel streams give the same result.
+        TimeZone tz = TimeZone.getTimeZone("Europe/London");
+        long start = 0L;
+        long end = 4000000000000L;
+
+        long[] sequential = GCalendar.range(start, end, tz, Calendar.DAY_OF_MONTH, 1).toArray();
+        long[] parallel = GCalendar.range(start, end, tz, Calendar.DAY_OF_MONTH, 1).parallel().toArray();
+
+        assertArrayEquals(sequential, parallel);
+
+        // Even split.
+        Spliterator.OfLong spliterator = GCalendar.rangeSpliterator(start, end, tz, Calendar.DAY_OF_MONTH, 1);
+        long size = spliterator.estimateSize();
+        Spliterator.OfLong prefix = spliterator.trySplit();
+
+        assertEquals(size / 2, prefix.estimateSize());
+        assertEquals(size - size / 2, spliterator.estimateSize());
+    }
+}
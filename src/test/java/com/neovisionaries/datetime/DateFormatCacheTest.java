@@ -0,0 +1,103 @@
+/*
+ * Copyright (C) 2012-2013 Neo Visionaries Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.neovisionaries.datetime;
+
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import java.text.DateFormat;
+import java.util.Calendar;
+import java.util.Locale;
+import java.util.TimeZone;
+import org.junit.Test;
+
+
+public class DateFormatCacheTest
+{
+    private TimeZone getTimeZone(String timeZone)
+    {
+        return TimeZone.getTimeZone(timeZone);
+    }
+
+
+    @Test
+    public void test1()
+    {
+        TimeZone gmt = getTimeZone("GMT");
+        TimeZone jst = getTimeZone("JST");
+
+        DateFormat df1 = DateFormatCache.get("yyyy-MM-dd", gmt, Locale.US);
+        DateFormat df2 = DateFormatCache.get("yyyy-MM-dd", getTimeZone("GMT"), Locale.US);
+        DateFormat df3 = DateFormatCache.get("yyyy-MM-dd", jst, Locale.US);
+        DateFormat df4 = DateFormatCache.get("yyyy-MM-dd", gmt, Locale.JAPAN);
+
+        assertSame(df1, df2);
+        assertNotSame(df1, df3);
+        assertNotSame(df1, df4);
+    }
+
+
+    @Test
+    public void test2()
+    {
+        TimeZone gmt = getTimeZone("GMT");
+
+        for (int i = 0; i < DateFormatCache.MAX_SIZE * 2; ++i)
+        {
+            DateFormatCache.get("'" + i + "'yyyy", gmt, Locale.US);
+        }
+
+        assertTrue(DateFormatCache.size() <= DateFormatCache.MAX_SIZE);
+    }
+
+
+    @Test
+    public void test3()
+    {
+        GCalendar gmt = new GCalendar(getTimeZone("GMT"), 1974, Calendar.MAY, 6, 12, 34, 56, 0);
+        GCalendar jst = new GCalendar(getTimeZone("JST"), 1974, Calendar.MAY, 6, 12, 34, 56, 0);
+
+        // The same pattern must be formatted in each calendar's time zone.
+        assertEquals("1974-05-06 12:34:56", gmt.format("yyyy-MM-dd HH:mm:ss"));
+        assertEquals("1974-05-06 12:34:56", jst.format("yyyy-MM-dd HH:mm:ss"));
+        assertEquals("1974-05-06 12:34:56", gmt.format("yyyy-MM-dd HH:mm:ss"));
+    }
+
+
+    @Test
+    public void test4()
+    {
+        Locale display = Locale.getDefault(Locale.Category.DISPLAY);
+        Locale format  = Locale.getDefault(Locale.Category.FORMAT);
+
+        try
+        {
+            // The default locale for formatting is used, as SimpleDateFormat does.
+            Locale.setDefault(Locale.Category.DISPLAY, Locale.US);
+            Locale.setDefault(Locale.Category.FORMAT, Locale.FRANCE);
+
+            assertSame(DateFormatCache.get("MMMM", getTimeZone("GMT"), Locale.FRANCE),
+                       DateFormatCache.get("MMMM", getTimeZone("GMT")));
+        }
+        finally
+        {
+            Locale.setDefault(Locale.Category.DISPLAY, display);
+            Locale.setDefault(Locale.Category.FORMAT, format);
+        }
+    }
+}
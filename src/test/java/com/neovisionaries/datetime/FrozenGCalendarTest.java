@@ -0,0 +1,74 @@
+/*
+ * Copyright (C) 2012-2013 Neo Visionaries Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.neovisionaries.datetime;
+
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import java.util.Calendar;
+import java.util.Locale;
+import java.util.Random;
+import java.util.TimeZone;
+import org.junit.Test;
+
+
+public class FrozenGCalendarTest
+{
+    @Test
+    public void test1()
+    {
+        // Compare with GCalendar.
+        String[] zones = { "UTC", "JST", "America/New_York", "Asia/Kolkata" };
+        Random random = new Random(1974);
+
+        for (int i = 0; i < 5000; ++i)
+        {
+            GCalendar cal = new GCalendar(TimeZone.getTimeZone(zones[i % zones.length]), Locale.FRANCE);
+            cal.setTimeInMillis((long)(random.nextDouble() * 315000000000000L) - 62100000000000L);
+
+            FrozenGCalendar frozen = cal.freeze();
+
+            for (int field = 0; field < Calendar.FIELD_COUNT; ++field)
+            {
+                assertEquals(cal.get(field), frozen.get(field));
+            }
+
+            assertEquals(cal.isLeapYear(), frozen.isLeapYear());
+            assertEquals(cal.isAM(), frozen.isAM());
+            assertEquals(cal.isBC(), frozen.isBC());
+            assertEquals(cal.toISO8601(ISO8601.MILLISECONDS), frozen.toISO8601(ISO8601.MILLISECONDS));
+            assertEquals(cal.toPackedDateTime(), frozen.toPackedDateTime());
+            assertEquals(frozen, frozen.toGCalendar().freeze());
+        }
+    }
+
+
+    @Test
+    public void test2()
+    {
+        GCalendar cal = new GCalendar(TimeZone.getTimeZone("JST"), 1974, Calendar.MAY, 6, 12, 34, 56, 0);
+        FrozenGCalendar frozen = cal.freeze();
+
+        // Changing the calendar does not change the snapshot.
+        cal.addYear(1).changeTimeZoneOnly(TimeZone.getTimeZone("UTC"));
+        frozen.getTimeZone().setRawOffset(0);
+
+        assertEquals("1974-05-06T12:34:56+09:00", frozen.toISO8601());
+        assertEquals("1974/05/06 12:34", frozen.format("yyyy/MM/dd HH:mm"));
+        assertEquals("1974/05/06 12:34", frozen.format(GFormat.compile("yyyy/MM/dd HH:mm")));
+        assertTrue(frozen.compareTo(cal.freeze()) < 0);
+    }
+}
@@ -0,0 +1,82 @@
+/*
+ * Copyright (C) 2012-2013 Neo Visionaries Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.neovisionaries.datetime;
+
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import java.io.File;
+import java.text.ParsePosition;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TimeZone;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.Test;
+
+
+public class GCalendarEventsTest
+{
+    @Test
+    public void test1() throws Exception
+    {
+        assertTrue(GCalendarEvents.ENABLED);
+
+        Map<String, RecordedEvent> events = new HashMap<String, RecordedEvent>();
+        File file = File.createTempFile("nv-datetime", ".jfr");
+
+        try
+        {
+            Recording recording = new Recording();
+            recording.enable("com.neovisionaries.datetime.Parse").withThreshold(Duration.ZERO);
+            recording.enable("com.neovisionaries.datetime.ParseFailure");
+            recording.enable("com.neovisionaries.datetime.Format").withThreshold(Duration.ZERO);
+            recording.enable("com.neovisionaries.datetime.ZoneChange").withThreshold(Duration.ZERO);
+            recording.start();
+
+            GFormat format = GFormat.compile("yyyy-MM-dd", Locale.US);
+            GCalendar.parse(format, "2013-05-xx", new ParsePosition(0));
+            GCalendar cal = GCalendar.parse(format, "2013-05-16", new ParsePosition(0));
+            cal.format(format);
+            cal.changeTimeZoneOnly(TimeZone.getTimeZone("Asia/Tokyo"));
+
+            recording.stop();
+            recording.dump(file.toPath());
+            recording.close();
+
+            for (RecordedEvent event : RecordingFile.readAllEvents(file.toPath()))
+            {
+                events.put(event.getEventType().getName(), event);
+            }
+        }
+        finally
+        {
+            file.delete();
+        }
+
+        RecordedEvent failure = events.get("com.neovisionaries.datetime.ParseFailure");
+        assertEquals("yyyy-MM-dd", failure.getString("pattern"));
+        assertEquals(10, failure.getInt("inputLength"));
+        assertEquals(8, failure.getInt("failureOffset"));
+
+        assertEquals(10, events.get("com.neovisionaries.datetime.Format").getInt("outputLength"));
+        assertEquals("Asia/Tokyo", events.get("com.neovisionaries.datetime.ZoneChange").getString("to"));
+        assertTrue(events.containsKey("com.neovisionaries.datetime.Parse"));
+    }
+}
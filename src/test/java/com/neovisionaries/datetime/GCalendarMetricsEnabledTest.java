@@ -0,0 +1,73 @@
+/*
+ * Copyright (C) 2012-2013 Neo Visionaries Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.neovisionaries.datetime;
+
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import java.lang.management.ManagementFactory;
+import java.text.ParsePosition;
+import java.util.Map;
+import java.util.TimeZone;
+import javax.management.JMX;
+import javax.management.ObjectName;
+import org.junit.Test;
+import com.neovisionaries.datetime.GCalendarMetrics.Cache;
+import com.neovisionaries.datetime.GCalendarMetrics.Operation;
+
+
+public class GCalendarMetricsEnabledTest
+{
+    @Test
+    public void test1() throws Exception
+    {
+        // Enabled by the metrics-enabled execution in pom.xml.
+        assertTrue(GCalendarMetrics.isEnabled());
+
+        long parses   = GCalendarMetrics.getCount(Operation.PARSE);
+        long failures = GCalendarMetrics.getFailureCount(Operation.PARSE);
+        long formats  = GCalendarMetrics.getCount(Operation.FORMAT);
+        long hits     = GCalendarMetrics.getHitCount(Cache.DATE_FORMAT);
+
+        GCalendar cal = GCalendar.parseISO8601("2013-05-16T12:34:56+09:00");
+        assertNull(GCalendar.parseISO8601("bad", new ParsePosition(0)));
+        cal.format("yyyy");
+        cal.format("yyyy");
+        cal.toISO8601();
+        cal.changeTimeZoneOnly(TimeZone.getTimeZone("UTC"));
+        cal.changeTimeZoneOnly(TimeZone.getTimeZone("UTC"));
+
+        assertTrue(parses + 2 <= GCalendarMetrics.getCount(Operation.PARSE));
+        assertTrue(failures + 1 <= GCalendarMetrics.getFailureCount(Operation.PARSE));
+        assertTrue(formats + 2 <= GCalendarMetrics.getCount(Operation.FORMAT));
+        assertTrue(hits + 1 <= GCalendarMetrics.getHitCount(Cache.DATE_FORMAT));
+        assertTrue(1 <= GCalendarMetrics.getCount(Operation.TO_ISO8601));
+        assertTrue(2 <= GCalendarMetrics.getCount(Operation.CHANGE_TIME_ZONE_ONLY));
+        assertTrue(0 < GCalendarMetrics.getMaxNanos(Operation.PARSE));
+
+        ObjectName name = GCalendarMetrics.registerMBean();
+        assertEquals(name, GCalendarMetrics.registerMBean());
+
+        GCalendarMetricsMXBean bean = JMX.newMXBeanProxy(
+                ManagementFactory.getPlatformMBeanServer(), name, GCalendarMetricsMXBean.class);
+        Map<String, Long> counts = bean.getCounts();
+
+        assertTrue(bean.isEnabled());
+        assertTrue(1 <= counts.get("TO_ISO8601"));
+        assertTrue(0 < bean.getCacheHitRatios().get("ZONE_OFFSET_INDEX"));
+    }
+}
@@ -0,0 +1,81 @@
+/*
+ * Copyright (C) 2012-2013 Neo Visionaries Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.neovisionaries.datetime;
+
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+import com.neovisionaries.datetime.GCalendarMetrics.Cache;
+import com.neovisionaries.datetime.GCalendarMetrics.Operation;
+
+
+public class GCalendarMetricsTest
+{
+    @Test
+    public void test1()
+    {
+        LatencyHistogram histogram = new LatencyHistogram();
+
+        for (long value = 1; value <= 1000; ++value)
+        {
+            histogram.record(value * 1000);
+        }
+
+        assertEquals(1000000, histogram.getMax());
+
+        // Within 25% above.
+        long p50 = histogram.getPercentile(50);
+        assertTrue(500000 <= p50 && p50 <= 625000);
+
+        long p99 = histogram.getPercentile(99);
+        assertTrue(990000 <= p99 && p99 <= 1000000);
+
+        // Buckets are contiguous.
+        for (int i = 1; i < 200; ++i)
+        {
+            assertEquals(LatencyHistogram.upperBound(i - 1) + 1, lowerBound(i));
+            assertEquals(i, LatencyHistogram.indexOf(LatencyHistogram.upperBound(i)));
+        }
+
+        histogram.reset();
+        assertEquals(0, histogram.getPercentile(50));
+    }
+
+
+    private static long lowerBound(int index)
+    {
+        return (index == 0) ? 0 : LatencyHistogram.upperBound(index - 1) + 1;
+    }
+
+
+    @Test
+    public void test2() throws Exception
+    {
+        // The default build runs with metrics disabled.
+        assertFalse(GCalendarMetrics.isEnabled());
+
+        GCalendar cal = GCalendar.parseISO8601("2013-05-16T12:34:56+09:00");
+        cal.format("yyyy");
+        cal.toISO8601();
+
+        assertEquals(0, GCalendarMetrics.getCount(Operation.PARSE));
+        assertEquals(0, GCalendarMetrics.getCount(Operation.FORMAT));
+        assertEquals(0, GCalendarMetrics.getHitCount(Cache.DATE_FORMAT));
+        assertEquals(0, GCalendarMetrics.getMaxNanos(Operation.PARSE));
+    }
+}
@@ -17,8 +17,17 @@ package com.neovisionaries.datetime;
 
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZonedDateTime;
 import java.util.Calendar;
+import java.util.GregorianCalendar;
+import java.util.Locale;
+import java.util.Random;
 import java.util.TimeZone;
 import org.junit.Test;
 
@@ -95,4 +104,259 @@ public class GCalendarTest
 
         assertEquals(expected, actual);
     }
+
+
+    @Test
+    public void test4()
+    {
+        GCalendar cal = new GCalendar(JST());
+        GFormat format = GFormat.compile("yyyy/MM/dd HH:mm:ss", Locale.US);
+
+        assertTrue(GCalendar.parseInto(cal, format, "1974/05/06 12:34:56"));
+        assertEquals("1974-05-06T12:34:56+09:00", cal.toISO8601());
+
+        assertTrue(GCalendar.parseInto(cal, "yyyy/MM/dd HH:mm:ss", "2013/01/02 03:04:05"));
+        assertEquals("2013-01-02T03:04:05+09:00", cal.toISO8601());
+
+        // The calendar is not changed on failure.
+        assertFalse(GCalendar.parseInto(cal, format, "2013/x"));
+        assertFalse(GCalendar.parseInto(cal, "yyyy/MM/dd", "2013/x"));
+        assertEquals("2013-01-02T03:04:05+09:00", cal.toISO8601());
+    }
+
+
+    @Test
+    public void test5()
+    {
+        // Compare with GregorianCalendar, including lenient values.
+        String[] zones = { "UTC", "JST", "America/New_York", "Europe/London", "Australia/Lord_Howe" };
+        Random random = new Random(1974);
+
+        for (int i = 0; i < 20000; ++i)
+        {
+            TimeZone tz = getTimeZone(zones[i % zones.length]);
+            int year   = 1 + random.nextInt(2200);
+            int month  = random.nextInt(14) - 1;
+            int day    = random.nextInt(33);
+            int hour   = random.nextInt(26);
+            int minute = random.nextInt(61);
+            int second = random.nextInt(61);
+            int millis = random.nextInt(1001);
+
+            GregorianCalendar expected = new GregorianCalendar(tz);
+            expected.set(year, month, day, hour, minute, second);
+            expected.set(Calendar.MILLISECOND, millis);
+
+            GCalendar actual = new GCalendar(tz, year, month, day, hour, minute, second, millis);
+
+            assertEquals(expected.getTimeInMillis(), actual.getTimeInMillis());
+
+            // changeTimeZoneOnly keeps the wall-clock time.
+            TimeZone other = getTimeZone(zones[(i + 1) % zones.length]);
+            GregorianCalendar wall = new GregorianCalendar(other);
+            wall.clear();
+            wall.set(Calendar.ERA, actual.getEra());
+            wall.set(actual.getYear(), actual.getMonth(), actual.getDayOfMonth(),
+                     actual.getHourOfDay(), actual.getMinute(), actual.getSecond());
+            wall.set(Calendar.MILLISECOND, actual.getMillisecond());
+
+            assertEquals(wall.getTimeInMillis(), actual.changeTimeZoneOnly(other).getTimeInMillis());
+        }
+    }
+
+
+    @Test
+    public void test6()
+    {
+        TimeZone tz = getTimeZone("America/New_York");
+        GCalendar cal = new GCalendar(tz);
+
+        // 2013-03-10 02:30 does not exist.
+        cal.set(2013, Calendar.MARCH, 10, 2, 30, 0, 0);
+        assertEquals("2013-03-10T03:30:00-04:00", cal.toISO8601());
+        cal.setDstPolicy(DstPolicy.EARLIER).set(2013, Calendar.MARCH, 10, 2, 30, 0, 0);
+        assertEquals("2013-03-10T03:30:00-04:00", cal.toISO8601());
+
+        // 2013-11-03 01:30 exists twice.
+        cal.setDstPolicy(DstPolicy.COMPATIBLE).set(2013, Calendar.NOVEMBER, 3, 1, 30, 0, 0);
+        assertEquals("2013-11-03T01:30:00-05:00", cal.toISO8601());
+        cal.setDstPolicy(DstPolicy.EARLIER).set(2013, Calendar.NOVEMBER, 3, 1, 30, 0, 0);
+        assertEquals("2013-11-03T01:30:00-04:00", cal.toISO8601());
+        cal.setDstPolicy(DstPolicy.LATER).set(2013, Calendar.NOVEMBER, 3, 1, 30, 0, 0);
+        assertEquals("2013-11-03T01:30:00-05:00", cal.toISO8601());
+
+        // Strict.
+        GCalendar strict = new GCalendar(JST(), 2013, Calendar.MARCH, 10, 2, 30, 0, 0).setDstPolicy(DstPolicy.STRICT);
+
+        try
+        {
+            strict.changeTimeZoneOnly(tz);
+            fail();
+        }
+        catch (IllegalArgumentException e)
+        {
+        }
+
+        strict.set(2013, Calendar.MARCH, 11, 2, 30, 0, 0);
+        assertEquals("2013-03-11T02:30:00-04:00", strict.changeTimeZoneOnly(tz).toISO8601());
+    }
+
+
+    @Test
+    public void test7()
+    {
+        TimeZone tz = getTimeZone("America/New_York");
+        long millis = 137043296789L;
+
+        // The lean constructor is the same as setting the time later.
+        GCalendar expected = new GCalendar(tz, Locale.FRANCE);
+        expected.setTimeInMillis(millis);
+        GCalendar actual = new GCalendar(millis, tz, Locale.FRANCE);
+
+        assertEquals(expected, actual);
+        assertEquals(Calendar.MONDAY, actual.getFirstDayOfWeek());
+        assertEquals(expected.getWeekOfYear(), actual.getWeekOfYear());
+
+        // Reuse.
+        GCalendar cal = new GCalendar(JST());
+        assertEquals("1974-05-06T12:34:56.789+09:00", cal.reset(millis, JST()).toISO8601(ISO8601.MILLISECONDS));
+        assertEquals("1974-05-05T23:34:56.789-04:00", cal.reset(millis, tz).toISO8601(ISO8601.MILLISECONDS));
+
+        cal.copyFrom(actual);
+        assertEquals(actual, cal);
+        assertEquals(actual.getWeekOfYear(), cal.getWeekOfYear());
+    }
+
+
+    @Test
+    public void test8()
+    {
+        String[] zones = { "America/New_York", "Europe/London", "Australia/Lord_Howe", "America/Sao_Paulo", "Asia/Kolkata" };
+        int[] fields = {
+            Calendar.YEAR, Calendar.MONTH, Calendar.WEEK_OF_YEAR, Calendar.DAY_OF_MONTH,
+            Calendar.AM_PM, Calendar.HOUR_OF_DAY, Calendar.MINUTE, Calendar.MILLISECOND
+        };
+        Random random = new Random(1974);
+
+        for (String id : zones)
+        {
+            TimeZone tz = getTimeZone(id);
+            GregorianCalendar cal = new GregorianCalendar(tz);
+
+            for (int i = 0; i < 3000; ++i)
+            {
+                long millis = (long)(random.nextDouble() * 2500000000000L);
+                int field = fields[random.nextInt(fields.length)];
+                int amount = random.nextInt(101) - 50;
+
+                // The same as GregorianCalendar.add, without a calendar.
+                cal.setTimeInMillis(millis);
+                cal.add(field, amount);
+
+                assertEquals(id + " " + millis + " " + field + " " + amount,
+                        cal.getTimeInMillis(), GCalendar.add(millis, tz, field, amount));
+            }
+        }
+
+        // End of month.
+        long millis = new GCalendar(JST(), 2013, Calendar.JANUARY, 31, 9, 0, 0, 0).getTimeInMillis();
+        assertEquals("2013-02-28T09:00:00+09:00", ISO8601.format(GCalendar.add(millis, JST(), Calendar.MONTH, 1), JST(), 0));
+    }
+
+
+    @Test
+    public void test9()
+    {
+        TimeZone tz = getTimeZone("America/New_York");
+        GCalendar cal = new GCalendar(tz, Locale.US, 2013, Calendar.MAY, 16, 12, 34, 56, 789);
+        GregorianCalendar expected = new GregorianCalendar(tz, Locale.US);
+        expected.setTimeInMillis(cal.getTimeInMillis());
+
+        ZonedDateTime zdt = cal.toZonedDateTime();
+        assertEquals(expected.toZonedDateTime(), zdt);
+        assertEquals(OffsetDateTime.parse("2013-05-16T12:34:56.789-04:00"), cal.toOffsetDateTime());
+        assertEquals(LocalDateTime.parse("2013-05-16T12:34:56.789"), cal.toLocalDateTime());
+        assertEquals(Instant.parse("2013-05-16T16:34:56.789Z"), cal.toInstant());
+
+        // Back.
+        GCalendar back = GCalendar.from(zdt);
+        assertEquals(cal.getTimeInMillis(), back.getTimeInMillis());
+        assertEquals(tz.getID(), back.getTimeZone().getID());
+        assertEquals(12, back.getHourOfDay());
+
+        assertEquals("2013-05-16T12:34:56-04:00", GCalendar.from(cal.toOffsetDateTime()).toISO8601());
+        assertEquals(cal.getTimeInMillis(), GCalendar.from(cal.toOffsetDateTime()).getTimeInMillis());
+        assertEquals(cal.getTimeInMillis(), GCalendar.from(LocalDateTime.parse("2013-05-16T12:34:56.789"), tz).getTimeInMillis());
+        assertEquals(cal.getTimeInMillis(), GCalendar.from(Instant.parse("2013-05-16T16:34:56.789Z"), tz).getTimeInMillis());
+
+        // A wall-clock time in a gap, like GregorianCalendar.
+        GCalendar gap = GCalendar.from(LocalDateTime.parse("2013-03-10T02:30"), tz);
+        assertEquals(new GCalendar(tz, 2013, Calendar.MARCH, 10, 2, 30, 0, 0).getTimeInMillis(), gap.getTimeInMillis());
+
+        // Before 1970, and a local time zone mean time with seconds.
+        cal = new GCalendar(getTimeZone("Europe/Amsterdam"), 1900, Calendar.JANUARY, 1, 0, 0, 0, 1);
+        assertEquals(LocalDateTime.parse("1900-01-01T00:00:00.001"), cal.toLocalDateTime());
+        assertEquals(cal.toZonedDateTime().toLocalDateTime(), cal.toLocalDateTime());
+    }
+
+
+    @Test
+    public void test10()
+    {
+        // A rejected wall-clock time leaves the calendar unchanged.
+        TimeZone tz = getTimeZone("America/New_York");
+        GCalendar strict = new GCalendar(GMT(), 2013, Calendar.MARCH, 10, 2, 30, 0, 0).setDstPolicy(DstPolicy.STRICT);
+        long millis = strict.getTimeInMillis();
+
+        try
+        {
+            strict.changeTimeZoneOnly(tz);
+            fail();
+        }
+        catch (IllegalArgumentException e)
+        {
+        }
+
+        assertEquals(GMT().getID(), strict.getTimeZone().getID());
+        assertEquals(millis, strict.getTimeInMillis());
+        assertEquals(2, strict.getHourOfDay());
+
+        try
+        {
+            strict.set(tz, 2013, Calendar.MARCH, 10, 2, 30, 0, 0);
+            fail();
+        }
+        catch (IllegalArgumentException e)
+        {
+        }
+
+        assertEquals(GMT().getID(), strict.getTimeZone().getID());
+        assertEquals(millis, strict.getTimeInMillis());
+
+        strict.set(tz, 2013, Calendar.MARCH, 10, 3, 30, 0, 0);
+        assertEquals("2013-03-10T03:30:00-04:00", strict.toISO8601());
+    }
+
+
+    @Test
+    public void test11()
+    {
+        // Dates around the Gregorian change are the same as GregorianCalendar.
+        int[][] dates = {
+            { 1582, Calendar.OCTOBER, 4 }, { 1582, Calendar.OCTOBER, 10 }, { 1582, Calendar.OCTOBER, 15 },
+            { 1582, Calendar.OCTOBER, 20 }, { 1582, Calendar.OCTOBER, 31 }, { 1582, Calendar.NOVEMBER, 1 },
+            { 1582, Calendar.SEPTEMBER, 40 }, { 1581, Calendar.DECEMBER, 300 }, { 1583, Calendar.JANUARY, -100 }
+        };
+
+        for (int[] date : dates)
+        {
+            GregorianCalendar expected = new GregorianCalendar(GMT());
+            expected.clear();
+            expected.set(date[0], date[1], date[2], 12, 0, 0);
+
+            GCalendar actual = new GCalendar(GMT()).set(date[0], date[1], date[2], 12, 0, 0, 0);
+
+            assertEquals(date[0] + "/" + date[1] + "/" + date[2], expected.getTimeInMillis(), actual.getTimeInMillis());
+        }
+    }
 }
@@ -0,0 +1,222 @@
+/*
+ * Copyright (C) 2012-2013 Neo Visionaries Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.neovisionaries.datetime;
+
+
+import static org.junit.Assert.assertEquals;
+import java.text.DateFormat;
+import java.text.FieldPosition;
+import java.text.ParseException;
+import java.text.ParsePosition;
+import java.text.SimpleDateFormat;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.Locale;
+import java.util.Random;
+import java.util.TimeZone;
+import org.junit.Test;
+
+
+public class GFormatTest
+{
+    private static final String[] PATTERNS = {
+        "yyyy-MM-dd'T'HH:mm:ss.SSSZ",
+        "G yy yyy yyyyy MMM MMMM d dd",
+        "EEE EEEE u D F w W YYYY",
+        "h hh K k a H",
+        "X XX XXX z zzzz",
+        "'quoted ''text''' S SS SSSS",
+    };
+
+
+    private TimeZone getTimeZone(String timeZone)
+    {
+        return TimeZone.getTimeZone(timeZone);
+    }
+
+
+    private void compare(long millis, TimeZone tz, Locale locale, GFormat[] formats)
+    {
+        for (GFormat format : formats)
+        {
+            SimpleDateFormat df = new SimpleDateFormat(format.getPattern(), locale);
+            df.setTimeZone(tz);
+
+            assertEquals(format.getPattern(), df.format(new Date(millis)), format.format(millis, tz));
+        }
+    }
+
+
+    @Test
+    public void test1()
+    {
+        // Compare with SimpleDateFormat.
+        String[] zones = { "UTC", "JST", "America/New_York", "Asia/Kolkata", "Australia/Adelaide" };
+        Locale[] locales = { Locale.US, Locale.FRANCE, Locale.JAPAN, Locale.GERMANY };
+        GFormat[][] formats = new GFormat[locales.length][PATTERNS.length];
+        Random random = new Random(1974);
+
+        for (int i = 0; i < locales.length; ++i)
+        {
+            for (int j = 0; j < PATTERNS.length; ++j)
+            {
+                formats[i][j] = GFormat.compile(PATTERNS[j], locales[i]);
+            }
+        }
+
+        for (int i = 0; i < 5000; ++i)
+        {
+            long millis = (long)(random.nextDouble() * 315000000000000L) - 62100000000000L;
+            int l = i % locales.length;
+
+            compare(millis, getTimeZone(zones[i % zones.length]), locales[l], formats[l]);
+        }
+    }
+
+
+    @Test
+    public void test2()
+    {
+        GFormat format = GFormat.compile("yyyy/MM/dd HH:mm", Locale.US);
+        GCalendar cal = new GCalendar(getTimeZone("JST"), 1974, Calendar.MAY, 6, 12, 34, 56, 0);
+
+        assertEquals("1974/05/06 12:34", cal.format(format));
+
+        StringBuffer sb = new StringBuffer("date: ");
+        FieldPosition position = new FieldPosition(DateFormat.MONTH_FIELD);
+        cal.format(format, sb, position);
+
+        assertEquals("date: 1974/05/06 12:34", sb.toString());
+        assertEquals(11, position.getBeginIndex());
+        assertEquals(13, position.getEndIndex());
+    }
+
+
+    @Test(expected = IllegalArgumentException.class)
+    public void test3()
+    {
+        GFormat.compile("yyyy-MM-dd Q");
+    }
+
+
+    @Test
+    public void test4() throws ParseException
+    {
+        // Round trip.
+        String[] patterns = {
+            "yyyy-MM-dd'T'HH:mm:ss.SSSZ",
+            "yyyyMMddHHmmssSSSXXX",
+            "EEE, dd MMM yyyy hh:mm:ss.SSS a Z",
+            "G yyyy MMMM d HH:mm:ss.SSS X",
+        };
+        Locale[] locales = { Locale.US, Locale.FRANCE, Locale.JAPAN };
+        TimeZone tz = getTimeZone("America/New_York");
+        Random random = new Random(2013);
+
+        for (String pattern : patterns)
+        {
+            for (Locale locale : locales)
+            {
+                GFormat format = GFormat.compile(pattern, locale);
+
+                for (int i = 0; i < 2000; ++i)
+                {
+                    long millis = (long)(random.nextDouble() * 315000000000000L) - 62100000000000L;
+
+                    // Offsets with seconds (local mean time) cannot round-trip.
+                    if (tz.getOffset(millis) % 60000 != 0)
+                    {
+                        continue;
+                    }
+
+                    String text = format.format(millis, tz);
+
+                    assertEquals(text, millis, format.parse(text, getTimeZone("UTC")));
+                }
+            }
+        }
+    }
+
+
+    @Test
+    public void test5() throws ParseException
+    {
+        // Compare with SimpleDateFormat.
+        String[][] inputs = {
+            { "yyyy/MM/dd HH:mm", "1974/05/06 12:34" },
+            { "yyyy/MM/dd HH:mm", "2013/02/30 25:00" },
+            { "dd-MMM-yy h:mm a", "06-may-74 1:05 PM" },
+            { "yyyy-'W'ww-u", "2013-W01-1" },
+            { "yyyy D", "2012 366" },
+            { "dd MMM yyyy HH:mm z", "06 May 1974 12:34 PST" },
+            { "dd MMM yyyy HH:mm z", "06 May 1974 12:34 GMT+09:30" },
+        };
+        TimeZone tz = getTimeZone("JST");
+
+        for (String[] input : inputs)
+        {
+            SimpleDateFormat df = new SimpleDateFormat(input[0], Locale.US);
+            df.setTimeZone(tz);
+
+            long expected = df.parse(input[1]).getTime();
+            long actual = GFormat.compile(input[0], Locale.US).parse(input[1], tz);
+
+            assertEquals(input[1], expected, actual);
+        }
+    }
+
+
+    @Test
+    public void test6() throws ParseException
+    {
+        GFormat format = GFormat.compile("yyyy/MM/dd HH:mm:ss Z", Locale.US);
+        GCalendar cal = GCalendar.parse(format, "1974/05/06 12:34:56 +0900");
+
+        cal.setTimeZone(getTimeZone("JST"));
+        assertEquals("1974-05-06T12:34:56+09:00", cal.toISO8601());
+
+        ParsePosition position = new ParsePosition(0);
+        assertEquals(null, GCalendar.parse(format, "1974/05/x6", position));
+        assertEquals(8, position.getErrorIndex());
+    }
+
+
+    @Test
+    public void test7()
+    {
+        Locale display = Locale.getDefault(Locale.Category.DISPLAY);
+        Locale format  = Locale.getDefault(Locale.Category.FORMAT);
+
+        try
+        {
+            // The default locale for formatting is used, as SimpleDateFormat does.
+            Locale.setDefault(Locale.Category.DISPLAY, Locale.US);
+            Locale.setDefault(Locale.Category.FORMAT, Locale.FRANCE);
+
+            TimeZone gmt = TimeZone.getTimeZone("GMT");
+            SimpleDateFormat expected = new SimpleDateFormat("EEEE d MMMM yyyy");
+            expected.setTimeZone(gmt);
+
+            assertEquals(expected.format(new Date(0)), GFormat.compile("EEEE d MMMM yyyy").format(0, gmt));
+            assertEquals("jeudi 1 janvier 1970", GFormat.compile("EEEE d MMMM yyyy").format(0, gmt));
+        }
+        finally
+        {
+            Locale.setDefault(Locale.Category.DISPLAY, display);
+            Locale.setDefault(Locale.Category.FORMAT, format);
+        }
+    }
+}
@@ -0,0 +1,226 @@
+/*
+ * Copyright (C) 2012-2013 Neo Visionaries Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.neovisionaries.datetime;
+
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+import java.nio.ByteBuffer;
+import java.text.ParseException;
+import java.text.ParsePosition;
+import java.text.SimpleDateFormat;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.GregorianCalendar;
+import java.util.Locale;
+import java.util.Random;
+import java.util.TimeZone;
+import org.junit.Test;
+
+
+public class ISO8601Test
+{
+    private TimeZone getTimeZone(String timeZone)
+    {
+        return TimeZone.getTimeZone(timeZone);
+    }
+
+
+    private String formatBySimpleDateFormat(long millis, TimeZone timeZone)
+    {
+        SimpleDateFormat df = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss.SSSZ");
+        df.setTimeZone(timeZone);
+
+        StringBuilder sb = new StringBuilder(df.format(new Date(millis)));
+        sb.insert(26, ":");
+
+        return sb.toString();
+    }
+
+
+    @Test
+    public void test1()
+    {
+        // Compare with SimpleDateFormat from AD 1 to AD 9999.
+        String[] zones = { "UTC", "JST", "America/New_York", "Asia/Kolkata", "Europe/London" };
+        Random random = new Random(1974);
+
+        for (int i = 0; i < 100000; ++i)
+        {
+            long millis = (long)(random.nextDouble() * 315000000000000L) - 62100000000000L;
+            TimeZone tz = getTimeZone(zones[i % zones.length]);
+
+            assertEquals(formatBySimpleDateFormat(millis, tz), ISO8601.format(millis, tz, ISO8601.MILLISECONDS));
+        }
+    }
+
+
+    @Test
+    public void test2()
+    {
+        GCalendar cal = new GCalendar(getTimeZone("UTC"), 1974, Calendar.MAY, 6, 12, 34, 56, 789);
+
+        assertEquals("1974-05-06T12:34:56+00:00", cal.toISO8601());
+        assertEquals("1974-05-06T12:34:56.789Z", cal.toISO8601(ISO8601.MILLISECONDS | ISO8601.UTC_AS_Z));
+        assertEquals("1974-05-06T12:34:56.789000+00:00", cal.toISO8601(ISO8601.MICROSECONDS));
+    }
+
+
+    @Test
+    public void test3()
+    {
+        long millis = new GCalendar(getTimeZone("UTC"), 1974, Calendar.JANUARY, 6, 12, 34, 56, 0).getTimeInMillis();
+        TimeZone tz = getTimeZone("America/St_Johns");
+        String expected = "1974-01-06T09:04:56-03:30";
+
+        char[] chars = new char[ISO8601.MAX_LENGTH + 2];
+        int end = ISO8601.format(millis, tz, 0, chars, 2);
+        assertEquals(expected, new String(chars, 2, end - 2));
+
+        byte[] bytes = new byte[ISO8601.MAX_LENGTH];
+        end = ISO8601.format(millis, tz, 0, bytes, 0);
+        assertEquals(expected, new String(bytes, 0, 0, end));
+
+        ByteBuffer bb = ISO8601.format(millis, tz, 0, ByteBuffer.allocate(ISO8601.MAX_LENGTH));
+        assertEquals(expected.length(), bb.position());
+
+        assertEquals("x" + expected, ISO8601.format(millis, tz, 0, new StringBuilder("x")).toString());
+        assertEquals("+10000-01-01T00:00:00Z", ISO8601.format(253402300800000L, getTimeZone("UTC"), ISO8601.UTC_AS_Z));
+    }
+
+
+    private long parse(String text, TimeZone timeZone)
+    {
+        ParsePosition position = new ParsePosition(0);
+        long millis = ISO8601.parse(text, timeZone, position);
+
+        assertEquals(-1, position.getErrorIndex());
+        assertEquals(text.length(), position.getIndex());
+
+        return millis;
+    }
+
+
+    @Test
+    public void test4()
+    {
+        // Round trip.
+        String[] zones = { "UTC", "JST", "America/New_York", "Asia/Kolkata" };
+        Random random = new Random(2013);
+
+        for (int i = 0; i < 100000; ++i)
+        {
+            long millis = (long)(random.nextDouble() * 315000000000000L) - 62100000000000L;
+            TimeZone tz = getTimeZone(zones[i % zones.length]);
+
+            // Offsets with seconds (local mean time) cannot round-trip.
+            if (tz.getOffset(millis) % 60000 != 0)
+            {
+                continue;
+            }
+
+            assertEquals(millis, parse(ISO8601.format(millis, tz, ISO8601.MILLISECONDS), tz));
+            assertEquals(millis, parse(ISO8601.format(millis, tz, ISO8601.MICROSECONDS | ISO8601.UTC_AS_Z), tz));
+        }
+    }
+
+
+    @Test
+    public void test5()
+    {
+        TimeZone utc = getTimeZone("UTC");
+        TimeZone jst = getTimeZone("JST");
+        long expected = new GCalendar(utc, 1974, Calendar.MAY, 6, 3, 34, 56, 0).getTimeInMillis();
+
+        assertEquals(expected, parse("1974-05-06T12:34:56+09:00", utc));
+        assertEquals(expected, parse("19740506T123456+0900", utc));
+        assertEquals(expected, parse("1974-05-06T12:34:56+09", utc));
+        assertEquals(expected, parse("1974-05-06T03:34:56Z", jst));
+        assertEquals(expected, parse("1974-05-06T12:34:56", jst));
+        assertEquals(expected + 123, parse("1974-05-06T03:34:56.123456Z", jst));
+        assertEquals(expected + 100, parse("1974-05-06T03:34:56,1Z", jst));
+        assertEquals(expected - 56000, parse("1974-05-06T12:34+09:00", utc));
+        assertEquals(expected - 3 * 3600000L - 34 * 60000L - 56000L, parse("1974-05-06", utc));
+    }
+
+
+    @Test
+    public void test6()
+    {
+        String[] invalid = { "1974-13-06", "1974-02-29", "1974-05-06T24:00:00Z", "74-05-06", "1974-05-06T12:60" };
+        int[] errorIndex = { 5, 8, 11, 0, 14 };
+
+        for (int i = 0; i < invalid.length; ++i)
+        {
+            ParsePosition position = new ParsePosition(0);
+            ISO8601.parse(invalid[i], getTimeZone("UTC"), position);
+
+            assertEquals(invalid[i], errorIndex[i], position.getErrorIndex());
+            assertEquals(0, position.getIndex());
+        }
+
+        try
+        {
+            GCalendar.parseISO8601("1974-05-06T12:34:56+09:00 trailing");
+            fail();
+        }
+        catch (ParseException e)
+        {
+            assertEquals(25, e.getErrorOffset());
+        }
+    }
+
+
+    @Test
+    public void test7()
+    {
+        // toISO8601() writes the year of the era as SimpleDateFormat did.
+        TimeZone tz = getTimeZone("JST");
+        SimpleDateFormat df = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ssZ");
+        df.setTimeZone(tz);
+
+        int[] years = { 1, 2, 44, 9999 };
+
+        for (int year : years)
+        {
+            GregorianCalendar bc = new GregorianCalendar(tz);
+            bc.clear();
+            bc.set(Calendar.ERA, GregorianCalendar.BC);
+            bc.set(year, Calendar.MARCH, 15, 12, 34, 56);
+
+            StringBuilder expected = new StringBuilder(df.format(bc.getTime()));
+            expected.insert(expected.length() - 2, ":");
+
+            GCalendar cal = new GCalendar(bc.getTimeInMillis(), tz, Locale.US);
+            assertEquals(expected.toString(), cal.toISO8601());
+        }
+
+        // Options give the astronomical year of ISO 8601.
+        GCalendar cal = new GCalendar(getTimeZone("UTC"), 1974, Calendar.MAY, 6, 12, 34, 56, 0);
+        cal.setYear(1);
+        cal.set(Calendar.ERA, GregorianCalendar.BC);
+        assertEquals("0001-05-06T12:34:56+00:00", cal.toISO8601());
+        assertEquals("0000-05-06T12:34:56Z", cal.toISO8601(ISO8601.UTC_AS_Z));
+
+        cal.setYear(2);
+        assertEquals("0002-05-06T12:34:56+00:00", cal.toISO8601());
+        assertEquals("-0001-05-06T12:34:56+00:00", cal.toISO8601(0));
+
+        // Years after AD 9999 have no sign with YEAR_OF_ERA.
+        assertEquals("10000-01-01T00:00:00Z",
+                ISO8601.format(253402300800000L, getTimeZone("UTC"), ISO8601.UTC_AS_Z | ISO8601.YEAR_OF_ERA));
+    }
+}
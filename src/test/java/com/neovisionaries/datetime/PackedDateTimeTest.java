@@ -0,0 +1,108 @@
+/*
+ * Copyright (C) 2012-2013 Neo Visionaries Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.neovisionaries.datetime;
+
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import java.util.Calendar;
+import java.util.GregorianCalendar;
+import java.util.Random;
+import java.util.TimeZone;
+import org.junit.Test;
+
+
+public class PackedDateTimeTest
+{
+    private static int prolepticYear(Calendar cal)
+    {
+        int year = cal.get(Calendar.YEAR);
+
+        return (cal.get(Calendar.ERA) == GregorianCalendar.AD) ? year : 1 - year;
+    }
+
+
+    @Test
+    public void test1()
+    {
+        // Compare with GCalendar.
+        String[] zones = { "UTC", "JST", "America/New_York", "Australia/Lord_Howe" };
+        Random random = new Random(1974);
+
+        for (int i = 0; i < 20000; ++i)
+        {
+            long millis = (long)(random.nextDouble() * 315000000000000L) - 62100000000000L;
+            GCalendar cal = new GCalendar(TimeZone.getTimeZone(zones[i % zones.length]));
+            cal.setTimeInMillis(millis);
+
+            long packed = cal.toPackedDateTime();
+
+            assertEquals(prolepticYear(cal), PackedDateTime.getYear(packed));
+            assertEquals(cal.getMonth(), PackedDateTime.getMonth(packed));
+            assertEquals(cal.getDayOfMonth(), PackedDateTime.getDayOfMonth(packed));
+            assertEquals(cal.getHourOfDay(), PackedDateTime.getHourOfDay(packed));
+            assertEquals(cal.getMinute(), PackedDateTime.getMinute(packed));
+            assertEquals(cal.getSecond(), PackedDateTime.getSecond(packed));
+            assertEquals(cal.getMillisecond(), PackedDateTime.getMillisecond(packed));
+            assertEquals(cal.getDayOfWeek(), PackedDateTime.getDayOfWeek(packed));
+
+            // Round trip.
+            GCalendar copy = GCalendar.fromPackedDateTime(packed, cal.getTimeZone());
+            assertEquals(packed, copy.toPackedDateTime());
+        }
+    }
+
+
+    @Test
+    public void test2()
+    {
+        // Order.
+        long a = PackedDateTime.pack(-5, 11, 31, 23, 59, 59, 999);
+        long b = PackedDateTime.pack(0, 0, 1, 0, 0, 0, 0);
+        long c = PackedDateTime.pack(1974, 4, 6, 12, 34, 56, 0);
+        long d = PackedDateTime.pack(1974, 4, 6, 12, 34, 56, 1);
+
+        assertTrue(a < b && b < c && c < d);
+        assertEquals(-1, PackedDateTime.compare(a, d));
+        assertEquals(0, PackedDateTime.compare(c, c));
+        assertEquals(-5, PackedDateTime.getYear(a));
+        assertEquals(11, PackedDateTime.getMonth(a));
+    }
+
+
+    @Test
+    public void test3()
+    {
+        // Arithmetic.
+        long packed = PackedDateTime.pack(2012, Calendar.JANUARY, 31, 12, 0, 0, 0);
+
+        assertEquals(PackedDateTime.pack(2012, Calendar.FEBRUARY, 29, 12, 0, 0, 0), PackedDateTime.addMonths(packed, 1));
+        assertEquals(PackedDateTime.pack(2011, Calendar.DECEMBER, 31, 12, 0, 0, 0), PackedDateTime.addMonths(packed, -1));
+        assertEquals(PackedDateTime.pack(2013, Calendar.FEBRUARY, 28, 12, 0, 0, 0), PackedDateTime.addYears(PackedDateTime.addMonths(packed, 1), 1));
+        assertEquals(PackedDateTime.pack(2012, Calendar.FEBRUARY, 1, 11, 59, 59, 999), PackedDateTime.addMillis(PackedDateTime.addDays(packed, 1), -1));
+
+        // Across the Gregorian change.
+        long julian = PackedDateTime.pack(1582, Calendar.OCTOBER, 4, 0, 0, 0, 0);
+        assertEquals(PackedDateTime.pack(1582, Calendar.OCTOBER, 15, 0, 0, 0, 0), PackedDateTime.addDays(julian, 1));
+    }
+
+
+    @Test(expected = IllegalArgumentException.class)
+    public void test4()
+    {
+        PackedDateTime.pack(2013, Calendar.FEBRUARY, 29, 0, 0, 0, 0);
+    }
+}
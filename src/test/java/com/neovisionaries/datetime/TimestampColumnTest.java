@@ -0,0 +1,115 @@
+/*
+ * Copyright (C) 2012-2013 Neo Visionaries Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.neovisionaries.datetime;
+
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.util.Random;
+import java.util.TimeZone;
+import org.junit.Test;
+
+
+public class TimestampColumnTest
+{
+    @Test
+    public void test1()
+    {
+        // Compare with GCalendar.
+        String[] zones = { "UTC", "America/New_York", "Asia/Kolkata" };
+        Random random = new Random(1974);
+
+        for (String zone : zones)
+        {
+            TimeZone tz = TimeZone.getTimeZone(zone);
+            TimestampColumn column = TimestampColumn.allocate(5000, tz);
+
+            for (int i = 0; i < column.capacity(); ++i)
+            {
+                column.append((long)(random.nextDouble() * 315000000000000L) - 62100000000000L);
+            }
+
+            GCalendar cal = new GCalendar(tz);
+
+            for (int i = 0; i < column.size(); ++i)
+            {
+                cal.setTimeInMillis(column.getTimeInMillis(i));
+
+                assertEquals(cal.getEra(), column.getEra(i));
+                assertEquals(cal.getYear(), column.getYear(i));
+                assertEquals(cal.getMonth(), column.getMonth(i));
+                assertEquals(cal.getDayOfMonth(), column.getDayOfMonth(i));
+                assertEquals(cal.getDayOfWeek(), column.getDayOfWeek(i));
+                assertEquals(cal.getDayOfYear(), column.getDayOfYear(i));
+                assertEquals(cal.getHourOfDay(), column.getHourOfDay(i));
+                assertEquals(cal.getHour(), column.getHour(i));
+                assertEquals(cal.getAMPM(), column.getAMPM(i));
+                assertEquals(cal.getMinute(), column.getMinute(i));
+                assertEquals(cal.getSecond(), column.getSecond(i));
+                assertEquals(cal.getMillisecond(), column.getMillisecond(i));
+                assertEquals(cal.getZoneOffset() + cal.getDstOffset(), column.getOffset(i));
+                assertEquals(cal.toPackedDateTime(), column.getPackedDateTime(i));
+            }
+        }
+    }
+
+
+    @Test
+    public void test2()
+    {
+        TimestampColumn column = TimestampColumn.allocate(2, TimeZone.getTimeZone("JST"));
+        column.append(new long[] { 0L, 1L }, 0, 2);
+
+        try
+        {
+            column.append(2L);
+            fail();
+        }
+        catch (BufferOverflowException e)
+        {
+            assertEquals(2, column.size());
+        }
+
+        try
+        {
+            column.getYear(2);
+            fail();
+        }
+        catch (IndexOutOfBoundsException e)
+        {
+        }
+    }
+
+
+    @Test
+    public void test3()
+    {
+        // Wrap existing data.
+        ByteBuffer buffer = ByteBuffer.allocate(TimestampColumn.ROW_SIZE * 4);
+        buffer.putLong(137043296000L);
+
+        TimestampColumn column = TimestampColumn.wrap(buffer, 1, TimeZone.getTimeZone("JST"));
+        column.append(137043296000L + 86400000L);
+
+        assertEquals(2, column.size());
+        assertEquals(4, column.capacity());
+        assertEquals(6, column.getDayOfMonth(0));
+        assertEquals(7, column.getDayOfMonth(1));
+        assertEquals(137043296000L + 86400000L, buffer.getLong(TimestampColumn.ROW_SIZE));
+    }
+}
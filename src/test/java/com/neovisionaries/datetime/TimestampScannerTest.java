@@ -0,0 +1,137 @@
+/*
+ * Copyright (C) 2012-2013 Neo Visionaries Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.neovisionaries.datetime;
+
+
+import static org.junit.Assert.assertEquals;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.TimeZone;
+import org.junit.Test;
+
+
+public class TimestampScannerTest
+{
+    private static class Collector implements TimestampScanner.Handler
+    {
+        final List<long[]> results = new ArrayList<long[]>();
+
+
+        @Override
+        public void handle(long millis, long lineOffset)
+        {
+            results.add(new long[] { millis, lineOffset });
+        }
+    }
+
+
+    private static byte[] ascii(String text)
+    {
+        return text.getBytes(Charset.forName("US-ASCII"));
+    }
+
+
+    @Test
+    public void test1()
+    {
+        String text =
+            "2013-01-02T03:04:05Z first\r\n" +
+            "no timestamp\n" +
+            "\n" +
+            "2013-01-02T03:04:06.5+09:00 second\n" +
+            "2013-01-02 last";
+        ByteBuffer buffer = ByteBuffer.wrap(ascii("xx" + text));
+        buffer.position(2);
+
+        Collector collector = new Collector();
+        long count = TimestampScanner.iso8601(TimeZone.getTimeZone("UTC")).scan(buffer, collector);
+
+        assertEquals(3, count);
+        assertEquals(buffer.limit(), buffer.position());
+        assertEquals(1357095845000L, collector.results.get(0)[0]);
+        assertEquals(0L, collector.results.get(0)[1]);
+        assertEquals(1357063446500L, collector.results.get(1)[0]);
+        assertEquals(text.indexOf("2013-01-02T03:04:06"), collector.results.get(1)[1]);
+        assertEquals(1357084800000L, collector.results.get(2)[0]);
+        assertEquals(text.lastIndexOf('\n') + 1, collector.results.get(2)[1]);
+    }
+
+
+    @Test
+    public void test2() throws IOException
+    {
+        // Enough lines to need many reads, and one line longer than the buffer.
+        StringBuilder sb = new StringBuilder();
+        List<Long> offsets = new ArrayList<Long>();
+        TimeZone tz = TimeZone.getTimeZone("America/New_York");
+        long millis = 1357095845000L;
+
+        for (int i = 0; i < 20000; ++i)
+        {
+            offsets.add((long)sb.length());
+            sb.append(ISO8601.format(millis + i * 60000L, tz, ISO8601.MILLISECONDS)).append(" line ").append(i);
+
+            if (i == 10000)
+            {
+                char[] padding = new char[200000];
+                Arrays.fill(padding, 'x');
+                sb.append(padding);
+            }
+
+            sb.append('\n');
+        }
+
+        Collector collector = new Collector();
+        TimestampScanner.iso8601(tz).scan(Channels.newChannel(new ByteArrayInputStream(ascii(sb.toString()))), collector);
+
+        assertEquals(20000, collector.results.size());
+
+        for (int i = 0; i < 20000; ++i)
+        {
+            assertEquals(millis + i * 60000L, collector.results.get(i)[0]);
+            assertEquals(offsets.get(i).longValue(), collector.results.get(i)[1]);
+        }
+    }
+
+
+    @Test
+    public void test3()
+    {
+        String text =
+            "a\t06/May/1974 12:34:56\tb\n" +
+            "a\t06/May/1974 12:34:56x\tb\n" +
+            "a\n" +
+            "a\t07/May/1974 00:00:00\n";
+        GFormat format = GFormat.compile("dd/MMM/yyyy HH:mm:ss", Locale.US);
+        TimeZone tz = TimeZone.getTimeZone("JST");
+
+        Collector collector = new Collector();
+        TimestampScanner.of(format, tz).withColumn(1, '\t').scan(ByteBuffer.wrap(ascii(text)), collector);
+
+        assertEquals(2, collector.results.size());
+        assertEquals(137043296000L, collector.results.get(0)[0]);
+        assertEquals(0L, collector.results.get(0)[1]);
+        assertEquals(137084400000L, collector.results.get(1)[0]);
+        assertEquals(text.lastIndexOf("a\t"), collector.results.get(1)[1]);
+    }
+}
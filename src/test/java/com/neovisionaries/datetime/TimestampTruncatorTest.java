@@ -0,0 +1,277 @@
+/*
+ * Copyright (C) 2012-2013 Neo Visionaries Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.neovisionaries.datetime;
+
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.GregorianCalendar;
+import java.util.Locale;
+import java.util.Random;
+import java.util.TimeZone;
+import org.junit.Test;
+
+
+public class TimestampTruncatorTest
+{
+    private static final String[] ZONES = {
+        "UTC", "America/New_York", "Europe/London", "Asia/Kolkata", "Australia/Lord_Howe", "America/Sao_Paulo"
+    };
+
+
+    private long[] randomMillis(int count)
+    {
+        Random random = new Random(1974);
+        long[] millis = new long[count];
+
+        for (int i = 0; i < count; ++i)
+        {
+            millis[i] = (long)(random.nextDouble() * 4000000000000L) - 1000000000000L;
+        }
+
+        return millis;
+    }
+
+
+    private long expected(long millis, TimeZone tz, int field, int firstDayOfWeek)
+    {
+        GregorianCalendar cal = new GregorianCalendar(tz);
+        cal.setFirstDayOfWeek(firstDayOfWeek);
+        cal.setTimeInMillis(millis);
+
+        int year  = cal.get(Calendar.YEAR);
+        int month = cal.get(Calendar.MONTH);
+        int day   = cal.get(Calendar.DAY_OF_MONTH);
+
+        switch (field)
+        {
+            case Calendar.YEAR:
+                month = Calendar.JANUARY;
+                // FALLTHROUGH
+
+            case Calendar.MONTH:
+                day = 1;
+                break;
+
+            case Calendar.WEEK_OF_YEAR:
+                day -= (cal.get(Calendar.DAY_OF_WEEK) - firstDayOfWeek + 7) % 7;
+                break;
+
+            default:
+                break;
+        }
+
+        cal.clear();
+        cal.set(Calendar.ERA, GregorianCalendar.AD);
+        cal.set(year, month, day);
+
+        return cal.getTimeInMillis();
+    }
+
+
+    @Test
+    public void test1()
+    {
+        // Date fields agree with GregorianCalendar.
+        long[] millis = randomMillis(3000);
+        int[] fields = { Calendar.YEAR, Calendar.MONTH, Calendar.WEEK_OF_YEAR, Calendar.DAY_OF_MONTH };
+
+        for (String id : ZONES)
+        {
+            TimeZone tz = TimeZone.getTimeZone(id);
+
+            for (int field : fields)
+            {
+                TimestampTruncator truncator = TimestampTruncator.of(tz, field).withFirstDayOfWeek(Calendar.MONDAY);
+
+                for (long m : millis)
+                {
+                    assertEquals(id + " " + field + " " + m, expected(m, tz, field, Calendar.MONDAY), truncator.truncate(m));
+                }
+            }
+        }
+    }
+
+
+    @Test
+    public void test2()
+    {
+        // Time fields keep the offset and clear the smaller fields.
+        long[] millis = randomMillis(3000);
+        int[] fields = { Calendar.HOUR_OF_DAY, Calendar.MINUTE, Calendar.SECOND };
+        long[] units = { 3600000L, 60000L, 1000L };
+
+        for (String id : ZONES)
+        {
+            TimeZone tz = TimeZone.getTimeZone(id);
+
+            for (int i = 0; i < fields.length; ++i)
+            {
+                TimestampTruncator truncator = TimestampTruncator.of(tz, fields[i]);
+
+                for (long m : millis)
+                {
+                    long t = truncator.truncate(m);
+                    assertTrue(t <= m && m - t < units[i]);
+                    assertEquals(0, CalendarMath.floorMod(t + tz.getOffset(m), (int)units[i]));
+                }
+            }
+        }
+    }
+
+
+    @Test
+    public void test3()
+    {
+        // The bulk kernel, in parallel, agrees with the single version.
+        long[] millis = randomMillis(TimestampTruncator.PARALLEL_THRESHOLD * 2 + 5);
+        Arrays.sort(millis);
+
+        TimeZone tz = TimeZone.getTimeZone("Europe/Paris");
+        int[] fields = { Calendar.YEAR, Calendar.WEEK_OF_YEAR, Calendar.AM_PM, Calendar.MINUTE };
+
+        for (int field : fields)
+        {
+            TimestampTruncator truncator = TimestampTruncator.of(tz, field);
+            long[] out = new long[millis.length + 1];
+            truncator.truncate(millis, 0, millis.length, out, 1);
+
+            for (int i = 0; i < millis.length; ++i)
+            {
+                assertEquals(truncator.truncate(millis[i]), out[i + 1]);
+            }
+
+            // In place.
+            long[] copy = millis.clone();
+            truncator.truncate(copy, 0, copy.length, copy, 0);
+            assertEquals(Arrays.toString(Arrays.copyOfRange(out, 1, out.length)), Arrays.toString(copy));
+        }
+    }
+
+
+    @Test
+    public void test4()
+    {
+        TimeZone tz = TimeZone.getTimeZone("Asia/Tokyo");
+        GCalendar cal = new GCalendar(tz);
+        cal.set(2013, Calendar.MAY, 16, 15, 4, 5, 6);
+        cal.setFirstDayOfWeek(Calendar.MONDAY);
+
+        GCalendar copy = (GCalendar)cal.clone();
+        assertEquals(13, copy.truncateTo(Calendar.WEEK_OF_YEAR).getDayOfMonth());
+        assertEquals(0, copy.getHourOfDay());
+
+        copy = (GCalendar)cal.clone();
+        assertEquals(12, copy.truncateTo(Calendar.AM_PM).getHourOfDay());
+        assertEquals(0, copy.getMinute());
+
+        copy = (GCalendar)cal.clone();
+        copy.setLenient(false);
+        assertEquals(13, copy.truncateTo(Calendar.WEEK_OF_YEAR).getDayOfMonth());
+        assertEquals(0, copy.getMillisecond());
+
+        copy = (GCalendar)cal.clone();
+        assertEquals(Calendar.JANUARY, copy.truncateTo(Calendar.YEAR).getMonth());
+        assertEquals(1, copy.getDayOfMonth());
+
+        // The slow path clears the same fields as the fast path.
+        int[] fields = { Calendar.YEAR, Calendar.MONTH, Calendar.DAY_OF_MONTH, Calendar.AM_PM,
+                         Calendar.HOUR_OF_DAY, Calendar.MINUTE, Calendar.SECOND, Calendar.MILLISECOND };
+
+        for (int field : fields)
+        {
+            GCalendar strict = (GCalendar)cal.clone();
+            strict.setLenient(false);
+
+            assertEquals(((GCalendar)cal.clone()).truncateTo(field).getTimeInMillis(),
+                         strict.truncateTo(field).getTimeInMillis());
+        }
+
+        for (boolean lenient : new boolean[] { true, false })
+        {
+            copy = (GCalendar)cal.clone();
+            copy.setLenient(lenient);
+
+            try
+            {
+                copy.truncateTo(Calendar.ERA);
+                fail();
+            }
+            catch (IllegalArgumentException e)
+            {
+                // Not supported.
+            }
+        }
+    }
+
+
+    @Test
+    public void test5()
+    {
+        // The first day of week comes from the locale, as in GCalendar.
+        TimeZone tz = TimeZone.getTimeZone("Europe/Paris");
+        GCalendar cal = new GCalendar(tz, Locale.FRANCE, 2013, Calendar.MAY, 16, 15, 4, 5, 6);
+        long millis = cal.getTimeInMillis();
+
+        // Monday, May 13 in France.
+        long monday = cal.truncateTo(Calendar.WEEK_OF_YEAR).getTimeInMillis();
+        assertEquals(13, cal.getDayOfMonth());
+        assertEquals(monday, TimestampTruncator.of(tz, Calendar.WEEK_OF_YEAR, Locale.FRANCE).truncate(millis));
+
+        // Sunday, May 12 in the US.
+        long sunday = monday - CalendarMath.MILLIS_PER_DAY;
+        assertEquals(sunday, TimestampTruncator.of(tz, Calendar.WEEK_OF_YEAR, Locale.US).truncate(millis));
+    }
+
+
+    @Test
+    public void test6()
+    {
+        // In place with shifted, overlapping ranges, sequentially and in parallel.
+        TimeZone tz = TimeZone.getTimeZone("UTC");
+        TimestampTruncator truncator = TimestampTruncator.of(tz, Calendar.HOUR_OF_DAY);
+        int[] sizes = { 10, TimestampTruncator.PARALLEL_THRESHOLD * 2 + 5 };
+        int[] shifts = { 1, -1, 3, -3 };
+
+        for (int size : sizes)
+        {
+            for (int shift : shifts)
+            {
+                long[] millis = new long[size + 3];
+
+                for (int i = 0; i < millis.length; ++i)
+                {
+                    millis[i] = i * 1800000L + 1;
+                }
+
+                int from = (shift < 0) ? 3 : 0;
+                long[] expected = millis.clone();
+
+                for (int i = from; i < from + size; ++i)
+                {
+                    expected[i + shift] = truncator.truncate(millis[i]);
+                }
+
+                truncator.truncate(millis, from, from + size, millis, from + shift);
+
+                assertEquals(size + " " + shift, Arrays.toString(expected), Arrays.toString(millis));
+            }
+        }
+    }
+}
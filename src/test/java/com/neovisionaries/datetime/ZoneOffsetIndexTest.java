@@ -0,0 +1,174 @@
+/*
+ * Copyright (C) 2012-2013 Neo Visionaries Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.neovisionaries.datetime;
+
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import java.time.Instant;
+import java.time.zone.ZoneOffsetTransition;
+import java.time.zone.ZoneRules;
+import java.util.Calendar;
+import java.util.GregorianCalendar;
+import java.util.Random;
+import java.util.SimpleTimeZone;
+import java.util.TimeZone;
+import org.junit.Test;
+
+
+public class ZoneOffsetIndexTest
+{
+    private static final String[] ZONES = {
+        "UTC", "JST", "America/New_York", "Europe/London", "Europe/Dublin",
+        "Europe/Istanbul", "Europe/Moscow", "Australia/Lord_Howe", "Asia/Kolkata",
+        "America/St_Johns", "Pacific/Apia", "Africa/Casablanca",
+    };
+
+
+    private static long toUTC(long local, TimeZone tz)
+    {
+        long packed = PackedDateTime.fromLocalMillis(local);
+        GregorianCalendar cal = new GregorianCalendar(tz);
+
+        cal.clear();
+        cal.set(PackedDateTime.getYear(packed), PackedDateTime.getMonth(packed), PackedDateTime.getDayOfMonth(packed),
+                PackedDateTime.getHourOfDay(packed), PackedDateTime.getMinute(packed), PackedDateTime.getSecond(packed));
+        cal.set(Calendar.MILLISECOND, PackedDateTime.getMillisecond(packed));
+
+        return cal.getTimeInMillis();
+    }
+
+
+    @Test
+    public void test1()
+    {
+        // Compare with TimeZone and GregorianCalendar.
+        Random random = new Random(1974);
+
+        for (String zone : ZONES)
+        {
+            TimeZone tz = TimeZone.getTimeZone(zone);
+            ZoneOffsetIndex index = ZoneOffsetIndex.of(tz);
+            GregorianCalendar cal = new GregorianCalendar(tz);
+
+            for (int i = 0; i < 20000; ++i)
+            {
+                // 1750 to 2150.
+                long millis = (long)(random.nextDouble() * 12600000000000L) - 6950000000000L;
+                cal.setTimeInMillis(millis);
+
+                assertEquals(zone, tz.getOffset(millis), index.getOffset(millis));
+                assertEquals(zone, cal.get(Calendar.ZONE_OFFSET), index.getZoneOffset(millis));
+                assertEquals(zone, cal.get(Calendar.DST_OFFSET), index.getDstOffset(millis));
+                assertEquals(zone, toUTC(millis, tz), index.toUTC(millis));
+            }
+        }
+    }
+
+
+    @Test
+    public void test2()
+    {
+        // Every transition instant.
+        TimeZone tz = TimeZone.getTimeZone("America/New_York");
+        ZoneOffsetIndex index = ZoneOffsetIndex.of(tz);
+        long millis = 1362898800000L; // 2013-03-10T07:00:00Z
+
+        assertEquals(-5 * 3600000, index.getOffset(millis - 1));
+        assertEquals(-4 * 3600000, index.getOffset(millis));
+        assertEquals(0, index.getDstOffset(millis - 1));
+        assertEquals(3600000, index.getDstOffset(millis));
+
+        // Local 02:30 is in the gap; GregorianCalendar moves it forward.
+        GregorianCalendar cal = new GregorianCalendar(tz);
+        cal.clear();
+        cal.set(2013, Calendar.MARCH, 10, 2, 30);
+        long local = CalendarMath.toEpochDay(2013, Calendar.MARCH, 10) * CalendarMath.MILLIS_PER_DAY + 9000000L;
+
+        assertEquals(cal.getTimeInMillis(), index.toUTC(local));
+
+        // Local 01:30 on November 3 is in the overlap; standard time wins.
+        local = CalendarMath.toEpochDay(2013, Calendar.NOVEMBER, 3) * CalendarMath.MILLIS_PER_DAY + 5400000L;
+        assertEquals(toUTC(local, tz), index.toUTC(local));
+        assertEquals(local + 5 * 3600000, index.toUTC(local));
+
+        // Beyond the indexed range.
+        local = CalendarMath.toEpochDay(2200, Calendar.MARCH, 9) * CalendarMath.MILLIS_PER_DAY + 9000000L;
+        assertEquals(toUTC(local, tz), index.toUTC(local));
+
+        // A zone which is not of the JDK.
+        TimeZone simple = new SimpleTimeZone(-5 * 3600000, "US/Custom",
+                Calendar.MARCH, 8, -Calendar.SUNDAY, 7200000, Calendar.NOVEMBER, 1, -Calendar.SUNDAY, 7200000);
+        local = CalendarMath.toEpochDay(2013, Calendar.MARCH, 10) * CalendarMath.MILLIS_PER_DAY + 9000000L;
+        assertEquals(toUTC(local, simple), ZoneOffsetIndex.of(simple).toUTC(local));
+    }
+
+
+    @Test
+    public void test3()
+    {
+        // Sharing.
+        TimeZone tz = TimeZone.getTimeZone("Asia/Tokyo");
+        assertSame(ZoneOffsetIndex.of(tz), ZoneOffsetIndex.of(TimeZone.getTimeZone("Asia/Tokyo")));
+
+        // A custom zone with an ID in the cache.
+        TimeZone custom = new SimpleTimeZone(3600000, "Asia/Tokyo");
+        ZoneOffsetIndex index = ZoneOffsetIndex.of(custom);
+
+        assertNotSame(ZoneOffsetIndex.of(tz), index);
+        assertEquals(3600000, index.getOffset(0));
+
+        // The custom zone is cached, too, next to the one of the JDK.
+        assertSame(index, ZoneOffsetIndex.of(new SimpleTimeZone(3600000, "Asia/Tokyo")));
+        assertSame(ZoneOffsetIndex.of(tz), ZoneOffsetIndex.of(TimeZone.getTimeZone("Asia/Tokyo")));
+    }
+
+
+    @Test
+    public void test4()
+    {
+        // Every time zone of the JDK, around each transition and in between.
+        long from = -5364662400000L; // 1800-01-01
+        long to   = 2145916800000L;  // 2038-01-01
+        Random random = new Random(1974);
+
+        for (String id : TimeZone.getAvailableIDs())
+        {
+            TimeZone tz = TimeZone.getTimeZone(id);
+            ZoneOffsetIndex index = ZoneOffsetIndex.of(tz);
+            ZoneRules rules = tz.toZoneId().getRules();
+
+            for (ZoneOffsetTransition t = rules.nextTransition(Instant.ofEpochMilli(from));
+                 t != null && t.toEpochSecond() * 1000 < to; t = rules.nextTransition(t.getInstant()))
+            {
+                long millis = t.toEpochSecond() * 1000;
+
+                for (long m = millis - 1; m <= millis + 1; ++m)
+                {
+                    assertEquals(id + " " + m, tz.getOffset(m), index.getOffset(m));
+                }
+            }
+
+            for (int i = 0; i < 100; ++i)
+            {
+                long m = from + (long)(random.nextDouble() * (to - from));
+
+                assertEquals(id + " " + m, tz.getOffset(m), index.getOffset(m));
+            }
+        }
+    }
+}